@@ -20,6 +20,7 @@ package io.github.amrjlg.stream;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author amrjlg
@@ -38,6 +39,11 @@ public interface BaseStream<T, S extends BaseStream<T, S>>
 
     S parallel();
 
+    /**
+     * evaluate in parallel, forking all tasks into the given pool instead of the common pool
+     */
+    S parallel(ForkJoinPool pool);
+
     S unordered();
 
     S onClose(Runnable closeHandler);
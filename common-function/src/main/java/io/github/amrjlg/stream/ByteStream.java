@@ -21,6 +21,7 @@ import io.github.amrjlg.function.ByteBinaryOperator;
 import io.github.amrjlg.function.ByteConsumer;
 import io.github.amrjlg.function.ByteFunction;
 import io.github.amrjlg.function.BytePredicate;
+import io.github.amrjlg.function.ByteSupplier;
 import io.github.amrjlg.function.ByteToCharFunction;
 import io.github.amrjlg.function.ByteToDoubleFunction;
 import io.github.amrjlg.function.ByteToFloatFunction;
@@ -29,12 +30,19 @@ import io.github.amrjlg.function.ByteToLongFunction;
 import io.github.amrjlg.function.ByteToShortFunction;
 import io.github.amrjlg.function.ByteUnaryOperator;
 import io.github.amrjlg.function.ObjByteConsumer;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
+import io.github.amrjlg.stream.spliterator.RandomSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.util.ByteSummaryStatistics;
 import io.github.amrjlg.util.OptionalByte;
 
+import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -60,18 +68,69 @@ public interface ByteStream extends BaseStream<Byte, ByteStream> {
 
     ByteStream flatMap(ByteFunction<? extends ByteStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    ByteStream mapMulti(ByteMapMultiConsumer mapper);
+
     ByteStream filter(BytePredicate predicate);
 
     ByteStream distinct();
 
     ByteStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    ByteStream topK(int k);
+
     ByteStream peek(ByteConsumer action);
 
     ByteStream limit(long maxSize);
 
     ByteStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    ByteStream takeWhile(BytePredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    ByteStream dropWhile(BytePredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<byte[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<byte[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    LongStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    ByteStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    ByteStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    ByteStream scan(byte identity, ByteBinaryOperator op);
+
     void forEach(ByteConsumer action);
 
     void forEachOrdered(ByteConsumer action);
@@ -92,6 +151,12 @@ public interface ByteStream extends BaseStream<Byte, ByteStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     ByteSummaryStatistics summaryStatistics();
@@ -112,10 +177,17 @@ public interface ByteStream extends BaseStream<Byte, ByteStream> {
 
     ByteStream parallel();
 
+    ByteStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfByte iterator();
 
     Spliterator.OfByte spliterator();
 
+    /**
+     * widened to a jdk {@code IntStream} without boxing
+     */
+    java.util.stream.IntStream toJdk();
+
     boolean isParallel();
 
     ByteStream unordered();
@@ -123,4 +195,78 @@ public interface ByteStream extends BaseStream<Byte, ByteStream> {
     ByteStream onClose(Runnable closeHandler);
 
     void close();
+
+    static ByteStream range(byte start, byte end) {
+        return IntStream.range(start, end).mapToByte(value -> (byte) value);
+    }
+
+    static ByteStream rangeClosed(byte start, byte end) {
+        return IntStream.rangeClosed(start, end).mapToByte(value -> (byte) value);
+    }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static ByteStream iterate(byte seed, ByteUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfByte iterator = new PrimitiveIterator.OfByte() {
+            byte current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public byte nextByte() {
+                if (started) {
+                    current = next.applyAsByte(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.byteStream(new Spliterators.ByteIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static ByteStream generate(ByteSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.byteStream(new InfiniteSupplyingSpliterator.OfByte(Long.MAX_VALUE, supplier), false);
+    }
+
+    /**
+     * {@code size} random values in {@code [origin, bound)}, the leaves of a parallel pipeline draw from independent generators
+     */
+    static ByteStream random(long size, byte origin, byte bound) {
+        return Pipelines.byteStream(new RandomSpliterator.OfByte(new SplittableRandom(), size, origin, bound), false);
+    }
+
+    /**
+     * like {@link #random(long, byte, byte)}, the same seed gives the same values for the same splits
+     */
+    static ByteStream random(long size, byte origin, byte bound, long seed) {
+        return Pipelines.byteStream(new RandomSpliterator.OfByte(new SplittableRandom(seed), size, origin, bound), false);
+    }
+
+    static ByteStream concat(ByteStream a, ByteStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static ByteStream mergeSorted(ByteStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface ByteMapMultiConsumer {
+        void accept(byte value, ByteConsumer consumer);
+    }
 }
@@ -21,6 +21,7 @@ import io.github.amrjlg.function.CharBinaryOperator;
 import io.github.amrjlg.function.CharConsumer;
 import io.github.amrjlg.function.CharFunction;
 import io.github.amrjlg.function.CharPredicate;
+import io.github.amrjlg.function.CharSupplier;
 import io.github.amrjlg.function.CharToByteFunction;
 import io.github.amrjlg.function.CharToDoubleFunction;
 import io.github.amrjlg.function.CharToFloatFunction;
@@ -28,12 +29,17 @@ import io.github.amrjlg.function.CharToIntFunction;
 import io.github.amrjlg.function.CharToLongFunction;
 import io.github.amrjlg.function.CharUnaryOperator;
 import io.github.amrjlg.function.ObjCharConsumer;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.util.CharSummaryStatistics;
 import io.github.amrjlg.util.OptionalChar;
 
+import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -58,18 +64,69 @@ public interface CharStream extends BaseStream<Character, CharStream> {
 
     CharStream flatMap(CharFunction<? extends CharStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    CharStream mapMulti(CharMapMultiConsumer mapper);
+
     CharStream filter(CharPredicate predicate);
 
     CharStream distinct();
 
     CharStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    CharStream topK(int k);
+
     CharStream peek(CharConsumer action);
 
     CharStream limit(long maxSize);
 
     CharStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    CharStream takeWhile(CharPredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    CharStream dropWhile(CharPredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<char[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<char[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    LongStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    CharStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    CharStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    CharStream scan(char identity, CharBinaryOperator op);
+
     void forEach(CharConsumer action);
 
     void forEachOrdered(CharConsumer action);
@@ -90,6 +147,12 @@ public interface CharStream extends BaseStream<Character, CharStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     CharSummaryStatistics summaryStatistics();
@@ -110,10 +173,17 @@ public interface CharStream extends BaseStream<Character, CharStream> {
 
     CharStream parallel();
 
+    CharStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfChar iterator();
 
     Spliterator.OfChar spliterator();
 
+    /**
+     * widened to a jdk {@code IntStream} without boxing
+     */
+    java.util.stream.IntStream toJdk();
+
     boolean isParallel();
 
     CharStream unordered();
@@ -121,4 +191,64 @@ public interface CharStream extends BaseStream<Character, CharStream> {
     CharStream onClose(Runnable closeHandler);
 
     void close();
+
+    static CharStream range(char start, char end) {
+        return IntStream.range(start, end).mapToChar(value -> (char) value);
+    }
+
+    static CharStream rangeClosed(char start, char end) {
+        return IntStream.rangeClosed(start, end).mapToChar(value -> (char) value);
+    }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static CharStream iterate(char seed, CharUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfChar iterator = new PrimitiveIterator.OfChar() {
+            char current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public char nextChar() {
+                if (started) {
+                    current = next.applyAsChar(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.charStream(new Spliterators.CharIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static CharStream generate(CharSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.charStream(new InfiniteSupplyingSpliterator.OfChar(Long.MAX_VALUE, supplier), false);
+    }
+
+    static CharStream concat(CharStream a, CharStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static CharStream mergeSorted(CharStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface CharMapMultiConsumer {
+        void accept(char value, CharConsumer consumer);
+    }
 }
@@ -21,16 +21,24 @@ import io.github.amrjlg.function.DoubleToByteFunction;
 import io.github.amrjlg.function.DoubleToCharFunction;
 import io.github.amrjlg.function.DoubleToFloatFunction;
 import io.github.amrjlg.function.DoubleToShortFunction;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
+import io.github.amrjlg.stream.spliterator.RandomSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 
 import java.util.DoubleSummaryStatistics;
+import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleFunction;
 import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
 import java.util.function.DoubleToIntFunction;
 import java.util.function.DoubleToLongFunction;
 import java.util.function.DoubleUnaryOperator;
@@ -60,18 +68,69 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
 
     DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    DoubleStream mapMulti(DoubleMapMultiConsumer mapper);
+
     DoubleStream filter(DoublePredicate predicate);
 
     DoubleStream distinct();
 
     DoubleStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    DoubleStream topK(int k);
+
     DoubleStream peek(DoubleConsumer action);
 
     DoubleStream limit(long maxSize);
 
     DoubleStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    DoubleStream takeWhile(DoublePredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    DoubleStream dropWhile(DoublePredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<double[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<double[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    DoubleStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    DoubleStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    DoubleStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    DoubleStream scan(double identity, DoubleBinaryOperator op);
+
     void forEach(DoubleConsumer action);
 
     void forEachOrdered(DoubleConsumer action);
@@ -92,10 +151,28 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     DoubleSummaryStatistics summaryStatistics();
 
+    /**
+     * approximate values at the given ranks in {@code [0, 1]}, summarized in bounded memory by a mergeable sketch.
+     * rank 0 and 1 are the exact minimum and maximum, an empty stream gives NaN for every rank
+     */
+    double[] quantiles(double... ranks);
+
+    /**
+     * counts per bucket, bucket {@code i} holds the values in {@code [boundaries[i - 1], boundaries[i])},
+     * the first and the last bucket are open below and above
+     */
+    long[] histogram(double... boundaries);
+
     boolean anyMatch(DoublePredicate predicate);
 
     boolean allMatch(DoublePredicate predicate);
@@ -112,10 +189,17 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
 
     DoubleStream parallel();
 
+    DoubleStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfDouble iterator();
 
     Spliterator.OfDouble spliterator();
 
+    /**
+     * a jdk stream over the spliterator of this stream, parallelism and close handlers are kept
+     */
+    java.util.stream.DoubleStream toJdk();
+
     boolean isParallel();
 
     DoubleStream unordered();
@@ -123,4 +207,70 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
     DoubleStream onClose(Runnable closeHandler);
 
     void close();
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static DoubleStream iterate(double seed, DoubleUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfDouble iterator = new PrimitiveIterator.OfDouble() {
+            double current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (started) {
+                    current = next.applyAsDouble(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.doubleStream(new Spliterators.DoubleIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static DoubleStream generate(DoubleSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.doubleStream(new InfiniteSupplyingSpliterator.OfDouble(Long.MAX_VALUE, supplier), false);
+    }
+
+    /**
+     * {@code size} random values in {@code [origin, bound)}, the leaves of a parallel pipeline draw from independent generators
+     */
+    static DoubleStream random(long size, double origin, double bound) {
+        return Pipelines.doubleStream(new RandomSpliterator.OfDouble(new SplittableRandom(), size, origin, bound), false);
+    }
+
+    /**
+     * like {@link #random(long, double, double)}, the same seed gives the same values for the same splits
+     */
+    static DoubleStream random(long size, double origin, double bound, long seed) {
+        return Pipelines.doubleStream(new RandomSpliterator.OfDouble(new SplittableRandom(seed), size, origin, bound), false);
+    }
+
+    static DoubleStream concat(DoubleStream a, DoubleStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static DoubleStream mergeSorted(DoubleStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface DoubleMapMultiConsumer {
+        void accept(double value, DoubleConsumer consumer);
+    }
 }
@@ -17,6 +17,7 @@
 
 package io.github.amrjlg.stream;
 
+import io.github.amrjlg.function.FloatSupplier;
 import io.github.amrjlg.function.FloatToDoubleFunction;
 import io.github.amrjlg.function.ObjFloatConsumer;
 import io.github.amrjlg.function.FloatBinaryOperator;
@@ -28,12 +29,19 @@ import io.github.amrjlg.function.FloatToCharFunction;
 import io.github.amrjlg.function.FloatToIntFunction;
 import io.github.amrjlg.function.FloatToLongFunction;
 import io.github.amrjlg.function.FloatUnaryOperator;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
+import io.github.amrjlg.stream.spliterator.RandomSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.util.OptionalFloat;
 import io.github.amrjlg.util.FloatSummaryStatistics;
 
+import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -58,18 +66,69 @@ public interface FloatStream extends BaseStream<Float,FloatStream> {
 
     FloatStream flatMap(FloatFunction<? extends FloatStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    FloatStream mapMulti(FloatMapMultiConsumer mapper);
+
     FloatStream filter(FloatPredicate predicate);
 
     FloatStream distinct();
 
     FloatStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    FloatStream topK(int k);
+
     FloatStream peek(FloatConsumer action);
 
     FloatStream limit(long maxSize);
 
     FloatStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    FloatStream takeWhile(FloatPredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    FloatStream dropWhile(FloatPredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<float[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<float[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    DoubleStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    FloatStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    FloatStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    FloatStream scan(float identity, FloatBinaryOperator op);
+
     void forEach(FloatConsumer action);
 
     void forEachOrdered(FloatConsumer action);
@@ -90,10 +149,28 @@ public interface FloatStream extends BaseStream<Float,FloatStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     FloatSummaryStatistics summaryStatistics();
 
+    /**
+     * approximate values at the given ranks in {@code [0, 1]}, summarized in bounded memory by a mergeable sketch.
+     * rank 0 and 1 are the exact minimum and maximum, an empty stream gives NaN for every rank
+     */
+    double[] quantiles(double... ranks);
+
+    /**
+     * counts per bucket, bucket {@code i} holds the values in {@code [boundaries[i - 1], boundaries[i])},
+     * the first and the last bucket are open below and above
+     */
+    long[] histogram(float... boundaries);
+
     boolean anyMatch(FloatPredicate predicate);
 
     boolean allMatch(FloatPredicate predicate);
@@ -110,10 +187,17 @@ public interface FloatStream extends BaseStream<Float,FloatStream> {
 
     FloatStream parallel();
 
+    FloatStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfFloat iterator();
 
     Spliterator.OfFloat spliterator();
 
+    /**
+     * widened to a jdk {@code DoubleStream} without boxing
+     */
+    java.util.stream.DoubleStream toJdk();
+
     boolean isParallel();
 
     FloatStream unordered();
@@ -121,4 +205,70 @@ public interface FloatStream extends BaseStream<Float,FloatStream> {
     FloatStream onClose(Runnable closeHandler);
 
     void close();
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static FloatStream iterate(float seed, FloatUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfFloat iterator = new PrimitiveIterator.OfFloat() {
+            float current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public float nextFloat() {
+                if (started) {
+                    current = next.applyAsFloat(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.floatStream(new Spliterators.FloatIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static FloatStream generate(FloatSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.floatStream(new InfiniteSupplyingSpliterator.OfFloat(Long.MAX_VALUE, supplier), false);
+    }
+
+    /**
+     * {@code size} random values in {@code [origin, bound)}, the leaves of a parallel pipeline draw from independent generators
+     */
+    static FloatStream random(long size, float origin, float bound) {
+        return Pipelines.floatStream(new RandomSpliterator.OfFloat(new SplittableRandom(), size, origin, bound), false);
+    }
+
+    /**
+     * like {@link #random(long, float, float)}, the same seed gives the same values for the same splits
+     */
+    static FloatStream random(long size, float origin, float bound, long seed) {
+        return Pipelines.floatStream(new RandomSpliterator.OfFloat(new SplittableRandom(seed), size, origin, bound), false);
+    }
+
+    static FloatStream concat(FloatStream a, FloatStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static FloatStream mergeSorted(FloatStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface FloatMapMultiConsumer {
+        void accept(float value, FloatConsumer consumer);
+    }
 }
@@ -21,18 +21,27 @@ import io.github.amrjlg.function.IntToByteFunction;
 import io.github.amrjlg.function.IntToCharFunction;
 import io.github.amrjlg.function.IntToFloatFunction;
 import io.github.amrjlg.function.IntToShortFunction;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
+import io.github.amrjlg.stream.spliterator.RandomSpliterator;
+import io.github.amrjlg.stream.spliterator.RangeSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 
 import java.util.IntSummaryStatistics;
+import java.util.Objects;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import java.util.function.BiConsumer;
 import java.util.function.IntBinaryOperator;
 import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
 import java.util.function.IntToDoubleFunction;
 import java.util.function.IntToLongFunction;
 import java.util.function.IntUnaryOperator;
@@ -63,18 +72,69 @@ public interface IntStream extends BaseStream<Integer, IntStream> {
 
     IntStream flatMap(IntFunction<? extends IntStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    IntStream mapMulti(IntMapMultiConsumer mapper);
+
     IntStream filter(IntPredicate predicate);
 
     IntStream distinct();
 
     IntStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    IntStream topK(int k);
+
     IntStream peek(IntConsumer action);
 
     IntStream limit(long maxSize);
 
     IntStream skip(long skip);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    IntStream takeWhile(IntPredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    IntStream dropWhile(IntPredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<int[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<int[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    LongStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    IntStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    IntStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    IntStream scan(int identity, IntBinaryOperator op);
+
     void forEach(IntConsumer action);
 
     void forEachOrdered(IntConsumer action);
@@ -95,10 +155,28 @@ public interface IntStream extends BaseStream<Integer, IntStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     IntSummaryStatistics summaryStatistics();
 
+    /**
+     * approximate values at the given ranks in {@code [0, 1]}, summarized in bounded memory by a mergeable sketch.
+     * rank 0 and 1 are the exact minimum and maximum, an empty stream gives NaN for every rank
+     */
+    double[] quantiles(double... ranks);
+
+    /**
+     * counts per bucket, bucket {@code i} holds the values in {@code [boundaries[i - 1], boundaries[i])},
+     * the first and the last bucket are open below and above
+     */
+    long[] histogram(int... boundaries);
+
     boolean anyMatch(IntPredicate predicate);
 
     boolean allMatch(IntPredicate predicate);
@@ -115,10 +193,17 @@ public interface IntStream extends BaseStream<Integer, IntStream> {
 
     IntStream parallel();
 
+    IntStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfInt iterator();
 
     Spliterator.OfInt spliterator();
 
+    /**
+     * a jdk stream over the spliterator of this stream, parallelism and close handlers are kept
+     */
+    java.util.stream.IntStream toJdk();
+
     boolean isParallel();
 
     IntStream unordered();
@@ -126,4 +211,84 @@ public interface IntStream extends BaseStream<Integer, IntStream> {
     IntStream onClose(Runnable closeHandler);
 
     void close();
+
+    static IntStream range(int start, int end) {
+        if (start >= end) {
+            return Pipelines.intStream(Spliterators.emptyIntSpliterator(), false);
+        }
+        return Pipelines.intStream(new RangeSpliterator.OfInt(start, end, false), false);
+    }
+
+    static IntStream rangeClosed(int start, int end) {
+        if (start > end) {
+            return Pipelines.intStream(Spliterators.emptyIntSpliterator(), false);
+        }
+        return Pipelines.intStream(new RangeSpliterator.OfInt(start, end, true), false);
+    }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static IntStream iterate(int seed, IntUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+            int current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (started) {
+                    current = next.applyAsInt(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.intStream(new Spliterators.IntIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static IntStream generate(IntSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.intStream(new InfiniteSupplyingSpliterator.OfInt(Long.MAX_VALUE, supplier), false);
+    }
+
+    /**
+     * {@code size} random values in {@code [origin, bound)}, the leaves of a parallel pipeline draw from independent generators
+     */
+    static IntStream random(long size, int origin, int bound) {
+        return Pipelines.intStream(new RandomSpliterator.OfInt(new SplittableRandom(), size, origin, bound), false);
+    }
+
+    /**
+     * like {@link #random(long, int, int)}, the same seed gives the same values for the same splits
+     */
+    static IntStream random(long size, int origin, int bound, long seed) {
+        return Pipelines.intStream(new RandomSpliterator.OfInt(new SplittableRandom(seed), size, origin, bound), false);
+    }
+
+    static IntStream concat(IntStream a, IntStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static IntStream mergeSorted(IntStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface IntMapMultiConsumer {
+        void accept(int value, IntConsumer consumer);
+    }
 }
@@ -21,18 +21,27 @@ import io.github.amrjlg.function.LongToByteFunction;
 import io.github.amrjlg.function.LongToCharFunction;
 import io.github.amrjlg.function.LongToFloatFunction;
 import io.github.amrjlg.function.LongToShortFunction;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
+import io.github.amrjlg.stream.spliterator.RandomSpliterator;
+import io.github.amrjlg.stream.spliterator.RangeSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 
 import java.util.LongSummaryStatistics;
+import java.util.Objects;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import java.util.function.BiConsumer;
 import java.util.function.LongBinaryOperator;
 import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
 import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
 import java.util.function.LongToDoubleFunction;
 import java.util.function.LongToIntFunction;
 import java.util.function.LongUnaryOperator;
@@ -63,18 +72,69 @@ public interface LongStream extends BaseStream<Long, LongStream> {
 
     LongStream flatMap(LongFunction<? extends LongStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    LongStream mapMulti(LongMapMultiConsumer mapper);
+
     LongStream filter(LongPredicate predicate);
 
     LongStream distinct();
 
     LongStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    LongStream topK(int k);
+
     LongStream peek(LongConsumer action);
 
     LongStream limit(long maxSize);
 
     LongStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    LongStream takeWhile(LongPredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    LongStream dropWhile(LongPredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<long[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<long[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    LongStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    LongStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    LongStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    LongStream scan(long identity, LongBinaryOperator op);
+
     void forEach(LongConsumer action);
 
     void forEachOrdered(LongConsumer action);
@@ -95,10 +155,30 @@ public interface LongStream extends BaseStream<Long, LongStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     LongSummaryStatistics summaryStatistics();
 
+    /**
+     * approximate values at the given ranks in {@code [0, 1]}, summarized in bounded memory by a mergeable sketch.
+     * rank 0 and 1 are the exact minimum and maximum, an empty stream gives NaN for every rank.
+     * the sketch keeps doubles, values beyond {@code ±2^53} are rounded to the nearest double before they are ranked,
+     * so there the results, the minimum and maximum included, are only as exact as that rounding
+     */
+    double[] quantiles(double... ranks);
+
+    /**
+     * counts per bucket, bucket {@code i} holds the values in {@code [boundaries[i - 1], boundaries[i])},
+     * the first and the last bucket are open below and above
+     */
+    long[] histogram(long... boundaries);
+
     boolean anyMatch(LongPredicate predicate);
 
     boolean allMatch(LongPredicate predicate);
@@ -115,10 +195,17 @@ public interface LongStream extends BaseStream<Long, LongStream> {
 
     LongStream parallel();
 
+    LongStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfLong iterator();
 
     Spliterator.OfLong spliterator();
 
+    /**
+     * a jdk stream over the spliterator of this stream, parallelism and close handlers are kept
+     */
+    java.util.stream.LongStream toJdk();
+
     boolean isParallel();
 
     LongStream unordered();
@@ -126,4 +213,84 @@ public interface LongStream extends BaseStream<Long, LongStream> {
     LongStream onClose(Runnable closeHandler);
 
     void close();
+
+    static LongStream range(long start, long end) {
+        if (start >= end) {
+            return Pipelines.longStream(Spliterators.emptyLongSpliterator(), false);
+        }
+        return Pipelines.longStream(new RangeSpliterator.OfLong(start, end, false), false);
+    }
+
+    static LongStream rangeClosed(long start, long end) {
+        if (start > end) {
+            return Pipelines.longStream(Spliterators.emptyLongSpliterator(), false);
+        }
+        return Pipelines.longStream(new RangeSpliterator.OfLong(start, end, true), false);
+    }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static LongStream iterate(long seed, LongUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfLong iterator = new PrimitiveIterator.OfLong() {
+            long current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (started) {
+                    current = next.applyAsLong(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.longStream(new Spliterators.LongIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static LongStream generate(LongSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.longStream(new InfiniteSupplyingSpliterator.OfLong(Long.MAX_VALUE, supplier), false);
+    }
+
+    /**
+     * {@code size} random values in {@code [origin, bound)}, the leaves of a parallel pipeline draw from independent generators
+     */
+    static LongStream random(long size, long origin, long bound) {
+        return Pipelines.longStream(new RandomSpliterator.OfLong(new SplittableRandom(), size, origin, bound), false);
+    }
+
+    /**
+     * like {@link #random(long, long, long)}, the same seed gives the same values for the same splits
+     */
+    static LongStream random(long size, long origin, long bound, long seed) {
+        return Pipelines.longStream(new RandomSpliterator.OfLong(new SplittableRandom(seed), size, origin, bound), false);
+    }
+
+    static LongStream concat(LongStream a, LongStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static LongStream mergeSorted(LongStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface LongMapMultiConsumer {
+        void accept(long value, LongConsumer consumer);
+    }
 }
@@ -23,6 +23,7 @@ import io.github.amrjlg.function.ShortBinaryOperator;
 import io.github.amrjlg.function.ShortConsumer;
 import io.github.amrjlg.function.ShortFunction;
 import io.github.amrjlg.function.ShortPredicate;
+import io.github.amrjlg.function.ShortSupplier;
 import io.github.amrjlg.function.ShortToByteFunction;
 import io.github.amrjlg.function.ShortToCharFunction;
 import io.github.amrjlg.function.ShortToDoubleFunction;
@@ -30,12 +31,17 @@ import io.github.amrjlg.function.ShortToFloatFunction;
 import io.github.amrjlg.function.ShortToIntFunction;
 import io.github.amrjlg.function.ShortToLongFunction;
 import io.github.amrjlg.function.ShortUnaryOperator;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.util.OptionalShort;
 import io.github.amrjlg.util.ShortSummaryStatistics;
 
+import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -61,18 +67,69 @@ public interface ShortStream extends BaseStream<Short, ShortStream> {
 
     ShortStream flatMap(ShortFunction<? extends ShortStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    ShortStream mapMulti(ShortMapMultiConsumer mapper);
+
     ShortStream filter(ShortPredicate predicate);
 
     ShortStream distinct();
 
     ShortStream sorted();
 
+    /**
+     * the {@code k} least elements in ascending order, like sorted().limit(k) but without buffering the whole stream
+     */
+    ShortStream topK(int k);
+
     ShortStream peek(ShortConsumer action);
 
     ShortStream limit(long maxSize);
 
     ShortStream skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    ShortStream takeWhile(ShortPredicate predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    ShortStream dropWhile(ShortPredicate predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<short[]> batch(int batchSize);
+
+    /**
+     * windows of {@code size} consecutive elements starting every {@code step} elements, only whole windows are emitted
+     */
+    Stream<short[]> windowed(int size, int step);
+
+    /**
+     * sum of every window of {@code size} consecutive elements, in constant time per element
+     */
+    LongStream slidingSum(int size);
+
+    /**
+     * minimum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    ShortStream slidingMin(int size);
+
+    /**
+     * maximum of every window of {@code size} consecutive elements, in amortized constant time per element
+     */
+    ShortStream slidingMax(int size);
+
+    /**
+     * running fold, the n-th element is the fold of {@code identity} and the first n elements.
+     * {@code op} has to be associative for parallel streams
+     */
+    ShortStream scan(short identity, ShortBinaryOperator op);
+
     void forEach(ShortConsumer action);
 
     void forEachOrdered(ShortConsumer action);
@@ -93,6 +150,12 @@ public interface ShortStream extends BaseStream<Short, ShortStream> {
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     OptionalDouble average();
 
     ShortSummaryStatistics summaryStatistics();
@@ -113,10 +176,17 @@ public interface ShortStream extends BaseStream<Short, ShortStream> {
 
     ShortStream parallel();
 
+    ShortStream parallel(ForkJoinPool pool);
+
     PrimitiveIterator.OfShort iterator();
 
     Spliterator.OfShort spliterator();
 
+    /**
+     * widened to a jdk {@code IntStream} without boxing
+     */
+    java.util.stream.IntStream toJdk();
+
     boolean isParallel();
 
     ShortStream unordered();
@@ -124,4 +194,64 @@ public interface ShortStream extends BaseStream<Short, ShortStream> {
     ShortStream onClose(Runnable closeHandler);
 
     void close();
+
+    static ShortStream range(short start, short end) {
+        return IntStream.range(start, end).mapToShort(value -> (short) value);
+    }
+
+    static ShortStream rangeClosed(short start, short end) {
+        return IntStream.rangeClosed(start, end).mapToShort(value -> (short) value);
+    }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static ShortStream iterate(short seed, ShortUnaryOperator next) {
+        Objects.requireNonNull(next);
+        PrimitiveIterator.OfShort iterator = new PrimitiveIterator.OfShort() {
+            short current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public short nextShort() {
+                if (started) {
+                    current = next.applyAsShort(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.shortStream(new Spliterators.ShortIteratorSpliterator(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static ShortStream generate(ShortSupplier supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.shortStream(new InfiniteSupplyingSpliterator.OfShort(Long.MAX_VALUE, supplier), false);
+    }
+
+    static ShortStream concat(ShortStream a, ShortStream b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    static ShortStream mergeSorted(ShortStream... streams) {
+        return Streams.mergeSorted(streams);
+    }
+
+    @FunctionalInterface
+    interface ShortMapMultiConsumer {
+        void accept(short value, ShortConsumer consumer);
+    }
 }
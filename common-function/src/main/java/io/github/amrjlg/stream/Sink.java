@@ -43,6 +43,15 @@ public interface Sink<T> extends Consumer<T> {
         return false;
     }
 
+    /**
+     * a chunk of an array in one call, sinks able to consume it in a counted loop override this
+     */
+    default void acceptAll(T[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(array[i]);
+        }
+    }
+
     default void accept(byte value) {
         throw new NotImplementedException();
     }
@@ -79,6 +88,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Byte value) {
             accept(value.byteValue());
         }
+
+        default void acceptAll(byte[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
 
@@ -90,6 +105,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Short value) {
             accept(value.shortValue());
         }
+
+        default void acceptAll(short[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
     interface OfChar extends Sink<Character>, CharConsumer {
@@ -100,6 +121,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Character character) {
             accept(character.charValue());
         }
+
+        default void acceptAll(char[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
 
@@ -111,6 +138,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Integer integer) {
             accept(integer.intValue());
         }
+
+        default void acceptAll(int[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
     interface OfLong extends Sink<Long>, LongConsumer {
@@ -123,6 +156,11 @@ public interface Sink<T> extends Consumer<T> {
             accept(value.longValue());
         }
 
+        default void acceptAll(long[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
     interface OfFloat extends Sink<Float>, FloatConsumer {
@@ -133,6 +171,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Float f) {
             accept(f.floatValue());
         }
+
+        default void acceptAll(float[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
     interface OfDouble extends Sink<Double>, DoubleConsumer {
@@ -143,6 +187,12 @@ public interface Sink<T> extends Consumer<T> {
         default void accept(Double value) {
             accept(value.doubleValue());
         }
+
+        default void acceptAll(double[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(array[i]);
+            }
+        }
     }
 
 
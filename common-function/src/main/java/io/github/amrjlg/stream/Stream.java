@@ -17,26 +17,40 @@
 
 package io.github.amrjlg.stream;
 
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
 import io.github.amrjlg.function.ToByteFunction;
 import io.github.amrjlg.function.ToCharFunction;
 import io.github.amrjlg.function.ToFloatFunction;
 import io.github.amrjlg.function.ToShortFunction;
+import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.InfiniteSupplyingSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.Spliterators;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
 
 
@@ -79,18 +93,69 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> /*extends java.util.
 
     DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper);
 
+    /**
+     * pushes any number of values for each element straight into the downstream, without building a stream per element
+     */
+    <R> Stream<R> mapMulti(BiConsumer<? super T, ? super Consumer<R>> mapper);
+
+    ByteStream mapMultiToByte(BiConsumer<? super T, ? super ByteConsumer> mapper);
+
+    ShortStream mapMultiToShort(BiConsumer<? super T, ? super ShortConsumer> mapper);
+
+    CharStream mapMultiToChar(BiConsumer<? super T, ? super CharConsumer> mapper);
+
+    IntStream mapMultiToInt(BiConsumer<? super T, ? super IntConsumer> mapper);
+
+    LongStream mapMultiToLong(BiConsumer<? super T, ? super LongConsumer> mapper);
+
+    FloatStream mapMultiToFloat(BiConsumer<? super T, ? super FloatConsumer> mapper);
+
+    DoubleStream mapMultiToDouble(BiConsumer<? super T, ? super DoubleConsumer> mapper);
+
     Stream<T> distinct();
 
     Stream<T> sorted();
 
     Stream<T> sorted(Comparator<? super T> comparator);
 
+    /**
+     * stable sort by an int key, the keys are extracted once and ordered without a comparator
+     */
+    Stream<T> sortedByInt(ToIntFunction<? super T> key);
+
+    Stream<T> sortedByLong(ToLongFunction<? super T> key);
+
+    /**
+     * keys are ordered like {@link Double#compare}
+     */
+    Stream<T> sortedByDouble(ToDoubleFunction<? super T> key);
+
+    /**
+     * the {@code k} least elements in comparator order, like sorted(comparator).limit(k) but without buffering the whole stream
+     */
+    Stream<T> topK(int k, Comparator<? super T> comparator);
+
     Stream<T> peek(Consumer<? super T> action);
 
     Stream<T> limit(long maxSize);
 
     Stream<T> skip(long n);
 
+    /**
+     * the leading elements the predicate holds for, stops pulling from the source at the first element it fails for
+     */
+    Stream<T> takeWhile(Predicate<? super T> predicate);
+
+    /**
+     * the elements after the leading run the predicate holds for
+     */
+    Stream<T> dropWhile(Predicate<? super T> predicate);
+
+    /**
+     * consecutive elements in batches of {@code batchSize}, the last batch holds whatever remains
+     */
+    Stream<List<T>> batch(int batchSize);
+
     void forEach(Consumer<? super T> action);
 
     void forEachOrdered(Consumer<? super T> action);
@@ -115,6 +180,12 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> /*extends java.util.
 
     long count();
 
+    /**
+     * estimated number of distinct elements from a HyperLogLog sketch of {@code 2^precision} registers,
+     * precision in [4, 18], the standard error is about {@code 1.04 / sqrt(2^precision)}
+     */
+    long approxDistinctCount(int precision);
+
     boolean anyMatch(Predicate<? super T> predicate);
 
     boolean allMatch(Predicate<? super T> predicate);
@@ -129,12 +200,19 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> /*extends java.util.
 
     Spliterator<T> spliterator();
 
+    /**
+     * a jdk stream over the spliterator of this stream, parallelism and close handlers are kept
+     */
+    java.util.stream.Stream<T> toJdk();
+
     boolean isParallel();
 
     Stream<T> sequential();
 
     Stream<T> parallel();
 
+    Stream<T> parallel(ForkJoinPool pool);
+
     Stream<T> unordered();
 
     Stream<T> onClose(Runnable closeHandler);
@@ -144,4 +222,53 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> /*extends java.util.
     static <T> Stream<T> of(T...obj){
         return Streams.stream(obj);
     }
+
+    /**
+     * infinite ordered stream of seed, next(seed), next(next(seed)) ...
+     */
+    static <T> Stream<T> iterate(T seed, UnaryOperator<T> next) {
+        Objects.requireNonNull(next);
+        Iterator<T> iterator = new Iterator<T>() {
+            T current = seed;
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (started) {
+                    current = next.apply(current);
+                } else {
+                    started = true;
+                }
+                return current;
+            }
+        };
+        return Pipelines.stream(new Spliterators.IteratorSpliterator<>(iterator,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * infinite unordered stream of supplied values
+     */
+    static <T> Stream<T> generate(Supplier<? extends T> supplier) {
+        Objects.requireNonNull(supplier);
+        return Pipelines.stream(new InfiniteSupplyingSpliterator.OfRef<>(Long.MAX_VALUE, supplier), false);
+    }
+
+    static <T> Stream<T> concat(Stream<? extends T> a, Stream<? extends T> b) {
+        return Streams.concat(a, b);
+    }
+
+    /**
+     * lazy merge of streams that are each sorted by {@code comparator} into one sorted stream
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the streams are only read and closed
+    static <T> Stream<T> mergeSorted(Comparator<? super T> comparator, Stream<? extends T>... streams) {
+        return Streams.mergeSorted(comparator, streams);
+    }
 }
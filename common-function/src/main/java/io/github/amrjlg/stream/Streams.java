@@ -17,11 +17,43 @@
 
 package io.github.amrjlg.stream;
 
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
 import io.github.amrjlg.stream.pipeline.BytePipeline;
 import io.github.amrjlg.stream.pipeline.Pipelines;
+import io.github.amrjlg.stream.spliterator.ConcatSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
+import io.github.amrjlg.stream.spliterator.MappedLineSpliterator;
+import io.github.amrjlg.stream.spliterator.MappedSpliterator;
+import io.github.amrjlg.stream.spliterator.MergeSortedSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author amrjlg
  **/
@@ -113,5 +145,382 @@ public class Streams {
         return Pipelines.doubleStream(Spliterators.spliterator(array, start, end, CHARACTERISTICS), false);
     }
 
+    public static ByteStream stream(ByteBuffer buffer) {
+        return Pipelines.byteStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static ShortStream stream(ShortBuffer buffer) {
+        return Pipelines.shortStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static CharStream stream(CharBuffer buffer) {
+        return Pipelines.charStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static IntStream stream(IntBuffer buffer) {
+        return Pipelines.intStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static LongStream stream(LongBuffer buffer) {
+        return Pipelines.longStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static FloatStream stream(FloatBuffer buffer) {
+        return Pipelines.floatStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    public static DoubleStream stream(DoubleBuffer buffer) {
+        return Pipelines.doubleStream(Spliterators.spliterator(buffer, CHARACTERISTICS), false);
+    }
+
+    /**
+     * random access lists are split by index, other collections in array batches read from their iterator
+     */
+    public static <T> Stream<T> stream(Collection<? extends T> collection) {
+        return Pipelines.stream(Spliterators.spliterator(collection, characteristics(collection)), false);
+    }
+
+    public static <T> Stream<T> stream(Iterable<? extends T> iterable) {
+        if (iterable instanceof Collection) {
+            return stream((Collection<? extends T>) iterable);
+        }
+        return stream(iterable.iterator());
+    }
+
+    /**
+     * the iterator is read lazily, parallel pipelines split it into array batches of growing size
+     */
+    public static <T> Stream<T> stream(Iterator<? extends T> iterator) {
+        return Pipelines.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * what the iteration order of the common collection types guarantees
+     */
+    private static int characteristics(Collection<?> collection) {
+        if (collection instanceof List || collection instanceof Deque) {
+            return Spliterator.ORDERED;
+        }
+        if (collection instanceof SortedSet) {
+            return ((SortedSet<?>) collection).comparator() == null
+                    ? Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED
+                    : Spliterator.ORDERED | Spliterator.DISTINCT;
+        }
+        if (collection instanceof LinkedHashSet) {
+            return Spliterator.ORDERED | Spliterator.DISTINCT;
+        }
+        return collection instanceof Set ? Spliterator.DISTINCT : 0;
+    }
+
+    /**
+     * lazy concatenation, concatenated streams passed in again are flattened instead of nested.
+     * closing still runs the close handlers of a nested concatenation through each level of nesting
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the streams are only read and closed
+    public static <T> Stream<T> concat(Stream<? extends T>... streams) {
+        // every slot is filled with a spliterator of one of the streams
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] spliterators = (Spliterator<T>[]) new Spliterator<?>[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            // the spliterators are only read, so elements of a subtype are elements of T
+            @SuppressWarnings("unchecked")
+            Spliterator<T> spliterator = (Spliterator<T>) streams[i].spliterator();
+            spliterators[i] = spliterator;
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.stream(ConcatSpliterator.OfRef.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static ByteStream concat(ByteStream... streams) {
+        Spliterator.OfByte[] spliterators = new Spliterator.OfByte[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.byteStream(ConcatSpliterator.OfByte.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static ShortStream concat(ShortStream... streams) {
+        Spliterator.OfShort[] spliterators = new Spliterator.OfShort[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.shortStream(ConcatSpliterator.OfShort.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static CharStream concat(CharStream... streams) {
+        Spliterator.OfChar[] spliterators = new Spliterator.OfChar[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.charStream(ConcatSpliterator.OfChar.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static IntStream concat(IntStream... streams) {
+        Spliterator.OfInt[] spliterators = new Spliterator.OfInt[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.intStream(ConcatSpliterator.OfInt.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static LongStream concat(LongStream... streams) {
+        Spliterator.OfLong[] spliterators = new Spliterator.OfLong[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.longStream(ConcatSpliterator.OfLong.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static FloatStream concat(FloatStream... streams) {
+        Spliterator.OfFloat[] spliterators = new Spliterator.OfFloat[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.floatStream(ConcatSpliterator.OfFloat.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    public static DoubleStream concat(DoubleStream... streams) {
+        Spliterator.OfDouble[] spliterators = new Spliterator.OfDouble[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.doubleStream(ConcatSpliterator.OfDouble.of(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted by {@code comparator} into one sorted stream,
+     * with a natural order comparator or {@code null} the result is known to be sorted so a following sorted() is skipped
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the streams are only read and closed
+    public static <T> Stream<T> mergeSorted(Comparator<? super T> comparator, Stream<? extends T>... streams) {
+        // every slot is filled with a spliterator of one of the streams
+        @SuppressWarnings("unchecked")
+        Spliterator<? extends T>[] spliterators = (Spliterator<? extends T>[]) new Spliterator<?>[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.stream(new MergeSortedSpliterator.OfRef<>(comparator, spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static ByteStream mergeSorted(ByteStream... streams) {
+        Spliterator.OfByte[] spliterators = new Spliterator.OfByte[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.byteStream(new MergeSortedSpliterator.OfByte(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static ShortStream mergeSorted(ShortStream... streams) {
+        Spliterator.OfShort[] spliterators = new Spliterator.OfShort[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.shortStream(new MergeSortedSpliterator.OfShort(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static CharStream mergeSorted(CharStream... streams) {
+        Spliterator.OfChar[] spliterators = new Spliterator.OfChar[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.charStream(new MergeSortedSpliterator.OfChar(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static IntStream mergeSorted(IntStream... streams) {
+        Spliterator.OfInt[] spliterators = new Spliterator.OfInt[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.intStream(new MergeSortedSpliterator.OfInt(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static LongStream mergeSorted(LongStream... streams) {
+        Spliterator.OfLong[] spliterators = new Spliterator.OfLong[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.longStream(new MergeSortedSpliterator.OfLong(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static FloatStream mergeSorted(FloatStream... streams) {
+        Spliterator.OfFloat[] spliterators = new Spliterator.OfFloat[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.floatStream(new MergeSortedSpliterator.OfFloat(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * lazy merge of streams that are each sorted into one sorted stream
+     */
+    public static DoubleStream mergeSorted(DoubleStream... streams) {
+        Spliterator.OfDouble[] spliterators = new Spliterator.OfDouble[streams.length];
+        boolean parallel = false;
+        for (int i = 0; i < streams.length; i++) {
+            spliterators[i] = streams[i].spliterator();
+            parallel |= streams[i].isParallel();
+        }
+        return inPool(Pipelines.doubleStream(new MergeSortedSpliterator.OfDouble(spliterators), parallel), streams).onClose(closeAll(streams));
+    }
+
+    /**
+     * wraps the spliterator of a jdk stream, parallelism and close handlers are kept
+     */
+    public static <T> Stream<T> from(java.util.stream.Stream<T> stream) {
+        return Pipelines.stream(JdkSpliterators.fromJdk(stream.spliterator()), stream.isParallel()).onClose(stream::close);
+    }
+
+    public static IntStream from(java.util.stream.IntStream stream) {
+        return Pipelines.intStream(JdkSpliterators.fromJdk(stream.spliterator()), stream.isParallel()).onClose(stream::close);
+    }
+
+    public static LongStream from(java.util.stream.LongStream stream) {
+        return Pipelines.longStream(JdkSpliterators.fromJdk(stream.spliterator()), stream.isParallel()).onClose(stream::close);
+    }
+
+    public static DoubleStream from(java.util.stream.DoubleStream stream) {
+        return Pipelines.doubleStream(JdkSpliterators.fromJdk(stream.spliterator()), stream.isParallel()).onClose(stream::close);
+    }
+
+    /**
+     * binds the combined stream to the pool of the first parallel stream that was given one by
+     * {@link BaseStream#parallel(ForkJoinPool)}, so combining streams does not move their work into the common pool
+     */
+    private static <S extends BaseStream<?, S>> S inPool(S stream, BaseStream<?, ?>[] streams) {
+        for (BaseStream<?, ?> source : streams) {
+            if (source.isParallel() && source instanceof AbstractPipeline) {
+                ForkJoinPool pool = ((AbstractPipeline<?, ?, ?>) source).getPool();
+                if (pool != null) {
+                    return stream.parallel(pool);
+                }
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * closes every stream in one loop, so closing long concatenations does not recurse
+     */
+    private static Runnable closeAll(BaseStream<?, ?>[] streams) {
+        return () -> {
+            Throwable failure = null;
+            for (BaseStream<?, ?> stream : streams) {
+                try {
+                    stream.close();
+                } catch (Throwable e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw (Error) failure;
+            }
+        };
+    }
+
+    public static Stream<String> lines(Path path) {
+        return lines(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * lines of a file, utf-8, iso-8859-1 and us-ascii files are memory mapped and split at line breaks
+     * so that parallel streams decode disjoint parts of the file, other charsets are read sequentially
+     */
+    public static Stream<String> lines(Path path, Charset charset) {
+        if (!MappedLineSpliterator.supports(charset)) {
+            return readLines(path, charset);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return Pipelines.stream(new MappedLineSpliterator(MappedSpliterator.map(channel, size), 0, size, charset), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Stream<String> readLines(Path path, Charset charset) {
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(path, charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Spliterator<String> spliterator = new Spliterators.IteratorSpliterator<>(reader.lines().iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return Pipelines.stream(spliterator, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * bytes of a read only memory mapped file, parallel splits read disjoint regions of the mapping
+     */
+    public static ByteStream mapped(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return Pipelines.byteStream(new MappedSpliterator(MappedSpliterator.map(channel, size), 0, size, CHARACTERISTICS), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 
 }
@@ -21,6 +21,7 @@ import io.github.amrjlg.function.ByteConsumer;
 import io.github.amrjlg.function.CharConsumer;
 import io.github.amrjlg.function.FloatConsumer;
 import io.github.amrjlg.function.ShortConsumer;
+import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -267,13 +268,13 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
                 if (splSpineIndex < lastSpineIndex
                         || (splSpineIndex == lastSpineIndex && splElementIndex < lastSpineElementFence)) {
                     consumer.accept(splChunk[splElementIndex++]);
-                }
 
-                if (splElementIndex == splChunk.length) {
-                    splElementIndex = 0;
-                    ++splSpineIndex;
-                    if (spine != null && splSpineIndex <= lastSpineIndex) {
-                        splChunk = spine[splSpineIndex];
+                    if (splElementIndex == splChunk.length) {
+                        splElementIndex = 0;
+                        ++splSpineIndex;
+                        if (spine != null && splSpineIndex <= lastSpineIndex) {
+                            splChunk = spine[splSpineIndex];
+                        }
                     }
                     return true;
                 }
@@ -288,7 +289,7 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
                 if (splSpineIndex < lastSpineIndex
                         || (splSpineIndex == lastSpineIndex && splElementIndex < lastSpineElementFence)) {
                     int index = this.splElementIndex;
-                    for (int start = spineIndex; start < lastSpineIndex; start++) {
+                    for (int start = splSpineIndex; start < lastSpineIndex; start++) {
                         Element[] elements = spine[start];
                         for (; index < elements.length; index++) {
                             consumer.accept(elements[index]);
@@ -316,7 +317,7 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
                     splSpineIndex = lastSpineIndex;
                     splElementIndex = 0;
-                    splChunk = spine[spineIndex];
+                    splChunk = spine[splSpineIndex];
                     return adapter;
                 }
                 if (splSpineIndex == lastSpineIndex) {
@@ -558,7 +559,7 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
                         splElementIndex = 0;
                         ++splSpineIndex;
                         if (spine != null && splSpineIndex <= lastSpineIndex) {
-                            splChunk = spine[spineIndex];
+                            splChunk = spine[splSpineIndex];
                         }
                     }
 
@@ -573,7 +574,7 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
                 Objects.requireNonNull(action);
                 if (haveNext()) {
                     int index = splElementIndex;
-                    for (int i = index; i < lastSpineIndex; i++) {
+                    for (int i = splSpineIndex; i < lastSpineIndex; i++) {
                         PrimitiveArray array = spine[i];
                         arrayForEach(array, index, arrayLength(array), action);
                         index = 0;
@@ -591,7 +592,7 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
             public Spl trySplit() {
 
                 if (splSpineIndex < lastSpineIndex) {
-                    Spl spliterator = newSpliterator(splSpineIndex, lastSpineIndex - 1, splElementIndex, arrayLength(spine[lastSpineIndex]));
+                    Spl spliterator = newSpliterator(splSpineIndex, lastSpineIndex - 1, splElementIndex, arrayLength(spine[lastSpineIndex - 1]));
 
                     splSpineIndex = lastSpineIndex;
                     splElementIndex = 0;
@@ -647,6 +648,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(byte[] array, int start, int end, ByteConsumer consumer) {
+            if (consumer instanceof Sink.OfByte) {
+                ((Sink.OfByte) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -733,6 +738,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(short[] array, int start, int end, ShortConsumer consumer) {
+            if (consumer instanceof Sink.OfShort) {
+                ((Sink.OfShort) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -819,6 +828,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(char[] array, int start, int end, CharConsumer consumer) {
+            if (consumer instanceof Sink.OfChar) {
+                ((Sink.OfChar) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -905,6 +918,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(int[] array, int start, int end, IntConsumer consumer) {
+            if (consumer instanceof Sink.OfInt) {
+                ((Sink.OfInt) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -991,6 +1008,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(long[] array, int start, int end, LongConsumer consumer) {
+            if (consumer instanceof Sink.OfLong) {
+                ((Sink.OfLong) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -1077,6 +1098,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(float[] array, int start, int end, FloatConsumer consumer) {
+            if (consumer instanceof Sink.OfFloat) {
+                ((Sink.OfFloat) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -1163,6 +1188,10 @@ public class SpinedBuffer<Element> extends AbstractSpinedBuffer
 
         @Override
         public void arrayForEach(double[] array, int start, int end, DoubleConsumer consumer) {
+            if (consumer instanceof Sink.OfDouble) {
+                ((Sink.OfDouble) consumer).acceptAll(array, start, end);
+                return;
+            }
             for (int i = start; i < end; i++) {
                 consumer.accept(array[i]);
             }
@@ -0,0 +1,592 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+
+/**
+ * max heap keeping the {@code k} least values offered to it, the root is the value to evict next.
+ * the array grows on demand so a large {@code k} over a short stream stays small.
+ * primitive values are ordered as {@link Arrays#sort} orders them
+ *
+ * @author amrjlg
+ **/
+public abstract class BoundedHeap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    protected final int k;
+    protected int size;
+
+    protected BoundedHeap(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException(Integer.toString(k));
+        }
+        this.k = k;
+    }
+
+    protected int initialCapacity() {
+        return Math.min(k, MIN_CAPACITY);
+    }
+
+    protected int grow() {
+        return (int) Math.min(k, Math.max(MIN_CAPACITY, (long) size << 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * ties are broken by encounter order so the result equals a stable sort followed by a limit,
+     * values of a combined right hand heap follow every value seen by the left hand one
+     */
+    public static final class OfRef<T> extends BoundedHeap {
+        private final Comparator<? super T> comparator;
+        private Object[] values;
+        private long[] ordinals;
+        private long seen;
+
+        public OfRef(int k, Comparator<? super T> comparator) {
+            super(k);
+            this.comparator = comparator;
+            this.values = new Object[initialCapacity()];
+            this.ordinals = new long[values.length];
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Object a, long aOrdinal, Object b, long bOrdinal) {
+            int c = comparator.compare((T) a, (T) b);
+            return c != 0 ? c : Long.compare(aOrdinal, bOrdinal);
+        }
+
+        public void accept(T value) {
+            offer(value, seen++);
+        }
+
+        private void offer(Object value, long ordinal) {
+            if (size < k) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, grow());
+                    ordinals = Arrays.copyOf(ordinals, values.length);
+                }
+                siftUp(size++, value, ordinal);
+            } else if (k > 0 && compare(value, ordinal, values[0], ordinals[0]) < 0) {
+                siftDown(0, value, ordinal);
+            }
+        }
+
+        private void siftUp(int i, Object value, long ordinal) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (compare(values[parent], ordinals[parent], value, ordinal) >= 0) {
+                    break;
+                }
+                values[i] = values[parent];
+                ordinals[i] = ordinals[parent];
+                i = parent;
+            }
+            values[i] = value;
+            ordinals[i] = ordinal;
+        }
+
+        private void siftDown(int i, Object value, long ordinal) {
+            int half = size >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                if (child + 1 < size && compare(values[child], ordinals[child], values[child + 1], ordinals[child + 1]) < 0) {
+                    child++;
+                }
+                if (compare(value, ordinal, values[child], ordinals[child]) >= 0) {
+                    break;
+                }
+                values[i] = values[child];
+                ordinals[i] = ordinals[child];
+                i = child;
+            }
+            values[i] = value;
+            ordinals[i] = ordinal;
+        }
+
+        public OfRef<T> combine(OfRef<T> other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.values[i], other.ordinals[i] + seen);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order, empties the heap
+         */
+        @SuppressWarnings("unchecked")
+        public T[] toArray(IntFunction<T[]> generator) {
+            T[] array = generator.apply(size);
+            while (size > 0) {
+                int last = --size;
+                array[last] = (T) values[0];
+                siftDown(0, values[last], ordinals[last]);
+                values[last] = null;
+            }
+            return array;
+        }
+    }
+
+    public static final class OfByte extends BoundedHeap {
+        private byte[] heap;
+
+        public OfByte(int k) {
+            super(k);
+            this.heap = new byte[initialCapacity()];
+        }
+
+        private static boolean less(byte a, byte b) {
+            return a < b;
+        }
+
+        public void accept(byte value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                byte[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                byte[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfByte combine(OfByte other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public byte[] toArray() {
+            byte[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfShort extends BoundedHeap {
+        private short[] heap;
+
+        public OfShort(int k) {
+            super(k);
+            this.heap = new short[initialCapacity()];
+        }
+
+        private static boolean less(short a, short b) {
+            return a < b;
+        }
+
+        public void accept(short value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                short[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                short[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfShort combine(OfShort other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public short[] toArray() {
+            short[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfChar extends BoundedHeap {
+        private char[] heap;
+
+        public OfChar(int k) {
+            super(k);
+            this.heap = new char[initialCapacity()];
+        }
+
+        private static boolean less(char a, char b) {
+            return a < b;
+        }
+
+        public void accept(char value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                char[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                char[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfChar combine(OfChar other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public char[] toArray() {
+            char[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfInt extends BoundedHeap {
+        private int[] heap;
+
+        public OfInt(int k) {
+            super(k);
+            this.heap = new int[initialCapacity()];
+        }
+
+        private static boolean less(int a, int b) {
+            return a < b;
+        }
+
+        public void accept(int value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                int[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                int[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfInt combine(OfInt other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public int[] toArray() {
+            int[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfLong extends BoundedHeap {
+        private long[] heap;
+
+        public OfLong(int k) {
+            super(k);
+            this.heap = new long[initialCapacity()];
+        }
+
+        private static boolean less(long a, long b) {
+            return a < b;
+        }
+
+        public void accept(long value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                long[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                long[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfLong combine(OfLong other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public long[] toArray() {
+            long[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfFloat extends BoundedHeap {
+        private float[] heap;
+
+        public OfFloat(int k) {
+            super(k);
+            this.heap = new float[initialCapacity()];
+        }
+
+        private static boolean less(float a, float b) {
+            return Float.compare(a, b) < 0;
+        }
+
+        public void accept(float value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                float[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                float[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfFloat combine(OfFloat other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public float[] toArray() {
+            float[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+
+    public static final class OfDouble extends BoundedHeap {
+        private double[] heap;
+
+        public OfDouble(int k) {
+            super(k);
+            this.heap = new double[initialCapacity()];
+        }
+
+        private static boolean less(double a, double b) {
+            return Double.compare(a, b) < 0;
+        }
+
+        public void accept(double value) {
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, grow());
+                }
+                double[] h = heap;
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!less(h[parent], value)) {
+                        break;
+                    }
+                    h[i] = h[parent];
+                    i = parent;
+                }
+                h[i] = value;
+            } else if (k > 0 && less(value, heap[0])) {
+                double[] h = heap;
+                int i = 0, half = size >>> 1;
+                while (i < half) {
+                    int child = (i << 1) + 1;
+                    if (child + 1 < size && less(h[child], h[child + 1])) {
+                        child++;
+                    }
+                    if (!less(value, h[child])) {
+                        break;
+                    }
+                    h[i] = h[child];
+                    i = child;
+                }
+                h[i] = value;
+            }
+        }
+
+        public OfDouble combine(OfDouble other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+            return this;
+        }
+
+        /**
+         * the kept values in ascending order
+         */
+        public double[] toArray() {
+            double[] array = Arrays.copyOf(heap, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * fixed size bit set which can be updated from several threads.
+ *
+ * @author amrjlg
+ **/
+public final class ConcurrentBitSet {
+
+    private final AtomicLongArray words;
+
+    public ConcurrentBitSet(int bits) {
+        words = new AtomicLongArray((bits + 63) >>> 6);
+    }
+
+    /**
+     * @param index bit index
+     * @return true if the bit was clear before
+     */
+    public boolean add(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < words.length(); i++) {
+            size += Long.bitCount(words.get(i));
+        }
+        return size;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < words.length(); i++) {
+            long word = words.get(i);
+            while (word != 0) {
+                consumer.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+/**
+ * lock striped {@link IntHashSet} for the unordered parallel distinct.
+ *
+ * @author amrjlg
+ **/
+public final class ConcurrentIntHashSet {
+
+    private static final int SEGMENT_SHIFT = 26;
+
+    private final IntHashSet[] segments;
+
+    public ConcurrentIntHashSet() {
+        segments = new IntHashSet[1 << (32 - SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new IntHashSet();
+        }
+    }
+
+    public boolean add(int key) {
+        IntHashSet segment = segments[IntHashSet.mix(key) >>> SEGMENT_SHIFT];
+        synchronized (segment) {
+            return segment.add(key);
+        }
+    }
+
+    public int[] toArray() {
+        int size = 0;
+        for (IntHashSet segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        int[] array = new int[size];
+        int offset = 0;
+        for (IntHashSet segment : segments) {
+            int[] part;
+            synchronized (segment) {
+                part = segment.toArray();
+            }
+            System.arraycopy(part, 0, array, offset, part.length);
+            offset += part.length;
+        }
+        return array;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+import java.util.function.IntConsumer;
+
+/**
+ * open addressing hash set of {@code int} keys, no boxing on add/contains.
+ * {@code 0} is used as the empty slot marker and tracked separately.
+ *
+ * @author amrjlg
+ **/
+public final class IntHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] table;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntHashSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < (long) expectedSize << 1 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    /**
+     * @param key value
+     * @return true if the key was not present
+     */
+    public boolean add(int key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int[] tab = table;
+        int i = mix(key) & mask;
+        int current;
+        while ((current = tab[i]) != 0) {
+            if (current == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        tab[i] = key;
+        if (++size > threshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int[] tab = table;
+        int i = mix(key) & mask;
+        int current;
+        while ((current = tab[i]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        if (containsZero) {
+            consumer.accept(0);
+        }
+        for (int key : table) {
+            if (key != 0) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        int index = 0;
+        if (containsZero) {
+            array[index++] = 0;
+        }
+        for (int key : table) {
+            if (key != 0) {
+                array[index++] = key;
+            }
+        }
+        return array;
+    }
+
+    private void rehash() {
+        int[] old = table;
+        allocate(old.length << 1);
+        int[] tab = table;
+        for (int key : old) {
+            if (key != 0) {
+                int i = mix(key) & mask;
+                while (tab[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                tab[i] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+import java.util.Arrays;
+
+/**
+ * mergeable KLL quantile sketch over doubles.
+ * level {@code h} holds items of weight {@code 2^h}, a full level is sorted and every other item
+ * is promoted to the next level, so the total weight always equals the number of accepted values.
+ * the capacity of a level shrinks by 2/3 per level below the top, the retained items stay
+ * in {@code O(k)} and the rank error is about {@code 1.7 / k}.
+ * values are ordered like {@link Double#compare}, the minimum and maximum are exact
+ *
+ * @author amrjlg
+ **/
+public final class QuantileSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    /**
+     * alternates which half of a compacted level is promoted
+     */
+    private boolean odd;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("K must be at least " + MIN_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        grow();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public void accept(double value) {
+        if (count == 0 || Double.compare(value, min) < 0) {
+            min = value;
+        }
+        if (count == 0 || Double.compare(value, max) > 0) {
+            max = value;
+        }
+        count++;
+        append(0, value);
+        if (++retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0 || Double.compare(other.min, min) < 0) {
+            min = other.min;
+        }
+        if (count == 0 || Double.compare(other.max, max) > 0) {
+            max = other.max;
+        }
+        count += other.count;
+        while (levels.length < other.levels.length) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+            retained += other.sizes[h];
+        }
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * @param ranks fractions in {@code [0, 1]}, 0 is the minimum and 1 the maximum
+     * @return the approximate value at every rank, NaN for all ranks if nothing was accepted
+     */
+    public double[] quantiles(double... ranks) {
+        for (double rank : ranks) {
+            if (!(rank >= 0 && rank <= 1)) {
+                throw new IllegalArgumentException("Rank must be in [0, 1]: " + rank);
+            }
+        }
+        double[] result = new double[ranks.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n++] = 1L << h;
+            }
+        }
+        int[] order = RadixSort.order(values, n);
+        long[] cumulative = new long[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += weights[order[i]];
+            cumulative[i] = total;
+        }
+        for (int r = 0; r < ranks.length; r++) {
+            double rank = ranks[r];
+            if (rank == 0) {
+                result[r] = min;
+            } else if (rank == 1) {
+                result[r] = max;
+            } else {
+                long target = (long) Math.ceil(rank * count);
+                int index = Arrays.binarySearch(cumulative, target);
+                result[r] = values[order[index >= 0 ? index : Math.min(-index - 1, n - 1)]];
+            }
+        }
+        return result;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(Math.pow(CAPACITY_DECAY, depth) * k));
+    }
+
+    private void grow() {
+        int height = levels.length;
+        levels = Arrays.copyOf(levels, height + 1);
+        sizes = Arrays.copyOf(sizes, height + 1);
+        levels[height] = new double[MIN_CAPACITY];
+        maxRetained = 0;
+        for (int h = 0; h <= height; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            levels[level] = items = Arrays.copyOf(items, items.length << 1);
+        }
+        items[sizes[level]++] = value;
+    }
+
+    /**
+     * compacts the lowest level at capacity, an odd item out stays on its level
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            int size = sizes[h];
+            if (size < capacity(h)) {
+                continue;
+            }
+            if (h + 1 == levels.length) {
+                grow();
+            }
+            double[] items = levels[h];
+            Arrays.sort(items, 0, size);
+            int keep = size & 1;
+            for (int i = keep + (odd ? 1 : 0); i < size; i += 2) {
+                append(h + 1, items[i]);
+            }
+            odd = !odd;
+            sizes[h] = keep;
+            retained -= (size - keep) >> 1;
+            return;
+        }
+    }
+}
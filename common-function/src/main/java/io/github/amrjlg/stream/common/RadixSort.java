@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * LSD radix sort with 8 bit digits for the wide primitive shapes.
+ * float/double keys are mapped so that the signed integer order of the
+ * key equals {@link Float#compare}/{@link Double#compare}, NaNs sort last.
+ * sorting maps the raw bits, so NaN payloads are kept like {@link Arrays#sort(float[])} keeps them.
+ * byte/short/char are counted, which is a radix sort with a single digit.
+ *
+ * @author amrjlg
+ **/
+public final class RadixSort {
+
+    /**
+     * below this size {@link Arrays#sort} is faster than the radix passes
+     */
+    public static final int RADIX_SORT_THRESHOLD = 1 << 18;
+
+    private static final int RADIX = 1 << 8;
+
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * the smallest range a parallel pass hands to a single task
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+
+    /**
+     * the NaN bit patterns with the sign bit set, all mantissas but zero
+     */
+    private static final int NEGATIVE_FLOAT_NANS = (1 << 23) - 1;
+
+    private static final long NEGATIVE_DOUBLE_NANS = (1L << 52) - 1;
+
+    private RadixSort() {
+    }
+
+    public static void sort(int[] array, int from, int to) {
+        int length = to - from;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        int[] keys = from == 0 ? array : Arrays.copyOfRange(array, from, to);
+        copyBack(sort(keys, new int[length], length, 1), array, from, length);
+    }
+
+    public static void sort(long[] array, int from, int to) {
+        int length = to - from;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        long[] keys = from == 0 ? array : Arrays.copyOfRange(array, from, to);
+        copyBack(sort(keys, new long[length], length, 1), array, from, length);
+    }
+
+    public static void sort(float[] array, int from, int to) {
+        int length = to - from;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        int[] keys = floatSortKeys(array, from, length);
+        keys = sort(keys, new int[length], length, 1);
+        for (int i = 0; i < length; i++) {
+            array[from + i] = floatOfSortKey(keys[i]);
+        }
+    }
+
+    public static void sort(double[] array, int from, int to) {
+        int length = to - from;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        long[] keys = doubleSortKeys(array, from, length);
+        keys = sort(keys, new long[length], length, 1);
+        for (int i = 0; i < length; i++) {
+            array[from + i] = doubleOfSortKey(keys[i]);
+        }
+    }
+
+    /**
+     * like {@link #sort(int[], int, int)}, every pass is split into chunks
+     * which are counted and scattered as fork join tasks
+     */
+    public static void parallelSort(int[] array) {
+        int length = array.length;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.parallelSort(array);
+            return;
+        }
+        copyBack(sort(array, new int[length], length, chunks(length)), array, 0, length);
+    }
+
+    public static void parallelSort(long[] array) {
+        int length = array.length;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.parallelSort(array);
+            return;
+        }
+        copyBack(sort(array, new long[length], length, chunks(length)), array, 0, length);
+    }
+
+    public static void parallelSort(float[] array) {
+        int length = array.length;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.parallelSort(array);
+            return;
+        }
+        int[] keys = floatSortKeys(array, 0, length);
+        keys = sort(keys, new int[length], length, chunks(length));
+        for (int i = 0; i < length; i++) {
+            array[i] = floatOfSortKey(keys[i]);
+        }
+    }
+
+    public static void parallelSort(double[] array) {
+        int length = array.length;
+        if (length < RADIX_SORT_THRESHOLD) {
+            Arrays.parallelSort(array);
+            return;
+        }
+        long[] keys = doubleSortKeys(array, 0, length);
+        keys = sort(keys, new long[length], length, chunks(length));
+        for (int i = 0; i < length; i++) {
+            array[i] = doubleOfSortKey(keys[i]);
+        }
+    }
+
+    /**
+     * stable sort of the positions {@code 0..length} by their key, equal keys keep their position order.
+     * every key is widened to a long together with its position, so a single long sort does the job
+     *
+     * @return the position of the element that belongs at every sorted index
+     */
+    public static int[] order(int[] keys, int length) {
+        long[] packed = pack(keys, length);
+        sort(packed, 0, length);
+        return positions(packed);
+    }
+
+    public static int[] parallelOrder(int[] keys) {
+        long[] packed = pack(keys, keys.length);
+        parallelSort(packed);
+        return positions(packed);
+    }
+
+    /**
+     * like {@link #order(int[], int)}, the positions travel along with the keys through the radix passes
+     */
+    public static int[] order(long[] keys, int length) {
+        return order(Arrays.copyOf(keys, length), length, 1);
+    }
+
+    public static int[] parallelOrder(long[] keys) {
+        return order(keys.clone(), keys.length, chunks(keys.length));
+    }
+
+    /**
+     * orders like {@link Double#compare}, NaNs last
+     */
+    public static int[] order(double[] keys, int length) {
+        return order(doubleKeys(keys, 0, length), length, 1);
+    }
+
+    public static int[] parallelOrder(double[] keys) {
+        return order(doubleKeys(keys, 0, keys.length), keys.length, chunks(keys.length));
+    }
+
+    /**
+     * parallel counting sort, the narrow shapes need a single digit and no scatter buffer:
+     * every chunk is counted as a fork join task, then the chunks of the output are filled
+     */
+    public static void parallelSort(byte[] array) {
+        int length = array.length;
+        int chunks = chunks(length);
+        if (chunks == 1) {
+            Arrays.sort(array);
+            return;
+        }
+        int[][] counts = new int[chunks][];
+        run(chunks, length, (chunk, from, to) -> {
+            int[] count = new int[1 << Byte.SIZE];
+            for (int i = from; i < to; i++) {
+                count[array[i] - Byte.MIN_VALUE]++;
+            }
+            counts[chunk] = count;
+        });
+        int[] starts = starts(counts);
+        run(chunks, length, (chunk, from, to) -> {
+            for (int value = bucket(starts, from), position = from; position < to; value++) {
+                int end = Math.min(to, starts[value + 1]);
+                Arrays.fill(array, position, end, (byte) (value + Byte.MIN_VALUE));
+                position = end;
+            }
+        });
+    }
+
+    public static void parallelSort(short[] array) {
+        int length = array.length;
+        int chunks = chunks(length);
+        if (chunks == 1) {
+            Arrays.sort(array);
+            return;
+        }
+        int[][] counts = new int[chunks][];
+        run(chunks, length, (chunk, from, to) -> {
+            int[] count = new int[1 << Short.SIZE];
+            for (int i = from; i < to; i++) {
+                count[array[i] - Short.MIN_VALUE]++;
+            }
+            counts[chunk] = count;
+        });
+        int[] starts = starts(counts);
+        run(chunks, length, (chunk, from, to) -> {
+            for (int value = bucket(starts, from), position = from; position < to; value++) {
+                int end = Math.min(to, starts[value + 1]);
+                Arrays.fill(array, position, end, (short) (value + Short.MIN_VALUE));
+                position = end;
+            }
+        });
+    }
+
+    public static void parallelSort(char[] array) {
+        int length = array.length;
+        int chunks = chunks(length);
+        if (chunks == 1) {
+            Arrays.sort(array);
+            return;
+        }
+        int[][] counts = new int[chunks][];
+        run(chunks, length, (chunk, from, to) -> {
+            int[] count = new int[1 << Character.SIZE];
+            for (int i = from; i < to; i++) {
+                count[array[i]]++;
+            }
+            counts[chunk] = count;
+        });
+        int[] starts = starts(counts);
+        run(chunks, length, (chunk, from, to) -> {
+            for (int value = bucket(starts, from), position = from; position < to; value++) {
+                int end = Math.min(to, starts[value + 1]);
+                Arrays.fill(array, position, end, (char) value);
+                position = end;
+            }
+        });
+    }
+
+    /**
+     * @return the first output position of every value, followed by the total length
+     */
+    private static int[] starts(int[][] counts) {
+        int domain = counts[0].length;
+        int[] starts = new int[domain + 1];
+        for (int value = 0; value < domain; value++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[value];
+            }
+            starts[value + 1] = starts[value] + total;
+        }
+        return starts;
+    }
+
+    /**
+     * @return the value whose output range contains {@code position}
+     */
+    private static int bucket(int[] starts, int position) {
+        int low = 0;
+        int high = starts.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * flips every bit but the sign of negative values, the mapping is its own inverse
+     */
+    private static int floatKey(int bits) {
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    private static long doubleKey(long bits) {
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * the raw bits as keys, so sorting keeps NaN payloads like {@link Arrays#sort(float[])}.
+     * {@link #floatKey} maps the NaNs with the sign bit below -Infinity, shifting every key down by their count
+     * wraps them around above the positive NaNs, so all NaNs sort last
+     */
+    private static int[] floatSortKeys(float[] array, int from, int length) {
+        int[] keys = new int[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = floatKey(Float.floatToRawIntBits(array[from + i])) - NEGATIVE_FLOAT_NANS;
+        }
+        return keys;
+    }
+
+    private static float floatOfSortKey(int key) {
+        return Float.intBitsToFloat(floatKey(key + NEGATIVE_FLOAT_NANS));
+    }
+
+    private static long[] doubleSortKeys(double[] array, int from, int length) {
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = doubleKey(Double.doubleToRawLongBits(array[from + i])) - NEGATIVE_DOUBLE_NANS;
+        }
+        return keys;
+    }
+
+    private static double doubleOfSortKey(long key) {
+        return Double.longBitsToDouble(doubleKey(key + NEGATIVE_DOUBLE_NANS));
+    }
+
+    /**
+     * all NaNs are one key, {@link #order(double[], int)} keeps them in position order like {@link Double#compare}
+     */
+
+    private static long[] doubleKeys(double[] array, int from, int length) {
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = doubleKey(Double.doubleToLongBits(array[from + i]));
+        }
+        return keys;
+    }
+
+    /**
+     * the key goes to the high half, the position to the low half which is never negative
+     */
+    private static long[] pack(int[] keys, int length) {
+        long[] packed = new long[length];
+        for (int i = 0; i < length; i++) {
+            packed[i] = ((long) keys[i] << Integer.SIZE) | i;
+        }
+        return packed;
+    }
+
+    private static int[] positions(long[] packed) {
+        int[] positions = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            positions[i] = (int) packed[i];
+        }
+        return positions;
+    }
+
+    private static int chunks(int length) {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        int parallelism = pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(parallelism << 2, length / MIN_CHUNK_SIZE));
+    }
+
+    private static void copyBack(int[] sorted, int[] array, int from, int length) {
+        if (sorted != array || from != 0) {
+            System.arraycopy(sorted, 0, array, from, length);
+        }
+    }
+
+    private static void copyBack(long[] sorted, long[] array, int from, int length) {
+        if (sorted != array || from != 0) {
+            System.arraycopy(sorted, 0, array, from, length);
+        }
+    }
+
+    /**
+     * @param chunks number of slices counted and scattered independently
+     * @return the array of {@code keys} or {@code buffer} which holds the sorted keys
+     */
+    private static int[] sort(int[] keys, int[] buffer, int length, int chunks) {
+        int[] source = keys;
+        int[] target = buffer;
+        int[][] counts = new int[chunks][];
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            int flip = shift == Integer.SIZE - Byte.SIZE ? RADIX >>> 1 : 0;
+            countDigits(source, length, shift, flip, counts);
+            if (!toOffsets(counts, length)) {
+                continue;
+            }
+            scatter(source, target, length, shift, flip, counts);
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private static long[] sort(long[] keys, long[] buffer, int length, int chunks) {
+        long[] source = keys;
+        long[] target = buffer;
+        int[][] counts = new int[chunks][];
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            int flip = shift == Long.SIZE - Byte.SIZE ? RADIX >>> 1 : 0;
+            countDigits(source, length, shift, flip, counts);
+            if (!toOffsets(counts, length)) {
+                continue;
+            }
+            scatter(source, target, length, shift, flip, counts);
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    /**
+     * @param keys scratch copy of the keys, reordered by the passes
+     * @return the positions in sorted key order
+     */
+    private static int[] order(long[] keys, int length, int chunks) {
+        long[] source = keys;
+        long[] target = new long[length];
+        int[] positions = new int[length];
+        int[] buffer = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = i;
+        }
+        int[][] counts = new int[chunks][];
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            int flip = shift == Long.SIZE - Byte.SIZE ? RADIX >>> 1 : 0;
+            countDigits(source, length, shift, flip, counts);
+            if (!toOffsets(counts, length)) {
+                continue;
+            }
+            scatter(source, positions, target, buffer, length, shift, flip, counts);
+            long[] swap = source;
+            source = target;
+            target = swap;
+            int[] swapPositions = positions;
+            positions = buffer;
+            buffer = swapPositions;
+        }
+        return positions;
+    }
+
+    private static void countDigits(int[] source, int length, int shift, int flip, int[][] counts) {
+        run(counts.length, length, (chunk, from, to) -> {
+            int[] count = new int[RADIX];
+            for (int i = from; i < to; i++) {
+                count[((source[i] >>> shift) & DIGIT_MASK) ^ flip]++;
+            }
+            counts[chunk] = count;
+        });
+    }
+
+    private static void countDigits(long[] source, int length, int shift, int flip, int[][] counts) {
+        run(counts.length, length, (chunk, from, to) -> {
+            int[] count = new int[RADIX];
+            for (int i = from; i < to; i++) {
+                count[((int) (source[i] >>> shift) & DIGIT_MASK) ^ flip]++;
+            }
+            counts[chunk] = count;
+        });
+    }
+
+    private static void scatter(int[] source, int[] target, int length, int shift, int flip, int[][] offsets) {
+        run(offsets.length, length, (chunk, from, to) -> {
+            int[] offset = offsets[chunk];
+            for (int i = from; i < to; i++) {
+                int value = source[i];
+                target[offset[((value >>> shift) & DIGIT_MASK) ^ flip]++] = value;
+            }
+        });
+    }
+
+    private static void scatter(long[] source, long[] target, int length, int shift, int flip, int[][] offsets) {
+        run(offsets.length, length, (chunk, from, to) -> {
+            int[] offset = offsets[chunk];
+            for (int i = from; i < to; i++) {
+                long value = source[i];
+                target[offset[((int) (value >>> shift) & DIGIT_MASK) ^ flip]++] = value;
+            }
+        });
+    }
+
+    private static void scatter(long[] source, int[] positions, long[] target, int[] targetPositions,
+                                int length, int shift, int flip, int[][] offsets) {
+        run(offsets.length, length, (chunk, from, to) -> {
+            int[] offset = offsets[chunk];
+            for (int i = from; i < to; i++) {
+                long value = source[i];
+                int index = offset[((int) (value >>> shift) & DIGIT_MASK) ^ flip]++;
+                target[index] = value;
+                targetPositions[index] = positions[i];
+            }
+        });
+    }
+
+    /**
+     * turns the per chunk digit counts into scatter offsets, chunk by chunk inside each digit
+     *
+     * @return false if all keys share one digit and the pass can be skipped
+     */
+    private static boolean toOffsets(int[][] counts, int length) {
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[digit];
+            }
+            if (total == length) {
+                return false;
+            }
+        }
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            for (int[] count : counts) {
+                int c = count[digit];
+                count[digit] = offset;
+                offset += c;
+            }
+        }
+        return true;
+    }
+
+    private static void run(int chunks, int length, ChunkAction action) {
+        if (chunks == 1) {
+            action.apply(0, 0, length);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            int from = (int) ((long) length * chunk / chunks);
+            int to = (int) ((long) length * (chunk + 1) / chunks);
+            tasks.add(ForkJoinTask.adapt(() -> action.apply(index, from, to)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void apply(int chunk, int from, int to);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.common;
+
+/**
+ * aggregates over the last {@code size} accepted values in constant time per value,
+ * sums keep a ring buffer of the window, minimum and maximum keep a monotonic deque
+ *
+ * @author amrjlg
+ **/
+public abstract class SlidingWindow {
+
+    protected final int size;
+    protected long count;
+
+    protected SlidingWindow(int size) {
+        this.size = size;
+    }
+
+    /**
+     * whether a whole window has been accepted
+     */
+    public boolean full() {
+        return count >= size;
+    }
+
+    public static final class LongSum extends SlidingWindow {
+        private final long[] ring;
+        private int position;
+        private long sum;
+
+        public LongSum(int size) {
+            super(size);
+            this.ring = new long[size];
+        }
+
+        public void accept(long value) {
+            if (count >= size) {
+                sum -= ring[position];
+            }
+            ring[position] = value;
+            sum += value;
+            if (++position == size) {
+                position = 0;
+            }
+            count++;
+        }
+
+        public long get() {
+            return sum;
+        }
+    }
+
+    public static final class DoubleSum extends SlidingWindow {
+        private final double[] ring;
+        private int position;
+        private double sum;
+
+        public DoubleSum(int size) {
+            super(size);
+            this.ring = new double[size];
+        }
+
+        public void accept(double value) {
+            if (count >= size) {
+                sum -= ring[position];
+            }
+            ring[position] = value;
+            sum += value;
+            if (++position == size) {
+                position = 0;
+                // start over once per window so rounding errors of the subtractions do not pile up
+                sum = 0;
+                for (double v : ring) {
+                    sum += v;
+                }
+            }
+            count++;
+        }
+
+        public double get() {
+            return sum;
+        }
+    }
+
+    public static final class LongExtreme extends SlidingWindow {
+        private final boolean max;
+        private final long[] values;
+        private final long[] indices;
+        private int head;
+        private int length;
+
+        public LongExtreme(int size, boolean max) {
+            super(size);
+            this.max = max;
+            this.values = new long[size];
+            this.indices = new long[size];
+        }
+
+        public void accept(long value) {
+            if (length > 0 && indices[head] <= count - size) {
+                if (++head == size) {
+                    head = 0;
+                }
+                length--;
+            }
+            while (length > 0) {
+                int back = head + length - 1;
+                if (back >= size) {
+                    back -= size;
+                }
+                if (max ? values[back] <= value : values[back] >= value) {
+                    length--;
+                } else {
+                    break;
+                }
+            }
+            int tail = head + length;
+            if (tail >= size) {
+                tail -= size;
+            }
+            values[tail] = value;
+            indices[tail] = count++;
+            length++;
+        }
+
+        public long get() {
+            return values[head];
+        }
+    }
+
+    /**
+     * orders values like {@link Double#compare}, so {@code NaN} is the greatest value and {@code -0.0} is less than {@code 0.0}
+     */
+    public static final class DoubleExtreme extends SlidingWindow {
+        private final boolean max;
+        private final double[] values;
+        private final long[] indices;
+        private int head;
+        private int length;
+
+        public DoubleExtreme(int size, boolean max) {
+            super(size);
+            this.max = max;
+            this.values = new double[size];
+            this.indices = new long[size];
+        }
+
+        public void accept(double value) {
+            if (length > 0 && indices[head] <= count - size) {
+                if (++head == size) {
+                    head = 0;
+                }
+                length--;
+            }
+            while (length > 0) {
+                int back = head + length - 1;
+                if (back >= size) {
+                    back -= size;
+                }
+                int compare = Double.compare(values[back], value);
+                if (max ? compare <= 0 : compare >= 0) {
+                    length--;
+                } else {
+                    break;
+                }
+            }
+            int tail = head + length;
+            if (tail >= size) {
+                tail -= size;
+            }
+            values[tail] = value;
+            indices[tail] = count++;
+            length++;
+        }
+
+        public double get() {
+            return values[head];
+        }
+    }
+}
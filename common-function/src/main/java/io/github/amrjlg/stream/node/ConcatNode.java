@@ -61,7 +61,7 @@ public final class ConcatNode<T> extends AbstractConcatNode<T, Node<T>>
         public void copyInto(T[] boxed, int offset) {
             Objects.requireNonNull(boxed);
             left.copyInto(boxed, offset);
-            right.copyInto(boxed, offset);
+            right.copyInto(boxed, offset + (int) left.count());
         }
 
         @Override
@@ -101,7 +101,7 @@ public final class ConcatNode<T> extends AbstractConcatNode<T, Node<T>>
             @Override
             public void copyInto(TypeArray array, int offset) {
                 left.copyInto(array, offset);
-                right.copyInto(array, offset);
+                right.copyInto(array, offset + (int) left.count());
             }
 
             @Override
@@ -114,6 +114,23 @@ public final class ConcatNode<T> extends AbstractConcatNode<T, Node<T>>
                 return array;
             }
 
+            @Override
+            @SuppressWarnings("unchecked")
+            public TypeNode truncate(long from, long to, IntFunction<Type[]> generator) {
+                if (from == 0 && to == count()) {
+                    return (TypeNode) this;
+                }
+                long leftCount = left.count();
+                if (from >= leftCount) {
+                    return right.truncate(from - leftCount, to - leftCount, generator);
+                } else if (to <= leftCount) {
+                    return left.truncate(from, to, generator);
+                } else {
+                    // the concatenation of two nodes of this shape is a node of the same shape
+                    return (TypeNode) Nodes.concat(getShape(), left.truncate(from, leftCount, generator), right.truncate(0, to - leftCount, generator));
+                }
+            }
+
         }
 
 
@@ -45,6 +45,17 @@ public final class DoubleFixedNodeBuilder extends DoubleArrayNode implements Nod
             }
         }
 
+        @Override
+        public void acceptAll(double[] values, int from, int to) {
+            if (to - from <= array.length - index) {
+                System.arraycopy(values, from, array, index, to - from);
+                index += to - from;
+            } else {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d",
+                        array.length));
+            }
+        }
+
         @Override
         public void end() {
             Nodes.sameCount(index, array.length);
@@ -67,7 +67,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfByte spliterator() {
-            return null;
+            return Spliterators.emptyByteSpliterator();
         }
 
         @Override
@@ -82,7 +82,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfShort spliterator() {
-            return null;
+            return Spliterators.emptyShortSpliterator();
         }
 
         @Override
@@ -97,7 +97,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfChar spliterator() {
-            return null;
+            return Spliterators.emptyCharSpliterator();
         }
 
         @Override
@@ -112,7 +112,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfInt spliterator() {
-            return null;
+            return Spliterators.emptyIntSpliterator();
         }
 
         @Override
@@ -127,7 +127,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfLong spliterator() {
-            return null;
+            return Spliterators.emptyLongSpliterator();
         }
 
         @Override
@@ -142,7 +142,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfFloat spliterator() {
-            return null;
+            return Spliterators.emptyFloatSpliterator();
         }
 
         @Override
@@ -157,7 +157,7 @@ public abstract class EmptyNode<Type, TypeArray, TypeConsumer> implements Node<T
 
         @Override
         public Spliterator.OfDouble spliterator() {
-            return null;
+            return Spliterators.emptyDoubleSpliterator();
         }
 
         @Override
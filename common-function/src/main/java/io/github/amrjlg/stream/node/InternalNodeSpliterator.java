@@ -76,7 +76,7 @@ public abstract class InternalNodeSpliterator<T, S extends Spliterator<T>,
                     return n;
                 }
             } else {
-                for (int i = 0; i < n.getChildCount(); i++) {
+                for (int i = n.getChildCount() - 1; i >= 0; i--) {
                     stack.addFirst((N) n.getChild(i));
                 }
             }
@@ -112,7 +112,7 @@ public abstract class InternalNodeSpliterator<T, S extends Spliterator<T>,
     @Override
     @SuppressWarnings("unchecked")
     public S trySplit() {
-        if (currentNode == null || tryAdvanceSpliterator == null) {
+        if (currentNode == null || tryAdvanceSpliterator != null) {
             return null;
         } else if (lastNodeSpliterator != null) {
             return (S) lastNodeSpliterator.trySplit();
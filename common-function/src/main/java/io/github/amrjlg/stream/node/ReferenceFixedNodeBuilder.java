@@ -53,6 +53,17 @@ public final class ReferenceFixedNodeBuilder<T> extends ReferenceArrayNode<T> im
             }
         }
 
+        @Override
+        public void acceptAll(T[] values, int from, int to) {
+            if (to - from <= array.length - currentSize) {
+                System.arraycopy(values, from, array, currentSize, to - from);
+                currentSize += to - from;
+            } else {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d",
+                        array.length));
+            }
+        }
+
         @Override
         public void end() {
             sameCount(currentSize, array.length);
@@ -0,0 +1,522 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.pipeline.ReferencePipeline;
+import io.github.amrjlg.stream.spliterator.BatchSpliterator;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * groups consecutive elements into batches of a fixed size, the last batch holds the remainder.
+ * sequential pipelines fill one array at a time,
+ * parallel pipelines batch each leaf lazily, see {@link BatchSpliterator} for how splits keep to batch boundaries
+ *
+ * @author amrjlg
+ **/
+public class BatchOps {
+
+    private static final int FLAGS = StreamOpFlag.NOT_SIZED | StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT;
+
+    /**
+     * capacity of a batch array before it is known to fill up
+     */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    public static <T> Stream<List<T>> makeRef(AbstractPipeline<?, T, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<T, List<T>>(upstream, StreamShape.REFERENCE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<List<T>> opEvaluateParallelLazy(PipelineHelper<List<T>> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<T> elements = (PipelineHelper<T>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfRef<>(elements.wrapSpliterator(spliterator), batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<List<T>> opEvaluateParallel(PipelineHelper<List<T>> helper, Spliterator<P_IN> spliterator, IntFunction<List<T>[]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<List<T>> sink) {
+                return new Sink.ChainedReference<T, List<T>>(sink) {
+                    Object[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new Object[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public void accept(T t) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = t;
+                        if (count == batchSize) {
+                            downstream.accept((List<T>) Arrays.asList(batch));
+                            batch = new Object[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept((List<T>) Arrays.asList(Arrays.copyOf(batch, count)));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<byte[]> makeByte(AbstractPipeline<?, Byte, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Byte, byte[]>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<byte[]> opEvaluateParallelLazy(PipelineHelper<byte[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Byte> elements = (PipelineHelper<Byte>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfByte((Spliterator.OfByte) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<byte[]> opEvaluateParallel(PipelineHelper<byte[]> helper, Spliterator<P_IN> spliterator, IntFunction<byte[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<byte[]> sink) {
+                return new Sink.ChainedByte<byte[]>(sink) {
+                    byte[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new byte[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new byte[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<short[]> makeShort(AbstractPipeline<?, Short, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Short, short[]>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<short[]> opEvaluateParallelLazy(PipelineHelper<short[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Short> elements = (PipelineHelper<Short>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfShort((Spliterator.OfShort) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<short[]> opEvaluateParallel(PipelineHelper<short[]> helper, Spliterator<P_IN> spliterator, IntFunction<short[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<short[]> sink) {
+                return new Sink.ChainedShort<short[]>(sink) {
+                    short[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new short[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new short[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<char[]> makeChar(AbstractPipeline<?, Character, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Character, char[]>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<char[]> opEvaluateParallelLazy(PipelineHelper<char[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Character> elements = (PipelineHelper<Character>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfChar((Spliterator.OfChar) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<char[]> opEvaluateParallel(PipelineHelper<char[]> helper, Spliterator<P_IN> spliterator, IntFunction<char[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<char[]> sink) {
+                return new Sink.ChainedChar<char[]>(sink) {
+                    char[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new char[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new char[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<int[]> makeInt(AbstractPipeline<?, Integer, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Integer, int[]>(upstream, StreamShape.INT_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<int[]> opEvaluateParallelLazy(PipelineHelper<int[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Integer> elements = (PipelineHelper<Integer>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfInt((Spliterator.OfInt) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<int[]> opEvaluateParallel(PipelineHelper<int[]> helper, Spliterator<P_IN> spliterator, IntFunction<int[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<int[]> sink) {
+                return new Sink.ChainedInt<int[]>(sink) {
+                    int[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new int[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new int[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<long[]> makeLong(AbstractPipeline<?, Long, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Long, long[]>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<long[]> opEvaluateParallelLazy(PipelineHelper<long[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Long> elements = (PipelineHelper<Long>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfLong((Spliterator.OfLong) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<long[]> opEvaluateParallel(PipelineHelper<long[]> helper, Spliterator<P_IN> spliterator, IntFunction<long[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<long[]> sink) {
+                return new Sink.ChainedLong<long[]>(sink) {
+                    long[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new long[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new long[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<float[]> makeFloat(AbstractPipeline<?, Float, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Float, float[]>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<float[]> opEvaluateParallelLazy(PipelineHelper<float[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Float> elements = (PipelineHelper<Float>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfFloat((Spliterator.OfFloat) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<float[]> opEvaluateParallel(PipelineHelper<float[]> helper, Spliterator<P_IN> spliterator, IntFunction<float[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<float[]> sink) {
+                return new Sink.ChainedFloat<float[]>(sink) {
+                    float[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new float[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new float[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<double[]> makeDouble(AbstractPipeline<?, Double, ?> upstream, int batchSize) {
+        checkBatchSize(batchSize);
+        return new ReferencePipeline.StatefulOp<Double, double[]>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <P_IN> Spliterator<double[]> opEvaluateParallelLazy(PipelineHelper<double[]> helper, Spliterator<P_IN> spliterator) {
+                PipelineHelper<Double> elements = (PipelineHelper<Double>) (PipelineHelper<?>) helper;
+                return new BatchSpliterator.OfDouble((Spliterator.OfDouble) elements.wrapSpliterator(spliterator),
+                        batchSize, sized(elements, spliterator));
+            }
+
+            @Override
+            public <P_IN> Node<double[]> opEvaluateParallel(PipelineHelper<double[]> helper, Spliterator<P_IN> spliterator, IntFunction<double[][]> generator) {
+                return node(opEvaluateParallelLazy(helper, spliterator), generator);
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<double[]> sink) {
+                return new Sink.ChainedDouble<double[]>(sink) {
+                    double[] batch;
+                    int count;
+
+                    @Override
+                    public void begin(long size) {
+                        batch = new double[capacity(size, batchSize)];
+                        count = 0;
+                        downstream.begin(batches(size, batchSize));
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        if (count == batch.length) {
+                            batch = Arrays.copyOf(batch, grow(count, batchSize));
+                        }
+                        batch[count++] = value;
+                        if (count == batchSize) {
+                            downstream.accept(batch);
+                            batch = new double[batch.length];
+                            count = 0;
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        if (count > 0 && !downstream.cancellationRequested()) {
+                            downstream.accept(Arrays.copyOf(batch, count));
+                        }
+                        batch = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    private static void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+    }
+
+    private static <P_IN> boolean sized(PipelineHelper<?> helper, Spliterator<P_IN> spliterator) {
+        return spliterator.hasCharacteristics(Spliterator.SUBSIZED) && helper.exactOutputSizeIfKnown(spliterator) >= 0;
+    }
+
+    private static int capacity(long size, int batchSize) {
+        long capacity = size >= 0 ? Math.min(size, batchSize) : Math.min(INITIAL_CAPACITY, batchSize);
+        return (int) Math.max(capacity, 1);
+    }
+
+    private static int grow(int length, int batchSize) {
+        return (int) Math.min((long) length << 1, batchSize);
+    }
+
+    private static long batches(long size, int batchSize) {
+        return size >= 0 ? (size + batchSize - 1) / batchSize : -1;
+    }
+
+    private static <T> Node<T> node(Spliterator<T> batches, IntFunction<T[]> generator) {
+        List<T> list = new ArrayList<>();
+        batches.forEachRemaining(list::add);
+        return Nodes.node(list.toArray(generator.apply(list.size())));
+    }
+}
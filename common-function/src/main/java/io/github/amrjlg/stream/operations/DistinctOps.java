@@ -17,25 +17,48 @@
 
 package io.github.amrjlg.stream.operations;
 
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
 import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.StreamOpFlag;
 import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.TerminalOp;
+import io.github.amrjlg.stream.buffer.SpinedBuffer;
+import io.github.amrjlg.stream.common.ConcurrentBitSet;
+import io.github.amrjlg.stream.common.ConcurrentIntHashSet;
+import io.github.amrjlg.stream.common.ConcurrentLongHashSet;
+import io.github.amrjlg.stream.common.IntHashSet;
+import io.github.amrjlg.stream.common.LongHashSet;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.Nodes;
 import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.BytePipeline;
+import io.github.amrjlg.stream.pipeline.CharPipeline;
+import io.github.amrjlg.stream.pipeline.DoublePipeline;
+import io.github.amrjlg.stream.pipeline.FloatPipeline;
+import io.github.amrjlg.stream.pipeline.IntPipeline;
+import io.github.amrjlg.stream.pipeline.LongPipeline;
 import io.github.amrjlg.stream.pipeline.PipelineHelper;
 import io.github.amrjlg.stream.pipeline.ReferencePipeline;
+import io.github.amrjlg.stream.pipeline.ShortPipeline;
 import io.github.amrjlg.stream.spliterator.DistinctSpliterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
 
 /**
  * @author amrjlg
@@ -43,6 +66,18 @@ import java.util.function.IntFunction;
  **/
 public class DistinctOps {
 
+    private static final int FLAGS = StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED;
+
+    /**
+     * bit set domain of byte values
+     */
+    private static final int BYTE_DOMAIN = 1 << Byte.SIZE;
+
+    /**
+     * bit set domain of short and char values
+     */
+    private static final int SHORT_DOMAIN = 1 << Short.SIZE;
+
     public static <T> Sink<T> unSortedDistinctSink(Sink<T> sink) {
         return new Sink.ChainedReference<T, T>(sink) {
             Set<T> seen;
@@ -170,4 +205,610 @@ public class DistinctOps {
             }
         };
     }
+
+    public static ByteStream makeByte(AbstractPipeline<?, Byte, ?> upstream) {
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                }
+                return new Sink.ChainedByte<Byte>(sink) {
+                    BitSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new BitSet(BYTE_DOMAIN);
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        int key = value & 0xFF;
+                        if (!seen.get(key)) {
+                            seen.set(key);
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Byte> opEvaluateParallelLazy(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Byte[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                int[] keys;
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    keys = ReduceOps.makeByte(() -> new OrderedIntKeys(BYTE_DOMAIN),
+                                    (OrderedIntKeys container, byte value) -> container.accept(value & 0xFF),
+                                    OrderedIntKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray();
+                } else {
+                    ConcurrentBitSet seen = new ConcurrentBitSet(BYTE_DOMAIN);
+                    ForeachOps.makeByte(value -> seen.add(value & 0xFF), false).evaluateParallel(helper, spliterator);
+                    keys = setBits(seen);
+                }
+                byte[] array = new byte[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    array[i] = (byte) keys[i];
+                }
+                return Nodes.node(array);
+            }
+        };
+    }
+
+    public static ShortStream makeShort(AbstractPipeline<?, Short, ?> upstream) {
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                }
+                return new Sink.ChainedShort<Short>(sink) {
+                    BitSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new BitSet(SHORT_DOMAIN);
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        int key = value & 0xFFFF;
+                        if (!seen.get(key)) {
+                            seen.set(key);
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Short> opEvaluateParallelLazy(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Short[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                int[] keys;
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    keys = ReduceOps.makeShort(() -> new OrderedIntKeys(SHORT_DOMAIN),
+                                    (OrderedIntKeys container, short value) -> container.accept(value & 0xFFFF),
+                                    OrderedIntKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray();
+                } else {
+                    ConcurrentBitSet seen = new ConcurrentBitSet(SHORT_DOMAIN);
+                    ForeachOps.makeShort(value -> seen.add(value & 0xFFFF), false).evaluateParallel(helper, spliterator);
+                    keys = setBits(seen);
+                }
+                short[] array = new short[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    array[i] = (short) keys[i];
+                }
+                return Nodes.node(array);
+            }
+        };
+    }
+
+    public static CharStream makeChar(AbstractPipeline<?, Character, ?> upstream) {
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                }
+                return new Sink.ChainedChar<Character>(sink) {
+                    BitSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new BitSet(SHORT_DOMAIN);
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        int key = value;
+                        if (!seen.get(key)) {
+                            seen.set(key);
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Character> opEvaluateParallelLazy(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Character[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                int[] keys;
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    keys = ReduceOps.makeChar(() -> new OrderedIntKeys(SHORT_DOMAIN),
+                                    (OrderedIntKeys container, char value) -> container.accept(value),
+                                    OrderedIntKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray();
+                } else {
+                    ConcurrentBitSet seen = new ConcurrentBitSet(SHORT_DOMAIN);
+                    ForeachOps.makeChar(value -> seen.add(value), false).evaluateParallel(helper, spliterator);
+                    keys = setBits(seen);
+                }
+                char[] array = new char[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    array[i] = (char) keys[i];
+                }
+                return Nodes.node(array);
+            }
+        };
+    }
+
+    public static IntStream makeInt(AbstractPipeline<?, Integer, ?> upstream) {
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedInt<Integer>(sink) {
+                        boolean seenAny;
+                        int previous;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(int value) {
+                            if (!seenAny || value != previous) {
+                                seenAny = true;
+                                downstream.accept(previous = value);
+                            }
+                        }
+                    };
+                }
+                return new Sink.ChainedInt<Integer>(sink) {
+                    IntHashSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new IntHashSet();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        if (seen.add(value)) {
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Integer[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    return Nodes.node(ReduceOps.makeInt(() -> new OrderedIntKeys(0),
+                                    OrderedIntKeys::accept,
+                                    OrderedIntKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray());
+                }
+                ConcurrentIntHashSet seen = new ConcurrentIntHashSet();
+                ForeachOps.makeInt(seen::add, false).evaluateParallel(helper, spliterator);
+                return Nodes.node(seen.toArray());
+            }
+        };
+    }
+
+    public static LongStream makeLong(AbstractPipeline<?, Long, ?> upstream) {
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedLong<Long>(sink) {
+                        boolean seenAny;
+                        long previous;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(long value) {
+                            if (!seenAny || value != previous) {
+                                seenAny = true;
+                                downstream.accept(previous = value);
+                            }
+                        }
+                    };
+                }
+                return new Sink.ChainedLong<Long>(sink) {
+                    LongHashSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new LongHashSet();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        if (seen.add(value)) {
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Long[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    return Nodes.node(ReduceOps.makeLong(() -> new OrderedLongKeys(),
+                                    OrderedLongKeys::accept,
+                                    OrderedLongKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray());
+                }
+                ConcurrentLongHashSet seen = new ConcurrentLongHashSet();
+                ForeachOps.makeLong(seen::add, false).evaluateParallel(helper, spliterator);
+                return Nodes.node(seen.toArray());
+            }
+        };
+    }
+
+    public static FloatStream makeFloat(AbstractPipeline<?, Float, ?> upstream) {
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedFloat<Float>(sink) {
+                        boolean seenAny;
+                        int previous;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(float value) {
+                            int key = Float.floatToIntBits(value);
+                            if (!seenAny || key != previous) {
+                                seenAny = true;
+                                previous = key;
+                                downstream.accept(value);
+                            }
+                        }
+                    };
+                }
+                return new Sink.ChainedFloat<Float>(sink) {
+                    IntHashSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new IntHashSet();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        if (seen.add(Float.floatToIntBits(value))) {
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Float> opEvaluateParallelLazy(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Float[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                int[] keys;
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    keys = ReduceOps.makeFloat(() -> new OrderedIntKeys(0),
+                                    (OrderedIntKeys container, float value) -> container.accept(Float.floatToIntBits(value)),
+                                    OrderedIntKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray();
+                } else {
+                    ConcurrentIntHashSet seen = new ConcurrentIntHashSet();
+                    ForeachOps.makeFloat(value -> seen.add(Float.floatToIntBits(value)), false).evaluateParallel(helper, spliterator);
+                    keys = seen.toArray();
+                }
+                float[] array = new float[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    array[i] = Float.intBitsToFloat(keys[i]);
+                }
+                return Nodes.node(array);
+            }
+        };
+    }
+
+    public static DoubleStream makeDouble(AbstractPipeline<?, Double, ?> upstream) {
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                Objects.requireNonNull(sink);
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedDouble<Double>(sink) {
+                        boolean seenAny;
+                        long previous;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(double value) {
+                            long key = Double.doubleToLongBits(value);
+                            if (!seenAny || key != previous) {
+                                seenAny = true;
+                                previous = key;
+                                downstream.accept(value);
+                            }
+                        }
+                    };
+                }
+                return new Sink.ChainedDouble<Double>(sink) {
+                    LongHashSet seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new LongHashSet();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        if (seen.add(Double.doubleToLongBits(value))) {
+                            downstream.accept(value);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.wrapSpliterator(spliterator);
+                }
+                return opEvaluateParallel(helper, spliterator, Double[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                long[] keys;
+                if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    keys = ReduceOps.makeDouble(() -> new OrderedLongKeys(),
+                                    (OrderedLongKeys container, double value) -> container.accept(Double.doubleToLongBits(value)),
+                                    OrderedLongKeys::combine)
+                            .evaluateParallel(helper, spliterator)
+                            .toArray();
+                } else {
+                    ConcurrentLongHashSet seen = new ConcurrentLongHashSet();
+                    ForeachOps.makeDouble(value -> seen.add(Double.doubleToLongBits(value)), false).evaluateParallel(helper, spliterator);
+                    keys = seen.toArray();
+                }
+                double[] array = new double[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    array[i] = Double.longBitsToDouble(keys[i]);
+                }
+                return Nodes.node(array);
+            }
+        };
+    }
+
+    private static int[] setBits(ConcurrentBitSet seen) {
+        int[] keys = new int[seen.size()];
+        int[] index = new int[1];
+        seen.forEach(key -> keys[index[0]++] = key);
+        return keys;
+    }
+
+    /**
+     * distinct keys of one parallel leaf in encounter order, merged left to right
+     */
+    static final class OrderedIntKeys {
+        private final BitSet bits;
+        private final IntHashSet set;
+        private final SpinedBuffer.OfInt keys = new SpinedBuffer.OfInt();
+
+        /**
+         * @param domain bit set size for narrow keys, zero to hash the keys
+         */
+        OrderedIntKeys(int domain) {
+            this.bits = domain > 0 ? new BitSet(domain) : null;
+            this.set = domain > 0 ? null : new IntHashSet();
+        }
+
+        void accept(int key) {
+            if (bits != null) {
+                if (bits.get(key)) {
+                    return;
+                }
+                bits.set(key);
+            } else if (!set.add(key)) {
+                return;
+            }
+            keys.accept(key);
+        }
+
+        OrderedIntKeys combine(OrderedIntKeys other) {
+            other.keys.forEach((IntConsumer) this::accept);
+            return this;
+        }
+
+        int[] toArray() {
+            return keys.asPrimitiveArray();
+        }
+    }
+
+    static final class OrderedLongKeys {
+        private final LongHashSet set = new LongHashSet();
+        private final SpinedBuffer.OfLong keys = new SpinedBuffer.OfLong();
+
+        void accept(long key) {
+            if (set.add(key)) {
+                keys.accept(key);
+            }
+        }
+
+        OrderedLongKeys combine(OrderedLongKeys other) {
+            other.keys.forEach((LongConsumer) this::accept);
+            return this;
+        }
+
+        long[] toArray() {
+            return keys.asPrimitiveArray();
+        }
+    }
 }
@@ -30,10 +30,13 @@ import io.github.amrjlg.stream.StreamOpFlag;
 import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.TerminalOp;
 import io.github.amrjlg.stream.common.Box;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
 import io.github.amrjlg.stream.sink.AccumulatingSink;
+import io.github.amrjlg.stream.sink.CountingSink;
 import io.github.amrjlg.stream.sink.ReducingCollectorSink;
 import io.github.amrjlg.stream.sink.ReducingOptionalSink;
 import io.github.amrjlg.stream.sink.ReducingSink;
+import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.util.OptionalByte;
 import io.github.amrjlg.util.OptionalChar;
 import io.github.amrjlg.util.OptionalFloat;
@@ -135,6 +138,15 @@ public class ReduceOps {
                 state = op.applyAsByte(state, value);
             }
 
+            @Override
+            public void acceptAll(byte[] array, int from, int to) {
+                byte result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsByte(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public Byte get() {
                 return state;
@@ -230,6 +242,15 @@ public class ReduceOps {
                 state = op.applyAsChar(state, value);
             }
 
+            @Override
+            public void acceptAll(char[] array, int from, int to) {
+                char result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsChar(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -369,6 +390,15 @@ public class ReduceOps {
                 state = op.applyAsShort(state, value);
             }
 
+            @Override
+            public void acceptAll(short[] array, int from, int to) {
+                short result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsShort(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -467,6 +497,15 @@ public class ReduceOps {
                 state = op.applyAsInt(state, value);
             }
 
+            @Override
+            public void acceptAll(int[] array, int from, int to) {
+                int result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsInt(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -566,6 +605,15 @@ public class ReduceOps {
                 state = op.applyAsLong(state, value);
             }
 
+            @Override
+            public void acceptAll(long[] array, int from, int to) {
+                long result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsLong(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -664,6 +712,15 @@ public class ReduceOps {
                 state = op.applyAsFloat(state, value);
             }
 
+            @Override
+            public void acceptAll(float[] array, int from, int to) {
+                float result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsFloat(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -764,6 +821,15 @@ public class ReduceOps {
                 state = op.applyAsDouble(state, value);
             }
 
+            @Override
+            public void acceptAll(double[] array, int from, int to) {
+                double result = state;
+                for (int i = from; i < to; i++) {
+                    result = op.applyAsDouble(result, array[i]);
+                }
+                state = result;
+            }
+
             @Override
             public void combine(Adapter other) {
                 accept(other.state);
@@ -807,4 +873,66 @@ public class ReduceOps {
             }
         };
     }
+
+    public static <T> TerminalOp<T, Long> makeRefCounting() {
+        return makeCounting(StreamShape.REFERENCE, CountingSink.OfRef::new);
+    }
+
+    public static TerminalOp<Byte, Long> makeByteCounting() {
+        return makeCounting(StreamShape.BYTE_VALUE, CountingSink.OfByte::new);
+    }
+
+    public static TerminalOp<Character, Long> makeCharCounting() {
+        return makeCounting(StreamShape.CHAR_VALUE, CountingSink.OfChar::new);
+    }
+
+    public static TerminalOp<Short, Long> makeShortCounting() {
+        return makeCounting(StreamShape.SHORT_VALUE, CountingSink.OfShort::new);
+    }
+
+    public static TerminalOp<Integer, Long> makeIntCounting() {
+        return makeCounting(StreamShape.INT_VALUE, CountingSink.OfInt::new);
+    }
+
+    public static TerminalOp<Long, Long> makeLongCounting() {
+        return makeCounting(StreamShape.LONG_VALUE, CountingSink.OfLong::new);
+    }
+
+    public static TerminalOp<Float, Long> makeFloatCounting() {
+        return makeCounting(StreamShape.FLOAT_VALUE, CountingSink.OfFloat::new);
+    }
+
+    public static TerminalOp<Double, Long> makeDoubleCounting() {
+        return makeCounting(StreamShape.DOUBLE_VALUE, CountingSink.OfDouble::new);
+    }
+
+    /**
+     * a known exact size is returned without traversing the source,
+     * otherwise the elements are counted
+     */
+    private static <T> TerminalOp<T, Long> makeCounting(StreamShape shape, Supplier<CountingSink<T>> sinkSupplier) {
+        return new ReduceOp<T, Long, CountingSink<T>>(shape) {
+            @Override
+            public CountingSink<T> makeSink() {
+                return sinkSupplier.get();
+            }
+
+            @Override
+            public <Out> Long evaluateSequential(PipelineHelper<T> helper, Spliterator<Out> spliterator) {
+                long size = helper.exactOutputSizeIfKnown(spliterator);
+                return size != -1 ? size : super.evaluateSequential(helper, spliterator);
+            }
+
+            @Override
+            public <Out> Long evaluateParallel(PipelineHelper<T> helper, Spliterator<Out> spliterator) {
+                long size = helper.exactOutputSizeIfKnown(spliterator);
+                return size != -1 ? size : super.evaluateParallel(helper, spliterator);
+            }
+
+            @Override
+            public int getOpFlags() {
+                return StreamOpFlag.NOT_ORDERED;
+            }
+        };
+    }
 }
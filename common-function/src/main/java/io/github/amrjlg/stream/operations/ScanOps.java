@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.function.ByteBinaryOperator;
+import io.github.amrjlg.function.CharBinaryOperator;
+import io.github.amrjlg.function.FloatBinaryOperator;
+import io.github.amrjlg.function.ShortBinaryOperator;
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.BytePipeline;
+import io.github.amrjlg.stream.pipeline.CharPipeline;
+import io.github.amrjlg.stream.pipeline.DoublePipeline;
+import io.github.amrjlg.stream.pipeline.FloatPipeline;
+import io.github.amrjlg.stream.pipeline.IntPipeline;
+import io.github.amrjlg.stream.pipeline.LongPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.pipeline.ShortPipeline;
+import io.github.amrjlg.stream.spliterator.SinkSpliterator;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.task.ScanTask;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * inclusive prefix scan, the n-th element is the fold of the identity and the first n elements.
+ * parallel pipelines of a known size scan every leaf on its own and then offset it by the fold of the leaves before it,
+ * see {@link ScanTask}, so the operator has to be associative and the identity has to be its identity.
+ * an upstream of unknown size may be infinite and is scanned lazily in one pass
+ *
+ * @author amrjlg
+ * @see java.util.Arrays#parallelPrefix(int[], IntBinaryOperator)
+ **/
+public class ScanOps {
+
+    private static final int FLAGS = StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT;
+
+    public static ByteStream makeByte(AbstractPipeline<?, Byte, ?> upstream, byte identity, ByteBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Byte> opEvaluateParallelLazy(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Byte[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfByte<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.BYTE_VALUE, new ScanTask.Scan<Byte, byte[]>() {
+                    @Override
+                    public byte[] array(Node<Byte> node) {
+                        return ((Node.OfByte) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Byte> node(byte[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Byte last(byte[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Byte combine(Byte left, Byte right) {
+                        return op.applyAsByte(left, right);
+                    }
+
+                    @Override
+                    public void offset(Byte offset, byte[] scanned) {
+                        byte fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsByte(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                return new Sink.ChainedByte<Byte>(sink) {
+                    final Sink.OfByte consumer = (Sink.OfByte) downstream;
+                    byte accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        consumer.accept(accumulated = op.applyAsByte(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static ShortStream makeShort(AbstractPipeline<?, Short, ?> upstream, short identity, ShortBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Short> opEvaluateParallelLazy(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Short[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfShort<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.SHORT_VALUE, new ScanTask.Scan<Short, short[]>() {
+                    @Override
+                    public short[] array(Node<Short> node) {
+                        return ((Node.OfShort) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Short> node(short[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Short last(short[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Short combine(Short left, Short right) {
+                        return op.applyAsShort(left, right);
+                    }
+
+                    @Override
+                    public void offset(Short offset, short[] scanned) {
+                        short fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsShort(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                return new Sink.ChainedShort<Short>(sink) {
+                    final Sink.OfShort consumer = (Sink.OfShort) downstream;
+                    short accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        consumer.accept(accumulated = op.applyAsShort(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static CharStream makeChar(AbstractPipeline<?, Character, ?> upstream, char identity, CharBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Character> opEvaluateParallelLazy(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Character[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfChar<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.CHAR_VALUE, new ScanTask.Scan<Character, char[]>() {
+                    @Override
+                    public char[] array(Node<Character> node) {
+                        return ((Node.OfChar) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Character> node(char[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Character last(char[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Character combine(Character left, Character right) {
+                        return op.applyAsChar(left, right);
+                    }
+
+                    @Override
+                    public void offset(Character offset, char[] scanned) {
+                        char fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsChar(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                return new Sink.ChainedChar<Character>(sink) {
+                    final Sink.OfChar consumer = (Sink.OfChar) downstream;
+                    char accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        consumer.accept(accumulated = op.applyAsChar(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntStream makeInt(AbstractPipeline<?, Integer, ?> upstream, int identity, IntBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Integer[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfInt<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.INT_VALUE, new ScanTask.Scan<Integer, int[]>() {
+                    @Override
+                    public int[] array(Node<Integer> node) {
+                        return ((Node.OfInt) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Integer> node(int[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Integer last(int[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Integer combine(Integer left, Integer right) {
+                        return op.applyAsInt(left, right);
+                    }
+
+                    @Override
+                    public void offset(Integer offset, int[] scanned) {
+                        int fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsInt(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return new Sink.ChainedInt<Integer>(sink) {
+                    final Sink.OfInt consumer = (Sink.OfInt) downstream;
+                    int accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        consumer.accept(accumulated = op.applyAsInt(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeLong(AbstractPipeline<?, Long, ?> upstream, long identity, LongBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Long[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfLong<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.LONG_VALUE, new ScanTask.Scan<Long, long[]>() {
+                    @Override
+                    public long[] array(Node<Long> node) {
+                        return ((Node.OfLong) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Long> node(long[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Long last(long[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Long combine(Long left, Long right) {
+                        return op.applyAsLong(left, right);
+                    }
+
+                    @Override
+                    public void offset(Long offset, long[] scanned) {
+                        long fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsLong(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedLong<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    long accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        consumer.accept(accumulated = op.applyAsLong(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static FloatStream makeFloat(AbstractPipeline<?, Float, ?> upstream, float identity, FloatBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Float> opEvaluateParallelLazy(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Float[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfFloat<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.FLOAT_VALUE, new ScanTask.Scan<Float, float[]>() {
+                    @Override
+                    public float[] array(Node<Float> node) {
+                        return ((Node.OfFloat) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Float> node(float[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Float last(float[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Float combine(Float left, Float right) {
+                        return op.applyAsFloat(left, right);
+                    }
+
+                    @Override
+                    public void offset(Float offset, float[] scanned) {
+                        float fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsFloat(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                return new Sink.ChainedFloat<Float>(sink) {
+                    final Sink.OfFloat consumer = (Sink.OfFloat) downstream;
+                    float accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        consumer.accept(accumulated = op.applyAsFloat(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleStream makeDouble(AbstractPipeline<?, Double, ?> upstream, double identity, DoubleBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                if (helper.exactOutputSizeIfKnown(spliterator) >= 0) {
+                    return opEvaluateParallel(helper, spliterator, Double[]::new).spliterator();
+                }
+                return new SinkSpliterator.OfDouble<>(helper.wrapSpliterator(spliterator),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), false);
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return new ScanTask<>(this, helper, spliterator, generator, StreamShape.DOUBLE_VALUE, new ScanTask.Scan<Double, double[]>() {
+                    @Override
+                    public double[] array(Node<Double> node) {
+                        return ((Node.OfDouble) node).asPrimitiveArray();
+                    }
+
+                    @Override
+                    public Node<Double> node(double[] scanned) {
+                        return Nodes.node(scanned);
+                    }
+
+                    @Override
+                    public Double last(double[] scanned) {
+                        return scanned.length == 0 ? identity : scanned[scanned.length - 1];
+                    }
+
+                    @Override
+                    public Double combine(Double left, Double right) {
+                        return op.applyAsDouble(left, right);
+                    }
+
+                    @Override
+                    public void offset(Double offset, double[] scanned) {
+                        double fold = offset;
+                        for (int i = 0; i < scanned.length; i++) {
+                            scanned[i] = op.applyAsDouble(fold, scanned[i]);
+                        }
+                    }
+                }).evaluate();
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedDouble<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+                    double accumulated;
+
+                    @Override
+                    public void begin(long size) {
+                        accumulated = identity;
+                        downstream.begin(size);
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        consumer.accept(accumulated = op.applyAsDouble(accumulated, value));
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,694 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.TerminalOp;
+import io.github.amrjlg.stream.common.HyperLogLog;
+import io.github.amrjlg.stream.common.QuantileSketch;
+import io.github.amrjlg.stream.sink.AccumulatingSink;
+
+import java.util.Objects;
+
+/**
+ * terminal ops summarizing a stream in bounded memory, every leaf of a parallel
+ * evaluation accumulates its own summary and the summaries are merged by the reduce task
+ *
+ * @author amrjlg
+ **/
+public class SketchOps {
+
+    private SketchOps() {
+    }
+
+    /**
+     * the summaries do not depend on the encounter order
+     */
+    private abstract static class UnorderedOp<Input, Output, S extends AccumulatingSink<Input, Output, S>>
+            extends ReduceOp<Input, Output, S> {
+
+        UnorderedOp(StreamShape inputShape) {
+            super(inputShape);
+        }
+
+        @Override
+        public int getOpFlags() {
+            return StreamOpFlag.NOT_ORDERED;
+        }
+    }
+
+    private static void checkRanks(double[] ranks) {
+        for (double rank : Objects.requireNonNull(ranks)) {
+            if (!(rank >= 0 && rank <= 1)) {
+                throw new IllegalArgumentException("Rank must be in [0, 1]: " + rank);
+            }
+        }
+    }
+
+    private static long[] boundaries(int[] boundaries) {
+        long[] widened = new long[boundaries.length];
+        for (int i = 0; i < boundaries.length; i++) {
+            widened[i] = boundaries[i];
+        }
+        return checkBoundaries(widened);
+    }
+
+    private static long[] checkBoundaries(long[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++) {
+            if (boundaries[i - 1] >= boundaries[i]) {
+                throw new IllegalArgumentException("Boundaries must be strictly increasing");
+            }
+        }
+        return boundaries;
+    }
+
+    private static double[] boundaries(float[] boundaries) {
+        double[] widened = new double[boundaries.length];
+        for (int i = 0; i < boundaries.length; i++) {
+            widened[i] = boundaries[i];
+        }
+        return checkBoundaries(widened);
+    }
+
+    private static double[] checkBoundaries(double[] boundaries) {
+        for (int i = 0; i < boundaries.length; i++) {
+            if (Double.isNaN(boundaries[i]) || i > 0 && Double.compare(boundaries[i - 1], boundaries[i]) >= 0) {
+                throw new IllegalArgumentException("Boundaries must be strictly increasing");
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * @return the number of boundaries not greater than {@code value}
+     */
+    private static int bucket(long[] boundaries, long value) {
+        int low = 0, high = boundaries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (boundaries[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * like {@link #bucket(long[], long)} in {@link Double#compare} order, NaN falls into the last bucket
+     */
+    private static int bucket(double[] boundaries, double value) {
+        int low = 0, high = boundaries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(boundaries[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static TerminalOp<Integer, double[]> makeQuantilesInt(double[] ranks) {
+        checkRanks(ranks);
+        double[] copy = ranks.clone();
+        class Adapter implements AccumulatingSink<Integer, double[], Adapter>, Sink.OfInt {
+            private QuantileSketch sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new QuantileSketch();
+            }
+
+            @Override
+            public void accept(int value) {
+                sketch.accept(value);
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public double[] get() {
+                return sketch.quantiles(copy);
+            }
+        }
+        return new UnorderedOp<Integer, double[], Adapter>(StreamShape.INT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Integer, long[]> makeHistogramInt(int[] boundaries) {
+        long[] bounds = boundaries(boundaries);
+        class Adapter implements AccumulatingSink<Integer, long[], Adapter>, Sink.OfInt {
+            private long[] counts;
+
+            @Override
+            public void begin(long size) {
+                counts = new long[bounds.length + 1];
+            }
+
+            @Override
+            public void accept(int value) {
+                counts[bucket(bounds, value)]++;
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other.counts[i];
+                }
+            }
+
+            @Override
+            public long[] get() {
+                return counts;
+            }
+        }
+        return new UnorderedOp<Integer, long[], Adapter>(StreamShape.INT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Long, double[]> makeQuantilesLong(double[] ranks) {
+        checkRanks(ranks);
+        double[] copy = ranks.clone();
+        class Adapter implements AccumulatingSink<Long, double[], Adapter>, Sink.OfLong {
+            private QuantileSketch sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new QuantileSketch();
+            }
+
+            @Override
+            public void accept(long value) {
+                sketch.accept(value);
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public double[] get() {
+                return sketch.quantiles(copy);
+            }
+        }
+        return new UnorderedOp<Long, double[], Adapter>(StreamShape.LONG_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Long, long[]> makeHistogramLong(long[] boundaries) {
+        long[] bounds = checkBoundaries(boundaries.clone());
+        class Adapter implements AccumulatingSink<Long, long[], Adapter>, Sink.OfLong {
+            private long[] counts;
+
+            @Override
+            public void begin(long size) {
+                counts = new long[bounds.length + 1];
+            }
+
+            @Override
+            public void accept(long value) {
+                counts[bucket(bounds, value)]++;
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other.counts[i];
+                }
+            }
+
+            @Override
+            public long[] get() {
+                return counts;
+            }
+        }
+        return new UnorderedOp<Long, long[], Adapter>(StreamShape.LONG_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Float, double[]> makeQuantilesFloat(double[] ranks) {
+        checkRanks(ranks);
+        double[] copy = ranks.clone();
+        class Adapter implements AccumulatingSink<Float, double[], Adapter>, Sink.OfFloat {
+            private QuantileSketch sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new QuantileSketch();
+            }
+
+            @Override
+            public void accept(float value) {
+                sketch.accept(value);
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public double[] get() {
+                return sketch.quantiles(copy);
+            }
+        }
+        return new UnorderedOp<Float, double[], Adapter>(StreamShape.FLOAT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Float, long[]> makeHistogramFloat(float[] boundaries) {
+        double[] bounds = boundaries(boundaries);
+        class Adapter implements AccumulatingSink<Float, long[], Adapter>, Sink.OfFloat {
+            private long[] counts;
+
+            @Override
+            public void begin(long size) {
+                counts = new long[bounds.length + 1];
+            }
+
+            @Override
+            public void accept(float value) {
+                counts[bucket(bounds, value)]++;
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other.counts[i];
+                }
+            }
+
+            @Override
+            public long[] get() {
+                return counts;
+            }
+        }
+        return new UnorderedOp<Float, long[], Adapter>(StreamShape.FLOAT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Double, double[]> makeQuantilesDouble(double[] ranks) {
+        checkRanks(ranks);
+        double[] copy = ranks.clone();
+        class Adapter implements AccumulatingSink<Double, double[], Adapter>, Sink.OfDouble {
+            private QuantileSketch sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new QuantileSketch();
+            }
+
+            @Override
+            public void accept(double value) {
+                sketch.accept(value);
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public double[] get() {
+                return sketch.quantiles(copy);
+            }
+        }
+        return new UnorderedOp<Double, double[], Adapter>(StreamShape.DOUBLE_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    public static TerminalOp<Double, long[]> makeHistogramDouble(double[] boundaries) {
+        double[] bounds = checkBoundaries(boundaries.clone());
+        class Adapter implements AccumulatingSink<Double, long[], Adapter>, Sink.OfDouble {
+            private long[] counts;
+
+            @Override
+            public void begin(long size) {
+                counts = new long[bounds.length + 1];
+            }
+
+            @Override
+            public void accept(double value) {
+                counts[bucket(bounds, value)]++;
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other.counts[i];
+                }
+            }
+
+            @Override
+            public long[] get() {
+                return counts;
+            }
+        }
+        return new UnorderedOp<Double, long[], Adapter>(StreamShape.DOUBLE_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements, elements are told apart by their mixed {@code hashCode}
+     */
+    public static <T> TerminalOp<T, Long> makeApproxDistinctRef(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<T, Long, Adapter>, Sink<T> {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(T value) {
+                sketch.add(HyperLogLog.hash(Objects.hashCode(value)));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<T, Long, Adapter>(StreamShape.REFERENCE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Byte, Long> makeApproxDistinctByte(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Byte, Long, Adapter>, Sink.OfByte {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(byte value) {
+                sketch.add(HyperLogLog.hash(value));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Byte, Long, Adapter>(StreamShape.BYTE_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Short, Long> makeApproxDistinctShort(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Short, Long, Adapter>, Sink.OfShort {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(short value) {
+                sketch.add(HyperLogLog.hash(value));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Short, Long, Adapter>(StreamShape.SHORT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Character, Long> makeApproxDistinctChar(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Character, Long, Adapter>, Sink.OfChar {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(char value) {
+                sketch.add(HyperLogLog.hash(value));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Character, Long, Adapter>(StreamShape.CHAR_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Integer, Long> makeApproxDistinctInt(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Integer, Long, Adapter>, Sink.OfInt {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(int value) {
+                sketch.add(HyperLogLog.hash(value));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Integer, Long, Adapter>(StreamShape.INT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Long, Long> makeApproxDistinctLong(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Long, Long, Adapter>, Sink.OfLong {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(long value) {
+                sketch.add(HyperLogLog.hash(value));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Long, Long, Adapter>(StreamShape.LONG_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Float, Long> makeApproxDistinctFloat(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Float, Long, Adapter>, Sink.OfFloat {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(float value) {
+                sketch.add(HyperLogLog.hash(Float.floatToIntBits(value)));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Float, Long, Adapter>(StreamShape.FLOAT_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+
+    /**
+     * HyperLogLog estimate of the number of distinct elements
+     */
+    public static TerminalOp<Double, Long> makeApproxDistinctDouble(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        class Adapter implements AccumulatingSink<Double, Long, Adapter>, Sink.OfDouble {
+            private HyperLogLog sketch;
+
+            @Override
+            public void begin(long size) {
+                sketch = new HyperLogLog(precision);
+            }
+
+            @Override
+            public void accept(double value) {
+                sketch.add(HyperLogLog.hash(Double.doubleToLongBits(value)));
+            }
+
+            @Override
+            public void combine(Adapter other) {
+                sketch.merge(other.sketch);
+            }
+
+            @Override
+            public Long get() {
+                return sketch.estimate();
+            }
+        }
+        return new UnorderedOp<Double, Long, Adapter>(StreamShape.DOUBLE_VALUE) {
+            @Override
+            public Adapter makeSink() {
+                return new Adapter();
+            }
+        };
+    }
+}
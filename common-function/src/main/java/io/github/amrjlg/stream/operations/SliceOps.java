@@ -162,6 +162,16 @@ public class SliceOps {
                     long s = skip;
                     long l = limit >= 0 ? limit : Long.MAX_VALUE;
 
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(calcSize(size, skip, l));
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return l == 0 || downstream.cancellationRequested();
+                    }
+
                     @Override
                     public void accept(byte value) {
                         if (s == 0) {
@@ -214,6 +224,16 @@ public class SliceOps {
                     long s = skip;
                     long l = limit >= 0 ? limit : Long.MAX_VALUE;
 
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(calcSize(size, skip, l));
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return l == 0 || downstream.cancellationRequested();
+                    }
+
                     @Override
                     public void accept(char value) {
                         if (s == 0) {
@@ -265,6 +285,16 @@ public class SliceOps {
                     long s = skip;
                     long l = limit >= 0 ? limit : Long.MAX_VALUE;
 
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(calcSize(size, skip, l));
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return l == 0 || downstream.cancellationRequested();
+                    }
+
                     @Override
                     public void accept(short value) {
                         if (s == 0) {
@@ -325,18 +355,15 @@ public class SliceOps {
 
                     @Override
                     public boolean cancellationRequested() {
-                        System.out.println("cancellationRequested");
                         return l == 0 || downstream.cancellationRequested();
                     }
 
                     @Override
                     public void accept(int value) {
-                        System.out.printf("-----skip-%d,limit-%d\r\n", s, l);
                         if (s == 0) {
                             if (l > 0) {
                                 l--;
                                 downstream.accept(value);
-                                System.out.printf("-----skip-%d,limit-%d\r\n", s, l);
                             }
                         } else {
                             s--;
@@ -382,6 +409,16 @@ public class SliceOps {
                     long s = skip;
                     long l = limit >= 0 ? limit : Long.MAX_VALUE;
 
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(calcSize(size, skip, l));
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return l == 0 || downstream.cancellationRequested();
+                    }
+
                     @Override
                     public void accept(long value) {
                         if (s == 0) {
@@ -494,6 +531,16 @@ public class SliceOps {
                     long s = skip;
                     long l = limit >= 0 ? limit : Long.MAX_VALUE;
 
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(calcSize(size, skip, l));
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return l == 0 || downstream.cancellationRequested();
+                    }
+
                     @Override
                     public void accept(double value) {
                         if (s > 0) {
@@ -28,6 +28,7 @@ import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.Stream;
 import io.github.amrjlg.stream.StreamOpFlag;
 import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.common.RadixSort;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.Nodes;
 import io.github.amrjlg.stream.pipeline.AbstractPipeline;
@@ -45,6 +46,7 @@ import io.github.amrjlg.stream.sink.CharSortingSink;
 import io.github.amrjlg.stream.sink.DoubleSortingSink;
 import io.github.amrjlg.stream.sink.FloatSortingSink;
 import io.github.amrjlg.stream.sink.IntSortingSink;
+import io.github.amrjlg.stream.sink.KeySortingSink;
 import io.github.amrjlg.stream.sink.LongSortingSink;
 import io.github.amrjlg.stream.sink.RefSortingSink;
 import io.github.amrjlg.stream.sink.ShortSortingSink;
@@ -62,6 +64,9 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 
 /**
@@ -78,6 +83,57 @@ public class SortedOps {
         return new OfRef<>(upstream, comparator);
     }
 
+    public static <T> Stream<T> makeRefByInt(AbstractPipeline<?, T, ?> upstream, ToIntFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return new OfRefByKey<T>(upstream) {
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return new KeySortingSink.OfInt<>(Objects.requireNonNull(sink), key);
+            }
+
+            @Override
+            int[] parallelOrder(T[] array) {
+                int[] keys = new int[array.length];
+                Arrays.parallelSetAll(keys, i -> key.applyAsInt(array[i]));
+                return RadixSort.parallelOrder(keys);
+            }
+        };
+    }
+
+    public static <T> Stream<T> makeRefByLong(AbstractPipeline<?, T, ?> upstream, ToLongFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return new OfRefByKey<T>(upstream) {
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return new KeySortingSink.OfLong<>(Objects.requireNonNull(sink), key);
+            }
+
+            @Override
+            int[] parallelOrder(T[] array) {
+                long[] keys = new long[array.length];
+                Arrays.parallelSetAll(keys, i -> key.applyAsLong(array[i]));
+                return RadixSort.parallelOrder(keys);
+            }
+        };
+    }
+
+    public static <T> Stream<T> makeRefByDouble(AbstractPipeline<?, T, ?> upstream, ToDoubleFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return new OfRefByKey<T>(upstream) {
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return new KeySortingSink.OfDouble<>(Objects.requireNonNull(sink), key);
+            }
+
+            @Override
+            int[] parallelOrder(T[] array) {
+                double[] keys = new double[array.length];
+                Arrays.parallelSetAll(keys, i -> key.applyAsDouble(array[i]));
+                return RadixSort.parallelOrder(keys);
+            }
+        };
+    }
+
     public static ByteStream makeByte(AbstractPipeline<?, Byte, ?> upstream) {
         return new OfByte(upstream);
     }
@@ -154,6 +210,32 @@ public class SortedOps {
         }
     }
 
+    /**
+     * stable sort by an extracted primitive key, the result is ordered but not sorted in natural order
+     */
+    private abstract static class OfRefByKey<T> extends ReferencePipeline.StatefulOp<T, T> {
+
+        private static final int opFlags = StreamOpFlag.IS_ORDERED | StreamOpFlag.NOT_SORTED;
+
+        OfRefByKey(AbstractPipeline<?, T, ?> upstream) {
+            super(upstream, StreamShape.REFERENCE, opFlags);
+        }
+
+        /**
+         * @return the position of the element that belongs at every sorted index
+         */
+        abstract int[] parallelOrder(T[] array);
+
+        @Override
+        public <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper, Spliterator<P_IN> spliterator, IntFunction<T[]> generator) {
+            T[] array = helper.evaluate(spliterator, true, generator).asArray(generator);
+            int[] order = parallelOrder(array);
+            T[] sorted = generator.apply(array.length);
+            Arrays.parallelSetAll(sorted, i -> array[order[i]]);
+            return Nodes.node(sorted);
+        }
+    }
+
     public static final class OfByte extends BytePipeline.StatefulOp<Byte> {
 
         public OfByte(AbstractPipeline<?, Byte, ?> upstream) {
@@ -178,7 +260,7 @@ public class SortedOps {
             }
             Node.OfByte node = (Node.OfByte) helper.evaluate(spliterator, true, generator);
             byte[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
@@ -207,7 +289,7 @@ public class SortedOps {
 
             Node.OfChar node = (Node.OfChar) helper.evaluate(spliterator, true, generator);
             char[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
@@ -238,7 +320,7 @@ public class SortedOps {
             Node.OfShort node = (Node.OfShort) helper.evaluate(spliterator, true, generator);
 
             short[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
@@ -267,7 +349,7 @@ public class SortedOps {
             Node.OfInt node = (Node.OfInt) helper.evaluate(spliterator, true, generator);
 
             int[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
@@ -295,14 +377,14 @@ public class SortedOps {
             }
             Node.OfLong node = (Node.OfLong) helper.evaluate(spliterator, true, generator);
             long[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
 
     private static class OfFloat extends FloatPipeline.StatefulOp<Float> {
         public <Input> OfFloat(AbstractPipeline<Input, Float, FloatStream> upstream) {
-            super(upstream, StreamShape.FLOAT_VALUE, StreamOpFlag.IS_SORTED);
+            super(upstream, StreamShape.FLOAT_VALUE, StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
         }
 
         @Override
@@ -323,21 +405,21 @@ public class SortedOps {
             }
             Node.OfFloat node = (Node.OfFloat) helper.evaluate(spliterator, true, generator);
             float[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
 
     private static class OfDouble extends DoublePipeline.StatefulOp<Double> {
         public <T> OfDouble(AbstractPipeline<T, Double, DoubleStream> upstream) {
-            super(upstream, StreamShape.DOUBLE_VALUE, StreamOpFlag.IS_ORDERED);
+            super(upstream, StreamShape.DOUBLE_VALUE, StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
         }
 
         @Override
         public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
             if (StreamOpFlag.SORTED.isKnown(flags)) {
                 return sink;
-            } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+            } else if (StreamOpFlag.SIZED.isKnown(flags)) {
                 return new SizedDoubleSortingSink(sink);
             } else {
                 return new DoubleSortingSink(sink);
@@ -351,7 +433,7 @@ public class SortedOps {
             }
             Node.OfDouble node = (Node.OfDouble) helper.evaluate(spliterator, true, generator);
             double[] array = node.asPrimitiveArray();
-            Arrays.parallelSort(array);
+            RadixSort.parallelSort(array);
             return Nodes.node(array);
         }
     }
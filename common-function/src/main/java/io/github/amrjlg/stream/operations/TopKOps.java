@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.common.BoundedHeap;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.BytePipeline;
+import io.github.amrjlg.stream.pipeline.CharPipeline;
+import io.github.amrjlg.stream.pipeline.DoublePipeline;
+import io.github.amrjlg.stream.pipeline.FloatPipeline;
+import io.github.amrjlg.stream.pipeline.IntPipeline;
+import io.github.amrjlg.stream.pipeline.LongPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.pipeline.ReferencePipeline;
+import io.github.amrjlg.stream.pipeline.ShortPipeline;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * the {@code k} least elements in sorted order, same result as sorted().limit(k)
+ * but keeping a bounded heap per sink or parallel leaf instead of buffering the whole stream
+ *
+ * @author amrjlg
+ **/
+public class TopKOps {
+
+    private static final int SORTED_FLAGS = StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED | StreamOpFlag.NOT_SIZED;
+
+    private static final int FLAGS = StreamOpFlag.IS_ORDERED | StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_SIZED;
+
+    public static <T> Stream<T> makeRef(AbstractPipeline<?, T, ?> upstream, int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        return new ReferencePipeline.StatefulOp<T, T>(upstream, StreamShape.REFERENCE, FLAGS) {
+
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedReference<T, T>(sink) {
+                    BoundedHeap.OfRef<T> heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfRef<>(k, comparator);
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public void end() {
+                        T[] array = heap.toArray(size -> (T[]) new Object[size]);
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (T value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(T value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper, Spliterator<P_IN> spliterator, IntFunction<T[]> generator) {
+                return Nodes.node(ReduceOps.<T, BoundedHeap.OfRef<T>>makeRef(() -> new BoundedHeap.OfRef<>(k, comparator),
+                                BoundedHeap.OfRef::accept,
+                                BoundedHeap.OfRef::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray(generator));
+            }
+        };
+    }
+
+    public static ByteStream makeByte(AbstractPipeline<?, Byte, ?> upstream, int k) {
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedByte<Byte>(sink) {
+                    BoundedHeap.OfByte heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfByte(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        byte[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (byte value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                return Nodes.node(ReduceOps.makeByte(() -> new BoundedHeap.OfByte(k),
+                                BoundedHeap.OfByte::accept,
+                                BoundedHeap.OfByte::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static ShortStream makeShort(AbstractPipeline<?, Short, ?> upstream, int k) {
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedShort<Short>(sink) {
+                    BoundedHeap.OfShort heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfShort(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        short[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (short value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                return Nodes.node(ReduceOps.makeShort(() -> new BoundedHeap.OfShort(k),
+                                BoundedHeap.OfShort::accept,
+                                BoundedHeap.OfShort::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static CharStream makeChar(AbstractPipeline<?, Character, ?> upstream, int k) {
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedChar<Character>(sink) {
+                    BoundedHeap.OfChar heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfChar(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        char[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (char value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                return Nodes.node(ReduceOps.makeChar(() -> new BoundedHeap.OfChar(k),
+                                BoundedHeap.OfChar::accept,
+                                BoundedHeap.OfChar::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static IntStream makeInt(AbstractPipeline<?, Integer, ?> upstream, int k) {
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedInt<Integer>(sink) {
+                    BoundedHeap.OfInt heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfInt(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        int[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (int value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                return Nodes.node(ReduceOps.makeInt(() -> new BoundedHeap.OfInt(k),
+                                BoundedHeap.OfInt::accept,
+                                BoundedHeap.OfInt::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static LongStream makeLong(AbstractPipeline<?, Long, ?> upstream, int k) {
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedLong<Long>(sink) {
+                    BoundedHeap.OfLong heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfLong(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        long[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (long value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.node(ReduceOps.makeLong(() -> new BoundedHeap.OfLong(k),
+                                BoundedHeap.OfLong::accept,
+                                BoundedHeap.OfLong::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static FloatStream makeFloat(AbstractPipeline<?, Float, ?> upstream, int k) {
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedFloat<Float>(sink) {
+                    BoundedHeap.OfFloat heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfFloat(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        float[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (float value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                return Nodes.node(ReduceOps.makeFloat(() -> new BoundedHeap.OfFloat(k),
+                                BoundedHeap.OfFloat::accept,
+                                BoundedHeap.OfFloat::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+
+    public static DoubleStream makeDouble(AbstractPipeline<?, Double, ?> upstream, int k) {
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, SORTED_FLAGS) {
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                Objects.requireNonNull(sink);
+                return new Sink.ChainedDouble<Double>(sink) {
+                    BoundedHeap.OfDouble heap;
+
+                    @Override
+                    public void begin(long size) {
+                        heap = new BoundedHeap.OfDouble(k);
+                    }
+
+                    @Override
+                    public void end() {
+                        double[] array = heap.toArray();
+                        heap = null;
+                        downstream.begin(array.length);
+                        for (double value : array) {
+                            if (downstream.cancellationRequested()) {
+                                break;
+                            }
+                            downstream.accept(value);
+                        }
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        heap.accept(value);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+
+            @Override
+            public <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return Nodes.node(ReduceOps.makeDouble(() -> new BoundedHeap.OfDouble(k),
+                                BoundedHeap.OfDouble::accept,
+                                BoundedHeap.OfDouble::combine)
+                        .evaluateParallel(helper, spliterator)
+                        .toArray());
+            }
+        };
+    }
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.function.BytePredicate;
+import io.github.amrjlg.function.CharPredicate;
+import io.github.amrjlg.function.FloatPredicate;
+import io.github.amrjlg.function.ShortPredicate;
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.BytePipeline;
+import io.github.amrjlg.stream.pipeline.CharPipeline;
+import io.github.amrjlg.stream.pipeline.DoublePipeline;
+import io.github.amrjlg.stream.pipeline.FloatPipeline;
+import io.github.amrjlg.stream.pipeline.IntPipeline;
+import io.github.amrjlg.stream.pipeline.LongPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.pipeline.ReferencePipeline;
+import io.github.amrjlg.stream.pipeline.ShortPipeline;
+import io.github.amrjlg.stream.sink.DropWhileSink;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.task.DropWhileTask;
+import io.github.amrjlg.stream.task.TakeWhileTask;
+
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * takeWhile and dropWhile, sequential pipelines stop pulling from the source once taking is done,
+ * parallel pipelines evaluate through {@link TakeWhileTask} and {@link DropWhileTask}
+ * which also give a correct, if stricter than needed, result for unordered pipelines
+ *
+ * @author amrjlg
+ * @see java.util.stream.WhileOps
+ **/
+public class WhileOps {
+
+    private static final int TAKE_FLAGS = StreamOpFlag.NOT_SIZED | StreamOpFlag.IS_SHORT_CIRCUIT;
+
+    private static final int DROP_FLAGS = StreamOpFlag.NOT_SIZED;
+
+    public static <T> Stream<T> makeTakeWhileRef(AbstractPipeline<?, T, ?> upstream, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return new ReferencePipeline.StatefulOp<T, T>(upstream, StreamShape.REFERENCE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, castingArray()).spliterator();
+            }
+
+            @Override
+            public <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper, Spliterator<P_IN> spliterator, IntFunction<T[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return new Sink.ChainedReference<T, T>(sink) {
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(T t) {
+                        if (take && (take = predicate.test(t))) {
+                            downstream.accept(t);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static ByteStream makeTakeWhileByte(AbstractPipeline<?, Byte, ?> upstream, BytePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Byte> opEvaluateParallelLazy(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Byte[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                return new Sink.ChainedByte<Byte>(sink) {
+                    final Sink.OfByte consumer = (Sink.OfByte) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static ShortStream makeTakeWhileShort(AbstractPipeline<?, Short, ?> upstream, ShortPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Short> opEvaluateParallelLazy(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Short[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                return new Sink.ChainedShort<Short>(sink) {
+                    final Sink.OfShort consumer = (Sink.OfShort) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static CharStream makeTakeWhileChar(AbstractPipeline<?, Character, ?> upstream, CharPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Character> opEvaluateParallelLazy(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Character[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                return new Sink.ChainedChar<Character>(sink) {
+                    final Sink.OfChar consumer = (Sink.OfChar) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntStream makeTakeWhileInt(AbstractPipeline<?, Integer, ?> upstream, IntPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Integer[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return new Sink.ChainedInt<Integer>(sink) {
+                    final Sink.OfInt consumer = (Sink.OfInt) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeTakeWhileLong(AbstractPipeline<?, Long, ?> upstream, LongPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Long[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedLong<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static FloatStream makeTakeWhileFloat(AbstractPipeline<?, Float, ?> upstream, FloatPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Float> opEvaluateParallelLazy(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Float[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                return new Sink.ChainedFloat<Float>(sink) {
+                    final Sink.OfFloat consumer = (Sink.OfFloat) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleStream makeTakeWhileDouble(AbstractPipeline<?, Double, ?> upstream, DoublePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, TAKE_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Double[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return new TakeWhileTask<>(this, helper, spliterator, generator).invoke();
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedDouble<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+                    boolean take = true;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return !take || downstream.cancellationRequested();
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        if (take && (take = predicate.test(value))) {
+                            consumer.accept(value);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    public static <T> Stream<T> makeDropWhileRef(AbstractPipeline<?, T, ?> upstream, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<T> factory = (sink, retain) -> new DropWhileSink.OfRef<>(sink, retain, predicate);
+        return new ReferencePipeline.StatefulOp<T, T>(upstream, StreamShape.REFERENCE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, castingArray()).spliterator();
+            }
+
+            @Override
+            public <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper, Spliterator<P_IN> spliterator, IntFunction<T[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static ByteStream makeDropWhileByte(AbstractPipeline<?, Byte, ?> upstream, BytePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Byte> factory = (sink, retain) -> new DropWhileSink.OfByte(sink, retain, predicate);
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Byte> opEvaluateParallelLazy(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Byte[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static ShortStream makeDropWhileShort(AbstractPipeline<?, Short, ?> upstream, ShortPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Short> factory = (sink, retain) -> new DropWhileSink.OfShort(sink, retain, predicate);
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Short> opEvaluateParallelLazy(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Short[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static CharStream makeDropWhileChar(AbstractPipeline<?, Character, ?> upstream, CharPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Character> factory = (sink, retain) -> new DropWhileSink.OfChar(sink, retain, predicate);
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Character> opEvaluateParallelLazy(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Character[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static IntStream makeDropWhileInt(AbstractPipeline<?, Integer, ?> upstream, IntPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Integer> factory = (sink, retain) -> new DropWhileSink.OfInt(sink, retain, predicate);
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Integer[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static LongStream makeDropWhileLong(AbstractPipeline<?, Long, ?> upstream, LongPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Long> factory = (sink, retain) -> new DropWhileSink.OfLong(sink, retain, predicate);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Long[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static FloatStream makeDropWhileFloat(AbstractPipeline<?, Float, ?> upstream, FloatPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Float> factory = (sink, retain) -> new DropWhileSink.OfFloat(sink, retain, predicate);
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Float> opEvaluateParallelLazy(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Float[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    public static DoubleStream makeDropWhileDouble(AbstractPipeline<?, Double, ?> upstream, DoublePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        DropWhileSink.Factory<Double> factory = (sink, retain) -> new DropWhileSink.OfDouble(sink, retain, predicate);
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, DROP_FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                return opEvaluateParallel(helper, spliterator, Double[]::new).spliterator();
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return new DropWhileTask<>(this, helper, spliterator, generator, factory).invoke();
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return factory.make(sink, false);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> IntFunction<T[]> castingArray() {
+        return size -> (T[]) new Object[size];
+    }
+}
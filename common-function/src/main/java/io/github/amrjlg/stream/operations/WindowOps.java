@@ -0,0 +1,1089 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.common.SlidingWindow;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.BytePipeline;
+import io.github.amrjlg.stream.pipeline.CharPipeline;
+import io.github.amrjlg.stream.pipeline.DoublePipeline;
+import io.github.amrjlg.stream.pipeline.FloatPipeline;
+import io.github.amrjlg.stream.pipeline.IntPipeline;
+import io.github.amrjlg.stream.pipeline.LongPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.pipeline.ReferencePipeline;
+import io.github.amrjlg.stream.pipeline.ShortPipeline;
+import io.github.amrjlg.stream.spliterator.SinkSpliterator;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+import io.github.amrjlg.stream.spliterator.WindowSpliterator;
+
+import java.util.function.IntFunction;
+
+/**
+ * windows over primitive streams, either materialized as arrays or aggregated as sliding sum, minimum and maximum.
+ * sequential pipelines slide one {@link SlidingWindow} over the stream,
+ * parallel pipelines run the same sink over each split of the upstream, a split also reading the first
+ * elements of its right neighbour to complete its last windows, see {@link WindowSpliterator}
+ *
+ * @author amrjlg
+ **/
+public class WindowOps {
+
+    private static final int FLAGS = StreamOpFlag.NOT_SIZED | StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT;
+
+    public static Stream<byte[]> makeWindowedByte(AbstractPipeline<?, Byte, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Byte, byte[]>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<byte[]> opEvaluateParallelLazy(PipelineHelper<byte[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsByte(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<byte[]> opEvaluateParallel(PipelineHelper<byte[]> helper, Spliterator<P_IN> spliterator, IntFunction<byte[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<byte[]> sink) {
+                return new Sink.ChainedByte<byte[]>(sink) {
+                    byte[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new byte[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            byte[] window = new byte[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingSumByte(AbstractPipeline<?, Byte, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsByte(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedByte<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static ByteStream makeSlidingExtremeByte(AbstractPipeline<?, Byte, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new BytePipeline.StatefulOp<Byte>(upstream, StreamShape.BYTE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Byte> opEvaluateParallelLazy(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfByte<>(windowsByte(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Byte> opEvaluateParallel(PipelineHelper<Byte> helper, Spliterator<P_IN> spliterator, IntFunction<Byte[]> generator) {
+                return Nodes.collectByte(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                return new Sink.ChainedByte<Byte>(sink) {
+                    final Sink.OfByte consumer = (Sink.OfByte) downstream;
+                    SlidingWindow.LongExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(byte value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept((byte) window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<short[]> makeWindowedShort(AbstractPipeline<?, Short, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Short, short[]>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<short[]> opEvaluateParallelLazy(PipelineHelper<short[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsShort(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<short[]> opEvaluateParallel(PipelineHelper<short[]> helper, Spliterator<P_IN> spliterator, IntFunction<short[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<short[]> sink) {
+                return new Sink.ChainedShort<short[]>(sink) {
+                    short[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new short[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            short[] window = new short[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingSumShort(AbstractPipeline<?, Short, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsShort(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedShort<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static ShortStream makeSlidingExtremeShort(AbstractPipeline<?, Short, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new ShortPipeline.StatefulOp<Short>(upstream, StreamShape.SHORT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Short> opEvaluateParallelLazy(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfShort<>(windowsShort(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Short> opEvaluateParallel(PipelineHelper<Short> helper, Spliterator<P_IN> spliterator, IntFunction<Short[]> generator) {
+                return Nodes.collectShort(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                return new Sink.ChainedShort<Short>(sink) {
+                    final Sink.OfShort consumer = (Sink.OfShort) downstream;
+                    SlidingWindow.LongExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(short value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept((short) window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<char[]> makeWindowedChar(AbstractPipeline<?, Character, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Character, char[]>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<char[]> opEvaluateParallelLazy(PipelineHelper<char[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsChar(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<char[]> opEvaluateParallel(PipelineHelper<char[]> helper, Spliterator<P_IN> spliterator, IntFunction<char[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<char[]> sink) {
+                return new Sink.ChainedChar<char[]>(sink) {
+                    char[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new char[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            char[] window = new char[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingSumChar(AbstractPipeline<?, Character, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsChar(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedChar<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static CharStream makeSlidingExtremeChar(AbstractPipeline<?, Character, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new CharPipeline.StatefulOp<Character>(upstream, StreamShape.CHAR_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Character> opEvaluateParallelLazy(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfChar<>(windowsChar(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Character> opEvaluateParallel(PipelineHelper<Character> helper, Spliterator<P_IN> spliterator, IntFunction<Character[]> generator) {
+                return Nodes.collectChar(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                return new Sink.ChainedChar<Character>(sink) {
+                    final Sink.OfChar consumer = (Sink.OfChar) downstream;
+                    SlidingWindow.LongExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(char value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept((char) window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<int[]> makeWindowedInt(AbstractPipeline<?, Integer, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Integer, int[]>(upstream, StreamShape.INT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<int[]> opEvaluateParallelLazy(PipelineHelper<int[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsInt(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<int[]> opEvaluateParallel(PipelineHelper<int[]> helper, Spliterator<P_IN> spliterator, IntFunction<int[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<int[]> sink) {
+                return new Sink.ChainedInt<int[]>(sink) {
+                    int[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new int[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            int[] window = new int[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingSumInt(AbstractPipeline<?, Integer, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsInt(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedInt<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntStream makeSlidingExtremeInt(AbstractPipeline<?, Integer, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Integer> opEvaluateParallelLazy(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfInt<>(windowsInt(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator, IntFunction<Integer[]> generator) {
+                return Nodes.collectInt(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return new Sink.ChainedInt<Integer>(sink) {
+                    final Sink.OfInt consumer = (Sink.OfInt) downstream;
+                    SlidingWindow.LongExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept((int) window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<long[]> makeWindowedLong(AbstractPipeline<?, Long, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Long, long[]>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<long[]> opEvaluateParallelLazy(PipelineHelper<long[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsLong(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<long[]> opEvaluateParallel(PipelineHelper<long[]> helper, Spliterator<P_IN> spliterator, IntFunction<long[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<long[]> sink) {
+                return new Sink.ChainedLong<long[]>(sink) {
+                    long[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new long[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            long[] window = new long[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingSumLong(AbstractPipeline<?, Long, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsLong(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedLong<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongStream makeSlidingExtremeLong(AbstractPipeline<?, Long, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Long> opEvaluateParallelLazy(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfLong<>(windowsLong(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator, IntFunction<Long[]> generator) {
+                return Nodes.collectLong(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedLong<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+                    SlidingWindow.LongExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.LongExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<float[]> makeWindowedFloat(AbstractPipeline<?, Float, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Float, float[]>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<float[]> opEvaluateParallelLazy(PipelineHelper<float[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsFloat(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<float[]> opEvaluateParallel(PipelineHelper<float[]> helper, Spliterator<P_IN> spliterator, IntFunction<float[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<float[]> sink) {
+                return new Sink.ChainedFloat<float[]>(sink) {
+                    float[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new float[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            float[] window = new float[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleStream makeSlidingSumFloat(AbstractPipeline<?, Float, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new DoublePipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfDouble<>(windowsFloat(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return Nodes.collectDouble(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedFloat<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+                    SlidingWindow.DoubleSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.DoubleSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static FloatStream makeSlidingExtremeFloat(AbstractPipeline<?, Float, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new FloatPipeline.StatefulOp<Float>(upstream, StreamShape.FLOAT_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Float> opEvaluateParallelLazy(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfFloat<>(windowsFloat(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Float> opEvaluateParallel(PipelineHelper<Float> helper, Spliterator<P_IN> spliterator, IntFunction<Float[]> generator) {
+                return Nodes.collectFloat(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                return new Sink.ChainedFloat<Float>(sink) {
+                    final Sink.OfFloat consumer = (Sink.OfFloat) downstream;
+                    SlidingWindow.DoubleExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.DoubleExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(float value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept((float) window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static Stream<double[]> makeWindowedDouble(AbstractPipeline<?, Double, ?> upstream, int windowSize, int step) {
+        checkWindow(windowSize, step);
+        return new ReferencePipeline.StatefulOp<Double, double[]>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<double[]> opEvaluateParallelLazy(PipelineHelper<double[]> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfRef<>(windowsDouble(helper, spliterator, windowSize, step),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            public <P_IN> Node<double[]> opEvaluateParallel(PipelineHelper<double[]> helper, Spliterator<P_IN> spliterator, IntFunction<double[][]> generator) {
+                return Nodes.collect(this, opEvaluateParallelLazy(helper, spliterator), true, generator);
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<double[]> sink) {
+                return new Sink.ChainedDouble<double[]>(sink) {
+                    double[] ring;
+                    int position;
+                    long count;
+
+                    @Override
+                    public void begin(long size) {
+                        ring = new double[windowSize];
+                        position = 0;
+                        count = 0;
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, step) : -1);
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        ring[position] = value;
+                        if (++position == windowSize) {
+                            position = 0;
+                        }
+                        if (++count >= windowSize && (count - windowSize) % step == 0) {
+                            double[] window = new double[windowSize];
+                            System.arraycopy(ring, position, window, 0, windowSize - position);
+                            System.arraycopy(ring, 0, window, windowSize - position, position);
+                            downstream.accept(window);
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        ring = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleStream makeSlidingSumDouble(AbstractPipeline<?, Double, ?> upstream, int windowSize) {
+        checkWindow(windowSize, 1);
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfDouble<>(windowsDouble(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return Nodes.collectDouble(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedDouble<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+                    SlidingWindow.DoubleSum window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.DoubleSum(windowSize);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleStream makeSlidingExtremeDouble(AbstractPipeline<?, Double, ?> upstream, int windowSize, boolean max) {
+        checkWindow(windowSize, 1);
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE, FLAGS) {
+            @Override
+            protected <P_IN> Spliterator<Double> opEvaluateParallelLazy(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                return new SinkSpliterator.OfDouble<>(windowsDouble(helper, spliterator, windowSize, 1),
+                        sink -> opWrapSink(helper.getStreamAndOpFlags(), sink), true);
+            }
+
+            @Override
+            protected <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator, IntFunction<Double[]> generator) {
+                return Nodes.collectDouble(this, opEvaluateParallelLazy(helper, spliterator), true);
+            }
+
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedDouble<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+                    SlidingWindow.DoubleExtreme window;
+
+                    @Override
+                    public void begin(long size) {
+                        window = new SlidingWindow.DoubleExtreme(windowSize, max);
+                        downstream.begin(size >= 0 ? WindowSpliterator.windows(size, windowSize, 1) : -1);
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        window.accept(value);
+                        if (window.full()) {
+                            consumer.accept(window.get());
+                        }
+                    }
+
+                    @Override
+                    public void end() {
+                        window = null;
+                        downstream.end();
+                    }
+                };
+            }
+        };
+    }
+
+    private static <P_IN> boolean sized(PipelineHelper<?> helper, Spliterator<P_IN> spliterator) {
+        return spliterator.hasCharacteristics(Spliterator.SUBSIZED) && helper.exactOutputSizeIfKnown(spliterator) >= 0;
+    }
+
+    private static void checkWindow(int windowSize, int step) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        if (step <= 0) {
+            throw new IllegalArgumentException("Step must be positive: " + step);
+        }
+    }
+
+    private static <P_IN> WindowSpliterator.OfByte windowsByte(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfByte((Spliterator.OfByte) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfShort windowsShort(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfShort((Spliterator.OfShort) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfChar windowsChar(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfChar((Spliterator.OfChar) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfInt windowsInt(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfInt((Spliterator.OfInt) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfLong windowsLong(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfLong((Spliterator.OfLong) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfFloat windowsFloat(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfFloat((Spliterator.OfFloat) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+
+    private static <P_IN> WindowSpliterator.OfDouble windowsDouble(PipelineHelper<?> helper, Spliterator<P_IN> spliterator, int windowSize, int step) {
+        return new WindowSpliterator.OfDouble((Spliterator.OfDouble) helper.wrapSpliterator(spliterator), windowSize, step, sized(helper, spliterator));
+    }
+}
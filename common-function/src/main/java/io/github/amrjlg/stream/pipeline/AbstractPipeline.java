@@ -27,7 +27,13 @@ import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.IntFunction;
@@ -69,6 +75,16 @@ public abstract class AbstractPipeline<Input, Output, Stream extends BaseStream<
 
     private boolean parallel;
 
+    /**
+     * pool of a parallel evaluation, {@code null} for the common pool
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * set on map and filter stages that may be merged with the stage before them
+     */
+    private StageFusion<?, ?> fusion;
+
     public AbstractPipeline(Supplier<? extends Spliterator<?>> source,
                             int sourceFlags, boolean parallel) {
         this.previousStage = null;
@@ -118,10 +134,22 @@ public abstract class AbstractPipeline<Input, Output, Stream extends BaseStream<
         linkedOrConsumed = true;
 
         return isParallel()
-                ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+                ? evaluateInPool(() -> terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags())))
                 : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
     }
 
+    /**
+     * run a parallel evaluation inside the pool given to {@link #parallel(ForkJoinPool)},
+     * tasks invoked from a worker thread are forked into that worker's pool
+     */
+    protected final <R> R evaluateInPool(Supplier<R> evaluation) {
+        ForkJoinPool pool = sourceStage.pool;
+        if (!isParallel() || pool == null || ForkJoinTask.getPool() == pool) {
+            return evaluation.get();
+        }
+        return pool.invoke(ForkJoinTask.adapt((Callable<R>) evaluation::get));
+    }
+
     @SuppressWarnings("unchecked")
     private Spliterator<?> sourceSpliterator(int terminalFlags) {
         Spliterator<?> spliterator;
@@ -177,6 +205,11 @@ public abstract class AbstractPipeline<Input, Output, Stream extends BaseStream<
         return spliterator;
     }
 
+    static <Stage extends AbstractPipeline<?, ?, ?>> Stage fusible(Stage stage, StageFusion<?, ?> fusion) {
+        ((AbstractPipeline<?, ?, ?>) stage).fusion = fusion;
+        return stage;
+    }
+
     public static void positive(long number) {
         if (number < 0) {
             throw new IllegalArgumentException(Long.toString(number));
@@ -256,11 +289,30 @@ public abstract class AbstractPipeline<Input, Output, Stream extends BaseStream<
     }
 
     @Override
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public <P_IN> Sink<P_IN> wrapSink(Sink<Output> sink) {
+        return wrapSink(sink, StageFusion.ENABLED);
+    }
+
+    /**
+     * with {@code fuse} set a run of adjacent stages of one fusion kind is wrapped as a single sink
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    <P_IN> Sink<P_IN> wrapSink(Sink<Output> sink, boolean fuse) {
         Objects.requireNonNull(sink);
         for (AbstractPipeline pipeline = AbstractPipeline.this; pipeline.depth > 0; pipeline = pipeline.previousStage) {
-            sink = pipeline.opWrapSink(pipeline.previousStage.combinedFlags, sink);
+            StageFusion fusion = fuse ? pipeline.fusion : null;
+            if (fusion != null && fusion.fuses(pipeline.previousStage.fusion)) {
+                List run = new ArrayList<>();
+                run.add(fusion.function);
+                do {
+                    pipeline = pipeline.previousStage;
+                    run.add(pipeline.fusion.function);
+                } while (fusion.fuses(pipeline.previousStage.fusion));
+                Collections.reverse(run);
+                sink = fusion.kind.wrapSink(run, sink);
+            } else {
+                sink = pipeline.opWrapSink(pipeline.previousStage.combinedFlags, sink);
+            }
         }
 
         return (Sink<P_IN>) sink;
@@ -385,9 +437,25 @@ public abstract class AbstractPipeline<Input, Output, Stream extends BaseStream<
     @SuppressWarnings("unchecked")
     public Stream parallel() {
         sourceStage.parallel = true;
+        sourceStage.pool = null;
+        return (Stream) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream parallel(ForkJoinPool pool) {
+        sourceStage.parallel = true;
+        sourceStage.pool = Objects.requireNonNull(pool);
         return (Stream) this;
     }
 
+    /**
+     * the pool given to {@link #parallel(ForkJoinPool)}, {@code null} for the common pool
+     */
+    public final ForkJoinPool getPool() {
+        return sourceStage.pool;
+    }
+
     @Override
     public void close() {
         linkedOrConsumed = true;
@@ -43,14 +43,22 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -64,6 +72,7 @@ import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -134,15 +143,22 @@ public abstract class BytePipeline<Input>
     @Override
     public ByteStream map(ByteUnaryOperator mapper) {
         Objects.requireNonNull(mapper);
-        return new StateLessOp<Byte>(this, StreamShape.BYTE_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StateLessOp<Byte>(this, StreamShape.BYTE_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
-                return new Sink.ChainedByte<Byte>(sink) {
-                    @Override
-                    public void accept(byte value) {
-                        downstream.accept(mapper.applyAsByte(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.BYTE_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Byte> mapSink(ByteUnaryOperator mapper, Sink<Byte> sink) {
+        return new Sink.ChainedByte<Byte>(sink) {
+            @Override
+            public void accept(byte value) {
+                downstream.accept(mapper.applyAsByte(value));
             }
         };
     }
@@ -279,30 +295,61 @@ public abstract class BytePipeline<Input>
     }
 
     @Override
-    public ByteStream filter(BytePredicate predicate) {
-        Objects.requireNonNull(predicate);
-        return new StateLessOp<Byte>(this, StreamShape.BYTE_VALUE, StreamOpFlag.NOT_SIZED) {
+    public ByteStream mapMulti(ByteStream.ByteMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StateLessOp<Byte>(this, StreamShape.BYTE_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
                 return new Sink.ChainedByte<Byte>(sink) {
+                    final Sink.OfByte consumer = (Sink.OfByte) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(byte value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public ByteStream filter(BytePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return fusible(new StateLessOp<Byte>(this, StreamShape.BYTE_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Byte> opWrapSink(int flags, Sink<Byte> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.BYTE_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Byte> filterSink(BytePredicate predicate, Sink<Byte> sink) {
+        return new Sink.ChainedByte<Byte>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(byte value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public ByteStream distinct() {
-        return boxed().distinct().mapToByte(v -> v);
+        return DistinctOps.makeByte(this);
     }
 
     @Override
@@ -310,6 +357,12 @@ public abstract class BytePipeline<Input>
         return SortedOps.makeByte(this);
     }
 
+    @Override
+    public ByteStream topK(int k) {
+        positive(k);
+        return TopKOps.makeByte(this, k);
+    }
+
     @Override
     public ByteStream peek(ByteConsumer action) {
         Objects.requireNonNull(action);
@@ -342,6 +395,46 @@ public abstract class BytePipeline<Input>
         return SliceOps.makeByte(this, n, -1);
     }
 
+    @Override
+    public ByteStream takeWhile(BytePredicate predicate) {
+        return WhileOps.makeTakeWhileByte(this, predicate);
+    }
+
+    @Override
+    public ByteStream dropWhile(BytePredicate predicate) {
+        return WhileOps.makeDropWhileByte(this, predicate);
+    }
+
+    @Override
+    public Stream<byte[]> batch(int batchSize) {
+        return BatchOps.makeByte(this, batchSize);
+    }
+
+    @Override
+    public Stream<byte[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedByte(this, size, step);
+    }
+
+    @Override
+    public LongStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumByte(this, size);
+    }
+
+    @Override
+    public ByteStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeByte(this, size, false);
+    }
+
+    @Override
+    public ByteStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeByte(this, size, true);
+    }
+
+    @Override
+    public ByteStream scan(byte identity, ByteBinaryOperator op) {
+        return ScanOps.makeByte(this, identity, op);
+    }
+
     @Override
     public void forEach(ByteConsumer action) {
         evaluate(ForeachOps.makeByte(action, false));
@@ -354,8 +447,8 @@ public abstract class BytePipeline<Input>
 
     @Override
     public byte[] toArray() {
-        return Nodes.flattenByte((Node.OfByte) evaluateToArrayNode(Byte[]::new))
-                .asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenByte((Node.OfByte) evaluateToArrayNode(Byte[]::new))
+                .asPrimitiveArray());
     }
 
     @Override
@@ -395,7 +488,12 @@ public abstract class BytePipeline<Input>
 
     @Override
     public long count() {
-        return mapToLong(v -> 1L).sum();
+        return evaluate(ReduceOps.makeByteCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctByte(precision));
     }
 
     @Override
@@ -450,6 +548,11 @@ public abstract class BytePipeline<Input>
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.IntStream toJdk() {
+        return StreamSupport.intStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     final StreamShape getOutputShape() {
         return StreamShape.BYTE_VALUE;
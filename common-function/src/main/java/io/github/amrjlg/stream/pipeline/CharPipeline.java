@@ -41,14 +41,22 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -61,6 +69,7 @@ import java.util.OptionalDouble;
 import java.util.function.BiConsumer;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -125,15 +134,22 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
 
     @Override
     public CharStream map(CharUnaryOperator mapper) {
-        return new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
-                return new Sink.ChainedChar<Character>(sink) {
-                    @Override
-                    public void accept(char value) {
-                        downstream.accept(mapper.applyAsChar(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.CHAR_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Character> mapSink(CharUnaryOperator mapper, Sink<Character> sink) {
+        return new Sink.ChainedChar<Character>(sink) {
+            @Override
+            public void accept(char value) {
+                downstream.accept(mapper.applyAsChar(value));
             }
         };
     }
@@ -256,29 +272,60 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
     }
 
     @Override
-    public CharStream filter(CharPredicate predicate) {
-        return new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, StreamOpFlag.NOT_SIZED) {
+    public CharStream mapMulti(CharStream.CharMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
                 return new Sink.ChainedChar<Character>(sink) {
+                    final Sink.OfChar consumer = (Sink.OfChar) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(char value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public CharStream filter(CharPredicate predicate) {
+        return fusible(new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Character> opWrapSink(int flags, Sink<Character> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.CHAR_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Character> filterSink(CharPredicate predicate, Sink<Character> sink) {
+        return new Sink.ChainedChar<Character>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(char value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public CharStream distinct() {
-        return boxed().distinct().mapToChar(v -> v);
+        return DistinctOps.makeChar(this);
     }
 
     @Override
@@ -286,6 +333,12 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
         return SortedOps.makeChar(this);
     }
 
+    @Override
+    public CharStream topK(int k) {
+        positive(k);
+        return TopKOps.makeChar(this, k);
+    }
+
     @Override
     public CharStream peek(CharConsumer action) {
         return new StateLessOp<Character>(this, StreamShape.CHAR_VALUE, 0) {
@@ -317,6 +370,46 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
         return SliceOps.makeChar(this, n, -1);
     }
 
+    @Override
+    public CharStream takeWhile(CharPredicate predicate) {
+        return WhileOps.makeTakeWhileChar(this, predicate);
+    }
+
+    @Override
+    public CharStream dropWhile(CharPredicate predicate) {
+        return WhileOps.makeDropWhileChar(this, predicate);
+    }
+
+    @Override
+    public Stream<char[]> batch(int batchSize) {
+        return BatchOps.makeChar(this, batchSize);
+    }
+
+    @Override
+    public Stream<char[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedChar(this, size, step);
+    }
+
+    @Override
+    public LongStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumChar(this, size);
+    }
+
+    @Override
+    public CharStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeChar(this, size, false);
+    }
+
+    @Override
+    public CharStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeChar(this, size, true);
+    }
+
+    @Override
+    public CharStream scan(char identity, CharBinaryOperator op) {
+        return ScanOps.makeChar(this, identity, op);
+    }
+
     @Override
     public void forEach(CharConsumer action) {
         evaluate(ForeachOps.makeChar(action, false));
@@ -329,8 +422,10 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
 
     @Override
     public char[] toArray() {
-        Node.OfChar node = (Node.OfChar) evaluateToArrayNode(Character[]::new);
-        return Nodes.flattenChar(node).asPrimitiveArray();
+        return evaluateInPool(() -> {
+            Node.OfChar node = (Node.OfChar) evaluateToArrayNode(Character[]::new);
+            return Nodes.flattenChar(node).asPrimitiveArray();
+        });
     }
 
     @Override
@@ -368,7 +463,12 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
 
     @Override
     public long count() {
-        return mapToLong(v -> 1L).sum();
+        return evaluate(ReduceOps.makeCharCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctChar(precision));
     }
 
     @Override
@@ -423,6 +523,11 @@ public abstract class CharPipeline<Input> extends AbstractPipeline<Input, Charac
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.IntStream toJdk() {
+        return StreamSupport.intStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     public CharStream unordered() {
         if (!isOrdered()) {
@@ -35,20 +35,29 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.stream.spliterator.WrappingSpliterator;
 
 import java.util.DoubleSummaryStatistics;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.function.BiConsumer;
@@ -63,6 +72,7 @@ import java.util.function.IntFunction;
 import java.util.function.ObjDoubleConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -137,15 +147,22 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
 
     @Override
     public DoubleStream map(DoubleUnaryOperator mapper) {
-        return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
-                return new Sink.ChainedDouble<Double>(sink) {
-                    @Override
-                    public void accept(double value) {
-                        downstream.accept(mapper.applyAsDouble(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.DOUBLE_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Double> mapSink(DoubleUnaryOperator mapper, Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+            @Override
+            public void accept(double value) {
+                downstream.accept(mapper.applyAsDouble(value));
             }
         };
     }
@@ -272,29 +289,60 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
     }
 
     @Override
-    public DoubleStream filter(DoublePredicate predicate) {
-        return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, StreamOpFlag.NOT_SIZED) {
+    public DoubleStream mapMulti(DoubleStream.DoubleMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedDouble<Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(double value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public DoubleStream filter(DoublePredicate predicate) {
+        return fusible(new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.DOUBLE_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Double> filterSink(DoublePredicate predicate, Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(double value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public DoubleStream distinct() {
-        return boxed().distinct().mapToDouble(Double::doubleValue);
+        return DistinctOps.makeDouble(this);
     }
 
     @Override
@@ -302,6 +350,12 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
         return SortedOps.makeDouble(this);
     }
 
+    @Override
+    public DoubleStream topK(int k) {
+        positive(k);
+        return TopKOps.makeDouble(this, k);
+    }
+
     @Override
     public DoubleStream peek(DoubleConsumer action) {
         return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE, 0) {
@@ -334,6 +388,46 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
         return SliceOps.makeDouble(this,n,-1);
     }
 
+    @Override
+    public DoubleStream takeWhile(DoublePredicate predicate) {
+        return WhileOps.makeTakeWhileDouble(this, predicate);
+    }
+
+    @Override
+    public DoubleStream dropWhile(DoublePredicate predicate) {
+        return WhileOps.makeDropWhileDouble(this, predicate);
+    }
+
+    @Override
+    public Stream<double[]> batch(int batchSize) {
+        return BatchOps.makeDouble(this, batchSize);
+    }
+
+    @Override
+    public Stream<double[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedDouble(this, size, step);
+    }
+
+    @Override
+    public DoubleStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumDouble(this, size);
+    }
+
+    @Override
+    public DoubleStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeDouble(this, size, false);
+    }
+
+    @Override
+    public DoubleStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeDouble(this, size, true);
+    }
+
+    @Override
+    public DoubleStream scan(double identity, DoubleBinaryOperator op) {
+        return ScanOps.makeDouble(this, identity, op);
+    }
+
     @Override
     public void forEach(DoubleConsumer action) {
         evaluate(ForeachOps.makeDouble(action,false));
@@ -346,7 +440,7 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
 
     @Override
     public double[] toArray() {
-        return Nodes.flattenDouble((Node.OfDouble)evaluateToArrayNode(Double[]::new)).asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenDouble((Node.OfDouble)evaluateToArrayNode(Double[]::new)).asPrimitiveArray());
     }
 
     @Override
@@ -381,7 +475,12 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
 
     @Override
     public long count() {
-        return mapToLong(v->1L).sum();
+        return evaluate(ReduceOps.makeDoubleCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctDouble(precision));
     }
 
     @Override
@@ -405,6 +504,16 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
         return collect(DoubleSummaryStatistics::new,DoubleSummaryStatistics::accept,DoubleSummaryStatistics::combine);
     }
 
+    @Override
+    public double[] quantiles(double... ranks) {
+        return evaluate(SketchOps.makeQuantilesDouble(ranks));
+    }
+
+    @Override
+    public long[] histogram(double... boundaries) {
+        return evaluate(SketchOps.makeHistogramDouble(boundaries));
+    }
+
     @Override
     public boolean anyMatch(DoublePredicate predicate) {
         return evaluate(MatchOps.makeDouble(predicate, MatchKind.ANY));
@@ -440,6 +549,11 @@ public abstract class DoublePipeline<T> extends AbstractPipeline<T, Double, Doub
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.DoubleStream toJdk() {
+        return StreamSupport.doubleStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     public DoubleStream unordered() {
         if (isOrdered()){
@@ -41,14 +41,22 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -56,11 +64,13 @@ import io.github.amrjlg.stream.spliterator.WrappingSpliterator;
 import io.github.amrjlg.util.FloatSummaryStatistics;
 import io.github.amrjlg.util.OptionalFloat;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.function.BiConsumer;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -150,15 +160,22 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
 
     @Override
     public FloatStream map(FloatUnaryOperator mapper) {
-        return new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
-                return new Sink.ChainedFloat<Float>(sink) {
-                    @Override
-                    public void accept(float value) {
-                        downstream.accept(mapper.applyAsFloat(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.FLOAT_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Float> mapSink(FloatUnaryOperator mapper, Sink<Float> sink) {
+        return new Sink.ChainedFloat<Float>(sink) {
+            @Override
+            public void accept(float value) {
+                downstream.accept(mapper.applyAsFloat(value));
             }
         };
     }
@@ -270,29 +287,60 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
     }
 
     @Override
-    public FloatStream filter(FloatPredicate predicate) {
-        return new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, StreamOpFlag.NOT_SIZED) {
+    public FloatStream mapMulti(FloatStream.FloatMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
                 return new Sink.ChainedFloat<Float>(sink) {
+                    final Sink.OfFloat consumer = (Sink.OfFloat) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(float value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public FloatStream filter(FloatPredicate predicate) {
+        return fusible(new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Float> opWrapSink(int flags, Sink<Float> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.FLOAT_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Float> filterSink(FloatPredicate predicate, Sink<Float> sink) {
+        return new Sink.ChainedFloat<Float>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(float value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public FloatStream distinct() {
-        return boxed().distinct().mapToFloat(v -> v);
+        return DistinctOps.makeFloat(this);
     }
 
     @Override
@@ -300,6 +348,12 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
         return SortedOps.makeFLoat(this);
     }
 
+    @Override
+    public FloatStream topK(int k) {
+        positive(k);
+        return TopKOps.makeFloat(this, k);
+    }
+
     @Override
     public FloatStream peek(FloatConsumer action) {
         return new StatelessOp<Float>(this, StreamShape.FLOAT_VALUE, 0) {
@@ -331,6 +385,46 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
         return SliceOps.makeFloat(this, n, -1);
     }
 
+    @Override
+    public FloatStream takeWhile(FloatPredicate predicate) {
+        return WhileOps.makeTakeWhileFloat(this, predicate);
+    }
+
+    @Override
+    public FloatStream dropWhile(FloatPredicate predicate) {
+        return WhileOps.makeDropWhileFloat(this, predicate);
+    }
+
+    @Override
+    public Stream<float[]> batch(int batchSize) {
+        return BatchOps.makeFloat(this, batchSize);
+    }
+
+    @Override
+    public Stream<float[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedFloat(this, size, step);
+    }
+
+    @Override
+    public DoubleStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumFloat(this, size);
+    }
+
+    @Override
+    public FloatStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeFloat(this, size, false);
+    }
+
+    @Override
+    public FloatStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeFloat(this, size, true);
+    }
+
+    @Override
+    public FloatStream scan(float identity, FloatBinaryOperator op) {
+        return ScanOps.makeFloat(this, identity, op);
+    }
+
     @Override
     public void forEach(FloatConsumer action) {
         evaluate(ForeachOps.makeFloat(action, false));
@@ -343,7 +437,7 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
 
     @Override
     public float[] toArray() {
-        return Nodes.flattenFloat((Node.OfFloat) evaluateToArrayNode(Float[]::new)).asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenFloat((Node.OfFloat) evaluateToArrayNode(Float[]::new)).asPrimitiveArray());
     }
 
     @Override
@@ -378,7 +472,12 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
 
     @Override
     public long count() {
-        return mapToLong(v -> 1L).sum();
+        return evaluate(ReduceOps.makeFloatCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctFloat(precision));
     }
 
     @Override
@@ -401,6 +500,16 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
         return collect(FloatSummaryStatistics::new, FloatSummaryStatistics::accept, FloatSummaryStatistics::combine);
     }
 
+    @Override
+    public double[] quantiles(double... ranks) {
+        return evaluate(SketchOps.makeQuantilesFloat(ranks));
+    }
+
+    @Override
+    public long[] histogram(float... boundaries) {
+        return evaluate(SketchOps.makeHistogramFloat(boundaries));
+    }
+
     @Override
     public boolean anyMatch(FloatPredicate predicate) {
         return evaluate(MatchOps.makeFloat(predicate, MatchKind.ANY));
@@ -436,6 +545,11 @@ public abstract class FloatPipeline<Input> extends AbstractPipeline<Input, Float
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.DoubleStream toJdk() {
+        return StreamSupport.doubleStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     static class Head<In> extends FloatPipeline<In> {
 
         public Head(Supplier<? extends Spliterator<?>> source, int sourceFlags, boolean parallel) {
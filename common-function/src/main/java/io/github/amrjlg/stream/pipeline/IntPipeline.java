@@ -35,14 +35,22 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -62,6 +70,7 @@ import java.util.function.IntToLongFunction;
 import java.util.function.IntUnaryOperator;
 import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -140,15 +149,22 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
 
     @Override
     public IntStream map(IntUnaryOperator mapper) {
-        return new StatelessOp<Integer>(this, StreamShape.INT_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StatelessOp<Integer>(this, StreamShape.INT_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
-                return new Sink.ChainedInt<Integer>(sink) {
-                    @Override
-                    public void accept(int value) {
-                        downstream.accept(mapper.applyAsInt(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.INT_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Integer> mapSink(IntUnaryOperator mapper, Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+            @Override
+            public void accept(int value) {
+                downstream.accept(mapper.applyAsInt(value));
             }
         };
     }
@@ -283,29 +299,60 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
     }
 
     @Override
-    public IntStream filter(IntPredicate predicate) {
-        return new StatelessOp<Integer>(this, StreamShape.INT_VALUE, StreamOpFlag.NOT_SIZED) {
+    public IntStream mapMulti(IntStream.IntMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Integer>(this, StreamShape.INT_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedInt<Integer>(sink) {
+                    final Sink.OfInt consumer = (Sink.OfInt) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(int value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public IntStream filter(IntPredicate predicate) {
+        return fusible(new StatelessOp<Integer>(this, StreamShape.INT_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.INT_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Integer> filterSink(IntPredicate predicate, Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(int value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public IntStream distinct() {
-        return boxed().distinct().mapToInt(v -> v);
+        return DistinctOps.makeInt(this);
     }
 
     @Override
@@ -313,6 +360,12 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
         return SortedOps.makeInt(this);
     }
 
+    @Override
+    public IntStream topK(int k) {
+        positive(k);
+        return TopKOps.makeInt(this, k);
+    }
+
     @Override
     public IntStream peek(IntConsumer action) {
         return new StatelessOp<Integer>(this, StreamShape.INT_VALUE, 0) {
@@ -344,6 +397,46 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
         return SliceOps.makeInt(this, skip, -1);
     }
 
+    @Override
+    public IntStream takeWhile(IntPredicate predicate) {
+        return WhileOps.makeTakeWhileInt(this, predicate);
+    }
+
+    @Override
+    public IntStream dropWhile(IntPredicate predicate) {
+        return WhileOps.makeDropWhileInt(this, predicate);
+    }
+
+    @Override
+    public Stream<int[]> batch(int batchSize) {
+        return BatchOps.makeInt(this, batchSize);
+    }
+
+    @Override
+    public Stream<int[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedInt(this, size, step);
+    }
+
+    @Override
+    public LongStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumInt(this, size);
+    }
+
+    @Override
+    public IntStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeInt(this, size, false);
+    }
+
+    @Override
+    public IntStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeInt(this, size, true);
+    }
+
+    @Override
+    public IntStream scan(int identity, IntBinaryOperator op) {
+        return ScanOps.makeInt(this, identity, op);
+    }
+
     @Override
     public void forEach(IntConsumer action) {
         evaluate(ForeachOps.makeInt(action, false));
@@ -356,7 +449,7 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
 
     @Override
     public int[] toArray() {
-        return Nodes.flattenInt((Node.OfInt) evaluateToArrayNode(Integer[]::new)).asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenInt((Node.OfInt) evaluateToArrayNode(Integer[]::new)).asPrimitiveArray());
     }
 
     @Override
@@ -391,7 +484,12 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
 
     @Override
     public long count() {
-        return mapToLong(v -> 1L).sum();
+        return evaluate(ReduceOps.makeIntCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctInt(precision));
     }
 
     @Override
@@ -411,6 +509,16 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
         return collect(IntSummaryStatistics::new, IntSummaryStatistics::accept, IntSummaryStatistics::combine);
     }
 
+    @Override
+    public double[] quantiles(double... ranks) {
+        return evaluate(SketchOps.makeQuantilesInt(ranks));
+    }
+
+    @Override
+    public long[] histogram(int... boundaries) {
+        return evaluate(SketchOps.makeHistogramInt(boundaries));
+    }
+
     @Override
     public boolean anyMatch(IntPredicate predicate) {
         return evaluate(MatchOps.makeInt(predicate, MatchKind.ANY));
@@ -446,6 +554,11 @@ public abstract class IntPipeline<In> extends AbstractPipeline<In, Integer, IntS
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.IntStream toJdk() {
+        return StreamSupport.intStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     public IntStream unordered() {
         if (isOrdered()) {
@@ -35,20 +35,29 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.stream.spliterator.WrappingSpliterator;
 
 import java.util.LongSummaryStatistics;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
@@ -63,6 +72,7 @@ import java.util.function.LongToIntFunction;
 import java.util.function.LongUnaryOperator;
 import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 /**
  * @author amrjlg
@@ -138,15 +148,22 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
 
     @Override
     public LongStream map(LongUnaryOperator mapper) {
-        return new StatelessOp<Long>(this, StreamShape.LONG_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StatelessOp<Long>(this, StreamShape.LONG_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
-                return new Sink.ChainedLong<Long>(sink) {
-                    @Override
-                    public void accept(long value) {
-                        downstream.accept(mapper.applyAsLong(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.LONG_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Long> mapSink(LongUnaryOperator mapper, Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+            @Override
+            public void accept(long value) {
+                downstream.accept(mapper.applyAsLong(value));
             }
         };
     }
@@ -278,29 +295,60 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
     }
 
     @Override
-    public LongStream filter(LongPredicate predicate) {
-        return new StatelessOp<Long>(this, StreamShape.LONG_VALUE, StreamOpFlag.NOT_SIZED) {
+    public LongStream mapMulti(LongStream.LongMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Long>(this, StreamShape.LONG_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedLong<Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(long value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public LongStream filter(LongPredicate predicate) {
+        return fusible(new StatelessOp<Long>(this, StreamShape.LONG_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.LONG_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Long> filterSink(LongPredicate predicate, Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(long value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public LongStream distinct() {
-        return boxed().distinct().mapToLong(v -> v);
+        return DistinctOps.makeLong(this);
     }
 
     @Override
@@ -308,6 +356,12 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
         return SortedOps.makeLong(this);
     }
 
+    @Override
+    public LongStream topK(int k) {
+        positive(k);
+        return TopKOps.makeLong(this, k);
+    }
+
     @Override
     public LongStream peek(LongConsumer action) {
         return new StatelessOp<Long>(this, StreamShape.LONG_VALUE, 0) {
@@ -339,6 +393,46 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
         return SliceOps.makeLong(this, n, -1);
     }
 
+    @Override
+    public LongStream takeWhile(LongPredicate predicate) {
+        return WhileOps.makeTakeWhileLong(this, predicate);
+    }
+
+    @Override
+    public LongStream dropWhile(LongPredicate predicate) {
+        return WhileOps.makeDropWhileLong(this, predicate);
+    }
+
+    @Override
+    public Stream<long[]> batch(int batchSize) {
+        return BatchOps.makeLong(this, batchSize);
+    }
+
+    @Override
+    public Stream<long[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedLong(this, size, step);
+    }
+
+    @Override
+    public LongStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumLong(this, size);
+    }
+
+    @Override
+    public LongStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeLong(this, size, false);
+    }
+
+    @Override
+    public LongStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeLong(this, size, true);
+    }
+
+    @Override
+    public LongStream scan(long identity, LongBinaryOperator op) {
+        return ScanOps.makeLong(this, identity, op);
+    }
+
     @Override
     public void forEach(LongConsumer action) {
         evaluate(ForeachOps.makeLong(action, false));
@@ -351,7 +445,7 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
 
     @Override
     public long[] toArray() {
-        return Nodes.flattenLong((Node.OfLong) evaluateToArrayNode(Long[]::new)).asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenLong((Node.OfLong) evaluateToArrayNode(Long[]::new)).asPrimitiveArray());
     }
 
     @Override
@@ -387,7 +481,12 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
 
     @Override
     public long count() {
-        return map(v -> 1L).sum();
+        return evaluate(ReduceOps.makeLongCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctLong(precision));
     }
 
     @Override
@@ -407,6 +506,16 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
         return collect(LongSummaryStatistics::new, LongSummaryStatistics::accept, LongSummaryStatistics::combine);
     }
 
+    @Override
+    public double[] quantiles(double... ranks) {
+        return evaluate(SketchOps.makeQuantilesLong(ranks));
+    }
+
+    @Override
+    public long[] histogram(long... boundaries) {
+        return evaluate(SketchOps.makeHistogramLong(boundaries));
+    }
+
     @Override
     public boolean anyMatch(LongPredicate predicate) {
         return evaluate(MatchOps.makeLong(predicate, MatchKind.ANY));
@@ -442,6 +551,11 @@ public abstract class LongPipeline<Input> extends AbstractPipeline<Input, Long,
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.LongStream toJdk() {
+        return StreamSupport.longStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     public static Spliterator.OfLong adapter(Spliterator<Long> spliterator) {
         if (spliterator instanceof Spliterator.OfLong) {
             return (Spliterator.OfLong) spliterator;
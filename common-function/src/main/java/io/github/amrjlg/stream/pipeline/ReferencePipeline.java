@@ -17,6 +17,10 @@
 
 package io.github.amrjlg.stream.pipeline;
 
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
 import io.github.amrjlg.function.ToByteFunction;
 import io.github.amrjlg.function.ToCharFunction;
 import io.github.amrjlg.function.ToFloatFunction;
@@ -35,21 +39,27 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
 import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
 import io.github.amrjlg.stream.spliterator.WrappingSpliterator;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -57,14 +67,18 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -123,6 +137,11 @@ public abstract class ReferencePipeline<Input, Output>
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.Stream<Output> toJdk() {
+        return StreamSupport.stream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     public Stream<Output> unordered() {
         if (!isOrdered()) {
@@ -140,23 +159,30 @@ public abstract class ReferencePipeline<Input, Output>
     @Override
     public Stream<Output> filter(Predicate<? super Output> predicate) {
         Objects.requireNonNull(predicate);
-        return new StatelessOp<Output, Output>(this, StreamShape.REFERENCE, StreamOpFlag.NOT_SIZED) {
+        return fusible(new StatelessOp<Output, Output>(this, StreamShape.REFERENCE, StreamOpFlag.NOT_SIZED) {
             @Override
             public Sink<Output> opWrapSink(int flags, Sink<Output> sink) {
-                return new Sink.ChainedReference<Output, Output>(sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.refFilter(predicate));
+    }
 
-                    @Override
-                    public void begin(long size) {
-                        downstream.begin(-1);
-                    }
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static <T> Sink<T> filterSink(Predicate<? super T> predicate, Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
 
-                    @Override
-                    public void accept(Output output) {
-                        if (predicate.test(output)) {
-                            downstream.accept(output);
-                        }
-                    }
-                };
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(T value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
             }
         };
     }
@@ -164,16 +190,23 @@ public abstract class ReferencePipeline<Input, Output>
     @Override
     public <R> Stream<R> map(Function<? super Output, ? extends R> mapper) {
         Objects.requireNonNull(mapper);
-        return new StatelessOp<Output, R>(this, StreamShape.REFERENCE, StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+        return fusible(new StatelessOp<Output, R>(this, StreamShape.REFERENCE, StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
             @Override
             public Sink<Output> opWrapSink(int flags, Sink<R> sink) {
-                return new Sink.ChainedReference<Output, R>(sink) {
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.refMap(mapper));
+    }
 
-                    @Override
-                    public void accept(Output output) {
-                        downstream.accept(mapper.apply(output));
-                    }
-                };
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static <In, Out> Sink<In> mapSink(Function<? super In, ? extends Out> mapper, Sink<Out> sink) {
+        return new Sink.ChainedReference<In, Out>(sink) {
+
+            @Override
+            public void accept(In value) {
+                downstream.accept(mapper.apply(value));
             }
         };
     }
@@ -454,6 +487,188 @@ public abstract class ReferencePipeline<Input, Output>
         };
     }
 
+    @Override
+    public <R> Stream<R> mapMulti(BiConsumer<? super Output, ? super Consumer<R>> mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Output, R>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<R> sink) {
+                return new Sink.ChainedReference<Output, R>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, sink);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public ByteStream mapMultiToByte(BiConsumer<? super Output, ? super ByteConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new BytePipeline.StateLessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Byte> sink) {
+                return new Sink.ChainedReference<Output, Byte>(sink) {
+                    final Sink.OfByte consumer = (Sink.OfByte) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public ShortStream mapMultiToShort(BiConsumer<? super Output, ? super ShortConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ShortPipeline.StatelessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Short> sink) {
+                return new Sink.ChainedReference<Output, Short>(sink) {
+                    final Sink.OfShort consumer = (Sink.OfShort) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public CharStream mapMultiToChar(BiConsumer<? super Output, ? super CharConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new CharPipeline.StateLessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Character> sink) {
+                return new Sink.ChainedReference<Output, Character>(sink) {
+                    final Sink.OfChar consumer = (Sink.OfChar) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream mapMultiToInt(BiConsumer<? super Output, ? super IntConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.StatelessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Integer> sink) {
+                return new Sink.ChainedReference<Output, Integer>(sink) {
+                    final Sink.OfInt consumer = (Sink.OfInt) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream mapMultiToLong(BiConsumer<? super Output, ? super LongConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.StatelessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Long> sink) {
+                return new Sink.ChainedReference<Output, Long>(sink) {
+                    final Sink.OfLong consumer = (Sink.OfLong) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public FloatStream mapMultiToFloat(BiConsumer<? super Output, ? super FloatConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new FloatPipeline.StatelessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Float> sink) {
+                return new Sink.ChainedReference<Output, Float>(sink) {
+                    final Sink.OfFloat consumer = (Sink.OfFloat) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream mapMultiToDouble(BiConsumer<? super Output, ? super DoubleConsumer> mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.StatelessOp<Output>(this, StreamShape.REFERENCE, FLAT_MAP_OP_FLAGS) {
+            @Override
+            public Sink<Output> opWrapSink(int flags, Sink<Double> sink) {
+                return new Sink.ChainedReference<Output, Double>(sink) {
+                    final Sink.OfDouble consumer = (Sink.OfDouble) downstream;
+
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(Output output) {
+                        mapper.accept(output, consumer);
+                    }
+                };
+            }
+        };
+    }
+
     @Override
     public Stream<Output> peek(Consumer<? super Output> action) {
         return new StatelessOp<Output, Output>(this, StreamShape.REFERENCE, 0) {
@@ -486,6 +701,27 @@ public abstract class ReferencePipeline<Input, Output>
         return SortedOps.makeRef(this, comparator);
     }
 
+    @Override
+    public Stream<Output> sortedByInt(ToIntFunction<? super Output> key) {
+        return SortedOps.makeRefByInt(this, key);
+    }
+
+    @Override
+    public Stream<Output> sortedByLong(ToLongFunction<? super Output> key) {
+        return SortedOps.makeRefByLong(this, key);
+    }
+
+    @Override
+    public Stream<Output> sortedByDouble(ToDoubleFunction<? super Output> key) {
+        return SortedOps.makeRefByDouble(this, key);
+    }
+
+    @Override
+    public Stream<Output> topK(int k, Comparator<? super Output> comparator) {
+        positive(k);
+        return TopKOps.makeRef(this, k, comparator);
+    }
+
     @Override
     public Stream<Output> limit(long maxSize) {
         if (maxSize < 0) {
@@ -505,6 +741,21 @@ public abstract class ReferencePipeline<Input, Output>
         return SliceOps.makeRef(this, count, -1);
     }
 
+    @Override
+    public Stream<Output> takeWhile(Predicate<? super Output> predicate) {
+        return WhileOps.makeTakeWhileRef(this, predicate);
+    }
+
+    @Override
+    public Stream<Output> dropWhile(Predicate<? super Output> predicate) {
+        return WhileOps.makeDropWhileRef(this, predicate);
+    }
+
+    @Override
+    public Stream<List<Output>> batch(int batchSize) {
+        return BatchOps.makeRef(this, batchSize);
+    }
+
     @Override
     public void forEach(Consumer<? super Output> action) {
         evaluate(ForeachOps.makeRef(action, false));
@@ -523,7 +774,7 @@ public abstract class ReferencePipeline<Input, Output>
     @Override
     @SuppressWarnings("unchecked")
     public <A> A[] toArray(IntFunction<A[]> generator) {
-        return (A[]) Nodes.flatten(evaluateToArrayNode((IntFunction) generator), generator).asArray((IntFunction) generator);
+        return evaluateInPool(() -> (A[]) Nodes.flatten(evaluateToArrayNode((IntFunction) generator), generator).asArray((IntFunction) generator));
     }
 
     @Override
@@ -582,7 +833,12 @@ public abstract class ReferencePipeline<Input, Output>
 
     @Override
     public long count() {
-        return mapToLong(ele -> 1L).sum();
+        return evaluate(ReduceOps.makeRefCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctRef(precision));
     }
 
     @Override
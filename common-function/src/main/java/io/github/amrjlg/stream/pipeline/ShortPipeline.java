@@ -26,14 +26,22 @@ import io.github.amrjlg.stream.StreamShape;
 import io.github.amrjlg.stream.node.Node;
 import io.github.amrjlg.stream.node.NodeBuilder;
 import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.operations.BatchOps;
+import io.github.amrjlg.stream.operations.DistinctOps;
 import io.github.amrjlg.stream.operations.FindOps;
 import io.github.amrjlg.stream.operations.ForeachOps;
 import io.github.amrjlg.stream.operations.MatchKind;
 import io.github.amrjlg.stream.operations.MatchOps;
 import io.github.amrjlg.stream.operations.ReduceOps;
+import io.github.amrjlg.stream.operations.ScanOps;
+import io.github.amrjlg.stream.operations.SketchOps;
 import io.github.amrjlg.stream.operations.SliceOps;
 import io.github.amrjlg.stream.operations.SortedOps;
+import io.github.amrjlg.stream.operations.TopKOps;
+import io.github.amrjlg.stream.operations.WhileOps;
+import io.github.amrjlg.stream.operations.WindowOps;
 import io.github.amrjlg.stream.spliterator.DelegatingSpliterator;
+import io.github.amrjlg.stream.spliterator.JdkSpliterators;
 import io.github.amrjlg.stream.spliterator.PrimitiveIterator;
 import io.github.amrjlg.stream.spliterator.Spliterator;
 import io.github.amrjlg.stream.spliterator.Spliterators;
@@ -47,6 +55,7 @@ import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short, ShortStream>
         implements ShortStream {
@@ -64,15 +73,22 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
 
     @Override
     public ShortStream map(ShortUnaryOperator mapper) {
-        return new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, MAP_OP_FLAGS) {
+        return fusible(new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, MAP_OP_FLAGS) {
             @Override
             public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
-                return new Sink.ChainedShort<Short>(sink) {
-                    @Override
-                    public void accept(short value) {
-                        downstream.accept(mapper.applyAsShort(value));
-                    }
-                };
+                return mapSink(mapper, sink);
+            }
+        }, StageFusion.SHORT_MAP.of(mapper));
+    }
+
+    /**
+     * the sink of a map stage, a fused run of maps is wrapped in it with the mappers composed
+     */
+    static Sink<Short> mapSink(ShortUnaryOperator mapper, Sink<Short> sink) {
+        return new Sink.ChainedShort<Short>(sink) {
+            @Override
+            public void accept(short value) {
+                downstream.accept(mapper.applyAsShort(value));
             }
         };
     }
@@ -207,29 +223,60 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
     }
 
     @Override
-    public ShortStream filter(ShortPredicate predicate) {
-        return new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, StreamOpFlag.NOT_SIZED) {
+    public ShortStream mapMulti(ShortStream.ShortMapMultiConsumer mapper) {
+        Objects.requireNonNull(mapper);
+        return new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, FLAT_MAP_OP_FLAGS) {
             @Override
             public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
                 return new Sink.ChainedShort<Short>(sink) {
+                    final Sink.OfShort consumer = (Sink.OfShort) downstream;
+
                     @Override
                     public void begin(long size) {
                         downstream.begin(-1);
                     }
+
                     @Override
                     public void accept(short value) {
-                        if (predicate.test(value)) {
-                            downstream.accept(value);
-                        }
+                        mapper.accept(value, consumer);
                     }
                 };
             }
         };
     }
 
+    @Override
+    public ShortStream filter(ShortPredicate predicate) {
+        return fusible(new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, StreamOpFlag.NOT_SIZED) {
+            @Override
+            public Sink<Short> opWrapSink(int flags, Sink<Short> sink) {
+                return filterSink(predicate, sink);
+            }
+        }, StageFusion.SHORT_FILTER.of(predicate));
+    }
+
+    /**
+     * the sink of a filter stage, a fused run of filters is wrapped in it with the predicates composed
+     */
+    static Sink<Short> filterSink(ShortPredicate predicate, Sink<Short> sink) {
+        return new Sink.ChainedShort<Short>(sink) {
+            @Override
+            public void begin(long size) {
+                downstream.begin(-1);
+            }
+
+            @Override
+            public void accept(short value) {
+                if (predicate.test(value)) {
+                    downstream.accept(value);
+                }
+            }
+        };
+    }
+
     @Override
     public ShortStream distinct() {
-        return boxed().distinct().mapToShort(v -> v);
+        return DistinctOps.makeShort(this);
     }
 
     @Override
@@ -237,6 +284,12 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
         return SortedOps.makeShort(this);
     }
 
+    @Override
+    public ShortStream topK(int k) {
+        positive(k);
+        return TopKOps.makeShort(this, k);
+    }
+
     @Override
     public ShortStream peek(ShortConsumer action) {
         return new StatelessOp<Short>(this, StreamShape.SHORT_VALUE, 0) {
@@ -268,6 +321,46 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
         return SliceOps.makeShort(this, n, -1);
     }
 
+    @Override
+    public ShortStream takeWhile(ShortPredicate predicate) {
+        return WhileOps.makeTakeWhileShort(this, predicate);
+    }
+
+    @Override
+    public ShortStream dropWhile(ShortPredicate predicate) {
+        return WhileOps.makeDropWhileShort(this, predicate);
+    }
+
+    @Override
+    public Stream<short[]> batch(int batchSize) {
+        return BatchOps.makeShort(this, batchSize);
+    }
+
+    @Override
+    public Stream<short[]> windowed(int size, int step) {
+        return WindowOps.makeWindowedShort(this, size, step);
+    }
+
+    @Override
+    public LongStream slidingSum(int size) {
+        return WindowOps.makeSlidingSumShort(this, size);
+    }
+
+    @Override
+    public ShortStream slidingMin(int size) {
+        return WindowOps.makeSlidingExtremeShort(this, size, false);
+    }
+
+    @Override
+    public ShortStream slidingMax(int size) {
+        return WindowOps.makeSlidingExtremeShort(this, size, true);
+    }
+
+    @Override
+    public ShortStream scan(short identity, ShortBinaryOperator op) {
+        return ScanOps.makeShort(this, identity, op);
+    }
+
     @Override
     public void forEach(ShortConsumer action) {
         evaluate(ForeachOps.makeShort(action, false));
@@ -280,7 +373,7 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
 
     @Override
     public short[] toArray() {
-        return Nodes.flattenShort((Node.OfShort) evaluateToArrayNode(Short[]::new)).asPrimitiveArray();
+        return evaluateInPool(() -> Nodes.flattenShort((Node.OfShort) evaluateToArrayNode(Short[]::new)).asPrimitiveArray());
     }
 
     @Override
@@ -319,7 +412,12 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
 
     @Override
     public long count() {
-        return mapToLong(v -> 1L).sum();
+        return evaluate(ReduceOps.makeShortCounting());
+    }
+
+    @Override
+    public long approxDistinctCount(int precision) {
+        return evaluate(SketchOps.makeApproxDistinctShort(precision));
     }
 
     @Override
@@ -376,6 +474,11 @@ public abstract class ShortPipeline<Input> extends AbstractPipeline<Input, Short
         return Spliterators.iterator(spliterator());
     }
 
+    @Override
+    public java.util.stream.IntStream toJdk() {
+        return StreamSupport.intStream(JdkSpliterators.toJdk(spliterator()), isParallel()).onClose(this::close);
+    }
+
     @Override
     public ShortStream unordered() {
         if (!isOrdered()) {
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.pipeline;
+
+import io.github.amrjlg.function.BytePredicate;
+import io.github.amrjlg.function.ByteUnaryOperator;
+import io.github.amrjlg.function.CharPredicate;
+import io.github.amrjlg.function.CharUnaryOperator;
+import io.github.amrjlg.function.FloatPredicate;
+import io.github.amrjlg.function.FloatUnaryOperator;
+import io.github.amrjlg.function.ShortPredicate;
+import io.github.amrjlg.function.ShortUnaryOperator;
+import io.github.amrjlg.stream.Sink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * function of a stateless map or filter stage. {@link AbstractPipeline#wrapSink} composes the functions
+ * of a run of adjacent stages of the same kind into one and wraps it in the sink of a single such stage,
+ * so each element passes one sink for the run instead of one per stage.
+ * the composed function calls the functions of the run from one loop rather than through nested compositions.
+ * set {@code -Dio.github.amrjlg.stream.fusion=false} to wrap every stage on its own
+ *
+ * @param <F> function of the stage
+ * @param <T> type of the elements passing the stage
+ * @author amrjlg
+ **/
+final class StageFusion<F, T> {
+
+    /**
+     * read once when the class is loaded
+     */
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("io.github.amrjlg.stream.fusion", "true"));
+
+    static final Kind<Function<Object, Object>, Object> REF_MAP = new Kind<>(StageFusion::refMaps, ReferencePipeline::mapSink);
+    static final Kind<Predicate<Object>, Object> REF_FILTER = new Kind<>(StageFusion::refFilters, ReferencePipeline::filterSink);
+
+    static final Kind<ByteUnaryOperator, Byte> BYTE_MAP = new Kind<>(StageFusion::byteMaps, BytePipeline::mapSink);
+    static final Kind<BytePredicate, Byte> BYTE_FILTER = new Kind<>(StageFusion::byteFilters, BytePipeline::filterSink);
+
+    static final Kind<ShortUnaryOperator, Short> SHORT_MAP = new Kind<>(StageFusion::shortMaps, ShortPipeline::mapSink);
+    static final Kind<ShortPredicate, Short> SHORT_FILTER = new Kind<>(StageFusion::shortFilters, ShortPipeline::filterSink);
+
+    static final Kind<CharUnaryOperator, Character> CHAR_MAP = new Kind<>(StageFusion::charMaps, CharPipeline::mapSink);
+    static final Kind<CharPredicate, Character> CHAR_FILTER = new Kind<>(StageFusion::charFilters, CharPipeline::filterSink);
+
+    static final Kind<IntUnaryOperator, Integer> INT_MAP = new Kind<>(StageFusion::intMaps, IntPipeline::mapSink);
+    static final Kind<IntPredicate, Integer> INT_FILTER = new Kind<>(StageFusion::intFilters, IntPipeline::filterSink);
+
+    static final Kind<LongUnaryOperator, Long> LONG_MAP = new Kind<>(StageFusion::longMaps, LongPipeline::mapSink);
+    static final Kind<LongPredicate, Long> LONG_FILTER = new Kind<>(StageFusion::longFilters, LongPipeline::filterSink);
+
+    static final Kind<FloatUnaryOperator, Float> FLOAT_MAP = new Kind<>(StageFusion::floatMaps, FloatPipeline::mapSink);
+    static final Kind<FloatPredicate, Float> FLOAT_FILTER = new Kind<>(StageFusion::floatFilters, FloatPipeline::filterSink);
+
+    static final Kind<DoubleUnaryOperator, Double> DOUBLE_MAP = new Kind<>(StageFusion::doubleMaps, DoublePipeline::mapSink);
+    static final Kind<DoublePredicate, Double> DOUBLE_FILTER = new Kind<>(StageFusion::doubleFilters, DoublePipeline::filterSink);
+
+    final Kind<F, T> kind;
+    final F function;
+
+    private StageFusion(Kind<F, T> kind, F function) {
+        this.kind = kind;
+        this.function = function;
+    }
+
+    /**
+     * whether this stage and the stage before it belong to one run
+     */
+    boolean fuses(StageFusion<?, ?> previous) {
+        return previous != null && previous.kind == kind;
+    }
+
+    @SuppressWarnings("unchecked")
+    static StageFusion<Function<Object, Object>, Object> refMap(Function<?, ?> mapper) {
+        return REF_MAP.of((Function<Object, Object>) mapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    static StageFusion<Predicate<Object>, Object> refFilter(Predicate<?> predicate) {
+        return REF_FILTER.of((Predicate<Object>) predicate);
+    }
+
+    /**
+     * map or filter of one shape
+     *
+     * @param <F> function of the stage
+     * @param <T> type of the elements passing the stage
+     */
+    static final class Kind<F, T> {
+        private final Function<List<F>, F> compose;
+        // the sink of a single stage of this kind
+        private final BiFunction<F, Sink<T>, Sink<T>> sink;
+
+        Kind(Function<List<F>, F> compose, BiFunction<F, Sink<T>, Sink<T>> sink) {
+            this.compose = compose;
+            this.sink = sink;
+        }
+
+        StageFusion<F, T> of(F function) {
+            return new StageFusion<>(this, function);
+        }
+
+        /**
+         * the functions of a run in encounter order
+         */
+        Sink<T> wrapSink(List<F> run, Sink<T> downstream) {
+            return sink.apply(compose.apply(run), downstream);
+        }
+    }
+
+    private static Function<Object, Object> refMaps(List<Function<Object, Object>> run) {
+        List<Function<Object, Object>> mappers = new ArrayList<>(run);
+        int size = mappers.size();
+        return value -> {
+            for (int i = 0; i < size; i++) {
+                value = mappers.get(i).apply(value);
+            }
+            return value;
+        };
+    }
+
+    private static Predicate<Object> refFilters(List<Predicate<Object>> run) {
+        List<Predicate<Object>> predicates = new ArrayList<>(run);
+        int size = predicates.size();
+        return value -> {
+            for (int i = 0; i < size; i++) {
+                if (!predicates.get(i).test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static ByteUnaryOperator byteMaps(List<ByteUnaryOperator> run) {
+        ByteUnaryOperator[] mappers = run.toArray(new ByteUnaryOperator[0]);
+        return value -> {
+            for (ByteUnaryOperator mapper : mappers) {
+                value = mapper.applyAsByte(value);
+            }
+            return value;
+        };
+    }
+
+    private static BytePredicate byteFilters(List<BytePredicate> run) {
+        BytePredicate[] predicates = run.toArray(new BytePredicate[0]);
+        return value -> {
+            for (BytePredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static ShortUnaryOperator shortMaps(List<ShortUnaryOperator> run) {
+        ShortUnaryOperator[] mappers = run.toArray(new ShortUnaryOperator[0]);
+        return value -> {
+            for (ShortUnaryOperator mapper : mappers) {
+                value = mapper.applyAsShort(value);
+            }
+            return value;
+        };
+    }
+
+    private static ShortPredicate shortFilters(List<ShortPredicate> run) {
+        ShortPredicate[] predicates = run.toArray(new ShortPredicate[0]);
+        return value -> {
+            for (ShortPredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static CharUnaryOperator charMaps(List<CharUnaryOperator> run) {
+        CharUnaryOperator[] mappers = run.toArray(new CharUnaryOperator[0]);
+        return value -> {
+            for (CharUnaryOperator mapper : mappers) {
+                value = mapper.applyAsChar(value);
+            }
+            return value;
+        };
+    }
+
+    private static CharPredicate charFilters(List<CharPredicate> run) {
+        CharPredicate[] predicates = run.toArray(new CharPredicate[0]);
+        return value -> {
+            for (CharPredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static IntUnaryOperator intMaps(List<IntUnaryOperator> run) {
+        IntUnaryOperator[] mappers = run.toArray(new IntUnaryOperator[0]);
+        return value -> {
+            for (IntUnaryOperator mapper : mappers) {
+                value = mapper.applyAsInt(value);
+            }
+            return value;
+        };
+    }
+
+    private static IntPredicate intFilters(List<IntPredicate> run) {
+        IntPredicate[] predicates = run.toArray(new IntPredicate[0]);
+        return value -> {
+            for (IntPredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static LongUnaryOperator longMaps(List<LongUnaryOperator> run) {
+        LongUnaryOperator[] mappers = run.toArray(new LongUnaryOperator[0]);
+        return value -> {
+            for (LongUnaryOperator mapper : mappers) {
+                value = mapper.applyAsLong(value);
+            }
+            return value;
+        };
+    }
+
+    private static LongPredicate longFilters(List<LongPredicate> run) {
+        LongPredicate[] predicates = run.toArray(new LongPredicate[0]);
+        return value -> {
+            for (LongPredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static FloatUnaryOperator floatMaps(List<FloatUnaryOperator> run) {
+        FloatUnaryOperator[] mappers = run.toArray(new FloatUnaryOperator[0]);
+        return value -> {
+            for (FloatUnaryOperator mapper : mappers) {
+                value = mapper.applyAsFloat(value);
+            }
+            return value;
+        };
+    }
+
+    private static FloatPredicate floatFilters(List<FloatPredicate> run) {
+        FloatPredicate[] predicates = run.toArray(new FloatPredicate[0]);
+        return value -> {
+            for (FloatPredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static DoubleUnaryOperator doubleMaps(List<DoubleUnaryOperator> run) {
+        DoubleUnaryOperator[] mappers = run.toArray(new DoubleUnaryOperator[0]);
+        return value -> {
+            for (DoubleUnaryOperator mapper : mappers) {
+                value = mapper.applyAsDouble(value);
+            }
+            return value;
+        };
+    }
+
+    private static DoublePredicate doubleFilters(List<DoublePredicate> run) {
+        DoublePredicate[] predicates = run.toArray(new DoublePredicate[0]);
+        return value -> {
+            for (DoublePredicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
@@ -20,6 +20,11 @@ package io.github.amrjlg.stream.sink;
 import io.github.amrjlg.stream.Sink;
 
 public abstract class AbstractByteSortingSink extends Sink.ChainedByte<Byte> {
+    /**
+     * histogram size, a value is counted at {@code value - Byte.MIN_VALUE}
+     */
+    protected static final int DOMAIN = 1 << Byte.SIZE;
+
     protected boolean cancellationRequested;
 
     AbstractByteSortingSink(Sink<? super Byte> downstream) {
@@ -31,4 +36,28 @@ public abstract class AbstractByteSortingSink extends Sink.ChainedByte<Byte> {
         cancellationRequested = true;
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * counting sort: push every counted value downstream in ascending order
+     *
+     * @param counts histogram of {@link #DOMAIN} buckets
+     */
+    protected final void replay(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        downstream.begin(total);
+        outer:
+        for (int i = 0; i < DOMAIN; i++) {
+            byte value = (byte) (i + Byte.MIN_VALUE);
+            for (long n = counts[i]; n > 0; n--) {
+                if (cancellationRequested && downstream.cancellationRequested()) {
+                    break outer;
+                }
+                downstream.accept(value);
+            }
+        }
+        downstream.end();
+    }
+}
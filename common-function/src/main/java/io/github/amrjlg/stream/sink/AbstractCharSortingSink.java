@@ -20,6 +20,16 @@ package io.github.amrjlg.stream.sink;
 import io.github.amrjlg.stream.Sink;
 
 public abstract class AbstractCharSortingSink extends Sink.ChainedChar<Character> {
+    /**
+     * histogram size, a value is counted at its own index
+     */
+    protected static final int DOMAIN = 1 << Character.SIZE;
+
+    /**
+     * from this many elements on a histogram is cheaper than buffering and sorting
+     */
+    protected static final int COUNTING_SORT_THRESHOLD = 1 << 12;
+
     protected boolean cancellationRequested;
 
     AbstractCharSortingSink(Sink<? super Character> downstream) {
@@ -31,4 +41,28 @@ public abstract class AbstractCharSortingSink extends Sink.ChainedChar<Character
         cancellationRequested = true;
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * counting sort: push every counted value downstream in ascending order
+     *
+     * @param counts histogram of {@link #DOMAIN} buckets
+     */
+    protected final void replay(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        downstream.begin(total);
+        outer:
+        for (int i = 0; i < DOMAIN; i++) {
+            char value = (char) i;
+            for (long n = counts[i]; n > 0; n--) {
+                if (cancellationRequested && downstream.cancellationRequested()) {
+                    break outer;
+                }
+                downstream.accept(value);
+            }
+        }
+        downstream.end();
+    }
+}
@@ -20,6 +20,16 @@ package io.github.amrjlg.stream.sink;
 import io.github.amrjlg.stream.Sink;
 
 public abstract class AbstractShortSortingSink extends Sink.ChainedShort<Short> {
+    /**
+     * histogram size, a value is counted at {@code value - Short.MIN_VALUE}
+     */
+    protected static final int DOMAIN = 1 << Short.SIZE;
+
+    /**
+     * from this many elements on a histogram is cheaper than buffering and sorting
+     */
+    protected static final int COUNTING_SORT_THRESHOLD = 1 << 12;
+
     protected boolean cancellationRequested;
 
     AbstractShortSortingSink(Sink<? super Short> downstream) {
@@ -31,4 +41,28 @@ public abstract class AbstractShortSortingSink extends Sink.ChainedShort<Short>
         cancellationRequested = true;
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * counting sort: push every counted value downstream in ascending order
+     *
+     * @param counts histogram of {@link #DOMAIN} buckets
+     */
+    protected final void replay(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        downstream.begin(total);
+        outer:
+        for (int i = 0; i < DOMAIN; i++) {
+            short value = (short) (i + Short.MIN_VALUE);
+            for (long n = counts[i]; n > 0; n--) {
+                if (cancellationRequested && downstream.cancellationRequested()) {
+                    break outer;
+                }
+                downstream.accept(value);
+            }
+        }
+        downstream.end();
+    }
+}
@@ -18,19 +18,15 @@
 package io.github.amrjlg.stream.sink;
 
 import io.github.amrjlg.stream.Sink;
-import io.github.amrjlg.stream.buffer.SpinedBuffer;
-import io.github.amrjlg.stream.node.Nodes;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
 
 /**
+ * sorts by counting occurrences of each byte value, nothing is buffered
+ *
  * @author amrjlg
  **/
 public class ByteSortingSink extends AbstractByteSortingSink {
 
-    private SpinedBuffer.OfByte buffer;
+    private long[] counts;
 
     public ByteSortingSink(Sink<? super Byte> downstream) {
         super(downstream);
@@ -38,33 +34,17 @@ public class ByteSortingSink extends AbstractByteSortingSink {
 
     @Override
     public void begin(long size) {
-        Nodes.maxArraySize(size);
-        buffer = (size >= 0) ? new SpinedBuffer.OfByte((int) size) : new SpinedBuffer.OfByte();
+        counts = new long[DOMAIN];
     }
 
     @Override
     public void end() {
-        byte[] array = buffer.asPrimitiveArray();
-        Arrays.sort(array);
-        downstream.begin(array.length);
-        if (!cancellationRequested){
-            for (byte value : array) {
-                downstream.accept(value);
-            }
-        }else {
-            for (byte value : array) {
-                if (downstream.cancellationRequested()){
-                    break;
-                }
-                downstream.accept(value);
-            }
-        }
-        downstream.end();
-        buffer = null;
+        replay(counts);
+        counts = null;
     }
 
     @Override
     public void accept(byte value) {
-        buffer.accept(value);
+        counts[value - Byte.MIN_VALUE]++;
     }
 }
@@ -17,6 +17,7 @@
 
 package io.github.amrjlg.stream.sink;
 
+import io.github.amrjlg.function.CharConsumer;
 import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.buffer.SpinedBuffer;
 import io.github.amrjlg.stream.node.Nodes;
@@ -24,11 +25,15 @@ import io.github.amrjlg.stream.node.Nodes;
 import java.util.Arrays;
 
 /**
+ * buffers and sorts small inputs, switches to a histogram
+ * once {@link #COUNTING_SORT_THRESHOLD} elements were seen
+ *
  * @author amrjlg
  **/
 public class CharSortingSink extends AbstractCharSortingSink {
 
     private SpinedBuffer.OfChar buffer;
+    private long[] counts;
 
     public CharSortingSink(Sink<? super Character> downstream) {
         super(downstream);
@@ -36,22 +41,31 @@ public class CharSortingSink extends AbstractCharSortingSink {
 
     @Override
     public void begin(long size) {
-        Nodes.maxArraySize(size);
-        buffer = (size >= 0) ? new SpinedBuffer.OfChar((int) size) : new SpinedBuffer.OfChar();
+        if (size >= COUNTING_SORT_THRESHOLD) {
+            counts = new long[DOMAIN];
+        } else {
+            Nodes.maxArraySize(size);
+            buffer = (size >= 0) ? new SpinedBuffer.OfChar((int) size) : new SpinedBuffer.OfChar();
+        }
     }
 
     @Override
     public void end() {
+        if (counts != null) {
+            replay(counts);
+            counts = null;
+            return;
+        }
         char[] array = buffer.asPrimitiveArray();
         Arrays.sort(array);
         downstream.begin(array.length);
-        if (!cancellationRequested){
+        if (!cancellationRequested) {
             for (char value : array) {
                 downstream.accept(value);
             }
-        }else {
+        } else {
             for (char value : array) {
-                if (downstream.cancellationRequested()){
+                if (downstream.cancellationRequested()) {
                     break;
                 }
                 downstream.accept(value);
@@ -63,6 +77,16 @@ public class CharSortingSink extends AbstractCharSortingSink {
 
     @Override
     public void accept(char value) {
-        buffer.accept(value);
+        if (counts != null) {
+            counts[value]++;
+        } else {
+            buffer.accept(value);
+            if (buffer.count() >= COUNTING_SORT_THRESHOLD) {
+                long[] histogram = new long[DOMAIN];
+                buffer.forEach((CharConsumer) v -> histogram[v]++);
+                counts = histogram;
+                buffer = null;
+            }
+        }
     }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.stream.Sink;
+
+/**
+ * counts the elements pushed into it, the result of {@code count()}
+ * when the size is not known up front
+ *
+ * @author amrjlg
+ **/
+public abstract class CountingSink<Input> implements AccumulatingSink<Input, Long, CountingSink<Input>> {
+    protected long count;
+
+    @Override
+    public void begin(long size) {
+        count = 0L;
+    }
+
+    @Override
+    public Long get() {
+        return count;
+    }
+
+    @Override
+    public void combine(CountingSink<Input> other) {
+        count += other.count;
+    }
+
+    public static final class OfRef<Input> extends CountingSink<Input> {
+        @Override
+        public void accept(Input input) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(Input[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfByte extends CountingSink<Byte> implements Sink.OfByte {
+        @Override
+        public void accept(byte value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(byte[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfChar extends CountingSink<Character> implements Sink.OfChar {
+        @Override
+        public void accept(char value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(char[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfShort extends CountingSink<Short> implements Sink.OfShort {
+        @Override
+        public void accept(short value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(short[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfInt extends CountingSink<Integer> implements Sink.OfInt {
+        @Override
+        public void accept(int value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(int[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfLong extends CountingSink<Long> implements Sink.OfLong {
+        @Override
+        public void accept(long value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(long[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfFloat extends CountingSink<Float> implements Sink.OfFloat {
+        @Override
+        public void accept(float value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(float[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+
+    public static final class OfDouble extends CountingSink<Double> implements Sink.OfDouble {
+        @Override
+        public void accept(double value) {
+            count++;
+        }
+
+        @Override
+        public void acceptAll(double[] array, int from, int to) {
+            count += to - from;
+        }
+    }
+}
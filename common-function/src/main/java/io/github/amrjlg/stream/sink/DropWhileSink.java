@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.function.BytePredicate;
+import io.github.amrjlg.function.CharPredicate;
+import io.github.amrjlg.function.FloatPredicate;
+import io.github.amrjlg.function.ShortPredicate;
+import io.github.amrjlg.stream.Sink;
+
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * drops elements while the predicate holds,
+ * a retaining sink passes the dropped elements on and counts them so that ordered parallel leaves can be merged
+ *
+ * @author amrjlg
+ **/
+public abstract class DropWhileSink<T> implements Sink<T> {
+    protected final Sink<? super T> downstream;
+    protected final boolean retainAndCountDroppedElements;
+
+    protected boolean take;
+    protected long dropCount;
+
+    public DropWhileSink(Sink<? super T> downstream, boolean retainAndCountDroppedElements) {
+        this.downstream = downstream;
+        this.retainAndCountDroppedElements = retainAndCountDroppedElements;
+    }
+
+    /**
+     * number of leading elements the predicate held for, only counted by a retaining sink
+     */
+    public long getDropCount() {
+        return dropCount;
+    }
+
+    @Override
+    public void begin(long size) {
+        downstream.begin(retainAndCountDroppedElements ? size : -1);
+    }
+
+    @Override
+    public void end() {
+        downstream.end();
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+        return downstream.cancellationRequested();
+    }
+
+    protected boolean pass(boolean takeElement) {
+        if (takeElement) {
+            return true;
+        }
+        if (retainAndCountDroppedElements) {
+            dropCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface Factory<T> {
+        DropWhileSink<T> make(Sink<T> downstream, boolean retainAndCountDroppedElements);
+    }
+
+    public static final class OfRef<T> extends DropWhileSink<T> {
+        private final Predicate<? super T> predicate;
+
+        public OfRef(Sink<? super T> downstream, boolean retainAndCountDroppedElements, Predicate<? super T> predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (pass(take || (take = !predicate.test(t)))) {
+                downstream.accept(t);
+            }
+        }
+    }
+
+    public static final class OfByte extends DropWhileSink<Byte> implements Sink.OfByte {
+        private final Sink.OfByte consumer;
+        private final BytePredicate predicate;
+
+        public OfByte(Sink<? super Byte> downstream, boolean retainAndCountDroppedElements, BytePredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfByte) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(byte value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfShort extends DropWhileSink<Short> implements Sink.OfShort {
+        private final Sink.OfShort consumer;
+        private final ShortPredicate predicate;
+
+        public OfShort(Sink<? super Short> downstream, boolean retainAndCountDroppedElements, ShortPredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfShort) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(short value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfChar extends DropWhileSink<Character> implements Sink.OfChar {
+        private final Sink.OfChar consumer;
+        private final CharPredicate predicate;
+
+        public OfChar(Sink<? super Character> downstream, boolean retainAndCountDroppedElements, CharPredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfChar) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(char value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfInt extends DropWhileSink<Integer> implements Sink.OfInt {
+        private final Sink.OfInt consumer;
+        private final IntPredicate predicate;
+
+        public OfInt(Sink<? super Integer> downstream, boolean retainAndCountDroppedElements, IntPredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfInt) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(int value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfLong extends DropWhileSink<Long> implements Sink.OfLong {
+        private final Sink.OfLong consumer;
+        private final LongPredicate predicate;
+
+        public OfLong(Sink<? super Long> downstream, boolean retainAndCountDroppedElements, LongPredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfLong) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(long value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfFloat extends DropWhileSink<Float> implements Sink.OfFloat {
+        private final Sink.OfFloat consumer;
+        private final FloatPredicate predicate;
+
+        public OfFloat(Sink<? super Float> downstream, boolean retainAndCountDroppedElements, FloatPredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfFloat) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(float value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public static final class OfDouble extends DropWhileSink<Double> implements Sink.OfDouble {
+        private final Sink.OfDouble consumer;
+        private final DoublePredicate predicate;
+
+        public OfDouble(Sink<? super Double> downstream, boolean retainAndCountDroppedElements, DoublePredicate predicate) {
+            super(downstream, retainAndCountDroppedElements);
+            this.consumer = (Sink.OfDouble) downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(double value) {
+            if (pass(take || (take = !predicate.test(value)))) {
+                consumer.accept(value);
+            }
+        }
+    }
+}
@@ -19,10 +19,9 @@ package io.github.amrjlg.stream.sink;
 
 import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.buffer.SpinedBuffer;
+import io.github.amrjlg.stream.common.RadixSort;
 import io.github.amrjlg.stream.node.Nodes;
 
-import java.util.Arrays;
-
 /**
  * @author amrjlg
  **/
@@ -43,7 +42,7 @@ public class FloatSortingSink extends AbstractFloatSortingSink {
     @Override
     public void end() {
         float[] array = buffer.asPrimitiveArray();
-        Arrays.sort(array);
+        RadixSort.sort(array, 0, array.length);
         downstream.begin(array.length);
         if (!cancellationRequested){
             for (float value : array) {
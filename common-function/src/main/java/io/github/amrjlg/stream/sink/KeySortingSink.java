@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.common.RadixSort;
+import io.github.amrjlg.stream.node.Nodes;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * sorts by a primitive key which is extracted once per element into an array
+ * next to the elements, the positions are then ordered by the keys without any comparator
+ *
+ * @author amrjlg
+ **/
+public abstract class KeySortingSink<T> extends Sink.ChainedReference<T, T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements;
+    private int size;
+    private boolean cancellationRequested;
+
+    public KeySortingSink(Sink<? super T> downstream) {
+        super(downstream);
+    }
+
+    /**
+     * grows the key array to {@code capacity}, allocating it on the first call
+     */
+    protected abstract void resize(int capacity);
+
+    protected abstract void extract(int index, T t);
+
+    protected abstract int[] order(int length);
+
+    protected abstract void release();
+
+    @Override
+    public void begin(long size) {
+        Nodes.maxArraySize(size);
+        int capacity = size >= 0 ? (int) size : INITIAL_CAPACITY;
+        elements = new Object[capacity];
+        resize(capacity);
+        this.size = 0;
+    }
+
+    @Override
+    public void accept(T t) {
+        if (size == elements.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            elements = Arrays.copyOf(elements, capacity);
+            resize(capacity);
+        }
+        elements[size] = t;
+        extract(size++, t);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void end() {
+        int[] order = order(size);
+        release();
+        downstream.begin(size);
+        if (!cancellationRequested) {
+            for (int i = 0; i < size; i++) {
+                downstream.accept((T) elements[order[i]]);
+            }
+        } else {
+            for (int i = 0; i < size && !downstream.cancellationRequested(); i++) {
+                downstream.accept((T) elements[order[i]]);
+            }
+        }
+        downstream.end();
+        elements = null;
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+        cancellationRequested = true;
+        return false;
+    }
+
+    public static class OfInt<T> extends KeySortingSink<T> {
+        private final ToIntFunction<? super T> key;
+        private int[] keys;
+
+        public OfInt(Sink<? super T> downstream, ToIntFunction<? super T> key) {
+            super(downstream);
+            this.key = key;
+        }
+
+        @Override
+        protected void resize(int capacity) {
+            keys = keys == null ? new int[capacity] : Arrays.copyOf(keys, capacity);
+        }
+
+        @Override
+        protected void extract(int index, T t) {
+            keys[index] = key.applyAsInt(t);
+        }
+
+        @Override
+        protected int[] order(int length) {
+            return RadixSort.order(keys, length);
+        }
+
+        @Override
+        protected void release() {
+            keys = null;
+        }
+    }
+
+    public static class OfLong<T> extends KeySortingSink<T> {
+        private final ToLongFunction<? super T> key;
+        private long[] keys;
+
+        public OfLong(Sink<? super T> downstream, ToLongFunction<? super T> key) {
+            super(downstream);
+            this.key = key;
+        }
+
+        @Override
+        protected void resize(int capacity) {
+            keys = keys == null ? new long[capacity] : Arrays.copyOf(keys, capacity);
+        }
+
+        @Override
+        protected void extract(int index, T t) {
+            keys[index] = key.applyAsLong(t);
+        }
+
+        @Override
+        protected int[] order(int length) {
+            return RadixSort.order(keys, length);
+        }
+
+        @Override
+        protected void release() {
+            keys = null;
+        }
+    }
+
+    public static class OfDouble<T> extends KeySortingSink<T> {
+        private final ToDoubleFunction<? super T> key;
+        private double[] keys;
+
+        public OfDouble(Sink<? super T> downstream, ToDoubleFunction<? super T> key) {
+            super(downstream);
+            this.key = key;
+        }
+
+        @Override
+        protected void resize(int capacity) {
+            keys = keys == null ? new double[capacity] : Arrays.copyOf(keys, capacity);
+        }
+
+        @Override
+        protected void extract(int index, T t) {
+            keys[index] = key.applyAsDouble(t);
+        }
+
+        @Override
+        protected int[] order(int length) {
+            return RadixSort.order(keys, length);
+        }
+
+        @Override
+        protected void release() {
+            keys = null;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package io.github.amrjlg.stream.sink;
 
+import io.github.amrjlg.function.ShortConsumer;
 import io.github.amrjlg.stream.Sink;
 import io.github.amrjlg.stream.buffer.SpinedBuffer;
 import io.github.amrjlg.stream.node.Nodes;
@@ -24,11 +25,15 @@ import io.github.amrjlg.stream.node.Nodes;
 import java.util.Arrays;
 
 /**
+ * buffers and sorts small inputs, switches to a histogram
+ * once {@link #COUNTING_SORT_THRESHOLD} elements were seen
+ *
  * @author amrjlg
  **/
 public class ShortSortingSink extends AbstractShortSortingSink {
 
     private SpinedBuffer.OfShort buffer;
+    private long[] counts;
 
     public ShortSortingSink(Sink<? super Short> downstream) {
         super(downstream);
@@ -36,22 +41,31 @@ public class ShortSortingSink extends AbstractShortSortingSink {
 
     @Override
     public void begin(long size) {
-        Nodes.maxArraySize(size);
-        buffer = (size >= 0) ? new SpinedBuffer.OfShort((int) size) : new SpinedBuffer.OfShort();
+        if (size >= COUNTING_SORT_THRESHOLD) {
+            counts = new long[DOMAIN];
+        } else {
+            Nodes.maxArraySize(size);
+            buffer = (size >= 0) ? new SpinedBuffer.OfShort((int) size) : new SpinedBuffer.OfShort();
+        }
     }
 
     @Override
     public void end() {
+        if (counts != null) {
+            replay(counts);
+            counts = null;
+            return;
+        }
         short[] array = buffer.asPrimitiveArray();
         Arrays.sort(array);
         downstream.begin(array.length);
-        if (!cancellationRequested){
+        if (!cancellationRequested) {
             for (short value : array) {
                 downstream.accept(value);
             }
-        }else {
+        } else {
             for (short value : array) {
-                if (downstream.cancellationRequested()){
+                if (downstream.cancellationRequested()) {
                     break;
                 }
                 downstream.accept(value);
@@ -63,6 +77,16 @@ public class ShortSortingSink extends AbstractShortSortingSink {
 
     @Override
     public void accept(short value) {
-        buffer.accept(value);
+        if (counts != null) {
+            counts[value - Short.MIN_VALUE]++;
+        } else {
+            buffer.accept(value);
+            if (buffer.count() >= COUNTING_SORT_THRESHOLD) {
+                long[] histogram = new long[DOMAIN];
+                buffer.forEach((ShortConsumer) v -> histogram[v - Short.MIN_VALUE]++);
+                counts = histogram;
+                buffer = null;
+            }
+        }
     }
 }
@@ -18,16 +18,14 @@
 package io.github.amrjlg.stream.sink;
 
 import io.github.amrjlg.stream.Sink;
-import io.github.amrjlg.stream.node.Nodes;
-
-import java.util.Arrays;
 
 /**
+ * sorts by counting occurrences of each byte value, nothing is buffered
+ *
  * @author amrjlg
  **/
 public class SizedByteSortingSink extends AbstractByteSortingSink {
-    private byte[] array;
-    private int offset;
+    private long[] counts;
 
 
     public SizedByteSortingSink(Sink<? super Byte> downstream) {
@@ -36,30 +34,25 @@ public class SizedByteSortingSink extends AbstractByteSortingSink {
 
     @Override
     public void begin(long size) {
-        Nodes.maxArraySize(size);
-        array = new byte[(int) size];
-        offset = 0;
+        counts = new long[DOMAIN];
     }
 
     @Override
     public void end() {
-        Arrays.sort(array, 0, offset);
-        downstream.begin(offset);
-        if (!cancellationRequested) {
-            for (int i = 0; i < offset; i++) {
-                downstream.accept(array[i]);
-            }
-        } else {
-            for (int i = 0; i < offset && !downstream.cancellationRequested(); i++) {
-                downstream.accept(array[i]);
-            }
-        }
-        downstream.end();
-        array = null;
+        replay(counts);
+        counts = null;
     }
 
     @Override
     public void accept(byte value) {
-        array[offset++] = value;
+        counts[value - Byte.MIN_VALUE]++;
+    }
+
+    @Override
+    public void acceptAll(byte[] values, int from, int to) {
+        long[] c = counts;
+        for (int i = from; i < to; i++) {
+            c[values[i] - Byte.MIN_VALUE]++;
+        }
     }
 }
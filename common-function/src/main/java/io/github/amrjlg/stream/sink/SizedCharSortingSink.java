@@ -23,11 +23,15 @@ import io.github.amrjlg.stream.node.Nodes;
 import java.util.Arrays;
 
 /**
+ * sorts small inputs in place, counts values into a histogram
+ * when at least {@link #COUNTING_SORT_THRESHOLD} elements are announced
+ *
  * @author amrjlg
  **/
 public class SizedCharSortingSink extends AbstractCharSortingSink {
     private char[] array;
     private int offset;
+    private long[] counts;
 
 
     public SizedCharSortingSink(Sink<? super Character> downstream) {
@@ -36,6 +40,10 @@ public class SizedCharSortingSink extends AbstractCharSortingSink {
 
     @Override
     public void begin(long size) {
+        if (size >= COUNTING_SORT_THRESHOLD) {
+            counts = new long[DOMAIN];
+            return;
+        }
         Nodes.maxArraySize(size);
         array = new char[(int) size];
         offset = 0;
@@ -43,6 +51,11 @@ public class SizedCharSortingSink extends AbstractCharSortingSink {
 
     @Override
     public void end() {
+        if (counts != null) {
+            replay(counts);
+            counts = null;
+            return;
+        }
         Arrays.sort(array, 0, offset);
         downstream.begin(offset);
         if (!cancellationRequested) {
@@ -60,6 +73,23 @@ public class SizedCharSortingSink extends AbstractCharSortingSink {
 
     @Override
     public void accept(char value) {
-        array[offset++] = value;
+        if (counts != null) {
+            counts[value]++;
+        } else {
+            array[offset++] = value;
+        }
+    }
+
+    @Override
+    public void acceptAll(char[] values, int from, int to) {
+        if (counts != null) {
+            long[] c = counts;
+            for (int i = from; i < to; i++) {
+                c[values[i]]++;
+            }
+        } else {
+            System.arraycopy(values, from, array, offset, to - from);
+            offset += to - from;
+        }
     }
 }
@@ -18,10 +18,9 @@
 package io.github.amrjlg.stream.sink;
 
 import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.common.RadixSort;
 import io.github.amrjlg.stream.node.Nodes;
 
-import java.util.Arrays;
-
 /**
  * @author amrjlg
  **/
@@ -43,7 +42,7 @@ public class SizedFloatSortingSink extends AbstractFloatSortingSink {
 
     @Override
     public void end() {
-        Arrays.sort(array, 0, offset);
+        RadixSort.sort(array, 0, offset);
         downstream.begin(offset);
         if (!cancellationRequested) {
             for (int i = 0; i < offset; i++) {
@@ -62,4 +61,10 @@ public class SizedFloatSortingSink extends AbstractFloatSortingSink {
     public void accept(float value) {
         array[offset++] = value;
     }
+
+    @Override
+    public void acceptAll(float[] values, int from, int to) {
+        System.arraycopy(values, from, array, offset, to - from);
+        offset += to - from;
+    }
 }
@@ -64,4 +64,10 @@ public class SizedRefSortingSink<T> extends AbstractRefSortingSink<T> {
     public void accept(T t) {
         array[offset++] = t;
     }
+
+    @Override
+    public void acceptAll(T[] values, int from, int to) {
+        System.arraycopy(values, from, array, offset, to - from);
+        offset += to - from;
+    }
 }
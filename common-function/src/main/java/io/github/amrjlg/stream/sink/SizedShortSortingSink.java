@@ -23,11 +23,15 @@ import io.github.amrjlg.stream.node.Nodes;
 import java.util.Arrays;
 
 /**
+ * sorts small inputs in place, counts values into a histogram
+ * when at least {@link #COUNTING_SORT_THRESHOLD} elements are announced
+ *
  * @author amrjlg
  **/
 public class SizedShortSortingSink extends AbstractShortSortingSink {
     private short[] array;
     private int offset;
+    private long[] counts;
 
 
     public SizedShortSortingSink(Sink<? super Short> downstream) {
@@ -36,6 +40,10 @@ public class SizedShortSortingSink extends AbstractShortSortingSink {
 
     @Override
     public void begin(long size) {
+        if (size >= COUNTING_SORT_THRESHOLD) {
+            counts = new long[DOMAIN];
+            return;
+        }
         Nodes.maxArraySize(size);
         array = new short[(int) size];
         offset = 0;
@@ -43,6 +51,11 @@ public class SizedShortSortingSink extends AbstractShortSortingSink {
 
     @Override
     public void end() {
+        if (counts != null) {
+            replay(counts);
+            counts = null;
+            return;
+        }
         Arrays.sort(array, 0, offset);
         downstream.begin(offset);
         if (!cancellationRequested) {
@@ -60,6 +73,23 @@ public class SizedShortSortingSink extends AbstractShortSortingSink {
 
     @Override
     public void accept(short value) {
-        array[offset++] = value;
+        if (counts != null) {
+            counts[value - Short.MIN_VALUE]++;
+        } else {
+            array[offset++] = value;
+        }
+    }
+
+    @Override
+    public void acceptAll(short[] values, int from, int to) {
+        if (counts != null) {
+            long[] c = counts;
+            for (int i = from; i < to; i++) {
+                c[values[i] - Short.MIN_VALUE]++;
+            }
+        } else {
+            System.arraycopy(values, from, array, offset, to - from);
+            offset += to - from;
+        }
     }
 }
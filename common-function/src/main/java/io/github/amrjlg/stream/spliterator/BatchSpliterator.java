@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * batches of consecutive elements pulled lazily from an element spliterator.
+ * every batch spliterator starts on a batch boundary, a sized source splits where its own source splits
+ * and when that split point is not on a batch boundary the prefix borrows the missing elements of its
+ * last batch from the front of the suffix, so no batch is shared between two spliterators.
+ * an unsized source is not split at all
+ *
+ * @author amrjlg
+ **/
+public abstract class BatchSpliterator<T, S extends Spliterator<?>> implements Spliterator<T> {
+
+    /**
+     * capacity of a batch array before it is known to fill up
+     */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    protected final S source;
+    /**
+     * elements following the source, borrowed from the right neighbour at a split off the batch boundary
+     */
+    protected final S tail;
+    protected final int batchSize;
+    /**
+     * whether the source is SIZED and SUBSIZED so that splits can be aligned on batch boundaries
+     */
+    protected final boolean sized;
+
+    protected BatchSpliterator(S source, S tail, int batchSize, boolean sized) {
+        this.source = source;
+        this.tail = tail;
+        this.batchSize = batchSize;
+        this.sized = sized;
+    }
+
+    /**
+     * @param size the maximum number of elements
+     * @return the next elements of the source followed by the tail, null when both are exhausted
+     */
+    protected abstract T take(int size);
+
+    protected abstract S splitSource();
+
+    protected abstract BatchSpliterator<T, S> slice(S prefix, T borrowed);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        T batch = take(batchSize);
+        if (batch == null) {
+            return false;
+        }
+        action.accept(batch);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        T batch;
+        while ((batch = take(batchSize)) != null) {
+            action.accept(batch);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        S prefix;
+        if (!sized || (prefix = splitSource()) == null) {
+            return null;
+        }
+        int misaligned = (int) (prefix.getExactSizeIfKnown() % batchSize);
+        return slice(prefix, misaligned == 0 ? null : take(batchSize - misaligned));
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = elements();
+        if (size < 0 || size == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return size / batchSize + (size % batchSize == 0 ? 0 : 1);
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = (source.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL;
+        return sized ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+    }
+
+    protected int capacity(int size) {
+        long capacity = sized ? Math.min(size, elements()) : Math.min(size, INITIAL_CAPACITY);
+        return (int) Math.max(capacity, 1);
+    }
+
+    protected int grow(int length) {
+        return (int) Math.min((long) length << 1, batchSize);
+    }
+
+    private long elements() {
+        return tail == null ? source.estimateSize() : source.estimateSize() + tail.estimateSize();
+    }
+
+    public static final class OfRef<T> extends BatchSpliterator<List<T>, Spliterator<T>> implements Consumer<T> {
+        private Object[] batch;
+        private int count;
+
+        public OfRef(Spliterator<T> source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfRef(Spliterator<T> source, Spliterator<T> tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = t;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected List<T> take(int size) {
+            batch = new Object[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            Object[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : (List<T>) Arrays.asList(elements);
+        }
+
+        @Override
+        protected Spliterator<T> splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<List<T>, Spliterator<T>> slice(Spliterator<T> prefix, List<T> borrowed) {
+            Spliterator<T> tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfRef<>(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfByte extends BatchSpliterator<byte[], Spliterator.OfByte> implements ByteConsumer {
+        private byte[] batch;
+        private int count;
+
+        public OfByte(Spliterator.OfByte source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfByte(Spliterator.OfByte source, Spliterator.OfByte tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(byte value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected byte[] take(int size) {
+            batch = new byte[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            byte[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfByte splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<byte[], Spliterator.OfByte> slice(Spliterator.OfByte prefix, byte[] borrowed) {
+            Spliterator.OfByte tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfByte(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfShort extends BatchSpliterator<short[], Spliterator.OfShort> implements ShortConsumer {
+        private short[] batch;
+        private int count;
+
+        public OfShort(Spliterator.OfShort source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfShort(Spliterator.OfShort source, Spliterator.OfShort tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(short value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected short[] take(int size) {
+            batch = new short[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            short[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfShort splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<short[], Spliterator.OfShort> slice(Spliterator.OfShort prefix, short[] borrowed) {
+            Spliterator.OfShort tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfShort(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfChar extends BatchSpliterator<char[], Spliterator.OfChar> implements CharConsumer {
+        private char[] batch;
+        private int count;
+
+        public OfChar(Spliterator.OfChar source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfChar(Spliterator.OfChar source, Spliterator.OfChar tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(char value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected char[] take(int size) {
+            batch = new char[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            char[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfChar splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<char[], Spliterator.OfChar> slice(Spliterator.OfChar prefix, char[] borrowed) {
+            Spliterator.OfChar tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfChar(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfInt extends BatchSpliterator<int[], Spliterator.OfInt> implements IntConsumer {
+        private int[] batch;
+        private int count;
+
+        public OfInt(Spliterator.OfInt source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfInt(Spliterator.OfInt source, Spliterator.OfInt tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected int[] take(int size) {
+            batch = new int[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            int[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfInt splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<int[], Spliterator.OfInt> slice(Spliterator.OfInt prefix, int[] borrowed) {
+            Spliterator.OfInt tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfInt(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfLong extends BatchSpliterator<long[], Spliterator.OfLong> implements LongConsumer {
+        private long[] batch;
+        private int count;
+
+        public OfLong(Spliterator.OfLong source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfLong(Spliterator.OfLong source, Spliterator.OfLong tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(long value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected long[] take(int size) {
+            batch = new long[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            long[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfLong splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<long[], Spliterator.OfLong> slice(Spliterator.OfLong prefix, long[] borrowed) {
+            Spliterator.OfLong tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfLong(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfFloat extends BatchSpliterator<float[], Spliterator.OfFloat> implements FloatConsumer {
+        private float[] batch;
+        private int count;
+
+        public OfFloat(Spliterator.OfFloat source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfFloat(Spliterator.OfFloat source, Spliterator.OfFloat tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(float value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected float[] take(int size) {
+            batch = new float[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            float[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfFloat splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<float[], Spliterator.OfFloat> slice(Spliterator.OfFloat prefix, float[] borrowed) {
+            Spliterator.OfFloat tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfFloat(prefix, tail, batchSize, true);
+        }
+    }
+
+    public static final class OfDouble extends BatchSpliterator<double[], Spliterator.OfDouble> implements DoubleConsumer {
+        private double[] batch;
+        private int count;
+
+        public OfDouble(Spliterator.OfDouble source, int batchSize, boolean sized) {
+            this(source, null, batchSize, sized);
+        }
+
+        private OfDouble(Spliterator.OfDouble source, Spliterator.OfDouble tail, int batchSize, boolean sized) {
+            super(source, tail, batchSize, sized);
+        }
+
+        @Override
+        public void accept(double value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, grow(count));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        protected double[] take(int size) {
+            batch = new double[capacity(size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            while (count < size && tail != null && tail.tryAdvance(this)) {
+                // accept fills the batch
+            }
+            double[] elements = count == batch.length ? batch : Arrays.copyOf(batch, count);
+            batch = null;
+            return count == 0 ? null : elements;
+        }
+
+        @Override
+        protected Spliterator.OfDouble splitSource() {
+            return source.trySplit();
+        }
+
+        @Override
+        protected BatchSpliterator<double[], Spliterator.OfDouble> slice(Spliterator.OfDouble prefix, double[] borrowed) {
+            Spliterator.OfDouble tail = borrowed == null ? null : Spliterators.spliterator(borrowed, Spliterator.ORDERED);
+            return new BatchSpliterator.OfDouble(prefix, tail, batchSize, true);
+        }
+    }
+}
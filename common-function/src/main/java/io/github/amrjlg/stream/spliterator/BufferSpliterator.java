@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * spliterators reading nio buffers in place by absolute index,
+ * neither the position nor the limit of the buffer are touched,
+ * splits share the buffer and read disjoint index ranges
+ *
+ * @author amrjlg
+ **/
+public abstract class BufferSpliterator<T> implements Spliterator<T> {
+    protected int index;        // current index, modified on advance/split
+    protected final int end;  // one past last index
+    protected final int characteristics;
+
+    protected BufferSpliterator(int origin, int end, int additionalCharacteristics) {
+        this.index = origin;
+        this.end = end;
+        this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        if (hasCharacteristics(Spliterator.SORTED)) {
+            return null;
+        }
+        throw new IllegalStateException();
+    }
+
+    public static final class OfByte extends BufferSpliterator<Byte> implements Spliterator.OfByte {
+        private final ByteBuffer buffer;
+
+        public OfByte(ByteBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfByte trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfByte(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            ByteBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfShort extends BufferSpliterator<Short> implements Spliterator.OfShort {
+        private final ShortBuffer buffer;
+
+        public OfShort(ShortBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfShort trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfShort(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(ShortConsumer action) {
+            Objects.requireNonNull(action);
+            ShortBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(ShortConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfChar extends BufferSpliterator<Character> implements Spliterator.OfChar {
+        private final CharBuffer buffer;
+
+        public OfChar(CharBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfChar trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfChar(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(CharConsumer action) {
+            Objects.requireNonNull(action);
+            CharBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(CharConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfInt extends BufferSpliterator<Integer> implements Spliterator.OfInt {
+        private final IntBuffer buffer;
+
+        public OfInt(IntBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfInt(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            IntBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfLong extends BufferSpliterator<Long> implements Spliterator.OfLong {
+        private final LongBuffer buffer;
+
+        public OfLong(LongBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfLong(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            LongBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfFloat extends BufferSpliterator<Float> implements Spliterator.OfFloat {
+        private final FloatBuffer buffer;
+
+        public OfFloat(FloatBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfFloat trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfFloat(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            FloatBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static final class OfDouble extends BufferSpliterator<Double> implements Spliterator.OfDouble {
+        private final DoubleBuffer buffer;
+
+        public OfDouble(DoubleBuffer buffer, int origin, int end, int additionalCharacteristics) {
+            super(origin, end, additionalCharacteristics);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            int lo = index, mid = (lo + end) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new BufferSpliterator.OfDouble(buffer, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            DoubleBuffer b = buffer;
+            int hi = end, i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(b.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < end) {
+                action.accept(buffer.get(index++));
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * lazy concatenation of any number of spliterators. nested concatenations are flattened
+ * into one array, splitting happens at the part boundary closest to half of the remaining
+ * size before the parts are split themselves
+ *
+ * @author amrjlg
+ **/
+public abstract class ConcatSpliterator<T, TypeSpl extends Spliterator<T>> implements Spliterator<T> {
+
+    protected final TypeSpl[] spliterators;
+    protected int from;     // first part not exhausted, modified on advance/split
+    protected final int to; // one past last part
+    private final int characteristics;
+
+    protected ConcatSpliterator(TypeSpl[] spliterators, int from, int to) {
+        this.spliterators = spliterators;
+        this.from = from;
+        this.to = to;
+        int characteristics = from < to ? -1 : Spliterator.SIZED | Spliterator.SUBSIZED;
+        long size = 0;
+        boolean overflow = false;
+        for (int i = from; i < to; i++) {
+            characteristics &= spliterators[i].characteristics();
+            overflow |= (size += spliterators[i].estimateSize()) < 0;
+        }
+        characteristics &= ~(Spliterator.DISTINCT | Spliterator.SORTED);
+        if (overflow) {
+            characteristics &= ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        }
+        this.characteristics = characteristics;
+    }
+
+    protected abstract TypeSpl makeSpliterator(TypeSpl[] spliterators, int from, int to);
+
+    /**
+     * parts of the given spliterators with concatenations replaced by their remaining parts
+     */
+    protected static <TypeSpl> TypeSpl[] flatten(TypeSpl[] spliterators) {
+        int count = 0;
+        for (TypeSpl spliterator : spliterators) {
+            Objects.requireNonNull(spliterator);
+            count += spliterator instanceof ConcatSpliterator
+                    ? ((ConcatSpliterator<?, ?>) spliterator).to - ((ConcatSpliterator<?, ?>) spliterator).from
+                    : 1;
+        }
+        TypeSpl[] parts = Arrays.copyOf(spliterators, count);
+        int index = 0;
+        for (TypeSpl spliterator : spliterators) {
+            if (spliterator instanceof ConcatSpliterator) {
+                ConcatSpliterator<?, ?> concat = (ConcatSpliterator<?, ?>) spliterator;
+                System.arraycopy(concat.spliterators, concat.from, parts, index, concat.to - concat.from);
+                index += concat.to - concat.from;
+            } else {
+                parts[index++] = spliterator;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * first part of the suffix, the prefix holds at least half of the remaining size
+     */
+    private int boundary() {
+        long half = estimateSize() >>> 1, prefix = 0;
+        for (int i = from; i < to - 1; i++) {
+            long size = spliterators[i].estimateSize();
+            if (size >= half - prefix) {
+                return i + 1;
+            }
+            prefix += size;
+        }
+        return to - 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final TypeSpl trySplit() {
+        int lo = from;
+        if (to - lo > 1) {
+            int mid = boundary();
+            from = mid;
+            return mid - lo == 1 ? spliterators[lo] : makeSpliterator(spliterators, lo, mid);
+        }
+        return lo < to ? (TypeSpl) spliterators[lo].trySplit() : null;
+    }
+
+    @Override
+    public final long estimateSize() {
+        long size = 0;
+        for (int i = from; i < to; i++) {
+            size += spliterators[i].estimateSize();
+            if (size < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public final int characteristics() {
+        return characteristics;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        throw new IllegalStateException();
+    }
+
+    public static final class OfRef<T> extends ConcatSpliterator<T, Spliterator<T>> {
+
+        public OfRef(Spliterator<T>[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        @SafeVarargs
+        @SuppressWarnings("varargs") // the spliterators are only read, flatten copies them
+        public static <T> Spliterator<T> of(Spliterator<T>... spliterators) {
+            Spliterator<T>[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfRef<>(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator<T> makeSpliterator(Spliterator<T>[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfRef<>(spliterators, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            for (; from < to; from++) {
+                if (spliterators[from].tryAdvance(action)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            for (; from < to; from++) {
+                spliterators[from].forEachRemaining(action);
+            }
+        }
+    }
+
+    public static abstract class OfPrimitive<T, PrimitiveConsumer, TypeSpl extends Spliterator.OfPrimitive<T, PrimitiveConsumer, TypeSpl>>
+            extends ConcatSpliterator<T, TypeSpl>
+            implements Spliterator.OfPrimitive<T, PrimitiveConsumer, TypeSpl> {
+
+        protected OfPrimitive(TypeSpl[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(PrimitiveConsumer action) {
+            Objects.requireNonNull(action);
+            for (; from < to; from++) {
+                if (spliterators[from].tryAdvance(action)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(PrimitiveConsumer action) {
+            Objects.requireNonNull(action);
+            for (; from < to; from++) {
+                spliterators[from].forEachRemaining(action);
+            }
+        }
+    }
+
+    public static final class OfByte extends OfPrimitive<Byte, ByteConsumer, Spliterator.OfByte> implements Spliterator.OfByte {
+
+        public OfByte(Spliterator.OfByte[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfByte of(Spliterator.OfByte... spliterators) {
+            Spliterator.OfByte[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfByte(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfByte makeSpliterator(Spliterator.OfByte[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfByte(spliterators, from, to);
+        }
+    }
+
+    public static final class OfShort extends OfPrimitive<Short, ShortConsumer, Spliterator.OfShort> implements Spliterator.OfShort {
+
+        public OfShort(Spliterator.OfShort[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfShort of(Spliterator.OfShort... spliterators) {
+            Spliterator.OfShort[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfShort(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfShort makeSpliterator(Spliterator.OfShort[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfShort(spliterators, from, to);
+        }
+    }
+
+    public static final class OfChar extends OfPrimitive<Character, CharConsumer, Spliterator.OfChar> implements Spliterator.OfChar {
+
+        public OfChar(Spliterator.OfChar[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfChar of(Spliterator.OfChar... spliterators) {
+            Spliterator.OfChar[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfChar(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfChar makeSpliterator(Spliterator.OfChar[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfChar(spliterators, from, to);
+        }
+    }
+
+    public static final class OfInt extends OfPrimitive<Integer, IntConsumer, Spliterator.OfInt> implements Spliterator.OfInt {
+
+        public OfInt(Spliterator.OfInt[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfInt of(Spliterator.OfInt... spliterators) {
+            Spliterator.OfInt[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfInt(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfInt makeSpliterator(Spliterator.OfInt[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfInt(spliterators, from, to);
+        }
+    }
+
+    public static final class OfLong extends OfPrimitive<Long, LongConsumer, Spliterator.OfLong> implements Spliterator.OfLong {
+
+        public OfLong(Spliterator.OfLong[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfLong of(Spliterator.OfLong... spliterators) {
+            Spliterator.OfLong[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfLong(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfLong makeSpliterator(Spliterator.OfLong[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfLong(spliterators, from, to);
+        }
+    }
+
+    public static final class OfFloat extends OfPrimitive<Float, FloatConsumer, Spliterator.OfFloat> implements Spliterator.OfFloat {
+
+        public OfFloat(Spliterator.OfFloat[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfFloat of(Spliterator.OfFloat... spliterators) {
+            Spliterator.OfFloat[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfFloat(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfFloat makeSpliterator(Spliterator.OfFloat[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfFloat(spliterators, from, to);
+        }
+    }
+
+    public static final class OfDouble extends OfPrimitive<Double, DoubleConsumer, Spliterator.OfDouble> implements Spliterator.OfDouble {
+
+        public OfDouble(Spliterator.OfDouble[] spliterators, int from, int to) {
+            super(spliterators, from, to);
+        }
+
+        public static Spliterator.OfDouble of(Spliterator.OfDouble... spliterators) {
+            Spliterator.OfDouble[] parts = flatten(spliterators);
+            return parts.length == 1 ? parts[0] : new ConcatSpliterator.OfDouble(parts, 0, parts.length);
+        }
+
+        @Override
+        protected Spliterator.OfDouble makeSpliterator(Spliterator.OfDouble[] spliterators, int from, int to) {
+            return new ConcatSpliterator.OfDouble(spliterators, from, to);
+        }
+    }
+}
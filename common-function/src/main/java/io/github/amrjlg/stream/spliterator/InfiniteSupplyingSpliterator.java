@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.ByteSupplier;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.CharSupplier;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.FloatSupplier;
+import io.github.amrjlg.function.ShortConsumer;
+import io.github.amrjlg.function.ShortSupplier;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * unordered source of supplier generated elements, every split shares the supplier
+ *
+ * @author amrjlg
+ * @see java.util.stream.StreamSpliterators
+ **/
+public abstract class InfiniteSupplyingSpliterator<T> implements Spliterator<T> {
+    protected long estimate;
+
+    protected InfiniteSupplyingSpliterator(long estimate) {
+        this.estimate = estimate;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.IMMUTABLE;
+    }
+
+    public static final class OfRef<T> extends InfiniteSupplyingSpliterator<T> {
+        private final Supplier<? extends T> supplier;
+
+        public OfRef(long size, Supplier<? extends T> supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.get());
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfRef<>(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfByte extends InfiniteSupplyingSpliterator<Byte> implements Spliterator.OfByte {
+        private final ByteSupplier supplier;
+
+        public OfByte(long size, ByteSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsByte());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfByte trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfByte(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfShort extends InfiniteSupplyingSpliterator<Short> implements Spliterator.OfShort {
+        private final ShortSupplier supplier;
+
+        public OfShort(long size, ShortSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(ShortConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsShort());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfShort trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfShort(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfChar extends InfiniteSupplyingSpliterator<Character> implements Spliterator.OfChar {
+        private final CharSupplier supplier;
+
+        public OfChar(long size, CharSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(CharConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsChar());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfChar trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfChar(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfInt extends InfiniteSupplyingSpliterator<Integer> implements Spliterator.OfInt {
+        private final IntSupplier supplier;
+
+        public OfInt(long size, IntSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsInt());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfInt(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfLong extends InfiniteSupplyingSpliterator<Long> implements Spliterator.OfLong {
+        private final LongSupplier supplier;
+
+        public OfLong(long size, LongSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsLong());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfLong(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfFloat extends InfiniteSupplyingSpliterator<Float> implements Spliterator.OfFloat {
+        private final FloatSupplier supplier;
+
+        public OfFloat(long size, FloatSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsFloat());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfFloat trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfFloat(estimate >>>= 1, supplier);
+        }
+    }
+
+    public static final class OfDouble extends InfiniteSupplyingSpliterator<Double> implements Spliterator.OfDouble {
+        private final DoubleSupplier supplier;
+
+        public OfDouble(long size, DoubleSupplier supplier) {
+            super(size);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            action.accept(supplier.getAsDouble());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            if (estimate == 0) {
+                return null;
+            }
+            return new InfiniteSupplyingSpliterator.OfDouble(estimate >>>= 1, supplier);
+        }
+    }
+}
@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * adapters between {@link java.util.Spliterator} and {@link Spliterator}.
+ * both use the same characteristic bits, which are passed through unchanged.
+ * the narrow shapes are widened on the jdk side, byte/short/char to int and float to double,
+ * the widening keeps order and distinctness so SORTED and DISTINCT stay valid.
+ * adapting an adapter back returns the spliterator it wraps
+ *
+ * @author amrjlg
+ **/
+public final class JdkSpliterators {
+
+    private JdkSpliterators() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Spliterator<T> fromJdk(java.util.Spliterator<T> spliterator) {
+        if (spliterator instanceof ToJdk) {
+            return ((ToJdk<T>) spliterator).spliterator;
+        }
+        return new FromJdk<>(spliterator);
+    }
+
+    public static Spliterator.OfInt fromJdk(java.util.Spliterator.OfInt spliterator) {
+        if (spliterator instanceof ToJdkInt) {
+            return ((ToJdkInt) spliterator).spliterator;
+        }
+        return new FromJdkInt(spliterator);
+    }
+
+    public static Spliterator.OfLong fromJdk(java.util.Spliterator.OfLong spliterator) {
+        if (spliterator instanceof ToJdkLong) {
+            return ((ToJdkLong) spliterator).spliterator;
+        }
+        return new FromJdkLong(spliterator);
+    }
+
+    public static Spliterator.OfDouble fromJdk(java.util.Spliterator.OfDouble spliterator) {
+        if (spliterator instanceof ToJdkDouble) {
+            return ((ToJdkDouble) spliterator).spliterator;
+        }
+        return new FromJdkDouble(spliterator);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> java.util.Spliterator<T> toJdk(Spliterator<T> spliterator) {
+        if (spliterator instanceof FromJdk) {
+            return ((FromJdk<T>) spliterator).spliterator;
+        }
+        return new ToJdk<>(spliterator);
+    }
+
+    public static java.util.Spliterator.OfInt toJdk(Spliterator.OfByte spliterator) {
+        return new ByteToJdk(spliterator);
+    }
+
+    public static java.util.Spliterator.OfInt toJdk(Spliterator.OfShort spliterator) {
+        return new ShortToJdk(spliterator);
+    }
+
+    public static java.util.Spliterator.OfInt toJdk(Spliterator.OfChar spliterator) {
+        return new CharToJdk(spliterator);
+    }
+
+    public static java.util.Spliterator.OfInt toJdk(Spliterator.OfInt spliterator) {
+        if (spliterator instanceof FromJdkInt) {
+            return ((FromJdkInt) spliterator).spliterator;
+        }
+        return new ToJdkInt(spliterator);
+    }
+
+    public static java.util.Spliterator.OfLong toJdk(Spliterator.OfLong spliterator) {
+        if (spliterator instanceof FromJdkLong) {
+            return ((FromJdkLong) spliterator).spliterator;
+        }
+        return new ToJdkLong(spliterator);
+    }
+
+    public static java.util.Spliterator.OfDouble toJdk(Spliterator.OfFloat spliterator) {
+        return new FloatToJdk(spliterator);
+    }
+
+    public static java.util.Spliterator.OfDouble toJdk(Spliterator.OfDouble spliterator) {
+        if (spliterator instanceof FromJdkDouble) {
+            return ((FromJdkDouble) spliterator).spliterator;
+        }
+        return new ToJdkDouble(spliterator);
+    }
+
+    static class FromJdk<T> implements Spliterator<T> {
+        final java.util.Spliterator<T> spliterator;
+
+        FromJdk(java.util.Spliterator<T> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> consumer) {
+            return spliterator.tryAdvance(consumer);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> consumer) {
+            spliterator.forEachRemaining(consumer);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            java.util.Spliterator<T> split = spliterator.trySplit();
+            return split == null ? null : new FromJdk<>(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class FromJdkInt implements Spliterator.OfInt {
+        final java.util.Spliterator.OfInt spliterator;
+
+        FromJdkInt(java.util.Spliterator.OfInt spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            java.util.Spliterator.OfInt split = spliterator.trySplit();
+            return split == null ? null : new FromJdkInt(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class FromJdkLong implements Spliterator.OfLong {
+        final java.util.Spliterator.OfLong spliterator;
+
+        FromJdkLong(java.util.Spliterator.OfLong spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            java.util.Spliterator.OfLong split = spliterator.trySplit();
+            return split == null ? null : new FromJdkLong(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class FromJdkDouble implements Spliterator.OfDouble {
+        final java.util.Spliterator.OfDouble spliterator;
+
+        FromJdkDouble(java.util.Spliterator.OfDouble spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            java.util.Spliterator.OfDouble split = spliterator.trySplit();
+            return split == null ? null : new FromJdkDouble(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class ToJdk<T> implements java.util.Spliterator<T> {
+        final Spliterator<T> spliterator;
+
+        ToJdk(Spliterator<T> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public java.util.Spliterator<T> trySplit() {
+            Spliterator<T> split = spliterator.trySplit();
+            return split == null ? null : new ToJdk<>(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    /**
+     * base of the primitive adapters to the jdk, {@code Spl} is the adapted spliterator
+     */
+    abstract static class AbstractToJdk<T, Spl extends Spliterator<T>> {
+        final Spl spliterator;
+
+        AbstractToJdk(Spl spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        public long getExactSizeIfKnown() {
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+    }
+
+    static class ToJdkInt extends AbstractToJdk<Integer, Spliterator.OfInt> implements java.util.Spliterator.OfInt {
+
+        ToJdkInt(Spliterator.OfInt spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public java.util.Spliterator.OfInt trySplit() {
+            Spliterator.OfInt split = spliterator.trySplit();
+            return split == null ? null : new ToJdkInt(split);
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class ToJdkLong extends AbstractToJdk<Long, Spliterator.OfLong> implements java.util.Spliterator.OfLong {
+
+        ToJdkLong(Spliterator.OfLong spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public java.util.Spliterator.OfLong trySplit() {
+            Spliterator.OfLong split = spliterator.trySplit();
+            return split == null ? null : new ToJdkLong(split);
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    static class ToJdkDouble extends AbstractToJdk<Double, Spliterator.OfDouble> implements java.util.Spliterator.OfDouble {
+
+        ToJdkDouble(Spliterator.OfDouble spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public java.util.Spliterator.OfDouble trySplit() {
+            Spliterator.OfDouble split = spliterator.trySplit();
+            return split == null ? null : new ToJdkDouble(split);
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return spliterator.getComparator();
+        }
+    }
+
+    /**
+     * a natural ordering survives the widening, any other comparator does not apply to the wider values
+     */
+    static <T> Comparator<T> widenedComparator(Spliterator<?> spliterator) {
+        if (spliterator.getComparator() != null) {
+            throw new IllegalStateException();
+        }
+        return null;
+    }
+
+    static class ByteToJdk extends AbstractToJdk<Byte, Spliterator.OfByte> implements java.util.Spliterator.OfInt {
+
+        ByteToJdk(Spliterator.OfByte spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance((ByteConsumer) action::accept);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            spliterator.forEachRemaining((ByteConsumer) action::accept);
+        }
+
+        @Override
+        public java.util.Spliterator.OfInt trySplit() {
+            Spliterator.OfByte split = spliterator.trySplit();
+            return split == null ? null : new ByteToJdk(split);
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return widenedComparator(spliterator);
+        }
+    }
+
+    static class ShortToJdk extends AbstractToJdk<Short, Spliterator.OfShort> implements java.util.Spliterator.OfInt {
+
+        ShortToJdk(Spliterator.OfShort spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance((ShortConsumer) action::accept);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            spliterator.forEachRemaining((ShortConsumer) action::accept);
+        }
+
+        @Override
+        public java.util.Spliterator.OfInt trySplit() {
+            Spliterator.OfShort split = spliterator.trySplit();
+            return split == null ? null : new ShortToJdk(split);
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return widenedComparator(spliterator);
+        }
+    }
+
+    static class CharToJdk extends AbstractToJdk<Character, Spliterator.OfChar> implements java.util.Spliterator.OfInt {
+
+        CharToJdk(Spliterator.OfChar spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance((CharConsumer) action::accept);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            spliterator.forEachRemaining((CharConsumer) action::accept);
+        }
+
+        @Override
+        public java.util.Spliterator.OfInt trySplit() {
+            Spliterator.OfChar split = spliterator.trySplit();
+            return split == null ? null : new CharToJdk(split);
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return widenedComparator(spliterator);
+        }
+    }
+
+    static class FloatToJdk extends AbstractToJdk<Float, Spliterator.OfFloat> implements java.util.Spliterator.OfDouble {
+
+        FloatToJdk(Spliterator.OfFloat spliterator) {
+            super(spliterator);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return spliterator.tryAdvance((FloatConsumer) action::accept);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            spliterator.forEachRemaining((FloatConsumer) action::accept);
+        }
+
+        @Override
+        public java.util.Spliterator.OfDouble trySplit() {
+            Spliterator.OfFloat split = spliterator.trySplit();
+            return split == null ? null : new FloatToJdk(split);
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return widenedComparator(spliterator);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * lines of a memory mapped file, splits at a line break near the middle of the remaining bytes
+ * and decodes lines of its own range only. lines end with \n, \r or \r\n, which requires a charset
+ * encoding those as single bytes never occurring inside other characters
+ *
+ * @author amrjlg
+ * @see MappedSpliterator
+ **/
+public class MappedLineSpliterator implements Spliterator<String> {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteBuffer[] regions;
+    private final int regionShift;
+    private final Charset charset;
+    private long index;        // current index, modified on advance/split
+    private final long end;  // one past last index
+
+    public MappedLineSpliterator(ByteBuffer[] regions, long origin, long end, Charset charset) {
+        this(regions, MappedSpliterator.REGION_SHIFT, origin, end, charset);
+    }
+
+    /**
+     * over regions of {@code 1 << regionShift} bytes as mapped by {@link MappedSpliterator#map(java.nio.channels.FileChannel, long, int)}
+     */
+    public MappedLineSpliterator(ByteBuffer[] regions, int regionShift, long origin, long end, Charset charset) {
+        this.regions = regions;
+        this.regionShift = regionShift;
+        this.index = origin;
+        this.end = end;
+        this.charset = charset;
+    }
+
+    /**
+     * whether line breaks can be found without decoding
+     */
+    public static boolean supports(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    private byte get(long offset) {
+        return MappedSpliterator.get(regions, regionShift, offset);
+    }
+
+    /**
+     * offset one past the line break starting the search at {@code from}, {@code end} when there is none
+     */
+    private long nextLine(long from) {
+        for (long i = from; i < end; i++) {
+            byte b = get(i);
+            if (b == LF) {
+                return i + 1;
+            } else if (b == CR) {
+                return i + 1 < end && get(i + 1) == LF ? i + 2 : i + 1;
+            }
+        }
+        return end;
+    }
+
+    private String decode(long from, long to) {
+        byte[] bytes = new byte[Math.toIntExact(to - from)];
+        long regionSize = 1L << regionShift;
+        int offset = 0;
+        while (from < to) {
+            ByteBuffer region = regions[(int) (from >>> regionShift)].duplicate();
+            int position = (int) (from & (regionSize - 1));
+            int length = (int) Math.min(to - from, regionSize - position);
+            region.position(position);
+            region.get(bytes, offset, length);
+            offset += length;
+            from += length;
+        }
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        Objects.requireNonNull(action);
+        long from = index;
+        if (from >= end) {
+            return false;
+        }
+        long next = nextLine(from);
+        long to = next;
+        if (to > from && get(to - 1) == LF) {
+            to--;
+        }
+        if (to > from && get(to - 1) == CR) {
+            to--;
+        }
+        index = next;
+        action.accept(decode(from, to));
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long lo = index, mid = (lo + end) >>> 1;
+        if (lo >= mid) {
+            return null;
+        }
+        // a \r\n pair must not be torn apart
+        long split = get(mid - 1) == CR ? mid - 1 : mid;
+        split = nextLine(split);
+        if (split >= end) {
+            return null;
+        }
+        return new MappedLineSpliterator(regions, regionShift, lo, index = split, charset);
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super String> getComparator() {
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * byte spliterator over a file mapped as consecutive regions of {@link #REGION_SIZE} bytes,
+ * a single {@link java.nio.MappedByteBuffer} can not address more than 2GB
+ *
+ * @author amrjlg
+ **/
+public class MappedSpliterator implements Spliterator.OfByte {
+
+    public static final int REGION_SHIFT = 30;
+
+    public static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    private final ByteBuffer[] regions;
+    private final int regionShift;
+    private long index;        // current index, modified on advance/split
+    private final long end;  // one past last index
+    private final int characteristics;
+
+    public MappedSpliterator(ByteBuffer[] regions, long origin, long end, int additionalCharacteristics) {
+        this(regions, REGION_SHIFT, origin, end, additionalCharacteristics);
+    }
+
+    /**
+     * over regions of {@code 1 << regionShift} bytes as mapped by {@link #map(FileChannel, long, int)}
+     */
+    public MappedSpliterator(ByteBuffer[] regions, int regionShift, long origin, long end, int additionalCharacteristics) {
+        this.regions = regions;
+        this.regionShift = regionShift;
+        this.index = origin;
+        this.end = end;
+        this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    /**
+     * maps the first {@code size} bytes of the channel read only, the mapping stays valid after the channel is closed
+     */
+    public static ByteBuffer[] map(FileChannel channel, long size) throws IOException {
+        return map(channel, size, REGION_SHIFT);
+    }
+
+    /**
+     * like {@link #map(FileChannel, long)} with regions of {@code 1 << regionShift} bytes
+     */
+    public static ByteBuffer[] map(FileChannel channel, long size, int regionShift) throws IOException {
+        long regionSize = 1L << regionShift;
+        ByteBuffer[] regions = new ByteBuffer[(int) ((size + regionSize - 1) >>> regionShift)];
+        for (int i = 0; i < regions.length; i++) {
+            long position = (long) i << regionShift;
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position));
+        }
+        return regions;
+    }
+
+    /**
+     * byte at an absolute offset of a mapping with regions of {@code 1 << regionShift} bytes
+     */
+    public static byte get(ByteBuffer[] regions, int regionShift, long offset) {
+        return regions[(int) (offset >>> regionShift)].get((int) (offset & ((1L << regionShift) - 1)));
+    }
+
+    @Override
+    public Spliterator.OfByte trySplit() {
+        long lo = index, mid = (lo + end) >>> 1;
+        return (lo >= mid)
+                ? null
+                : new MappedSpliterator(regions, regionShift, lo, index = mid, characteristics);
+    }
+
+    @Override
+    public void forEachRemaining(ByteConsumer action) {
+        Objects.requireNonNull(action);
+        long i = index, hi = end;
+        long regionSize = 1L << regionShift;
+        index = hi;
+        while (i < hi) {
+            ByteBuffer region = regions[(int) (i >>> regionShift)];
+            int from = (int) (i & (regionSize - 1));
+            int to = (int) Math.min(regionSize, from + (hi - i));
+            for (int j = from; j < to; j++) {
+                action.accept(region.get(j));
+            }
+            i += to - from;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(ByteConsumer action) {
+        Objects.requireNonNull(action);
+        if (index < end) {
+            action.accept(get(regions, regionShift, index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    @Override
+    public Comparator<? super Byte> getComparator() {
+        if (hasCharacteristics(Spliterator.SORTED)) {
+            return null;
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,755 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * merges spliterators that are each sorted into one sorted spliterator,
+ * a binary heap of the sources ordered by their next element pulls one element at a time,
+ * equal elements come from the earlier source first,
+ * it splits by merging a batch of elements into an array the way an iterator spliterator does
+ *
+ * @author amrjlg
+ **/
+public abstract class MergeSortedSpliterator<T, TypeSpl extends Spliterator<T>> implements Spliterator<T> {
+
+    protected final TypeSpl[] sources;
+    /**
+     * indices of the sources that still have a next element, ordered by it
+     */
+    private int[] heap;
+    private int size;
+    private int batch;
+
+    protected MergeSortedSpliterator(TypeSpl[] sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * pulls the next element of a source into its head, false when the source is exhausted
+     */
+    protected abstract boolean advance(int source);
+
+    protected abstract int compareHeads(int left, int right);
+
+    /**
+     * index of the source holding the least next element, -1 when every source is exhausted
+     */
+    protected final int top() {
+        if (heap == null) {
+            heap = new int[sources.length];
+            for (int source = 0; source < sources.length; source++) {
+                if (advance(source)) {
+                    heap[size++] = source;
+                }
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        return size > 0 ? heap[0] : -1;
+    }
+
+    /**
+     * replaces the head of the top source once it was consumed
+     */
+    protected final void next() {
+        if (!advance(heap[0])) {
+            heap[0] = heap[--size];
+        }
+        siftDown(0);
+    }
+
+    /**
+     * number of sources that still have a next element
+     */
+    protected final int remaining() {
+        return size;
+    }
+
+    /**
+     * forgets the last source once its head was consumed and the rest of it is drained directly
+     */
+    protected final void drain() {
+        size = 0;
+    }
+
+    private boolean less(int left, int right) {
+        int compare = compareHeads(left, right);
+        return compare < 0 || (compare == 0 && left < right);
+    }
+
+    private void siftDown(int index) {
+        int source = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], source)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = source;
+    }
+
+    /**
+     * merges at most {@code n} elements into an array and returns a spliterator over them
+     */
+    protected abstract TypeSpl split(int n);
+
+    /**
+     * characteristics of a merged batch, its elements are in order and already counted
+     */
+    protected int splitCharacteristics() {
+        return (characteristics() & (Spliterator.NONNULL | Spliterator.IMMUTABLE))
+                | Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    @Override
+    public TypeSpl trySplit() {
+        long estimate = estimateSize();
+        if (estimate > 1 && top() >= 0) {
+            int n = batch + Spliterators.IteratorSpliterator.BATCH_UNIT;
+            if (n > estimate) {
+                n = (int) estimate;
+            }
+            if (n > Spliterators.IteratorSpliterator.MAX_BATCH) {
+                n = Spliterators.IteratorSpliterator.MAX_BATCH;
+            }
+            TypeSpl prefix = split(n);
+            batch = (int) prefix.estimateSize();
+            return prefix;
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        long estimate = heap == null ? 0 : size;
+        for (TypeSpl source : sources) {
+            estimate += source.estimateSize();
+            if (estimate < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = Spliterator.SIZED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        for (TypeSpl source : sources) {
+            characteristics &= source.characteristics();
+        }
+        return characteristics | Spliterator.ORDERED | Spliterator.SORTED;
+    }
+
+    public static final class OfRef<T> extends MergeSortedSpliterator<T, Spliterator<T>> {
+        private final Comparator<? super T> comparator;
+        private final Object[] heads;
+        private final Consumer<T> pull = value -> this.pulled = value;
+        private Object pulled;
+
+        /**
+         * @param comparator the order of every source, {@code null} for natural order
+         */
+        @SuppressWarnings("unchecked")
+        public OfRef(Comparator<? super T> comparator, Spliterator<? extends T>[] sources) {
+            super((Spliterator<T>[]) sources);
+            this.comparator = comparator == Comparator.naturalOrder() ? null : comparator;
+            this.heads = new Object[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                pulled = null;
+                return true;
+            }
+            heads[source] = null;
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected int compareHeads(int left, int right) {
+            T l = (T) heads[left], r = (T) heads[right];
+            return comparator == null ? ((Comparable<? super T>) l).compareTo(r) : comparator.compare(l, r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            T value = (T) heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                T value = (T) heads[source];
+                next();
+                action.accept(value);
+            }
+            // only one source is left, it is drained without the heap
+            if (source >= 0) {
+                drain();
+                T value = (T) heads[source];
+                heads[source] = null;
+                action.accept(value);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Spliterator<T> split(int n) {
+            Object[] array = new Object[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            // an array spliterator only reports natural order
+            int characteristics = comparator == null ? splitCharacteristics() : splitCharacteristics() & ~Spliterator.SORTED;
+            return Spliterators.spliterator((T[]) array, 0, j, characteristics);
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+    }
+
+    public static final class OfByte extends MergeSortedSpliterator<Byte, Spliterator.OfByte> implements Spliterator.OfByte {
+        private final byte[] heads;
+        private final ByteConsumer pull = value -> this.pulled = value;
+        private byte pulled;
+
+        public OfByte(Spliterator.OfByte[] sources) {
+            super(sources);
+            this.heads = new byte[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Byte.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            byte value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                byte value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfByte split(int n) {
+            byte[] array = new byte[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Byte> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfShort extends MergeSortedSpliterator<Short, Spliterator.OfShort> implements Spliterator.OfShort {
+        private final short[] heads;
+        private final ShortConsumer pull = value -> this.pulled = value;
+        private short pulled;
+
+        public OfShort(Spliterator.OfShort[] sources) {
+            super(sources);
+            this.heads = new short[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Short.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(ShortConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            short value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(ShortConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                short value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfShort split(int n) {
+            short[] array = new short[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Short> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfChar extends MergeSortedSpliterator<Character, Spliterator.OfChar> implements Spliterator.OfChar {
+        private final char[] heads;
+        private final CharConsumer pull = value -> this.pulled = value;
+        private char pulled;
+
+        public OfChar(Spliterator.OfChar[] sources) {
+            super(sources);
+            this.heads = new char[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Character.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(CharConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            char value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(CharConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                char value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfChar split(int n) {
+            char[] array = new char[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Character> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfInt extends MergeSortedSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+        private final int[] heads;
+        private final IntConsumer pull = value -> this.pulled = value;
+        private int pulled;
+
+        public OfInt(Spliterator.OfInt[] sources) {
+            super(sources);
+            this.heads = new int[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Integer.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            int value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                int value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfInt split(int n) {
+            int[] array = new int[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfLong extends MergeSortedSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+        private final long[] heads;
+        private final LongConsumer pull = value -> this.pulled = value;
+        private long pulled;
+
+        public OfLong(Spliterator.OfLong[] sources) {
+            super(sources);
+            this.heads = new long[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Long.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            long value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                long value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfLong split(int n) {
+            long[] array = new long[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfFloat extends MergeSortedSpliterator<Float, Spliterator.OfFloat> implements Spliterator.OfFloat {
+        private final float[] heads;
+        private final FloatConsumer pull = value -> this.pulled = value;
+        private float pulled;
+
+        public OfFloat(Spliterator.OfFloat[] sources) {
+            super(sources);
+            this.heads = new float[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Float.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            float value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                float value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfFloat split(int n) {
+            float[] array = new float[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Float> getComparator() {
+            return null;
+        }
+    }
+
+    public static final class OfDouble extends MergeSortedSpliterator<Double, Spliterator.OfDouble> implements Spliterator.OfDouble {
+        private final double[] heads;
+        private final DoubleConsumer pull = value -> this.pulled = value;
+        private double pulled;
+
+        public OfDouble(Spliterator.OfDouble[] sources) {
+            super(sources);
+            this.heads = new double[sources.length];
+        }
+
+        @Override
+        protected boolean advance(int source) {
+            if (sources[source].tryAdvance(pull)) {
+                heads[source] = pulled;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected int compareHeads(int left, int right) {
+            return Double.compare(heads[left], heads[right]);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            int source = top();
+            if (source < 0) {
+                return false;
+            }
+            double value = heads[source];
+            next();
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            int source;
+            while ((source = top()) >= 0 && remaining() > 1) {
+                double value = heads[source];
+                next();
+                action.accept(value);
+            }
+            if (source >= 0) {
+                drain();
+                action.accept(heads[source]);
+                sources[source].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        protected Spliterator.OfDouble split(int n) {
+            double[] array = new double[n];
+            int j = 0, source;
+            while (j < n && (source = top()) >= 0) {
+                array[j++] = heads[source];
+                next();
+            }
+            return Spliterators.spliterator(array, 0, j, splitCharacteristics());
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return null;
+        }
+    }
+}
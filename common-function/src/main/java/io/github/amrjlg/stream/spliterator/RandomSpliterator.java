@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * sized spliterators of random values in {@code [origin, bound)}.
+ * a split hands half of the remaining values to a generator split off with {@link SplittableRandom#split()},
+ * every leaf of a parallel pipeline draws from its own generator and a seeded root yields the same values
+ * for the same split tree
+ *
+ * @author amrjlg
+ **/
+public abstract class RandomSpliterator {
+
+    public static final int CHARACTERISTICS = Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
+    private RandomSpliterator() {
+    }
+
+    private static void check(long size, boolean validRange) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must be non-negative: " + size);
+        }
+        if (!validRange) {
+            throw new IllegalArgumentException("Bound must be greater than origin");
+        }
+    }
+
+    /**
+     * 24 random bits scaled into the range, rounding up to the bound is pulled back below it
+     */
+    static float nextFloat(SplittableRandom rng, float origin, float bound) {
+        float value = (rng.nextInt() >>> 8) * 0x1.0p-24f * (bound - origin) + origin;
+        return value < bound ? value : Math.nextDown(bound);
+    }
+
+    public static final class OfByte implements Spliterator.OfByte {
+        private final SplittableRandom rng;
+        private long index;
+        private final long fence;
+        private final byte origin;
+        private final byte bound;
+
+        public OfByte(SplittableRandom rng, long size, byte origin, byte bound) {
+            this(rng, 0, size, origin, bound);
+            check(size, origin < bound);
+        }
+
+        private OfByte(SplittableRandom rng, long index, long fence, byte origin, byte bound) {
+            this.rng = rng;
+            this.index = index;
+            this.fence = fence;
+            this.origin = origin;
+            this.bound = bound;
+        }
+
+        @Override
+        public Spliterator.OfByte trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return lo >= mid ? null : new RandomSpliterator.OfByte(rng.split(), lo, index = mid, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                index++;
+                action.accept((byte) rng.nextInt(origin, bound));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(ByteConsumer action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept((byte) rng.nextInt(origin, bound));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    public static final class OfInt implements Spliterator.OfInt {
+        private final SplittableRandom rng;
+        private long index;
+        private final long fence;
+        private final int origin;
+        private final int bound;
+
+        public OfInt(SplittableRandom rng, long size, int origin, int bound) {
+            this(rng, 0, size, origin, bound);
+            check(size, origin < bound);
+        }
+
+        private OfInt(SplittableRandom rng, long index, long fence, int origin, int bound) {
+            this.rng = rng;
+            this.index = index;
+            this.fence = fence;
+            this.origin = origin;
+            this.bound = bound;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return lo >= mid ? null : new RandomSpliterator.OfInt(rng.split(), lo, index = mid, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                index++;
+                action.accept(rng.nextInt(origin, bound));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(rng.nextInt(origin, bound));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    public static final class OfLong implements Spliterator.OfLong {
+        private final SplittableRandom rng;
+        private long index;
+        private final long fence;
+        private final long origin;
+        private final long bound;
+
+        public OfLong(SplittableRandom rng, long size, long origin, long bound) {
+            this(rng, 0, size, origin, bound);
+            check(size, origin < bound);
+        }
+
+        private OfLong(SplittableRandom rng, long index, long fence, long origin, long bound) {
+            this.rng = rng;
+            this.index = index;
+            this.fence = fence;
+            this.origin = origin;
+            this.bound = bound;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return lo >= mid ? null : new RandomSpliterator.OfLong(rng.split(), lo, index = mid, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                index++;
+                action.accept(rng.nextLong(origin, bound));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(rng.nextLong(origin, bound));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    public static final class OfFloat implements Spliterator.OfFloat {
+        private final SplittableRandom rng;
+        private long index;
+        private final long fence;
+        private final float origin;
+        private final float bound;
+
+        public OfFloat(SplittableRandom rng, long size, float origin, float bound) {
+            this(rng, 0, size, origin, bound);
+            check(size, origin < bound && bound - origin < Float.POSITIVE_INFINITY);
+        }
+
+        private OfFloat(SplittableRandom rng, long index, long fence, float origin, float bound) {
+            this.rng = rng;
+            this.index = index;
+            this.fence = fence;
+            this.origin = origin;
+            this.bound = bound;
+        }
+
+        @Override
+        public Spliterator.OfFloat trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return lo >= mid ? null : new RandomSpliterator.OfFloat(rng.split(), lo, index = mid, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                index++;
+                action.accept(nextFloat(rng, origin, bound));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(FloatConsumer action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(nextFloat(rng, origin, bound));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    public static final class OfDouble implements Spliterator.OfDouble {
+        private final SplittableRandom rng;
+        private long index;
+        private final long fence;
+        private final double origin;
+        private final double bound;
+
+        public OfDouble(SplittableRandom rng, long size, double origin, double bound) {
+            this(rng, 0, size, origin, bound);
+            check(size, origin < bound && bound - origin < Double.POSITIVE_INFINITY);
+        }
+
+        private OfDouble(SplittableRandom rng, long index, long fence, double origin, double bound) {
+            this.rng = rng;
+            this.index = index;
+            this.fence = fence;
+            this.origin = origin;
+            this.bound = bound;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return lo >= mid ? null : new RandomSpliterator.OfDouble(rng.split(), lo, index = mid, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                index++;
+                action.accept(rng.nextDouble(origin, bound));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(rng.nextDouble(origin, bound));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * spliterators over a range of integral values, splitting evenly in halves
+ *
+ * @author amrjlg
+ **/
+public abstract class RangeSpliterator {
+
+    public static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
+
+    private RangeSpliterator() {
+    }
+
+    public static final class OfInt implements Spliterator.OfInt {
+        private int from;
+        private final int upTo;
+        /**
+         * 1 if the range is closed and {@code upTo} was not yet emitted
+         */
+        private int last;
+
+        public OfInt(int from, int upTo, boolean closed) {
+            this(from, upTo, closed ? 1 : 0);
+        }
+
+        private OfInt(int from, int upTo, int last) {
+            this.from = from;
+            this.upTo = upTo;
+            this.last = last;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int value = from;
+            if (value < upTo) {
+                from++;
+                action.accept(value);
+                return true;
+            } else if (last > 0) {
+                last = 0;
+                action.accept(value);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int value = from;
+            int end = upTo;
+            int closed = last;
+            from = upTo;
+            last = 0;
+            while (value < end) {
+                action.accept(value++);
+            }
+            if (closed > 0) {
+                action.accept(value);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) upTo - from + last;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long size = estimateSize();
+            if (size <= 1) {
+                return null;
+            }
+            int left = from;
+            return new RangeSpliterator.OfInt(left, from = (int) (left + size / 2), 0);
+        }
+    }
+
+    /**
+     * a closed range of all longs has 2^64 elements, ranges whose size does
+     * not fit a long are reported unsized until they were split
+     */
+    public static final class OfLong implements Spliterator.OfLong {
+        private long from;
+        private final long upTo;
+        private int last;
+
+        public OfLong(long from, long upTo, boolean closed) {
+            this(from, upTo, closed ? 1 : 0);
+        }
+
+        private OfLong(long from, long upTo, int last) {
+            this.from = from;
+            this.upTo = upTo;
+            this.last = last;
+        }
+
+        private boolean sizeFits() {
+            long span = upTo - from;
+            return span >= 0 && span + last >= 0;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            long value = from;
+            if (value < upTo) {
+                from++;
+                action.accept(value);
+                return true;
+            } else if (last > 0) {
+                last = 0;
+                action.accept(value);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            long value = from;
+            long end = upTo;
+            int closed = last;
+            from = upTo;
+            last = 0;
+            while (value < end) {
+                action.accept(value++);
+            }
+            if (closed > 0) {
+                action.accept(value);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return sizeFits() ? upTo - from + last : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return sizeFits() ? CHARACTERISTICS : CHARACTERISTICS & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long span = upTo - from;
+            long half;
+            if (sizeFits()) {
+                long size = span + last;
+                if (size <= 1) {
+                    return null;
+                }
+                half = size >>> 1;
+            } else {
+                half = span >>> 1;
+            }
+            long left = from;
+            return new RangeSpliterator.OfLong(left, from = left + half, 0);
+        }
+    }
+}
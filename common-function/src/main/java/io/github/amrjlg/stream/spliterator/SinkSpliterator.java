@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.buffer.AbstractSpinedBuffer;
+import io.github.amrjlg.stream.buffer.SpinedBuffer;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * the outputs of an operation's sink over the elements of a spliterator, pushed one element at a time
+ * into a buffer. when parallel, a split splits the elements and runs a new sink of the operation over them
+ *
+ * @author amrjlg
+ * @see WrappingSpliterator
+ **/
+public abstract class SinkSpliterator<Input, Output, Buffer extends AbstractSpinedBuffer>
+        implements Spliterator<Output> {
+
+    protected final Spliterator<Input> spliterator;
+    /**
+     * builds the sink of the operation in front of a sink of its outputs
+     */
+    protected final Function<Sink<Output>, Sink<Input>> wrapper;
+    /**
+     * whether a split may run a new sink of the operation over the split elements
+     */
+    protected final boolean parallel;
+    Sink<Input> bufferSink;
+
+    long nextToConsume;
+
+    Buffer buffer;
+    boolean finished;
+
+    SinkSpliterator(Spliterator<Input> spliterator, Function<Sink<Output>, Sink<Input>> wrapper, boolean parallel) {
+        this.spliterator = spliterator;
+        this.wrapper = wrapper;
+        this.parallel = parallel;
+    }
+
+    final boolean doAdvance() {
+        if (buffer == null) {
+            if (finished) {
+                return false;
+            }
+            initPartialTraversalState();
+            nextToConsume = 0;
+            bufferSink.begin(spliterator.getExactSizeIfKnown());
+            return fillBuffer();
+        } else {
+            ++nextToConsume;
+            boolean hasNext = nextToConsume < buffer.count();
+            if (!hasNext) {
+                nextToConsume = 0;
+                buffer.clear();
+                hasNext = fillBuffer();
+            }
+            return hasNext;
+        }
+    }
+
+    private boolean fillBuffer() {
+        while (buffer.count() == 0) {
+            if (bufferSink.cancellationRequested() || !spliterator.tryAdvance(bufferSink)) {
+                if (finished) {
+                    return false;
+                } else {
+                    bufferSink.end();
+                    finished = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    final void copyInto(Sink<Output> sink) {
+        Sink<Input> wrapped = wrapper.apply(sink);
+        wrapped.begin(spliterator.getExactSizeIfKnown());
+        spliterator.forEachRemaining(wrapped);
+        wrapped.end();
+        finished = true;
+    }
+
+    abstract SinkSpliterator<Input, Output, ?> wrap(Spliterator<Input> spliterator);
+
+    abstract void initPartialTraversalState();
+
+    @Override
+    public Spliterator<Output> trySplit() {
+        if (parallel && buffer == null && !finished) {
+            Spliterator<Input> split = spliterator.trySplit();
+            return split == null ? null : wrap(split);
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return spliterator.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return spliterator.characteristics() & Spliterator.ORDERED;
+    }
+
+    public static final class OfRef<In, Out> extends SinkSpliterator<In, Out, SpinedBuffer<Out>> {
+
+        public OfRef(Spliterator<In> spliterator, Function<Sink<Out>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Out> consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Out, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfRef<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer<>();
+            bufferSink = wrapper.apply(buffer::accept);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Out> consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto(consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfByte<In> extends SinkSpliterator<In, Byte, SpinedBuffer.OfByte>
+            implements Spliterator.OfByte {
+
+        public OfByte(Spliterator<In> spliterator, Function<Sink<Byte>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Byte, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfByte<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfByte();
+            bufferSink = wrapper.apply((Sink.OfByte) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfByte trySplit() {
+            return (Spliterator.OfByte) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(ByteConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfByte) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfShort<In> extends SinkSpliterator<In, Short, SpinedBuffer.OfShort>
+            implements Spliterator.OfShort {
+
+        public OfShort(Spliterator<In> spliterator, Function<Sink<Short>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(ShortConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Short, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfShort<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfShort();
+            bufferSink = wrapper.apply((Sink.OfShort) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfShort trySplit() {
+            return (Spliterator.OfShort) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(ShortConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfShort) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfChar<In> extends SinkSpliterator<In, Character, SpinedBuffer.OfChar>
+            implements Spliterator.OfChar {
+
+        public OfChar(Spliterator<In> spliterator, Function<Sink<Character>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(CharConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Character, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfChar<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfChar();
+            bufferSink = wrapper.apply((Sink.OfChar) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfChar trySplit() {
+            return (Spliterator.OfChar) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(CharConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfChar) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfInt<In> extends SinkSpliterator<In, Integer, SpinedBuffer.OfInt>
+            implements Spliterator.OfInt {
+
+        public OfInt(Spliterator<In> spliterator, Function<Sink<Integer>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Integer, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfInt<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfInt();
+            bufferSink = wrapper.apply((Sink.OfInt) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return (Spliterator.OfInt) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfInt) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfLong<In> extends SinkSpliterator<In, Long, SpinedBuffer.OfLong>
+            implements Spliterator.OfLong {
+
+        public OfLong(Spliterator<In> spliterator, Function<Sink<Long>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Long, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfLong<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfLong();
+            bufferSink = wrapper.apply((Sink.OfLong) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            return (Spliterator.OfLong) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfLong) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfFloat<In> extends SinkSpliterator<In, Float, SpinedBuffer.OfFloat>
+            implements Spliterator.OfFloat {
+
+        public OfFloat(Spliterator<In> spliterator, Function<Sink<Float>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Float, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfFloat<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfFloat();
+            bufferSink = wrapper.apply((Sink.OfFloat) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfFloat trySplit() {
+            return (Spliterator.OfFloat) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(FloatConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfFloat) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+
+    public static final class OfDouble<In> extends SinkSpliterator<In, Double, SpinedBuffer.OfDouble>
+            implements Spliterator.OfDouble {
+
+        public OfDouble(Spliterator<In> spliterator, Function<Sink<Double>, Sink<In>> wrapper, boolean parallel) {
+            super(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            boolean hasNext = doAdvance();
+            if (hasNext) {
+                consumer.accept(buffer.get(nextToConsume));
+            }
+            return hasNext;
+        }
+
+        @Override
+        SinkSpliterator<In, Double, ?> wrap(Spliterator<In> spliterator) {
+            return new SinkSpliterator.OfDouble<>(spliterator, wrapper, parallel);
+        }
+
+        @Override
+        void initPartialTraversalState() {
+            buffer = new SpinedBuffer.OfDouble();
+            bufferSink = wrapper.apply((Sink.OfDouble) buffer::accept);
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            return (Spliterator.OfDouble) super.trySplit();
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer consumer) {
+            Objects.requireNonNull(consumer);
+            if (buffer == null && !finished) {
+                copyInto((Sink.OfDouble) consumer::accept);
+            } else {
+                while (tryAdvance(consumer)) {
+
+                }
+            }
+        }
+    }
+}
@@ -21,12 +21,22 @@ import io.github.amrjlg.function.ByteConsumer;
 import io.github.amrjlg.function.CharConsumer;
 import io.github.amrjlg.function.FloatConsumer;
 import io.github.amrjlg.function.ShortConsumer;
-
+import io.github.amrjlg.stream.Sink;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -151,6 +161,77 @@ public abstract class Spliterators {
         return new DoubleArraySpliterator(array, fromIndex, toIndex, characteristics);
     }
 
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfByte spliterator(ByteBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfByte(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfShort spliterator(ShortBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfShort(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfChar spliterator(CharBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfChar(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfInt spliterator(IntBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfInt(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfLong spliterator(LongBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfLong(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfFloat spliterator(FloatBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfFloat(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * spliterator over the remaining elements of the buffer, read in place
+     */
+    public static Spliterator.OfDouble spliterator(DoubleBuffer buffer, int characteristics) {
+        return new BufferSpliterator.OfDouble(buffer, buffer.position(), buffer.limit(), characteristics);
+    }
+
+    /**
+     * random access lists are split by index without copying, other collections through their iterator
+     */
+    public static <T> Spliterator<T> spliterator(Collection<? extends T> collection, int characteristics) {
+        Objects.requireNonNull(collection);
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            return new RandomAccessListSpliterator<>((List<? extends T>) collection, characteristics);
+        }
+        return new IteratorSpliterator<>(collection, characteristics);
+    }
+
+    public static <T> Spliterator<T> spliterator(Iterator<? extends T> iterator, long size, int characteristics) {
+        return new IteratorSpliterator<>(Objects.requireNonNull(iterator), size, characteristics);
+    }
+
+    /**
+     * splits into array batches of growing size, see {@link IteratorSpliterator#trySplit()}
+     */
+    public static <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics) {
+        return new IteratorSpliterator<>(Objects.requireNonNull(iterator), characteristics);
+    }
+
 
     private static void checkFromToBounds(int arrayLength, int begin, int end) {
         if (begin > end) {
@@ -589,9 +670,16 @@ public abstract class Spliterators {
             }
             if ((a = array).length >= (hi = end) &&
                     (i = index) >= 0 && i < (index = hi)) {
-                do {
-                    consumer.accept(a[i]);
-                } while (++i < hi);
+                if (consumer instanceof Sink) {
+                    // a sink that consumes ? super T accepts every T of the array, it never stores into it
+                    @SuppressWarnings("unchecked")
+                    Sink<T> sink = (Sink<T>) consumer;
+                    sink.acceptAll(a, i, hi);
+                } else {
+                    do {
+                        consumer.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -627,6 +715,81 @@ public abstract class Spliterators {
         }
     }
 
+    /**
+     * index based spliterator of a {@link RandomAccess} list, the end is bound on first use
+     */
+    public static class RandomAccessListSpliterator<T> implements Spliterator<T> {
+        private final List<? extends T> list;
+        private int index;
+        // one past last index, -1 until first use
+        private int end;
+        private final int characteristics;
+
+        public RandomAccessListSpliterator(List<? extends T> list, int additionalCharacteristics) {
+            this(list, 0, -1, additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED);
+        }
+
+        private RandomAccessListSpliterator(List<? extends T> list, int origin, int end, int characteristics) {
+            this.list = list;
+            this.index = origin;
+            this.end = end;
+            this.characteristics = characteristics;
+        }
+
+        private int getEnd() {
+            if (end < 0) {
+                end = list.size();
+            }
+            return end;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int lo = index, mid = (lo + getEnd()) >>> 1;
+            return (lo >= mid)
+                    ? null
+                    : new RandomAccessListSpliterator<>(list, lo, index = mid, characteristics);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> consumer) {
+            Objects.requireNonNull(consumer);
+            int i = index, hi = getEnd();
+            index = hi;
+            for (; i < hi; i++) {
+                consumer.accept(list.get(i));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> consumer) {
+            Objects.requireNonNull(consumer);
+            if (index < getEnd()) {
+                consumer.accept(list.get(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long estimateSize() {
+            return getEnd() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if (hasCharacteristics(Spliterator.SORTED)) {
+                return null;
+            }
+            throw new IllegalStateException();
+        }
+    }
+
     public static class ByteArraySpliterator implements Spliterator.OfByte {
         private final byte[] array;
         private int index;        // current index, modified on advance/split
@@ -661,9 +824,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfByte) {
+                    ((Sink.OfByte) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -732,9 +899,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfChar) {
+                    ((Sink.OfChar) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -803,9 +974,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfShort) {
+                    ((Sink.OfShort) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -880,9 +1055,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfInt) {
+                    ((Sink.OfInt) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -951,9 +1130,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfLong) {
+                    ((Sink.OfLong) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -1022,9 +1205,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfFloat) {
+                    ((Sink.OfFloat) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
@@ -1093,9 +1280,13 @@ public abstract class Spliterators {
             // hoist accesses and checks from loop
             int hi = end, i = index;
             if (a.length >= hi && i >= 0 && i < (index = hi)) {
-                do {
-                    action.accept(a[i]);
-                } while (++i < hi);
+                if (action instanceof Sink.OfDouble) {
+                    ((Sink.OfDouble) action).acceptAll(a, i, hi);
+                } else {
+                    do {
+                        action.accept(a[i]);
+                    } while (++i < hi);
+                }
             }
         }
 
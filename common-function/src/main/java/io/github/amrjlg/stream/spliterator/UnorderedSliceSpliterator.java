@@ -185,6 +185,7 @@ public abstract class UnorderedSliceSpliterator<Type, TypeSpl extends Spliterato
                     return false;
                 }
                 if (acquirePermits(1) == 1) {
+                    acceptConsumed(action);
                     return true;
                 }
             }
@@ -204,7 +205,8 @@ public abstract class UnorderedSliceSpliterator<Type, TypeSpl extends Spliterato
                     buffer.reset();
                     PrimitiveConsumer consumer = (PrimitiveConsumer) buffer;
                     long premitsRequested = 0;
-                    while (premitsRequested++ < CHUNK_SIZE && spl.tryAdvance(consumer)) {
+                    while (premitsRequested < CHUNK_SIZE && spl.tryAdvance(consumer)) {
+                        premitsRequested++;
                     }
 
                     if (premitsRequested == 0) {
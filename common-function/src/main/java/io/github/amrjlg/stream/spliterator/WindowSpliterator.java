@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * the elements a window operation reads for its windows, overlapping between splits.
+ * every spliterator starts on a window start, a sized source splits where its own source splits,
+ * moved forward to the next window start, and the prefix also reads the first {@code size - 1}
+ * elements of the suffix so that it can complete the windows starting at its last elements.
+ * an unsized source is not split at all
+ *
+ * @author amrjlg
+ **/
+public abstract class WindowSpliterator<S extends Spliterator<?>> {
+
+    /**
+     * upper bound of the elements a split reads from the front of the suffix
+     */
+    private static final int MAX_BORROW = Integer.MAX_VALUE - 8;
+
+    protected final int size;
+    protected final int step;
+    /**
+     * whether the source is SIZED and SUBSIZED so that splits can be moved to window starts
+     */
+    protected final boolean sized;
+    /**
+     * elements of this spliterator already read from the front of the source
+     */
+    protected S head;
+    protected final S source;
+    /**
+     * elements of the right neighbour completing the last windows of this spliterator
+     */
+    protected final S tail;
+
+    protected WindowSpliterator(S head, S source, S tail, int size, int step, boolean sized) {
+        this.head = head;
+        this.source = source;
+        this.tail = tail;
+        this.size = size;
+        this.step = step;
+        this.sized = sized;
+    }
+
+    /**
+     * number of whole windows in {@code length} elements
+     */
+    public static long windows(long length, int size, int step) {
+        return length >= size ? (length - size) / step + 1 : 0;
+    }
+
+    public long estimateSize() {
+        long size = source.estimateSize() + estimateSize(head) + estimateSize(tail);
+        return size < 0 ? Long.MAX_VALUE : size;
+    }
+
+    public int characteristics() {
+        int characteristics = source.characteristics() & Spliterator.ORDERED;
+        return sized ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+    }
+
+    protected boolean splittable() {
+        return sized && (long) step + size <= MAX_BORROW;
+    }
+
+    /**
+     * @param prefix the prefix split off the source
+     * @return the number of elements moved from the suffix into the prefix so that the suffix starts on a window start
+     */
+    protected int moved(Spliterator<?> prefix) {
+        return (int) ((step - (estimateSize(head) + prefix.getExactSizeIfKnown()) % step) % step);
+    }
+
+    protected int capacity(int count) {
+        return (int) Math.min(count, source.estimateSize() + estimateSize(tail));
+    }
+
+    private static long estimateSize(Spliterator<?> spliterator) {
+        return spliterator == null ? 0 : spliterator.estimateSize();
+    }
+
+    public static final class OfByte extends WindowSpliterator<Spliterator.OfByte> implements Spliterator.OfByte {
+
+        public OfByte(Spliterator.OfByte source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfByte(Spliterator.OfByte head, Spliterator.OfByte source, Spliterator.OfByte tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(ByteConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(ByteConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfByte trySplit() {
+            Spliterator.OfByte prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            byte[] borrowed = take(moved + size - 1);
+            Spliterator.OfByte front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfByte(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private byte[] take(int count) {
+            byte[] elements = new byte[capacity(count)];
+            int[] index = new int[1];
+            ByteConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfShort extends WindowSpliterator<Spliterator.OfShort> implements Spliterator.OfShort {
+
+        public OfShort(Spliterator.OfShort source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfShort(Spliterator.OfShort head, Spliterator.OfShort source, Spliterator.OfShort tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(ShortConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(ShortConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfShort trySplit() {
+            Spliterator.OfShort prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            short[] borrowed = take(moved + size - 1);
+            Spliterator.OfShort front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfShort(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private short[] take(int count) {
+            short[] elements = new short[capacity(count)];
+            int[] index = new int[1];
+            ShortConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfChar extends WindowSpliterator<Spliterator.OfChar> implements Spliterator.OfChar {
+
+        public OfChar(Spliterator.OfChar source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfChar(Spliterator.OfChar head, Spliterator.OfChar source, Spliterator.OfChar tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(CharConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(CharConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfChar trySplit() {
+            Spliterator.OfChar prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            char[] borrowed = take(moved + size - 1);
+            Spliterator.OfChar front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfChar(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private char[] take(int count) {
+            char[] elements = new char[capacity(count)];
+            int[] index = new int[1];
+            CharConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfInt extends WindowSpliterator<Spliterator.OfInt> implements Spliterator.OfInt {
+
+        public OfInt(Spliterator.OfInt source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfInt(Spliterator.OfInt head, Spliterator.OfInt source, Spliterator.OfInt tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            Spliterator.OfInt prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            int[] borrowed = take(moved + size - 1);
+            Spliterator.OfInt front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfInt(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private int[] take(int count) {
+            int[] elements = new int[capacity(count)];
+            int[] index = new int[1];
+            IntConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfLong extends WindowSpliterator<Spliterator.OfLong> implements Spliterator.OfLong {
+
+        public OfLong(Spliterator.OfLong source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfLong(Spliterator.OfLong head, Spliterator.OfLong source, Spliterator.OfLong tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            Spliterator.OfLong prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            long[] borrowed = take(moved + size - 1);
+            Spliterator.OfLong front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfLong(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private long[] take(int count) {
+            long[] elements = new long[capacity(count)];
+            int[] index = new int[1];
+            LongConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfFloat extends WindowSpliterator<Spliterator.OfFloat> implements Spliterator.OfFloat {
+
+        public OfFloat(Spliterator.OfFloat source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfFloat(Spliterator.OfFloat head, Spliterator.OfFloat source, Spliterator.OfFloat tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(FloatConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(FloatConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfFloat trySplit() {
+            Spliterator.OfFloat prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            float[] borrowed = take(moved + size - 1);
+            Spliterator.OfFloat front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfFloat(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private float[] take(int count) {
+            float[] elements = new float[capacity(count)];
+            int[] index = new int[1];
+            FloatConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+
+    public static final class OfDouble extends WindowSpliterator<Spliterator.OfDouble> implements Spliterator.OfDouble {
+
+        public OfDouble(Spliterator.OfDouble source, int size, int step, boolean sized) {
+            this(null, source, null, size, step, sized);
+        }
+
+        private OfDouble(Spliterator.OfDouble head, Spliterator.OfDouble source, Spliterator.OfDouble tail, int size, int step, boolean sized) {
+            super(head, source, tail, size, step, sized);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return head != null && head.tryAdvance(action)
+                    || source.tryAdvance(action)
+                    || tail != null && tail.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            if (head != null) {
+                head.forEachRemaining(action);
+            }
+            source.forEachRemaining(action);
+            if (tail != null) {
+                tail.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            Spliterator.OfDouble prefix = splittable() ? source.trySplit() : null;
+            if (prefix == null) {
+                return null;
+            }
+            int moved = moved(prefix);
+            double[] borrowed = take(moved + size - 1);
+            Spliterator.OfDouble front = head;
+            head = Spliterators.spliterator(borrowed, Math.min(moved, borrowed.length), borrowed.length, Spliterator.ORDERED);
+            return new WindowSpliterator.OfDouble(front, prefix, Spliterators.spliterator(borrowed, Spliterator.ORDERED), size, step, true);
+        }
+
+        private double[] take(int count) {
+            double[] elements = new double[capacity(count)];
+            int[] index = new int[1];
+            DoubleConsumer consumer = value -> elements[index[0]++] = value;
+            while (index[0] < elements.length && (source.tryAdvance(consumer) || tail != null && tail.tryAdvance(consumer))) {
+                // consumer fills elements
+            }
+            return index[0] == elements.length ? elements : Arrays.copyOf(elements, index[0]);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import io.github.amrjlg.stream.pipeline.PipelineHelper;
 
 import java.util.concurrent.CountedCompleter;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author amrjlg
@@ -30,7 +31,6 @@ import java.util.concurrent.ForkJoinPool;
 public abstract class AbstractTask<Input, Output, Result, Task extends AbstractTask<Input, Output, Result, Task>>
         extends CountedCompleter<Result> {
 
-    static final int LEAF_TARGET = ForkJoinPool.getCommonPoolParallelism() << 2;
 
     protected final PipelineHelper<Output> helper;
 
@@ -61,8 +61,17 @@ public abstract class AbstractTask<Input, Output, Result, Task extends AbstractT
 
     protected abstract Result doLeaf();
 
+    /**
+     * leaves per worker of the pool hosting the current thread, the common pool outside of any pool
+     */
+    static int leafTarget() {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        int parallelism = pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        return parallelism << 2;
+    }
+
     public static long suggestTargetSize(long sizeEstimate) {
-        long est = sizeEstimate / LEAF_TARGET;
+        long est = sizeEstimate / leafTarget();
         return est > 0L ? est : 1L;
     }
 
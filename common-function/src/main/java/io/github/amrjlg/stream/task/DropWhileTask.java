@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.task;
+
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.NodeBuilder;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.sink.DropWhileSink;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.function.IntFunction;
+
+/**
+ * ordered leaves keep the elements they would drop and count them,
+ * the root then drops the leading run that spans every leaf the predicate held for
+ *
+ * @author amrjlg
+ **/
+public class DropWhileTask<Input, Output>
+        extends AbstractTask<Input, Output, Node<Output>, DropWhileTask<Input, Output>> {
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractPipeline<Output, Output, ?> pipeline;
+    private final IntFunction<Output[]> generator;
+    private final DropWhileSink.Factory<Output> factory;
+    private final boolean ordered;
+
+    private long nodeSize;
+    private long index;
+
+    public DropWhileTask(
+            AbstractPipeline<Output, Output, ?> pipeline,
+            PipelineHelper<Output> helper,
+            Spliterator<Input> spliterator,
+            IntFunction<Output[]> generator,
+            DropWhileSink.Factory<Output> factory
+    ) {
+        super(helper, spliterator);
+        this.pipeline = pipeline;
+        this.generator = generator;
+        this.factory = factory;
+        this.ordered = StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags());
+    }
+
+    public DropWhileTask(DropWhileTask<Input, Output> parent, Spliterator<Input> spliterator) {
+        super(parent, spliterator);
+        this.pipeline = parent.pipeline;
+        this.generator = parent.generator;
+        this.factory = parent.factory;
+        this.ordered = parent.ordered;
+    }
+
+    @Override
+    protected DropWhileTask<Input, Output> makeChild(Spliterator<Input> spliterator) {
+        return new DropWhileTask<>(this, spliterator);
+    }
+
+    @Override
+    protected Node<Output> doLeaf() {
+        // a root leaf is not merged with anything, so it can drop right away
+        boolean retain = ordered && !isRoot();
+        NodeBuilder<Output> nodeBuilder = pipeline.makeNodeBuilder(retain ? helper.exactOutputSizeIfKnown(spliterator) : -1, generator);
+        DropWhileSink<Output> sink = factory.make(nodeBuilder, retain);
+        helper.wrapAndCopyInto(sink, spliterator);
+        Node<Output> node = nodeBuilder.build();
+        nodeSize = node.count();
+        index = sink.getDropCount();
+        return node;
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+        if (!isLeaf()) {
+            if (ordered) {
+                index = leftChild.index;
+                // the predicate held for the whole left side, the run goes on into the right side
+                if (index == leftChild.nodeSize) {
+                    index += rightChild.index;
+                }
+            }
+            nodeSize = leftChild.nodeSize + rightChild.nodeSize;
+            Node<Output> result = merge();
+            setLocalResult(isRoot() ? doTruncate(result) : result);
+        }
+        super.onCompletion(caller);
+    }
+
+    private Node<Output> merge() {
+        if (leftChild.nodeSize == 0) {
+            return rightChild.getLocalResult();
+        } else if (rightChild.nodeSize == 0) {
+            return leftChild.getLocalResult();
+        }
+        return Nodes.concat(pipeline.getSourceShape(), leftChild.getLocalResult(), rightChild.getLocalResult());
+    }
+
+    private Node<Output> doTruncate(Node<Output> node) {
+        return ordered ? node.truncate(index, nodeSize, generator) : node;
+    }
+}
@@ -48,7 +48,7 @@ public class ForEachOrderedTask<S, T> extends CountedCompleter<Void> {
         this.helper = helper;
         this.spliterator = spliterator;
         this.targetSize = AbstractTask.suggestTargetSize(spliterator.estimateSize());
-        this.completionMap = new ConcurrentHashMap<>(Math.max(16, AbstractTask.LEAF_TARGET << 1));
+        this.completionMap = new ConcurrentHashMap<>(Math.max(16, AbstractTask.leafTarget() << 1));
         this.action = action;
         this.leftPredecessor = null;
     }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.task;
+
+import io.github.amrjlg.stream.StreamShape;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.NodeBuilder;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.function.IntFunction;
+
+/**
+ * parallel inclusive prefix scan over the leaves of the pipeline.
+ * the up-sweep runs the sequential sink of the scan over every leaf, starting from the identity,
+ * and folds the tree bottom up, the down-sweep then offsets every leaf but the first
+ * by the fold of the leaves before it
+ *
+ * @author amrjlg
+ **/
+public class ScanTask<Input, Output, Array>
+        extends AbstractTask<Input, Output, Node<Output>, ScanTask<Input, Output, Array>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractPipeline<Output, Output, ?> pipeline;
+    private final IntFunction<Output[]> generator;
+    private final StreamShape shape;
+    private final Scan<Output, Array> scan;
+
+    /**
+     * the scanned elements of a leaf
+     */
+    private Array scanned;
+    /**
+     * the fold of the elements of this node
+     */
+    private Output fold;
+
+    public ScanTask(
+            AbstractPipeline<Output, Output, ?> pipeline,
+            PipelineHelper<Output> helper,
+            Spliterator<Input> spliterator,
+            IntFunction<Output[]> generator,
+            StreamShape shape,
+            Scan<Output, Array> scan
+    ) {
+        super(helper, spliterator);
+        this.pipeline = pipeline;
+        this.generator = generator;
+        this.shape = shape;
+        this.scan = scan;
+    }
+
+    public ScanTask(ScanTask<Input, Output, Array> parent, Spliterator<Input> spliterator) {
+        super(parent, spliterator);
+        this.pipeline = parent.pipeline;
+        this.generator = parent.generator;
+        this.shape = parent.shape;
+        this.scan = parent.scan;
+    }
+
+    /**
+     * @return the scanned elements, in encounter order
+     */
+    public Node<Output> evaluate() {
+        Node<Output> node = invoke();
+        new OffsetTask<>(null, this, null).invoke();
+        return node;
+    }
+
+    @Override
+    protected ScanTask<Input, Output, Array> makeChild(Spliterator<Input> spliterator) {
+        return new ScanTask<>(this, spliterator);
+    }
+
+    @Override
+    protected Node<Output> doLeaf() {
+        NodeBuilder<Output> builder = pipeline.makeNodeBuilder(helper.exactOutputSizeIfKnown(spliterator), generator);
+        helper.wrapAndCopyInto(pipeline.opWrapSink(helper.getStreamAndOpFlags(), builder), spliterator);
+        scanned = scan.array(builder.build());
+        fold = scan.last(scanned);
+        return scan.node(scanned);
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+        if (!isLeaf()) {
+            fold = scan.combine(leftChild.fold, rightChild.fold);
+            setLocalResult(Nodes.concat(shape, leftChild.getLocalResult(), rightChild.getLocalResult()));
+        }
+        // the children are kept for the down-sweep
+        spliterator = null;
+    }
+
+    /**
+     * the shape specific part of a scan
+     *
+     * @param <Output> the boxed element type
+     * @param <Array>  the primitive array type
+     */
+    public interface Scan<Output, Array> {
+
+        Array array(Node<Output> node);
+
+        Node<Output> node(Array scanned);
+
+        /**
+         * @return the last scanned element, the identity when there is none
+         */
+        Output last(Array scanned);
+
+        Output combine(Output left, Output right);
+
+        /**
+         * combines {@code offset} with every scanned element in place
+         */
+        void offset(Output offset, Array scanned);
+    }
+
+    private static final class OffsetTask<Output, Array> extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final ScanTask<?, Output, Array> node;
+        /**
+         * the fold of the leaves before the node, null for the leftmost nodes
+         */
+        private final Output offset;
+
+        OffsetTask(OffsetTask<Output, Array> parent, ScanTask<?, Output, Array> node, Output offset) {
+            super(parent);
+            this.node = node;
+            this.offset = offset;
+        }
+
+        @Override
+        public void compute() {
+            ScanTask<?, Output, Array> node = this.node;
+            while (!node.isLeaf()) {
+                Output fold = node.leftChild.fold;
+                addToPendingCount(1);
+                new OffsetTask<>(this, node.rightChild, offset == null ? fold : node.scan.combine(offset, fold)).fork();
+                node = node.leftChild;
+            }
+            if (offset != null) {
+                node.scan.offset(offset, node.scanned);
+            }
+            tryComplete();
+        }
+    }
+}
@@ -73,7 +73,7 @@ public abstract class SizedCollectorTask<Input, Output, TypeSink extends Sink<Ou
             task.setPendingCount(1);
             long estimateSize = leftSpl.estimateSize();
             task.makeChild(leftSpl, task.offset, estimateSize).fork();
-            task = makeChild(rightSpl, task.offset + estimateSize, task.length - estimateSize);
+            task = task.makeChild(rightSpl, task.offset + estimateSize, task.length - estimateSize);
         }
         assert task.offset + task.length < Nodes.MAX_ARRAY_SIZE;
         @SuppressWarnings("unchecked")
@@ -86,7 +86,15 @@ public class SliceTask<Input, Output>
 
             return nodeBuilder.build();
         }
-        Node<Output> node = helper.wrapAndCopyInto(helper.makeNodeBuilder(-1, generator), spliterator).build();
+        NodeBuilder<Output> nodeBuilder = pipeline.makeNodeBuilder(-1, generator);
+        if (skip == 0) {
+            // limit only, a leaf of an infinite source has to stop on its own
+            Sink<Output> sink = pipeline.opWrapSink(helper.getStreamAndOpFlags(), nodeBuilder);
+            helper.copyIntoWithCancel(helper.wrapSink(sink), spliterator);
+        } else {
+            helper.wrapAndCopyInto(nodeBuilder, spliterator);
+        }
+        Node<Output> node = nodeBuilder.build();
         nodeSize = node.count();
         complete = true;
         spliterator = null;
@@ -112,7 +120,7 @@ public class SliceTask<Input, Output>
             setLocalResult(isRoot() ? doTruncate(result) : result);
             complete = true;
         }
-        if (targetSize >= 0 && isRoot() && isLeftCompleted(skip + targetSize)) {
+        if (limit >= 0 && !isRoot() && isLeftCompleted(skip + limit)) {
             cancelLaterNodes();
         }
         super.onCompletion(caller);
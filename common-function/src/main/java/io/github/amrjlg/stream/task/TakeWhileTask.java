@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.amrjlg.stream.task;
+
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.StreamOpFlag;
+import io.github.amrjlg.stream.node.Node;
+import io.github.amrjlg.stream.node.NodeBuilder;
+import io.github.amrjlg.stream.node.Nodes;
+import io.github.amrjlg.stream.pipeline.AbstractPipeline;
+import io.github.amrjlg.stream.pipeline.PipelineHelper;
+import io.github.amrjlg.stream.spliterator.Spliterator;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.function.IntFunction;
+
+/**
+ * takes from every leaf until the predicate fails, a leaf that stops cancels the leaves to its right
+ *
+ * @author amrjlg
+ **/
+public class TakeWhileTask<Input, Output>
+        extends AbstractDefaultResultTask<Input, Output, Node<Output>, TakeWhileTask<Input, Output>> {
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractPipeline<Output, Output, ?> pipeline;
+    private final IntFunction<Output[]> generator;
+    private final boolean ordered;
+
+    private long nodeSize;
+    private boolean shortCircuited;
+    private volatile boolean complete;
+
+    public TakeWhileTask(
+            AbstractPipeline<Output, Output, ?> pipeline,
+            PipelineHelper<Output> helper,
+            Spliterator<Input> spliterator,
+            IntFunction<Output[]> generator
+    ) {
+        super(helper, spliterator);
+        this.pipeline = pipeline;
+        this.generator = generator;
+        this.ordered = StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags());
+    }
+
+    public TakeWhileTask(TakeWhileTask<Input, Output> parent, Spliterator<Input> spliterator) {
+        super(parent, spliterator);
+        this.pipeline = parent.pipeline;
+        this.generator = parent.generator;
+        this.ordered = parent.ordered;
+    }
+
+    @Override
+    protected TakeWhileTask<Input, Output> makeChild(Spliterator<Input> spliterator) {
+        return new TakeWhileTask<>(this, spliterator);
+    }
+
+    @Override
+    protected Node<Output> getEmptyResult() {
+        return Nodes.empty(pipeline.getSourceShape());
+    }
+
+    @Override
+    protected Node<Output> doLeaf() {
+        NodeBuilder<Output> nodeBuilder = pipeline.makeNodeBuilder(-1, generator);
+        Sink<Output> sink = pipeline.opWrapSink(helper.getStreamAndOpFlags(), nodeBuilder);
+        helper.copyIntoWithCancel(helper.wrapSink(sink), spliterator);
+        // the predicate failed somewhere in this leaf, nothing to its right is taken
+        if (shortCircuited = sink.cancellationRequested()) {
+            cancelLaterNodes();
+        }
+        Node<Output> node = nodeBuilder.build();
+        nodeSize = node.count();
+        return node;
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+        if (!isLeaf()) {
+            Node<Output> result;
+            shortCircuited = leftChild.shortCircuited | rightChild.shortCircuited;
+            if (ordered && canceled) {
+                nodeSize = 0;
+                result = getEmptyResult();
+            } else if (ordered && leftChild.shortCircuited) {
+                nodeSize = leftChild.nodeSize;
+                result = leftChild.getLocalResult();
+            } else {
+                nodeSize = leftChild.nodeSize + rightChild.nodeSize;
+                result = merge();
+            }
+            setLocalResult(result);
+        }
+        complete = true;
+        super.onCompletion(caller);
+    }
+
+    private Node<Output> merge() {
+        if (leftChild.nodeSize == 0) {
+            return rightChild.getLocalResult();
+        } else if (rightChild.nodeSize == 0) {
+            return leftChild.getLocalResult();
+        }
+        return Nodes.concat(pipeline.getSourceShape(), leftChild.getLocalResult(), rightChild.getLocalResult());
+    }
+
+    @Override
+    protected void cancel() {
+        super.cancel();
+        if (ordered && complete) {
+            setLocalResult(getEmptyResult());
+        }
+    }
+}
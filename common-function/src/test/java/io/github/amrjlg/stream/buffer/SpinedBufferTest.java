@@ -0,0 +1,123 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.buffer;
+
+import io.github.amrjlg.stream.spliterator.Spliterator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+
+/**
+ * spliterators of spined buffers, split down to single chunks and traversed one element at a time,
+ * the sizes fill the first chunk exactly and spill into later ones
+ *
+ * @author amrjlg
+ **/
+class SpinedBufferTest {
+
+    private static final int[] SIZES = {0, 1, 15, 16, 17, 48, 100, 1025, 5000};
+
+    private static List<Integer> expected(int size) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static <T> void split(Spliterator<T> spliterator, List<Spliterator<T>> leaves) {
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            split(prefix, leaves);
+            split(spliterator, leaves);
+        } else {
+            leaves.add(spliterator);
+        }
+    }
+
+    private static <T> void check(int size, Supplier<Spliterator<T>> factory) {
+        List<T> advanced = new ArrayList<>();
+        Spliterator<T> whole = factory.get();
+        assertEquals(size, whole.estimateSize());
+        while (whole.tryAdvance(advanced::add)) {
+        }
+        assertIterableEquals(expected(size), advanced);
+
+        List<T> remaining = new ArrayList<>();
+        Spliterator<T> partial = factory.get();
+        partial.tryAdvance(remaining::add);
+        partial.forEachRemaining(remaining::add);
+        assertIterableEquals(expected(size), remaining);
+
+        List<Spliterator<T>> leaves = new ArrayList<>();
+        split(factory.get(), leaves);
+        List<T> joined = new ArrayList<>();
+        long estimated = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            Spliterator<T> leaf = leaves.get(i);
+            estimated += leaf.estimateSize();
+            if (i % 2 == 0) {
+                while (leaf.tryAdvance(joined::add)) {
+                }
+            } else {
+                leaf.forEachRemaining(joined::add);
+            }
+        }
+        assertEquals(size, estimated);
+        assertIterableEquals(expected(size), joined);
+
+        // split after the first element was taken, the prefix starts inside the first chunk
+        List<T> afterAdvance = new ArrayList<>();
+        Spliterator<T> advancedFirst = factory.get();
+        advancedFirst.tryAdvance(afterAdvance::add);
+        Spliterator<T> prefix = advancedFirst.trySplit();
+        if (prefix != null) {
+            prefix.forEachRemaining(afterAdvance::add);
+        }
+        while (advancedFirst.tryAdvance(afterAdvance::add)) {
+        }
+        assertIterableEquals(expected(size), afterAdvance);
+    }
+
+    @Test
+    void reference() {
+        for (int size : SIZES) {
+            SpinedBuffer<Integer> buffer = new SpinedBuffer<>();
+            for (int i = 0; i < size; i++) {
+                buffer.accept(i);
+            }
+            check(size, buffer::spliterator);
+        }
+    }
+
+    @Test
+    void primitive() {
+        for (int size : SIZES) {
+            SpinedBuffer.OfInt buffer = new SpinedBuffer.OfInt();
+            for (int i = 0; i < size; i++) {
+                buffer.accept(i);
+            }
+            check(size, buffer::spliterator);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * estimates within a few standard errors of {@code 1.04 / sqrt(2^precision)},
+ * from the linear counting range up to cardinalities far above the register count
+ *
+ * @author amrjlg
+ **/
+class HyperLogLogTest {
+
+    private static final int[] PRECISIONS = {HyperLogLog.MIN_PRECISION, 8, 12, 14, HyperLogLog.MAX_PRECISION};
+
+    private static final int[] CARDINALITIES = {1, 10, 100, 1_000, 30_000, 1_000_000};
+
+    private static HyperLogLog sketch(int precision, long from, long to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (long value = from; value < to; value++) {
+            sketch.add(HyperLogLog.hash(value));
+        }
+        return sketch;
+    }
+
+    @Test
+    void errorBounds() {
+        for (int precision : PRECISIONS) {
+            double standardError = 1.04 / Math.sqrt(1 << precision);
+            for (int cardinality : CARDINALITIES) {
+                long estimate = sketch(precision, 0, cardinality).estimate();
+                double error = Math.abs(estimate - cardinality) / (double) cardinality;
+                // four standard errors, a small count is off by at most one whole element
+                assertTrue(error <= 4 * standardError || Math.abs(estimate - cardinality) <= 1,
+                        "precision " + precision + " cardinality " + cardinality + " estimate " + estimate);
+            }
+        }
+    }
+
+    @Test
+    void linearCountingRange() {
+        // far below the register count the estimate comes from the empty registers and is nearly exact
+        for (int cardinality : new int[]{0, 1, 2, 50, 500}) {
+            long estimate = sketch(HyperLogLog.MAX_PRECISION, 0, cardinality).estimate();
+            assertTrue(Math.abs(estimate - cardinality) <= Math.max(1, cardinality / 100),
+                    "cardinality " + cardinality + " estimate " + estimate);
+        }
+    }
+
+    @Test
+    void duplicatesAndMerge() {
+        for (int precision : PRECISIONS) {
+            HyperLogLog whole = sketch(precision, 0, 200_000);
+            HyperLogLog repeated = sketch(precision, 0, 200_000);
+            repeated.merge(sketch(precision, 0, 200_000));
+            assertEquals(whole.estimate(), repeated.estimate());
+
+            // overlapping parts merge to the very registers of the whole
+            HyperLogLog merged = sketch(precision, 0, 120_000);
+            merged.merge(sketch(precision, 80_000, 200_000));
+            merged.merge(new HyperLogLog(precision));
+            assertEquals(whole.estimate(), merged.estimate());
+        }
+    }
+
+    @Test
+    void precisionBounds() {
+        assertEquals(HyperLogLog.MIN_PRECISION, HyperLogLog.checkPrecision(HyperLogLog.MIN_PRECISION));
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.checkPrecision(HyperLogLog.MAX_PRECISION));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.checkPrecision(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.checkPrecision(HyperLogLog.MAX_PRECISION + 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(0));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(11)));
+    }
+}
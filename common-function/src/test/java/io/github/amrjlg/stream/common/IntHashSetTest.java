@@ -0,0 +1,173 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the primitive hash sets compared with a {@link HashSet} across resizes and colliding keys
+ *
+ * @author amrjlg
+ **/
+class IntHashSetTest {
+
+    private static Set<Integer> set(int[] values) {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) {
+            assertTrue(set.add(value), "duplicate " + value);
+        }
+        return set;
+    }
+
+    private static Set<Long> set(long[] values) {
+        Set<Long> set = new HashSet<>();
+        for (long value : values) {
+            assertTrue(set.add(value), "duplicate " + value);
+        }
+        return set;
+    }
+
+    @Test
+    void resize() {
+        Random random = new Random(1);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // a narrow range so about half of the adds are duplicates
+            int key = random.nextInt(150_000) - 75_000;
+            assertEquals(expected.add(key), set.add(key));
+        }
+        for (int key : new int[]{0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1}) {
+            assertEquals(expected.add(key), set.add(key));
+            assertFalse(set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set(set.toArray()));
+        List<Integer> visited = new ArrayList<>();
+        set.forEach(visited::add);
+        assertEquals(expected.size(), visited.size());
+        assertEquals(expected, new HashSet<>(visited));
+        for (int key = -80_000; key < 80_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void collisions() {
+        // keys that all land on the same slot of the initial table, they probe past each other
+        List<Integer> colliding = new ArrayList<>();
+        for (int key = 1; colliding.size() < 64; key++) {
+            if ((IntHashSet.mix(key) & 15) == 3) {
+                colliding.add(key);
+            }
+        }
+        IntHashSet set = new IntHashSet();
+        for (int key : colliding) {
+            assertTrue(set.add(key));
+            assertTrue(set.contains(key));
+        }
+        for (int key : colliding) {
+            assertFalse(set.add(key));
+            assertTrue(set.contains(key));
+        }
+        assertEquals(colliding.size(), set.size());
+        assertEquals(new HashSet<>(colliding), set(set.toArray()));
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void longs() {
+        Random random = new Random(2);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            // the high bits differ, only they tell these keys apart
+            long key = ((long) random.nextInt(300) << 40) | random.nextInt(300);
+            assertEquals(expected.add(key), set.add(key));
+        }
+        for (long key : new long[]{0, Long.MIN_VALUE, Long.MAX_VALUE, -1}) {
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set(set.toArray()));
+        for (Long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+
+    @Test
+    void concurrent() throws InterruptedException {
+        ConcurrentIntHashSet ints = new ConcurrentIntHashSet();
+        ConcurrentLongHashSet longs = new ConcurrentLongHashSet();
+        AtomicInteger intAdds = new AtomicInteger();
+        AtomicInteger longAdds = new AtomicInteger();
+        int threads = 4;
+        int keys = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * keys / 2;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                // every thread overlaps half of its keys with the next one
+                for (int key = offset; key < offset + keys; key++) {
+                    if (ints.add(key - 1000)) {
+                        intAdds.incrementAndGet();
+                    }
+                    if (longs.add((long) key << 33)) {
+                        longAdds.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        int distinct = (threads + 1) * keys / 2;
+        assertEquals(distinct, intAdds.get());
+        assertEquals(distinct, longAdds.get());
+        Set<Integer> intSet = set(ints.toArray());
+        Set<Long> longSet = set(longs.toArray());
+        assertEquals(distinct, intSet.size());
+        assertEquals(distinct, longSet.size());
+        for (int key = 0; key < distinct; key++) {
+            assertTrue(intSet.contains(key - 1000));
+            assertTrue(longSet.contains((long) key << 33));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the rank of every answer measured in the exactly sorted input,
+ * the sketch promises an error of about {@code 1.7 / k}
+ *
+ * @author amrjlg
+ **/
+class QuantileSketchTest {
+
+    private static final double[] RANKS = {0, 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1};
+
+    /**
+     * how far {@code rank} is from the ranks {@code value} takes in {@code sorted}
+     */
+    static double rankError(double[] sorted, double value, double rank) {
+        int below = lowerBound(sorted, value);
+        int notAbove = lowerBound(sorted, Math.nextUp(value));
+        double low = (double) below / sorted.length;
+        double high = (double) notAbove / sorted.length;
+        return rank < low ? low - rank : rank > high ? rank - high : 0;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] gaussian(int size, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextGaussian() * 1000;
+        }
+        return values;
+    }
+
+    private static void assertRanks(double[] values, double[] quantiles, double tolerance) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[0], quantiles[0]);
+        assertEquals(sorted[sorted.length - 1], quantiles[RANKS.length - 1]);
+        for (int r = 0; r < RANKS.length; r++) {
+            double error = rankError(sorted, quantiles[r], RANKS[r]);
+            assertTrue(error <= tolerance, "rank " + RANKS[r] + " off by " + error);
+        }
+    }
+
+    @Test
+    void rankError() {
+        for (int k : new int[]{50, QuantileSketch.DEFAULT_K, 1000}) {
+            for (int size : new int[]{10, 1000, 1_000_000}) {
+                double[] values = gaussian(size, k + size);
+                QuantileSketch sketch = new QuantileSketch(k);
+                for (double value : values) {
+                    sketch.accept(value);
+                }
+                assertEquals(size, sketch.count());
+                assertRanks(values, sketch.quantiles(RANKS), 2 * 1.7 / k);
+            }
+        }
+    }
+
+    @Test
+    void mergedRankError() {
+        double[] values = gaussian(1_000_000, 7);
+        // skewed parts, like uneven leaves of a parallel pipeline
+        int[] cuts = {0, 10, 5_000, 300_000, 300_001, 1_000_000};
+        QuantileSketch merged = new QuantileSketch();
+        for (int c = 1; c < cuts.length; c++) {
+            QuantileSketch part = new QuantileSketch();
+            for (int i = cuts[c - 1]; i < cuts[c]; i++) {
+                part.accept(values[i]);
+            }
+            merged.merge(part);
+        }
+        merged.merge(new QuantileSketch());
+        assertEquals(values.length, merged.count());
+        assertRanks(values, merged.quantiles(RANKS), 2 * 1.7 / QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    void edges() {
+        QuantileSketch empty = new QuantileSketch();
+        double[] nothing = empty.quantiles(0, 0.5, 1);
+        assertTrue(Double.isNaN(nothing[0]) && Double.isNaN(nothing[1]) && Double.isNaN(nothing[2]));
+
+        QuantileSketch single = new QuantileSketch();
+        single.accept(42);
+        assertArrayEquals(new double[]{42, 42, 42}, single.quantiles(0, 0.5, 1));
+
+        // ordered like Double.compare, -0.0 before 0.0 and NaN last
+        QuantileSketch special = new QuantileSketch();
+        for (double value : new double[]{0.0, Double.NaN, -0.0, 1, -1}) {
+            special.accept(value);
+        }
+        double[] ends = special.quantiles(0, 1);
+        assertEquals(-1.0, ends[0]);
+        assertTrue(Double.isNaN(ends[1]));
+
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1));
+        assertThrows(IllegalArgumentException.class, () -> single.quantiles(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> single.quantiles(1.1));
+        assertThrows(IllegalArgumentException.class, () -> single.quantiles(Double.NaN));
+    }
+}
@@ -0,0 +1,299 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.common;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * radix sorts compared with {@link Arrays#sort} just below, at and above {@link RadixSort#RADIX_SORT_THRESHOLD},
+ * float and double compared bit for bit so -0.0 has to come before 0.0, NaNs compare as one value.
+ * the raw bits of NaNs with different payloads and signs have to survive the sort as well
+ *
+ * @author amrjlg
+ **/
+class RadixSortTest {
+
+    private static final int[] SIZES = {
+            RadixSort.RADIX_SORT_THRESHOLD - 1, RadixSort.RADIX_SORT_THRESHOLD, RadixSort.RADIX_SORT_THRESHOLD + 1
+    };
+
+    private static final double[] SPECIALS = {
+            Double.NaN, Double.longBitsToDouble(0xfff8000000000001L), -0.0, 0.0,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE
+    };
+
+    private static long[] bits(double[] values) {
+        long[] bits = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bits[i] = Double.doubleToLongBits(values[i]);
+        }
+        return bits;
+    }
+
+    private static int[] bits(float[] values) {
+        int[] bits = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bits[i] = Float.floatToIntBits(values[i]);
+        }
+        return bits;
+    }
+
+    @Test
+    void sortInt() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i % 11 == 0 ? Integer.MIN_VALUE + i % 3 : random.nextInt();
+            }
+            int[] expected = values.clone();
+            Arrays.sort(expected);
+
+            int[] sorted = values.clone();
+            RadixSort.sort(sorted, 0, size);
+            assertArrayEquals(expected, sorted);
+            sorted = values.clone();
+            RadixSort.parallelSort(sorted);
+            assertArrayEquals(expected, sorted);
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray());
+
+            // a range that does not start at 0 and leaves the rest alone
+            int[] ranged = new int[size + 2];
+            System.arraycopy(values, 0, ranged, 1, size);
+            ranged[0] = Integer.MAX_VALUE;
+            ranged[size + 1] = Integer.MIN_VALUE;
+            RadixSort.sort(ranged, 1, size + 1);
+            assertArrayEquals(expected, Arrays.copyOfRange(ranged, 1, size + 1));
+            assertArrayEquals(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE}, new int[]{ranged[0], ranged[size + 1]});
+        }
+    }
+
+    @Test
+    void sortLong() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i % 13 == 0 ? Long.MAX_VALUE - i % 2 : random.nextLong();
+            }
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+
+            long[] sorted = values.clone();
+            RadixSort.sort(sorted, 0, size);
+            assertArrayEquals(expected, sorted);
+            sorted = values.clone();
+            RadixSort.parallelSort(sorted);
+            assertArrayEquals(expected, sorted);
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray());
+
+            long[] ranged = new long[size + 1];
+            System.arraycopy(values, 0, ranged, 1, size);
+            RadixSort.sort(ranged, 1, size + 1);
+            assertArrayEquals(expected, Arrays.copyOfRange(ranged, 1, size + 1));
+        }
+    }
+
+    @Test
+    void sortDouble() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i % 5 == 0 ? SPECIALS[(i / 5) % SPECIALS.length] : random.nextGaussian() * 1e6;
+            }
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+
+            double[] sorted = values.clone();
+            RadixSort.sort(sorted, 0, size);
+            assertArrayEquals(bits(expected), bits(sorted));
+            sorted = values.clone();
+            RadixSort.parallelSort(sorted);
+            assertArrayEquals(bits(expected), bits(sorted));
+            assertArrayEquals(bits(expected), bits(Streams.stream(values).sorted().toArray()));
+            assertArrayEquals(bits(expected), bits(Streams.stream(values).parallel().sorted().toArray()));
+        }
+    }
+
+    @Test
+    void sortFloat() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i % 5 == 0 ? (float) SPECIALS[(i / 5) % SPECIALS.length] : (float) (random.nextGaussian() * 1e6);
+            }
+            float[] expected = values.clone();
+            Arrays.sort(expected);
+
+            float[] sorted = values.clone();
+            RadixSort.sort(sorted, 0, size);
+            assertArrayEquals(bits(expected), bits(sorted));
+            sorted = values.clone();
+            RadixSort.parallelSort(sorted);
+            assertArrayEquals(bits(expected), bits(sorted));
+            assertArrayEquals(bits(expected), bits(Streams.stream(values).sorted().toArray()));
+            assertArrayEquals(bits(expected), bits(Streams.stream(values).parallel().sorted().toArray()));
+        }
+    }
+
+    /**
+     * the raw bits of a sorted array, the NaNs at its end are sorted by their bits as their order is not specified
+     */
+    private static long[] rawBits(double[] values, int from, int to) {
+        long[] bits = new long[to - from];
+        int nans = to - from;
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = Double.doubleToRawLongBits(values[from + i]);
+            if (Double.isNaN(values[from + i]) && nans == bits.length) {
+                nans = i;
+            }
+        }
+        Arrays.sort(bits, nans, bits.length);
+        return bits;
+    }
+
+    private static int[] rawBits(float[] values, int from, int to) {
+        int[] bits = new int[to - from];
+        int nans = to - from;
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = Float.floatToRawIntBits(values[from + i]);
+            if (Float.isNaN(values[from + i]) && nans == bits.length) {
+                nans = i;
+            }
+        }
+        Arrays.sort(bits, nans, bits.length);
+        return bits;
+    }
+
+    @Test
+    void nanPayloads() {
+        long[] doubleNaNs = {0x7ff0000000000001L, 0x7ff8000000000000L, 0x7fffffffffffffffL,
+                0xfff0000000000001L, 0xfff8000000000000L, 0xffffffffffffffffL, 0x7ff00000deadbeefL};
+        int[] floatNaNs = {0x7f800001, 0x7fc00000, 0x7fffffff, 0xff800001, 0xffc00000, 0xffffffff, 0x7f80beef};
+        int size = RadixSort.RADIX_SORT_THRESHOLD + 3;
+        Random random = new Random(size);
+        double[] doubles = new double[size];
+        float[] floats = new float[size];
+        for (int i = 0; i < size; i++) {
+            boolean nan = i % 7 == 0;
+            doubles[i] = nan ? Double.longBitsToDouble(doubleNaNs[(i / 7) % doubleNaNs.length])
+                    : i % 7 == 1 ? SPECIALS[(i / 7) % SPECIALS.length] : random.nextGaussian();
+            floats[i] = nan ? Float.intBitsToFloat(floatNaNs[(i / 7) % floatNaNs.length]) : (float) random.nextGaussian();
+        }
+
+        double[] expectedDoubles = doubles.clone();
+        Arrays.sort(expectedDoubles);
+        double[] sortedDoubles = doubles.clone();
+        RadixSort.sort(sortedDoubles, 0, size);
+        assertArrayEquals(rawBits(expectedDoubles, 0, size), rawBits(sortedDoubles, 0, size));
+        sortedDoubles = doubles.clone();
+        RadixSort.parallelSort(sortedDoubles);
+        assertArrayEquals(rawBits(expectedDoubles, 0, size), rawBits(sortedDoubles, 0, size));
+        sortedDoubles = doubles.clone();
+        expectedDoubles = doubles.clone();
+        Arrays.sort(expectedDoubles, 2, size);
+        RadixSort.sort(sortedDoubles, 2, size);
+        assertArrayEquals(rawBits(expectedDoubles, 2, size), rawBits(sortedDoubles, 2, size));
+
+        float[] expectedFloats = floats.clone();
+        Arrays.sort(expectedFloats);
+        float[] sortedFloats = floats.clone();
+        RadixSort.sort(sortedFloats, 0, size);
+        assertArrayEquals(rawBits(expectedFloats, 0, size), rawBits(sortedFloats, 0, size));
+        sortedFloats = floats.clone();
+        RadixSort.parallelSort(sortedFloats);
+        assertArrayEquals(rawBits(expectedFloats, 0, size), rawBits(sortedFloats, 0, size));
+        sortedFloats = floats.clone();
+        expectedFloats = floats.clone();
+        Arrays.sort(expectedFloats, 2, size);
+        RadixSort.sort(sortedFloats, 2, size);
+        assertArrayEquals(rawBits(expectedFloats, 2, size), rawBits(sortedFloats, 2, size));
+    }
+
+    @Test
+    void orderIsStable() {
+        for (int size : new int[]{1000, RadixSort.RADIX_SORT_THRESHOLD + 1}) {
+            Random random = new Random(size);
+            int[] keys = new int[size];
+            long[] longKeys = new long[size];
+            double[] doubleKeys = new double[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = random.nextInt(100) - 50;
+                longKeys[i] = keys[i];
+                doubleKeys[i] = i % 17 == 0 ? SPECIALS[(i / 17) % SPECIALS.length] : keys[i];
+            }
+            Integer[] positions = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = i;
+            }
+            // a stable object sort is the reference order
+            Integer[] byInt = positions.clone();
+            Arrays.sort(byInt, (l, r) -> Integer.compare(keys[l], keys[r]));
+            Integer[] byDouble = positions.clone();
+            Arrays.sort(byDouble, (l, r) -> Double.compare(doubleKeys[l], doubleKeys[r]));
+            int[] expected = Arrays.stream(byInt).mapToInt(Integer::intValue).toArray();
+            int[] expectedDouble = Arrays.stream(byDouble).mapToInt(Integer::intValue).toArray();
+
+            assertArrayEquals(expected, RadixSort.order(keys, size));
+            assertArrayEquals(expected, RadixSort.parallelOrder(keys));
+            assertArrayEquals(expected, RadixSort.order(longKeys, size));
+            assertArrayEquals(expected, RadixSort.parallelOrder(longKeys));
+            assertArrayEquals(expectedDouble, RadixSort.order(doubleKeys, size));
+            assertArrayEquals(expectedDouble, RadixSort.parallelOrder(doubleKeys));
+        }
+    }
+
+    @Test
+    void countingSort() {
+        // around the size a parallel counting sort splits at, and well past it
+        for (int size : new int[]{0, 1, (1 << 13) - 1, 1 << 13, (1 << 16) + 7, 1 << 20}) {
+            Random random = new Random(size);
+            byte[] bytes = new byte[size];
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            for (int i = 0; i < size; i++) {
+                int value = random.nextInt();
+                bytes[i] = (byte) value;
+                shorts[i] = (short) value;
+                chars[i] = (char) value;
+            }
+            byte[] expectedBytes = bytes.clone();
+            short[] expectedShorts = shorts.clone();
+            char[] expectedChars = chars.clone();
+            Arrays.sort(expectedBytes);
+            Arrays.sort(expectedShorts);
+            Arrays.sort(expectedChars);
+            RadixSort.parallelSort(bytes);
+            RadixSort.parallelSort(shorts);
+            RadixSort.parallelSort(chars);
+            assertArrayEquals(expectedBytes, bytes);
+            assertArrayEquals(expectedShorts, shorts);
+            assertArrayEquals(expectedChars, chars);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.node;
+
+import io.github.amrjlg.stream.spliterator.Spliterator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * a nested concatenation flattens in encounter order, whether copied or traversed
+ *
+ * @author amrjlg
+ **/
+class ConcatNodeTest {
+
+    /**
+     * ((0 1 2, 3 4), (5, (6 7 8, 9)))
+     */
+    private static Node.OfInt ints() {
+        Node.OfInt left = new ConcatNode.OfInt(Nodes.node(new int[]{0, 1, 2}), Nodes.node(new int[]{3, 4}));
+        Node.OfInt right = new ConcatNode.OfInt(Nodes.node(new int[]{5}),
+                new ConcatNode.OfInt(Nodes.node(new int[]{6, 7, 8}), Nodes.node(new int[]{9})));
+        return new ConcatNode.OfInt(left, right);
+    }
+
+    private static Node<String> strings() {
+        Node<String> left = new ConcatNode<>(Nodes.node(new String[]{"0", "1", "2"}), Nodes.node(new String[]{"3", "4"}));
+        Node<String> right = new ConcatNode<>(Nodes.node(new String[]{"5"}),
+                new ConcatNode<>(Nodes.node(new String[]{"6", "7", "8"}), Nodes.node(new String[]{"9"})));
+        return new ConcatNode<>(left, right);
+    }
+
+    @Test
+    void copyInto() {
+        int[] expected = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        assertArrayEquals(expected, ints().asPrimitiveArray());
+
+        int[] shifted = new int[12];
+        ints().copyInto(shifted, 2);
+        assertArrayEquals(new int[]{0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, shifted);
+
+        assertArrayEquals(new String[]{"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"}, strings().asArray(String[]::new));
+        String[] boxed = new String[11];
+        strings().copyInto(boxed, 1);
+        assertArrayEquals(new String[]{null, "0", "1", "2", "3", "4", "5", "6", "7", "8", "9"}, boxed);
+    }
+
+    @Test
+    void traverse() {
+        List<Integer> forEach = new ArrayList<>();
+        ints().spliterator().forEachRemaining((int value) -> forEach.add(value));
+        List<Integer> advanced = new ArrayList<>();
+        Spliterator.OfInt spliterator = ints().spliterator();
+        while (spliterator.tryAdvance((int value) -> advanced.add(value))) {
+        }
+        List<String> strings = new ArrayList<>();
+        Spliterator<String> refs = strings().spliterator();
+        while (refs.tryAdvance(strings::add)) {
+        }
+
+        assertEquals(10, forEach.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, (int) forEach.get(i));
+            assertEquals(i, (int) advanced.get(i));
+            assertEquals(Integer.toString(i), strings.get(i));
+        }
+    }
+
+    @Test
+    void traverseSplits() {
+        Spliterator.OfInt suffix = ints().spliterator();
+        Spliterator.OfInt prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        List<Integer> values = new ArrayList<>();
+        prefix.forEachRemaining((int value) -> values.add(value));
+        // the first element of the suffix is taken on its own, the nested rest as a whole
+        suffix.tryAdvance((int value) -> values.add(value));
+        // a partly traversed spliterator does not split any more
+        assertNull(suffix.trySplit());
+        suffix.forEachRemaining((int value) -> values.add(value));
+        assertEquals(10, values.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+    }
+
+    @Test
+    void truncate() {
+        int[] all = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int from = 0; from <= 10; from++) {
+            for (int to = from; to <= 10; to++) {
+                int[] expected = Arrays.copyOfRange(all, from, to);
+                assertArrayEquals(expected, ints().truncate(from, to, Integer[]::new).asPrimitiveArray(), from + ".." + to);
+                String[] strings = new String[to - from];
+                for (int i = 0; i < strings.length; i++) {
+                    strings[i] = Integer.toString(from + i);
+                }
+                assertArrayEquals(strings, strings().truncate(from, to, String[]::new).asArray(String[]::new), from + ".." + to);
+            }
+        }
+        // the halves are kept, not copied element by element
+        assertEquals(ConcatNode.OfInt.class, ints().truncate(1, 9, Integer[]::new).getClass());
+    }
+}
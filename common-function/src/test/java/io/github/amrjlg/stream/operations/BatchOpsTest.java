@@ -0,0 +1,155 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * batches compared with chopping an array, over sized and unsized sources, sequential and parallel.
+ * the sizes are not multiples of the batch sizes, so leaves of a parallel pipeline end inside a batch
+ *
+ * @author amrjlg
+ **/
+class BatchOpsTest {
+
+    private static final int[] SIZES = {0, 1, 7, 1000, 1001, 4097, 100_003};
+
+    private static final int[] BATCH_SIZES = {1, 3, 7, 1024, 200_000};
+
+    private static int[][] chop(int size, int batchSize) {
+        int[][] batches = new int[(size + batchSize - 1) / batchSize][];
+        for (int i = 0; i < batches.length; i++) {
+            int from = i * batchSize;
+            batches[i] = new int[Math.min(batchSize, size - from)];
+            for (int j = 0; j < batches[i].length; j++) {
+                batches[i][j] = from + j;
+            }
+        }
+        return batches;
+    }
+
+    private static IntStream source(int size, boolean sized, boolean parallel) {
+        IntStream source = IntStream.range(0, size);
+        if (!sized) {
+            source = source.filter(x -> true);
+        }
+        return parallel ? source.parallel() : source;
+    }
+
+    @Test
+    void ints() {
+        for (int size : SIZES) {
+            for (int batchSize : BATCH_SIZES) {
+                int[][] expected = chop(size, batchSize);
+                for (boolean sized : new boolean[]{true, false}) {
+                    for (boolean parallel : new boolean[]{false, true}) {
+                        String message = size + " by " + batchSize + (sized ? " sized" : " unsized") + (parallel ? " parallel" : "");
+                        assertArrayEquals(expected, source(size, sized, parallel).batch(batchSize).toArray(int[][]::new), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void otherShapes() {
+        int size = 10_007;
+        int batchSize = 100;
+        int[][] ints = chop(size, batchSize);
+        for (boolean parallel : new boolean[]{false, true}) {
+            long[][] longs = source(size, true, parallel).mapToLong(x -> x).batch(batchSize).toArray(long[][]::new);
+            double[][] doubles = source(size, false, parallel).mapToDouble(x -> x).batch(batchSize).toArray(double[][]::new);
+            float[][] floats = source(size, true, parallel).mapToFloat(x -> x).batch(batchSize).toArray(float[][]::new);
+            byte[][] bytes = source(size, false, parallel).mapToByte(x -> (byte) x).batch(batchSize).toArray(byte[][]::new);
+            short[][] shorts = source(size, true, parallel).mapToShort(x -> (short) x).batch(batchSize).toArray(short[][]::new);
+            char[][] chars = source(size, false, parallel).mapToChar(x -> (char) x).batch(batchSize).toArray(char[][]::new);
+            assertEquals(ints.length, longs.length);
+            assertEquals(ints.length, doubles.length);
+            assertEquals(ints.length, floats.length);
+            assertEquals(ints.length, bytes.length);
+            assertEquals(ints.length, shorts.length);
+            assertEquals(ints.length, chars.length);
+            for (int i = 0; i < ints.length; i++) {
+                assertEquals(ints[i].length, longs[i].length);
+                assertEquals(ints[i].length, doubles[i].length);
+                assertEquals(ints[i].length, floats[i].length);
+                assertEquals(ints[i].length, bytes[i].length);
+                assertEquals(ints[i].length, shorts[i].length);
+                assertEquals(ints[i].length, chars[i].length);
+                for (int j = 0; j < ints[i].length; j++) {
+                    int value = ints[i][j];
+                    assertEquals(value, longs[i][j]);
+                    assertEquals(value, doubles[i][j]);
+                    assertEquals(value, floats[i][j]);
+                    assertEquals((byte) value, bytes[i][j]);
+                    assertEquals((short) value, shorts[i][j]);
+                    assertEquals((char) value, chars[i][j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void references() {
+        for (int size : new int[]{0, 5, 1001, 100_003}) {
+            for (int batchSize : new int[]{1, 10, 1024, 200_000}) {
+                List<List<Integer>> expected = new ArrayList<>();
+                for (int[] batch : chop(size, batchSize)) {
+                    List<Integer> list = new ArrayList<>();
+                    for (int value : batch) {
+                        list.add(value);
+                    }
+                    expected.add(list);
+                }
+                for (boolean sized : new boolean[]{true, false}) {
+                    for (boolean parallel : new boolean[]{false, true}) {
+                        String message = size + " by " + batchSize;
+                        assertEquals(expected, Arrays.asList(source(size, sized, parallel).boxed().batch(batchSize).toArray(List[]::new)), message);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * batches are built lazily, a limit stops the source after the batches it needs
+     */
+    @Test
+    void limited() {
+        int[][] expected = Arrays.copyOf(chop(1000, 7), 5);
+        assertArrayEquals(expected, IntStream.iterate(0, x -> x + 1).batch(7).limit(5).toArray(int[][]::new));
+        assertArrayEquals(expected, IntStream.iterate(0, x -> x + 1).parallel().batch(7).limit(5).toArray(int[][]::new));
+        assertArrayEquals(expected, IntStream.range(0, 1_000_000).parallel().batch(7).limit(5).toArray(int[][]::new));
+    }
+
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> IntStream.range(0, 3).batch(0));
+        assertThrows(IllegalArgumentException.class, () -> IntStream.range(0, 3).boxed().batch(-1));
+    }
+}
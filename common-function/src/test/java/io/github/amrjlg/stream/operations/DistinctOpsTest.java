@@ -0,0 +1,206 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * distinct of every shape compared with java.util.stream, whose boxed equals
+ * keeps one NaN and tells -0.0 apart from 0.0,
+ * unordered results are compared once sorted
+ *
+ * @author amrjlg
+ **/
+class DistinctOpsTest {
+
+    private static final int SIZE = 50_000;
+
+    private static int[] values(int bound) {
+        Random random = new Random(bound);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(bound) - bound / 2;
+        }
+        return values;
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    void distinctInt() {
+        for (int bound : new int[]{10, 1000, Integer.MAX_VALUE}) {
+            int[] values = values(bound);
+            int[] expected = Arrays.stream(values).distinct().toArray();
+            assertArrayEquals(expected, Streams.stream(values).distinct().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().distinct().toArray());
+            assertArrayEquals(sorted(expected), sorted(Streams.stream(values).unordered().distinct().toArray()));
+            assertArrayEquals(sorted(expected), sorted(Streams.stream(values).parallel().unordered().distinct().toArray()));
+            // a sorted upstream only compares with the previous element
+            assertArrayEquals(sorted(expected), Streams.stream(values).sorted().distinct().toArray());
+            assertArrayEquals(sorted(expected), Streams.stream(values).parallel().sorted().distinct().toArray());
+        }
+    }
+
+    @Test
+    void distinctLong() {
+        for (int bound : new int[]{10, 1000, Integer.MAX_VALUE}) {
+            int[] ints = values(bound);
+            long[] values = new long[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                values[i] = (long) ints[i] << 20;
+            }
+            long[] expected = Arrays.stream(values).distinct().toArray();
+            long[] sortedExpected = Arrays.stream(expected).sorted().toArray();
+            assertArrayEquals(expected, Streams.stream(values).distinct().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().distinct().toArray());
+            assertArrayEquals(sortedExpected, Streams.stream(values).parallel().unordered().distinct().sorted().toArray());
+            assertArrayEquals(sortedExpected, Streams.stream(values).sorted().distinct().toArray());
+        }
+    }
+
+    @Test
+    void distinctSmallShapes() {
+        int[] values = values(100_000);
+        byte[] bytes = new byte[SIZE];
+        short[] shorts = new short[SIZE];
+        char[] chars = new char[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) values[i];
+            shorts[i] = (short) values[i];
+            chars[i] = (char) values[i];
+        }
+        int[] expectedBytes = Arrays.stream(values).map(v -> (byte) v).distinct().toArray();
+        int[] expectedShorts = Arrays.stream(values).map(v -> (short) v).distinct().toArray();
+        int[] expectedChars = Arrays.stream(values).map(v -> (char) v).distinct().toArray();
+        for (boolean parallel : new boolean[]{false, true}) {
+            byte[] byteResult = (parallel ? Streams.stream(bytes).parallel() : Streams.stream(bytes)).distinct().toArray();
+            short[] shortResult = (parallel ? Streams.stream(shorts).parallel() : Streams.stream(shorts)).distinct().toArray();
+            char[] charResult = (parallel ? Streams.stream(chars).parallel() : Streams.stream(chars)).distinct().toArray();
+            assertArrayEquals(expectedBytes, widen(byteResult));
+            assertArrayEquals(expectedShorts, widen(shortResult));
+            assertArrayEquals(expectedChars, widen(charResult));
+
+            byte[] byteUnordered = (parallel ? Streams.stream(bytes).parallel() : Streams.stream(bytes)).unordered().distinct().toArray();
+            short[] shortUnordered = (parallel ? Streams.stream(shorts).parallel() : Streams.stream(shorts)).unordered().distinct().toArray();
+            char[] charUnordered = (parallel ? Streams.stream(chars).parallel() : Streams.stream(chars)).unordered().distinct().toArray();
+            assertArrayEquals(sorted(expectedBytes), sorted(widen(byteUnordered)));
+            assertArrayEquals(sorted(expectedShorts), sorted(widen(shortUnordered)));
+            assertArrayEquals(sorted(expectedChars), sorted(widen(charUnordered)));
+        }
+    }
+
+    private static int[] widen(byte[] values) {
+        int[] widened = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            widened[i] = values[i];
+        }
+        return widened;
+    }
+
+    private static int[] widen(short[] values) {
+        int[] widened = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            widened[i] = values[i];
+        }
+        return widened;
+    }
+
+    private static int[] widen(char[] values) {
+        int[] widened = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            widened[i] = values[i];
+        }
+        return widened;
+    }
+
+    private static double[] specials(int[] ints) {
+        double[] values = new double[SIZE];
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.longBitsToDouble(0x7ff8000000000001L)};
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i % 7 == 0 ? specials[(i / 7) % specials.length] : ints[i] / 4d;
+        }
+        return values;
+    }
+
+    @Test
+    void distinctDouble() {
+        double[] values = specials(values(1000));
+        double[] expected = Arrays.stream(values).distinct().toArray();
+        double[] sortedExpected = expected.clone();
+        Arrays.sort(sortedExpected);
+        assertArrayEquals(expected, Streams.stream(values).distinct().toArray());
+        assertArrayEquals(expected, Streams.stream(values).parallel().distinct().toArray());
+        double[] unordered = Streams.stream(values).parallel().unordered().distinct().toArray();
+        Arrays.sort(unordered);
+        assertArrayEquals(sortedExpected, unordered);
+        assertArrayEquals(sortedExpected, Streams.stream(values).sorted().distinct().toArray());
+        assertArrayEquals(sortedExpected, Streams.stream(values).parallel().sorted().distinct().toArray());
+    }
+
+    @Test
+    void distinctFloat() {
+        double[] doubles = specials(values(1000));
+        float[] values = new float[SIZE];
+        Float[] boxed = new Float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = (float) doubles[i];
+            boxed[i] = values[i];
+        }
+        Object[] distinct = Arrays.stream(boxed).distinct().toArray();
+        float[] expected = new float[distinct.length];
+        for (int i = 0; i < distinct.length; i++) {
+            expected[i] = (Float) distinct[i];
+        }
+        float[] sortedExpected = expected.clone();
+        Arrays.sort(sortedExpected);
+        assertArrayEquals(expected, Streams.stream(values).distinct().toArray());
+        assertArrayEquals(expected, Streams.stream(values).parallel().distinct().toArray());
+        float[] unordered = Streams.stream(values).parallel().unordered().distinct().toArray();
+        Arrays.sort(unordered);
+        assertArrayEquals(sortedExpected, unordered);
+        assertArrayEquals(sortedExpected, Streams.stream(values).sorted().distinct().toArray());
+    }
+
+    @Test
+    void distinctReference() {
+        int[] values = values(1000);
+        String[] strings = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            strings[i] = Integer.toString(values[i]);
+        }
+        Object[] expected = Arrays.stream(strings).distinct().toArray();
+        assertArrayEquals(expected, Streams.stream(strings).distinct().toArray());
+        assertArrayEquals(expected, Streams.stream(strings).parallel().distinct().toArray());
+        Object[] unordered = Streams.stream(strings).parallel().unordered().distinct().toArray();
+        Arrays.sort(unordered);
+        Object[] sortedExpected = expected.clone();
+        Arrays.sort(sortedExpected);
+        assertArrayEquals(sortedExpected, unordered);
+    }
+}
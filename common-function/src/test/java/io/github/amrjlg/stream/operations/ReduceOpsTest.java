@@ -0,0 +1,101 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * counting a sized pipeline reads the size instead of traversing, which a peek counter shows,
+ * while pipelines that change the size are still counted element by element
+ *
+ * @author amrjlg
+ **/
+class ReduceOpsTest {
+
+    private static final int SIZE = 10_000;
+
+    @Test
+    void sizedIsNotTraversed() {
+        AtomicInteger peeked = new AtomicInteger();
+        for (boolean parallel : new boolean[]{false, true}) {
+            String message = parallel ? "parallel" : "sequential";
+            IntStream ints = IntStream.range(0, SIZE);
+            assertEquals(SIZE, (parallel ? ints.parallel() : ints).peek(x -> peeked.incrementAndGet()).count(), message);
+            LongStream longs = LongStream.range(0, SIZE);
+            assertEquals(SIZE, (parallel ? longs.parallel() : longs).peek(x -> peeked.incrementAndGet()).count(), message);
+            DoubleStream doubles = Streams.stream(new double[SIZE]);
+            assertEquals(SIZE, (parallel ? doubles.parallel() : doubles).peek(x -> peeked.incrementAndGet()).count(), message);
+            FloatStream floats = Streams.stream(new float[SIZE]);
+            assertEquals(SIZE, (parallel ? floats.parallel() : floats).peek(x -> peeked.incrementAndGet()).count(), message);
+            ByteStream bytes = Streams.stream(new byte[SIZE]);
+            assertEquals(SIZE, (parallel ? bytes.parallel() : bytes).peek(x -> peeked.incrementAndGet()).count(), message);
+            ShortStream shorts = Streams.stream(new short[SIZE]);
+            assertEquals(SIZE, (parallel ? shorts.parallel() : shorts).peek(x -> peeked.incrementAndGet()).count(), message);
+            CharStream chars = Streams.stream(new char[SIZE]);
+            assertEquals(SIZE, (parallel ? chars.parallel() : chars).peek(x -> peeked.incrementAndGet()).count(), message);
+            Stream<Integer> refs = Streams.stream(Arrays.asList(new Integer[SIZE]));
+            assertEquals(SIZE, (parallel ? refs.parallel() : refs).peek(x -> peeked.incrementAndGet()).count(), message);
+            // sorting keeps the size
+            Stream<String> sorted = Streams.stream(new String[]{"b", "a", "c"});
+            assertEquals(3, (parallel ? sorted.parallel() : sorted).sorted().peek(x -> peeked.incrementAndGet()).count(), message);
+        }
+        assertEquals(0, peeked.get());
+    }
+
+    @Test
+    void sizeChangingIsCounted() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            String message = parallel ? "parallel" : "sequential";
+            AtomicInteger peeked = new AtomicInteger();
+            IntStream filtered = IntStream.range(0, SIZE);
+            assertEquals(SIZE / 3 + 1, (parallel ? filtered.parallel() : filtered)
+                    .peek(x -> peeked.incrementAndGet()).filter(x -> x % 3 == 0).count(), message);
+            assertEquals(SIZE, peeked.get(), message);
+
+            IntStream flattened = IntStream.range(0, 100);
+            assertEquals(99 * 100 / 2, (parallel ? flattened.parallel() : flattened)
+                    .flatMap(x -> IntStream.range(0, x)).count(), message);
+            Stream<String> refs = Streams.stream(new String[]{"a", "bb", "", "ccc"});
+            assertEquals(6, (parallel ? refs.parallel() : refs)
+                    .flatMap(s -> Streams.stream(s.split(""))).filter(s -> !s.isEmpty()).count(), message);
+            LongStream longs = LongStream.range(0, SIZE);
+            assertEquals(SIZE / 2, (parallel ? longs.parallel() : longs).filter(x -> (x & 1) == 0).count(), message);
+            DoubleStream doubles = Streams.stream(new double[]{1, Double.NaN, 2, Double.NaN});
+            assertEquals(2, (parallel ? doubles.parallel() : doubles).filter(Double::isNaN).count(), message);
+
+            // an unsized source is traversed
+            Stream<Integer> iterated = Streams.stream(Arrays.asList(1, 2, 3, 4, 5).iterator());
+            assertEquals(5, (parallel ? iterated.parallel() : iterated).count(), message);
+            assertEquals(0, IntStream.range(0, SIZE).filter(x -> x < 0).count(), message);
+        }
+    }
+}
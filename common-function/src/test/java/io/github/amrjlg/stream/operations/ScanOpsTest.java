@@ -0,0 +1,185 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * scans compared with a sequential loop, parallel pipelines of known size take the leaf scan,
+ * the others the lazy one pass scan
+ *
+ * @author amrjlg
+ **/
+class ScanOpsTest {
+
+    private static final int[] SIZES = {0, 1, 2, 7, 1000, 100_003};
+
+    private static int[] values(int size) {
+        Random random = new Random(size);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(200) - 100;
+        }
+        return values;
+    }
+
+    @Test
+    void scanByte() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            byte[] array = new byte[size];
+            byte[] expected = new byte[size];
+            byte accumulated = 0;
+            for (int i = 0; i < size; i++) {
+                array[i] = (byte) values[i];
+                expected[i] = accumulated = (byte) (accumulated + array[i]);
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan((byte) 0, (x, y) -> (byte) (x + y)).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan((byte) 0, (x, y) -> (byte) (x + y)).toArray());
+        }
+    }
+
+    @Test
+    void scanShort() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            short[] array = new short[size];
+            short[] expected = new short[size];
+            short accumulated = Short.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                array[i] = (short) values[i];
+                expected[i] = accumulated = (short) Math.max(accumulated, array[i]);
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan(Short.MIN_VALUE, (x, y) -> (short) Math.max(x, y)).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(Short.MIN_VALUE, (x, y) -> (short) Math.max(x, y)).toArray());
+        }
+    }
+
+    @Test
+    void scanChar() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            char[] array = new char[size];
+            char[] expected = new char[size];
+            char accumulated = Character.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                array[i] = (char) ('a' + values[i] + 100);
+                expected[i] = accumulated = (char) Math.min(accumulated, array[i]);
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan(Character.MAX_VALUE, (x, y) -> (char) Math.min(x, y)).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(Character.MAX_VALUE, (x, y) -> (char) Math.min(x, y)).toArray());
+        }
+    }
+
+    @Test
+    void scanInt() {
+        for (int size : SIZES) {
+            int[] array = values(size);
+            int[] expected = new int[size];
+            int accumulated = 0;
+            for (int i = 0; i < size; i++) {
+                expected[i] = accumulated += array[i];
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan(0, Integer::sum).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(0, Integer::sum).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().map(x -> x).scan(0, Integer::sum).toArray());
+            assertEquals(accumulated, Streams.stream(array).parallel().scan(0, Integer::sum).reduce(0, (x, y) -> y));
+        }
+    }
+
+    @Test
+    void scanIntUnsized() {
+        for (int size : SIZES) {
+            int[] array = values(size);
+            int[] expected = new int[size];
+            int count = 0;
+            int accumulated = 0;
+            for (int value : array) {
+                if (value % 3 != 0) {
+                    expected[count++] = accumulated += value;
+                }
+            }
+            int[] filtered = new int[count];
+            System.arraycopy(expected, 0, filtered, 0, count);
+            assertArrayEquals(filtered, Streams.stream(array).parallel().filter(x -> x % 3 != 0).scan(0, Integer::sum).toArray());
+            assertArrayEquals(filtered, Streams.stream(array).parallel().filter(x -> x % 3 != 0).scan(0, Integer::sum).map(x -> x).toArray());
+        }
+    }
+
+    @Test
+    void scanInfinite() {
+        assertArrayEquals(new int[]{1, 3, 6, 10, 15},
+                IntStream.iterate(1, x -> x + 1).parallel().scan(0, Integer::sum).limit(5).toArray());
+    }
+
+    @Test
+    void scanLong() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            long[] array = new long[size];
+            long[] expected = new long[size];
+            long accumulated = 1;
+            for (int i = 0; i < size; i++) {
+                array[i] = values[i] | 1;
+                expected[i] = accumulated *= array[i];
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan(1L, (x, y) -> x * y).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(1L, (x, y) -> x * y).toArray());
+        }
+    }
+
+    @Test
+    void scanFloat() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            float[] array = new float[size];
+            float[] expected = new float[size];
+            float accumulated = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                array[i] = values[i] / 4f;
+                expected[i] = accumulated = Math.max(accumulated, array[i]);
+            }
+            assertArrayEquals(expected, Streams.stream(array).scan(Float.NEGATIVE_INFINITY, Math::max).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(Float.NEGATIVE_INFINITY, Math::max).toArray());
+        }
+    }
+
+    @Test
+    void scanDouble() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            double[] array = new double[size];
+            double[] expected = new double[size];
+            double accumulated = 0;
+            for (int i = 0; i < size; i++) {
+                array[i] = values[i];
+                expected[i] = accumulated += array[i];
+            }
+            // integral values keep the sum exact whatever the association
+            assertArrayEquals(expected, Streams.stream(array).scan(0d, Double::sum).toArray());
+            assertArrayEquals(expected, Streams.stream(array).parallel().scan(0d, Double::sum).toArray());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * quantiles measured against the exactly sorted input, sequential and parallel,
+ * histograms counted exactly including values on a boundary and NaN,
+ * distinct count estimates equal between sequential and parallel
+ *
+ * @author amrjlg
+ **/
+class SketchOpsTest {
+
+    private static final int SIZE = 300_000;
+
+    private static final double[] RANKS = {0, 0.01, 0.1, 0.5, 0.9, 0.99, 1};
+
+    /**
+     * twice the {@code 1.7 / k} the default sketch promises
+     */
+    private static final double TOLERANCE = 2 * 1.7 / 200;
+
+    private static int[] values() {
+        Random random = new Random(SIZE);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = (int) (random.nextGaussian() * 10_000);
+        }
+        return values;
+    }
+
+    private static void assertRanks(double[] sorted, double[] quantiles) {
+        assertEquals(sorted[0], quantiles[0]);
+        assertEquals(sorted[sorted.length - 1], quantiles[RANKS.length - 1]);
+        for (int r = 0; r < RANKS.length; r++) {
+            int below = 0, notAbove = 0;
+            for (double value : sorted) {
+                if (value < quantiles[r]) {
+                    below++;
+                }
+                if (value <= quantiles[r]) {
+                    notAbove++;
+                }
+            }
+            double low = (double) below / sorted.length, high = (double) notAbove / sorted.length;
+            double error = RANKS[r] < low ? low - RANKS[r] : RANKS[r] > high ? RANKS[r] - high : 0;
+            assertTrue(error <= TOLERANCE, "rank " + RANKS[r] + " off by " + error);
+        }
+    }
+
+    @Test
+    void quantiles() {
+        int[] values = values();
+        long[] longs = new long[SIZE];
+        float[] floats = new float[SIZE];
+        double[] doubles = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longs[i] = values[i] * 1000L;
+            floats[i] = values[i] / 4f;
+            doubles[i] = values[i] / 8d;
+        }
+        double[] sorted = Arrays.stream(values).asDoubleStream().sorted().toArray();
+        double[] sortedLongs = Arrays.stream(longs).asDoubleStream().sorted().toArray();
+        double[] sortedFloats = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            sortedFloats[i] = floats[i];
+        }
+        Arrays.sort(sortedFloats);
+        double[] sortedDoubles = doubles.clone();
+        Arrays.sort(sortedDoubles);
+
+        assertRanks(sorted, Streams.stream(values).quantiles(RANKS));
+        assertRanks(sorted, Streams.stream(values).parallel().quantiles(RANKS));
+        assertRanks(sortedLongs, Streams.stream(longs).quantiles(RANKS));
+        assertRanks(sortedLongs, Streams.stream(longs).parallel().quantiles(RANKS));
+        assertRanks(sortedFloats, Streams.stream(floats).quantiles(RANKS));
+        assertRanks(sortedFloats, Streams.stream(floats).parallel().quantiles(RANKS));
+        assertRanks(sortedDoubles, Streams.stream(doubles).quantiles(RANKS));
+        assertRanks(sortedDoubles, Streams.stream(doubles).parallel().quantiles(RANKS));
+    }
+
+    @Test
+    void quantileEdges() {
+        double[] empty = Streams.stream(new int[0]).parallel().quantiles(0, 0.5, 1);
+        assertTrue(Double.isNaN(empty[0]) && Double.isNaN(empty[1]) && Double.isNaN(empty[2]));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(new int[]{1}).quantiles(2));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(new double[]{1}).quantiles(Double.NaN));
+
+        // beyond 2^53 longs are ranked as the nearest double, as LongStream.quantiles documents
+        long big = (1L << 53) + 1;
+        double[] ends = Streams.stream(new long[]{big, big - 1}).quantiles(0, 1);
+        assertEquals((double) (1L << 53), ends[0]);
+        assertEquals((double) big, ends[1]);
+        assertEquals((double) Long.MAX_VALUE, Streams.stream(new long[]{Long.MAX_VALUE, 0}).quantiles(1)[0]);
+    }
+
+    @Test
+    void histogram() {
+        int[] values = values();
+        int[] boundaries = {-10_000, -1, 0, 1, 5_000, 20_000};
+        long[] expected = new long[boundaries.length + 1];
+        for (int value : values) {
+            int bucket = 0;
+            while (bucket < boundaries.length && boundaries[bucket] <= value) {
+                bucket++;
+            }
+            expected[bucket]++;
+        }
+        assertArrayEquals(expected, Streams.stream(values).histogram(boundaries));
+        assertArrayEquals(expected, Streams.stream(values).parallel().histogram(boundaries));
+
+        long[] longs = Arrays.stream(values).asLongStream().toArray();
+        long[] longBoundaries = Arrays.stream(boundaries).asLongStream().toArray();
+        assertArrayEquals(expected, Streams.stream(longs).parallel().histogram(longBoundaries));
+
+        // a value on a boundary belongs to the bucket above it, both ends are open
+        assertArrayEquals(new long[]{1, 2, 1, 2},
+                Streams.stream(new int[]{Integer.MIN_VALUE, 0, 5, 10, 11, Integer.MAX_VALUE}).histogram(0, 10, 11));
+        assertArrayEquals(new long[]{3}, Streams.stream(new int[]{1, 2, 3}).histogram());
+        assertArrayEquals(new long[]{1, 1}, Streams.stream(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}).histogram(Long.MAX_VALUE));
+    }
+
+    @Test
+    void histogramSpecials() {
+        double[] values = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 1, Double.NaN};
+        // Double.compare order, -0.0 is below a 0.0 boundary and NaN lands in the last bucket
+        assertArrayEquals(new long[]{2, 1, 4}, Streams.stream(values).histogram(0.0, 1.0));
+        assertArrayEquals(new long[]{2, 1, 4}, Streams.stream(values).parallel().histogram(0.0, 1.0));
+        assertArrayEquals(new long[]{1, 1, 5}, Streams.stream(values).histogram(-0.0, 0.0));
+
+        float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        assertArrayEquals(new long[]{2, 1, 4}, Streams.stream(floats).histogram(0f, 1f));
+
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(values).histogram(1.0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(values).histogram(0.0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(new int[]{1}).histogram(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(new long[]{1}).histogram(2, 2));
+    }
+
+    @Test
+    void approxDistinctCount() {
+        int[] values = values();
+        long exact = Arrays.stream(values).distinct().count();
+        long[] longs = Arrays.stream(values).asLongStream().map(v -> v << 32).toArray();
+        double[] doubles = Arrays.stream(values).asDoubleStream().map(v -> v / 2).toArray();
+        String[] strings = Arrays.stream(values).mapToObj(Integer::toString).toArray(String[]::new);
+        for (int precision : new int[]{4, 12, 18}) {
+            long estimate = Streams.stream(values).approxDistinctCount(precision);
+            double error = Math.abs(estimate - exact) / (double) exact;
+            assertTrue(error <= 4 * 1.04 / Math.sqrt(1 << precision), "precision " + precision + " estimate " + estimate);
+            // registers merge by their maximum, so the leaves add up to the very same sketch
+            assertEquals(estimate, Streams.stream(values).parallel().approxDistinctCount(precision));
+            assertEquals(Streams.stream(longs).approxDistinctCount(precision), Streams.stream(longs).parallel().approxDistinctCount(precision));
+            assertEquals(Streams.stream(doubles).approxDistinctCount(precision), Streams.stream(doubles).parallel().approxDistinctCount(precision));
+            assertEquals(Streams.stream(strings).approxDistinctCount(precision), Streams.stream(strings).parallel().approxDistinctCount(precision));
+        }
+        // like boxed equals, one NaN and -0.0 apart from 0.0
+        assertEquals(3, Streams.stream(new double[]{Double.NaN, Double.longBitsToDouble(0x7ff8000000000001L), -0.0, 0.0})
+                .approxDistinctCount(18));
+        assertEquals(0, Streams.stream(new int[0]).parallel().approxDistinctCount(10));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(values).approxDistinctCount(3));
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(strings).approxDistinctCount(19));
+    }
+}
@@ -0,0 +1,158 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * limit and skip of parallel pipelines over the infinite iterate and generate sources,
+ * the sizes cross the first spine chunks of the buffers the leaves collect into.
+ * skip before limit is left out, like the jdk streams it buffers the whole infinite source
+ *
+ * @author amrjlg
+ **/
+class SliceOpsTest {
+
+    private static final int[] SIZES = {0, 1, 15, 16, 17, 100, 1024, 1025, 5000, 20_000};
+
+    private static int[] ints(int from, int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = from + i;
+        }
+        return values;
+    }
+
+    @Test
+    void iterateInt() {
+        for (int n : SIZES) {
+            assertArrayEquals(ints(0, n), IntStream.iterate(0, x -> x + 1).limit(n).toArray(), "sequential " + n);
+            assertArrayEquals(ints(0, n), IntStream.iterate(0, x -> x + 1).parallel().limit(n).toArray(), "limit " + n);
+            assertArrayEquals(ints(n / 3, n - n / 3), IntStream.iterate(0, x -> x + 1).parallel().limit(n).skip(n / 3).toArray(), "limit skip " + n);
+            assertEquals((long) n * (n - 1) / 2, IntStream.iterate(0, x -> x + 1).parallel().limit(n).mapToLong(x -> x).sum(), "sum " + n);
+        }
+    }
+
+    @Test
+    void iterateLong() {
+        for (int n : SIZES) {
+            long[] expected = new long[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = 3L * i;
+            }
+            assertArrayEquals(expected, LongStream.iterate(0, x -> x + 3).parallel().limit(n).toArray(), "limit " + n);
+            assertEquals(n - n / 2, LongStream.iterate(0, x -> x + 3).parallel().limit(n).skip(n / 2).count(), "limit skip " + n);
+        }
+    }
+
+    @Test
+    void iterateDouble() {
+        for (int n : SIZES) {
+            double[] expected = new double[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = i;
+            }
+            assertArrayEquals(expected, DoubleStream.iterate(0, x -> x + 1).parallel().limit(n).toArray(), "limit " + n);
+            assertEquals((double) ((long) n * (n - 1) / 2), DoubleStream.iterate(0, x -> x + 1).parallel().limit(n).sum(), "sum " + n);
+        }
+    }
+
+    @Test
+    void iterateFloat() {
+        for (int n : SIZES) {
+            float[] expected = new float[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = i;
+            }
+            assertArrayEquals(expected, FloatStream.iterate(0, x -> x + 1).parallel().limit(n).toArray(), "limit " + n);
+        }
+    }
+
+    @Test
+    void iterateByteShortChar() {
+        for (int n : SIZES) {
+            byte[] bytes = new byte[n];
+            short[] shorts = new short[n];
+            char[] chars = new char[n];
+            for (int i = 0; i < n; i++) {
+                bytes[i] = (byte) i;
+                shorts[i] = (short) i;
+                chars[i] = (char) i;
+            }
+            assertArrayEquals(bytes, ByteStream.iterate((byte) 0, x -> (byte) (x + 1)).parallel().limit(n).toArray(), "byte " + n);
+            assertArrayEquals(shorts, ShortStream.iterate((short) 0, x -> (short) (x + 1)).parallel().limit(n).toArray(), "short " + n);
+            assertArrayEquals(chars, CharStream.iterate((char) 0, x -> (char) (x + 1)).parallel().limit(n).toArray(), "char " + n);
+            assertEquals(n - n / 3, ByteStream.iterate((byte) 0, x -> (byte) (x + 1)).parallel().limit(n).skip(n / 3).count(), "byte skip " + n);
+            assertEquals(n - n / 3, ShortStream.iterate((short) 0, x -> (short) (x + 1)).parallel().limit(n).skip(n / 3).count(), "short skip " + n);
+            assertEquals(n - n / 3, CharStream.iterate((char) 0, x -> (char) (x + 1)).parallel().limit(n).skip(n / 3).count(), "char skip " + n);
+        }
+    }
+
+    @Test
+    void iterateReference() {
+        for (int n : SIZES) {
+            Integer[] expected = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = i;
+            }
+            assertArrayEquals(expected, Stream.iterate(0, x -> x + 1).parallel().limit(n).toArray(Integer[]::new), "limit " + n);
+            assertEquals(n, Stream.iterate(0, x -> x + 1).parallel().limit(n).count(), "count " + n);
+            assertEquals(n - n / 3, Stream.iterate(0, x -> x + 1).parallel().limit(n).skip(n / 3).count(), "limit skip " + n);
+        }
+    }
+
+    /**
+     * generate is unordered, a parallel limit takes any n supplied values but each at most once
+     */
+    @Test
+    void generate() {
+        for (int n : SIZES) {
+            AtomicInteger counter = new AtomicInteger();
+            int[] values = IntStream.generate(counter::getAndIncrement).parallel().limit(n).toArray();
+            assertEquals(n, values.length, "int " + n);
+            Set<Integer> seen = new HashSet<>();
+            for (int value : values) {
+                assertTrue(seen.add(value), "duplicate " + value);
+            }
+            assertEquals(n, LongStream.generate(() -> 1L).parallel().limit(n).sum(), "long " + n);
+            assertEquals(n, DoubleStream.generate(() -> 1.0).parallel().limit(n).sum(), "double " + n);
+            assertEquals(n, FloatStream.generate(() -> 1f).parallel().limit(n).toArray().length, "float " + n);
+            assertEquals(n, ByteStream.generate(() -> (byte) 1).parallel().limit(n).toArray().length, "byte " + n);
+            assertEquals(n, ShortStream.generate(() -> (short) 1).parallel().limit(n).toArray().length, "short " + n);
+            assertEquals(n, CharStream.generate(() -> 'a').parallel().limit(n).toArray().length, "char " + n);
+            assertEquals(n, Stream.generate(() -> "a").parallel().limit(n).count(), "reference " + n);
+            assertEquals(n - n / 3, Stream.generate(() -> "a").parallel().limit(n).skip(n / 3).toArray().length, "reference skip " + n);
+        }
+    }
+}
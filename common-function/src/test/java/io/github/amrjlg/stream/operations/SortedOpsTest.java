@@ -0,0 +1,205 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import io.github.amrjlg.stream.common.RadixSort;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * sorted() of every shape against Arrays.sort, sequential and parallel, over sized sources
+ * and over the same sources made unsized by a filter, the sizes cross the radix and chunk thresholds
+ *
+ * @author amrjlg
+ **/
+class SortedOpsTest {
+
+    private static final int[] SIZES = {0, 1, 2, 1000, (1 << 13) + 3, (1 << 14) + 1, RadixSort.RADIX_SORT_THRESHOLD + 5};
+
+    @Test
+    void ints() {
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            int[] values = random.ints(size).toArray();
+            int[] expected = values.clone();
+            Arrays.sort(expected);
+            String message = "size " + size;
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(x -> true).sorted().toArray(), message);
+        }
+    }
+
+    @Test
+    void longs() {
+        Random random = new Random(2);
+        for (int size : SIZES) {
+            long[] values = random.longs(size).toArray();
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+            String message = "size " + size;
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(x -> true).sorted().toArray(), message);
+        }
+    }
+
+    @Test
+    void doubles() {
+        Random random = new Random(3);
+        for (int size : SIZES) {
+            double[] values = random.doubles(size).map(x -> x - 0.5).toArray();
+            if (size > 4) {
+                values[0] = Double.NaN;
+                values[1] = -0.0;
+                values[2] = 0.0;
+                values[3] = Double.NEGATIVE_INFINITY;
+            }
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+            String message = "size " + size;
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(x -> true).sorted().toArray(), message);
+        }
+    }
+
+    @Test
+    void floats() {
+        Random random = new Random(4);
+        for (int size : SIZES) {
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextFloat() - 0.5f;
+            }
+            if (size > 4) {
+                values[0] = Float.NaN;
+                values[1] = -0.0f;
+                values[2] = 0.0f;
+                values[3] = Float.POSITIVE_INFINITY;
+            }
+            float[] expected = values.clone();
+            Arrays.sort(expected);
+            String message = "size " + size;
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray(), message);
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(x -> true).sorted().toArray(), message);
+        }
+    }
+
+    @Test
+    void bytesShortsChars() {
+        Random random = new Random(5);
+        for (int size : SIZES) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            for (int i = 0; i < size; i++) {
+                shorts[i] = (short) random.nextInt();
+                chars[i] = (char) random.nextInt();
+            }
+            byte[] sortedBytes = bytes.clone();
+            Arrays.sort(sortedBytes);
+            short[] sortedShorts = shorts.clone();
+            Arrays.sort(sortedShorts);
+            char[] sortedChars = chars.clone();
+            Arrays.sort(sortedChars);
+            String message = "size " + size;
+            assertArrayEquals(sortedBytes, Streams.stream(bytes).sorted().toArray(), message);
+            assertArrayEquals(sortedBytes, Streams.stream(bytes).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(sortedBytes, Streams.stream(bytes).parallel().sorted().toArray(), message);
+            assertArrayEquals(sortedBytes, Streams.stream(bytes).parallel().filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(sortedShorts, Streams.stream(shorts).sorted().toArray(), message);
+            assertArrayEquals(sortedShorts, Streams.stream(shorts).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(sortedShorts, Streams.stream(shorts).parallel().sorted().toArray(), message);
+            assertArrayEquals(sortedShorts, Streams.stream(shorts).parallel().filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(sortedChars, Streams.stream(chars).sorted().toArray(), message);
+            assertArrayEquals(sortedChars, Streams.stream(chars).filter(x -> true).sorted().toArray(), message);
+            assertArrayEquals(sortedChars, Streams.stream(chars).parallel().sorted().toArray(), message);
+            assertArrayEquals(sortedChars, Streams.stream(chars).parallel().filter(x -> true).sorted().toArray(), message);
+        }
+    }
+
+    /**
+     * a comparator sort keeps equal elements in encounter order, in parallel too
+     */
+    @Test
+    void references() {
+        Random random = new Random(6);
+        for (int size : SIZES) {
+            if (size > 20_000) {
+                continue;
+            }
+            Integer[] values = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(size + 1) * 1000 + i;
+            }
+            Comparator<Integer> byThousands = Comparator.comparingInt(x -> x / 1000);
+            Integer[] natural = values.clone();
+            Arrays.sort(natural);
+            Integer[] stable = values.clone();
+            Arrays.sort(stable, byThousands);
+            String message = "size " + size;
+            assertArrayEquals(natural, Streams.stream(values).sorted().toArray(Integer[]::new), message);
+            assertArrayEquals(natural, Streams.stream(values).parallel().filter(x -> true).sorted().toArray(Integer[]::new), message);
+            assertArrayEquals(stable, Streams.stream(values).parallel().sorted(byThousands).toArray(Integer[]::new), message);
+            assertArrayEquals(stable, Streams.stream(values).parallel().filter(x -> true).sorted(byThousands).toArray(Integer[]::new), message);
+        }
+    }
+
+    /**
+     * every leaf of a sized parallel toArray writes its own slice, the root completes only after all of them did.
+     * the pool has more workers than there are cores, so leaves are interleaved even on one core
+     */
+    @Test
+    void sizedCollector() {
+        int size = 100_000;
+        int[] expected = new int[size];
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = i + 1;
+            boxed[i] = i + 1;
+        }
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            for (int round = 0; round < 100; round++) {
+                String message = "round " + round;
+                assertArrayEquals(expected, IntStream.rangeClosed(1, size).parallel(pool).map(x -> x).toArray(), message);
+                assertArrayEquals(boxed, IntStream.rangeClosed(1, size).parallel(pool).boxed().toArray(Integer[]::new), message);
+                assertArrayEquals(expected, Streams.stream(expected).parallel(pool).map(x -> x).sorted().toArray(), message);
+                assertArrayEquals(boxed, Stream.iterate(1, x -> x + 1).limit(size).parallel(pool).sorted().toArray(Integer[]::new), message);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
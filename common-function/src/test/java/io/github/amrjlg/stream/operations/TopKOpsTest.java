@@ -0,0 +1,192 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.Streams;
+import io.github.amrjlg.stream.common.BoundedHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * topK compared with a stable sort followed by a limit, for k of 0, inside the stream and past its end,
+ * parallel pipelines merge the heaps of their leaves
+ *
+ * @author amrjlg
+ **/
+class TopKOpsTest {
+
+    private static final int SIZE = 20_000;
+
+    private static final int[] KS = {0, 1, 7, 100, SIZE, SIZE + 13};
+
+    private static int[] values() {
+        Random random = new Random(SIZE);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // a narrow range, so the kept values are full of duplicates
+            values[i] = random.nextInt(500) - 250;
+        }
+        return values;
+    }
+
+    private static final class Keyed {
+        private final int key;
+        private final int index;
+
+        Keyed(int key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            return key + "#" + index;
+        }
+    }
+
+    @Test
+    void topKInt() {
+        int[] values = values();
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int k : KS) {
+            int[] expected = Arrays.copyOf(sorted, Math.min(k, SIZE));
+            assertArrayEquals(expected, Streams.stream(values).topK(k).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().topK(k).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(v -> true).topK(k).toArray());
+        }
+        assertEquals(0, Streams.stream(new int[0]).topK(3).count());
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(values).topK(-1));
+    }
+
+    @Test
+    void topKNarrowShapes() {
+        int[] values = values();
+        byte[] bytes = new byte[SIZE];
+        short[] shorts = new short[SIZE];
+        char[] chars = new char[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) values[i];
+            shorts[i] = (short) (values[i] * 100);
+            chars[i] = (char) (values[i] + 250);
+        }
+        byte[] sortedBytes = bytes.clone();
+        short[] sortedShorts = shorts.clone();
+        char[] sortedChars = chars.clone();
+        Arrays.sort(sortedBytes);
+        Arrays.sort(sortedShorts);
+        Arrays.sort(sortedChars);
+        for (int k : KS) {
+            int n = Math.min(k, SIZE);
+            assertArrayEquals(Arrays.copyOf(sortedBytes, n), Streams.stream(bytes).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedBytes, n), Streams.stream(bytes).parallel().topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedShorts, n), Streams.stream(shorts).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedShorts, n), Streams.stream(shorts).parallel().topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedChars, n), Streams.stream(chars).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedChars, n), Streams.stream(chars).parallel().topK(k).toArray());
+        }
+    }
+
+    @Test
+    void topKWideShapes() {
+        int[] values = values();
+        long[] longs = new long[SIZE];
+        float[] floats = new float[SIZE];
+        double[] doubles = new double[SIZE];
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        for (int i = 0; i < SIZE; i++) {
+            longs[i] = (long) values[i] << 35;
+            doubles[i] = i % 9 == 0 ? specials[(i / 9) % specials.length] : values[i] / 3d;
+            floats[i] = (float) doubles[i];
+        }
+        long[] sortedLongs = longs.clone();
+        float[] sortedFloats = floats.clone();
+        double[] sortedDoubles = doubles.clone();
+        Arrays.sort(sortedLongs);
+        Arrays.sort(sortedFloats);
+        Arrays.sort(sortedDoubles);
+        for (int k : KS) {
+            int n = Math.min(k, SIZE);
+            assertArrayEquals(Arrays.copyOf(sortedLongs, n), Streams.stream(longs).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedLongs, n), Streams.stream(longs).parallel().topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedFloats, n), Streams.stream(floats).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedFloats, n), Streams.stream(floats).parallel().topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedDoubles, n), Streams.stream(doubles).topK(k).toArray());
+            assertArrayEquals(Arrays.copyOf(sortedDoubles, n), Streams.stream(doubles).parallel().topK(k).toArray());
+        }
+    }
+
+    @Test
+    void topKReferenceIsStable() {
+        int[] values = values();
+        List<Keyed> keyed = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            keyed.add(new Keyed(values[i], i));
+        }
+        Comparator<Keyed> byKey = Comparator.comparingInt(value -> value.key);
+        List<Keyed> sorted = new ArrayList<>(keyed);
+        // List.sort is stable, so equal keys stay in encounter order
+        sorted.sort(byKey);
+        for (int k : KS) {
+            Object[] expected = sorted.subList(0, Math.min(k, SIZE)).toArray();
+            assertArrayEquals(expected, Streams.stream(keyed).topK(k, byKey).toArray());
+            assertArrayEquals(expected, Streams.stream(keyed).parallel().topK(k, byKey).toArray());
+            assertArrayEquals(expected, Streams.stream(keyed).parallel().filter(v -> true).topK(k, byKey).toArray());
+        }
+        assertThrows(IllegalArgumentException.class, () -> Streams.stream(keyed).topK(-1, byKey));
+    }
+
+    @Test
+    void combineLeaves() {
+        int[] values = values();
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        Keyed[] keyed = new Keyed[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keyed[i] = new Keyed(values[i], i);
+        }
+        Keyed[] stable = keyed.clone();
+        Comparator<Keyed> byKey = Comparator.comparingInt(value -> value.key);
+        Arrays.sort(stable, byKey);
+        for (int k : KS) {
+            for (int split : new int[]{0, 1, SIZE / 3, SIZE - 1, SIZE}) {
+                BoundedHeap.OfInt left = new BoundedHeap.OfInt(k);
+                BoundedHeap.OfInt right = new BoundedHeap.OfInt(k);
+                BoundedHeap.OfRef<Keyed> refLeft = new BoundedHeap.OfRef<>(k, byKey);
+                BoundedHeap.OfRef<Keyed> refRight = new BoundedHeap.OfRef<>(k, byKey);
+                for (int i = 0; i < SIZE; i++) {
+                    (i < split ? left : right).accept(values[i]);
+                    (i < split ? refLeft : refRight).accept(keyed[i]);
+                }
+                int n = Math.min(k, SIZE);
+                assertArrayEquals(Arrays.copyOf(sorted, n), left.combine(right).toArray());
+                // the right hand leaf follows the left hand one, its ties come after
+                assertArrayEquals(Arrays.copyOf(stable, n), refLeft.combine(refRight).toArray(Keyed[]::new));
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * takeWhile and dropWhile compared with a sequential loop,
+ * the predicate fails in the first, a middle and the last leaf of a parallel pipeline
+ * and holds again after it failed, so a leaf to the right of the failure must not contribute
+ *
+ * @author amrjlg
+ **/
+class WhileOpsTest {
+
+    private static final int SIZE = 100_000;
+    /**
+     * indices the predicate fails at, -1 for never
+     */
+    private static final int[] FAILS = {0, 3, SIZE / 2, SIZE - 3, SIZE - 1, -1};
+
+    private static int[] range() {
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    private static int[] take(int[] values, IntPredicate predicate) {
+        int i = 0;
+        while (i < values.length && predicate.test(values[i])) {
+            i++;
+        }
+        return Arrays.copyOf(values, i);
+    }
+
+    private static int[] drop(int[] values, IntPredicate predicate) {
+        int i = 0;
+        while (i < values.length && predicate.test(values[i])) {
+            i++;
+        }
+        return Arrays.copyOfRange(values, i, values.length);
+    }
+
+    private static Set<Integer> set(int[] values) {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) {
+            assertTrue(set.add(value), "duplicate " + value);
+        }
+        return set;
+    }
+
+    @Test
+    void takeWhileOrdered() {
+        int[] values = range();
+        for (int fail : FAILS) {
+            IntPredicate predicate = v -> v != fail;
+            int[] expected = take(values, predicate);
+            assertArrayEquals(expected, Streams.stream(values).takeWhile(predicate).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().takeWhile(predicate).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().map(v -> v).takeWhile(predicate).toArray());
+            assertEquals(expected.length, Streams.stream(values).parallel().takeWhile(predicate).count());
+        }
+    }
+
+    @Test
+    void dropWhileOrdered() {
+        int[] values = range();
+        for (int fail : FAILS) {
+            IntPredicate predicate = v -> v != fail;
+            int[] expected = drop(values, predicate);
+            assertArrayEquals(expected, Streams.stream(values).dropWhile(predicate).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().dropWhile(predicate).toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().map(v -> v).dropWhile(predicate).toArray());
+            assertEquals(expected.length, Streams.stream(values).parallel().dropWhile(predicate).count());
+        }
+    }
+
+    @Test
+    void takeWhileUnordered() {
+        int[] values = range();
+        for (int fail : FAILS) {
+            IntPredicate predicate = v -> v != fail;
+            Set<Integer> prefix = set(take(values, predicate));
+            Set<Integer> taken = set(Streams.stream(values).parallel().unordered().takeWhile(predicate).toArray());
+            // any elements the predicate holds for, but nothing the sequential prefix would not hold
+            for (int value : taken) {
+                assertTrue(predicate.test(value));
+            }
+            if (fail < 0) {
+                assertEquals(prefix, taken);
+            }
+        }
+    }
+
+    @Test
+    void dropWhileUnordered() {
+        int[] values = range();
+        for (int fail : FAILS) {
+            IntPredicate predicate = v -> v != fail;
+            Set<Integer> rest = set(drop(values, predicate));
+            Set<Integer> dropped = set(Streams.stream(values).parallel().unordered().dropWhile(predicate).toArray());
+            // the failing element and everything after it that fails too are kept, in any order
+            for (int value : rest) {
+                if (!predicate.test(value)) {
+                    assertTrue(dropped.contains(value));
+                }
+            }
+            if (fail < 0) {
+                assertTrue(dropped.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void references() {
+        Integer[] values = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i;
+        }
+        for (int fail : FAILS) {
+            int cut = fail < 0 ? SIZE : fail;
+            Object[] taken = Arrays.copyOf(values, cut, Object[].class);
+            Object[] dropped = Arrays.copyOfRange(values, cut, SIZE, Object[].class);
+            assertArrayEquals(taken, Streams.stream(values).takeWhile(v -> v != fail).toArray());
+            assertArrayEquals(taken, Streams.stream(values).parallel().takeWhile(v -> v != fail).toArray());
+            assertArrayEquals(dropped, Streams.stream(values).dropWhile(v -> v != fail).toArray());
+            assertArrayEquals(dropped, Streams.stream(values).parallel().dropWhile(v -> v != fail).toArray());
+        }
+    }
+
+    @Test
+    void infiniteSource() {
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+        }
+        assertArrayEquals(expected, IntStream.iterate(0, v -> v + 1).takeWhile(v -> v < 1000).toArray());
+        assertArrayEquals(expected, IntStream.iterate(0, v -> v + 1).parallel().takeWhile(v -> v < 1000).toArray());
+        Object[] boxed = Stream.iterate(0, v -> v + 1).parallel().takeWhile(v -> v < 1000).toArray();
+        assertEquals(1000, boxed.length);
+        assertEquals(999, boxed[999]);
+    }
+
+    @Test
+    void otherShapes() {
+        int[] values = range();
+        long[] longs = new long[SIZE];
+        double[] doubles = new double[SIZE];
+        byte[] bytes = new byte[SIZE];
+        char[] chars = new char[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longs[i] = values[i];
+            doubles[i] = values[i];
+            bytes[i] = (byte) (values[i] >> 10);
+            chars[i] = (char) values[i];
+        }
+        int fail = SIZE / 3;
+        assertArrayEquals(Arrays.copyOf(longs, fail), Streams.stream(longs).parallel().takeWhile(v -> v != fail).toArray());
+        assertArrayEquals(Arrays.copyOfRange(longs, fail, SIZE), Streams.stream(longs).parallel().dropWhile(v -> v != fail).toArray());
+        assertArrayEquals(Arrays.copyOf(doubles, fail), Streams.stream(doubles).parallel().takeWhile(v -> v != fail).toArray());
+        assertArrayEquals(Arrays.copyOfRange(doubles, fail, SIZE), Streams.stream(doubles).parallel().dropWhile(v -> v != fail).toArray());
+        assertArrayEquals(Arrays.copyOf(chars, fail), Streams.stream(chars).parallel().takeWhile(v -> v != fail).toArray());
+        assertArrayEquals(Arrays.copyOfRange(chars, fail, SIZE), Streams.stream(chars).parallel().dropWhile(v -> v != fail).toArray());
+        // bytes repeat in runs of 1024, the run of 40 starts the drop
+        int run = 40 << 10;
+        assertArrayEquals(Arrays.copyOf(bytes, run), Streams.stream(bytes).parallel().takeWhile(v -> v != 40).toArray());
+        assertArrayEquals(Arrays.copyOfRange(bytes, run, SIZE), Streams.stream(bytes).parallel().dropWhile(v -> v != 40).toArray());
+    }
+}
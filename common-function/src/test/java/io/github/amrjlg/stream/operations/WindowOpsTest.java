@@ -0,0 +1,218 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.operations;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * windows and sliding aggregates compared with nested loops over sized and unsized sources,
+ * sequential and parallel. windows of a parallel pipeline straddle the boundaries of its leaves,
+ * windows larger than the stream give nothing
+ *
+ * @author amrjlg
+ **/
+class WindowOpsTest {
+
+    private static final int[] SIZES = {0, 1, 5, 1000, 100_003};
+
+    private static final int[] WINDOWS = {1, 2, 7, 64};
+
+    private static final int[] STEPS = {1, 3, 70};
+
+    private static final int[] AGGREGATE_WINDOWS = {1, 2, 7, 1000, 200_000};
+
+    /**
+     * small values, so every shape holds them exactly
+     */
+    private static int[] values(int size) {
+        Random random = new Random(size);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(120);
+        }
+        return values;
+    }
+
+    private static int[][] windows(int[] values, int size, int step) {
+        int count = values.length < size ? 0 : (values.length - size) / step + 1;
+        int[][] windows = new int[count][];
+        for (int i = 0; i < count; i++) {
+            windows[i] = Arrays.copyOfRange(values, i * step, i * step + size);
+        }
+        return windows;
+    }
+
+    private static long[] sums(int[] values, int size) {
+        long[] sums = new long[Math.max(0, values.length - size + 1)];
+        for (int i = 0; i < sums.length; i++) {
+            for (int j = i; j < i + size; j++) {
+                sums[i] += values[j];
+            }
+        }
+        return sums;
+    }
+
+    private static int[] extremes(int[] values, int size, boolean min) {
+        int[] extremes = new int[Math.max(0, values.length - size + 1)];
+        for (int i = 0; i < extremes.length; i++) {
+            int extreme = values[i];
+            for (int j = i + 1; j < i + size; j++) {
+                extreme = min ? Math.min(extreme, values[j]) : Math.max(extreme, values[j]);
+            }
+            extremes[i] = extreme;
+        }
+        return extremes;
+    }
+
+    private static IntStream source(int[] values, boolean sized, boolean parallel) {
+        IntStream source = Streams.stream(values);
+        if (!sized) {
+            source = source.filter(x -> true);
+        }
+        return parallel ? source.parallel() : source;
+    }
+
+    @Test
+    void windowed() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            for (int window : WINDOWS) {
+                for (int step : STEPS) {
+                    int[][] expected = windows(values, window, step);
+                    for (boolean sized : new boolean[]{true, false}) {
+                        for (boolean parallel : new boolean[]{false, true}) {
+                            String message = size + " window " + window + " step " + step + (sized ? " sized" : " unsized") + (parallel ? " parallel" : "");
+                            assertArrayEquals(expected, source(values, sized, parallel).windowed(window, step).toArray(int[][]::new), message);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sliding() {
+        for (int size : SIZES) {
+            int[] values = values(size);
+            for (int window : AGGREGATE_WINDOWS) {
+                long[] sums = sums(values, window);
+                int[] mins = extremes(values, window, true);
+                int[] maxs = extremes(values, window, false);
+                for (boolean sized : new boolean[]{true, false}) {
+                    for (boolean parallel : new boolean[]{false, true}) {
+                        String message = size + " window " + window + (sized ? " sized" : " unsized") + (parallel ? " parallel" : "");
+                        assertArrayEquals(sums, source(values, sized, parallel).slidingSum(window).toArray(), message);
+                        assertArrayEquals(mins, source(values, sized, parallel).slidingMin(window).toArray(), message);
+                        assertArrayEquals(maxs, source(values, sized, parallel).slidingMax(window).toArray(), message);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * every other shape against the int results, converted element by element
+     */
+    @Test
+    void otherShapes() {
+        int[] values = values(10_007);
+        int window = 13;
+        int step = 5;
+        String[] windows = Arrays.stream(windows(values, window, step)).map(Arrays::toString).toArray(String[]::new);
+        long[] sums = sums(values, window);
+        int[] mins = extremes(values, window, true);
+        int[] maxs = extremes(values, window, false);
+        for (boolean sized : new boolean[]{true, false}) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                assertArrayEquals(windows, source(values, sized, parallel).mapToLong(x -> x).windowed(window, step)
+                        .map(Arrays::toString).toArray(String[]::new));
+                assertArrayEquals(windows, source(values, sized, parallel).mapToByte(x -> (byte) x).windowed(window, step)
+                        .map(Arrays::toString).toArray(String[]::new));
+                assertArrayEquals(windows, source(values, sized, parallel).mapToShort(x -> (short) x).windowed(window, step)
+                        .map(Arrays::toString).toArray(String[]::new));
+                assertArrayEquals(windows, source(values, sized, parallel).mapToChar(x -> (char) x).windowed(window, step)
+                        .map(chars -> toInts(chars)).map(Arrays::toString).toArray(String[]::new));
+                assertArrayEquals(windows, source(values, sized, parallel).mapToFloat(x -> x).windowed(window, step)
+                        .map(floats -> toInts(floats)).map(Arrays::toString).toArray(String[]::new));
+                assertArrayEquals(windows, source(values, sized, parallel).mapToDouble(x -> x).windowed(window, step)
+                        .map(doubles -> toInts(doubles)).map(Arrays::toString).toArray(String[]::new));
+
+                assertArrayEquals(sums, source(values, sized, parallel).mapToLong(x -> x).slidingSum(window).toArray());
+                assertArrayEquals(sums, source(values, sized, parallel).mapToByte(x -> (byte) x).slidingSum(window).toArray());
+                assertArrayEquals(sums, source(values, sized, parallel).mapToShort(x -> (short) x).slidingSum(window).toArray());
+                assertArrayEquals(sums, source(values, sized, parallel).mapToChar(x -> (char) x).slidingSum(window).toArray());
+                assertArrayEquals(sums, source(values, sized, parallel).mapToFloat(x -> x).slidingSum(window).mapToLong(x -> (long) x).toArray());
+                assertArrayEquals(sums, source(values, sized, parallel).mapToDouble(x -> x).slidingSum(window).mapToLong(x -> (long) x).toArray());
+
+                assertArrayEquals(mins, source(values, sized, parallel).mapToLong(x -> x).slidingMin(window).mapToInt(x -> (int) x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToLong(x -> x).slidingMax(window).mapToInt(x -> (int) x).toArray());
+                assertArrayEquals(mins, source(values, sized, parallel).mapToByte(x -> (byte) x).slidingMin(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToByte(x -> (byte) x).slidingMax(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(mins, source(values, sized, parallel).mapToShort(x -> (short) x).slidingMin(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToShort(x -> (short) x).slidingMax(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(mins, source(values, sized, parallel).mapToChar(x -> (char) x).slidingMin(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToChar(x -> (char) x).slidingMax(window).mapToInt(x -> x).toArray());
+                assertArrayEquals(mins, source(values, sized, parallel).mapToFloat(x -> x).slidingMin(window).mapToInt(x -> (int) x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToFloat(x -> x).slidingMax(window).mapToInt(x -> (int) x).toArray());
+                assertArrayEquals(mins, source(values, sized, parallel).mapToDouble(x -> x).slidingMin(window).mapToInt(x -> (int) x).toArray());
+                assertArrayEquals(maxs, source(values, sized, parallel).mapToDouble(x -> x).slidingMax(window).mapToInt(x -> (int) x).toArray());
+            }
+        }
+    }
+
+    @Test
+    void invalidWindows() {
+        assertThrows(IllegalArgumentException.class, () -> IntStream.range(0, 3).windowed(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> IntStream.range(0, 3).windowed(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> IntStream.range(0, 3).slidingSum(0));
+        assertEquals(0, IntStream.range(0, 3).windowed(4, 1).count());
+    }
+
+    private static int[] toInts(char[] chars) {
+        int[] ints = new int[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            ints[i] = chars[i];
+        }
+        return ints;
+    }
+
+    private static int[] toInts(float[] floats) {
+        int[] ints = new int[floats.length];
+        for (int i = 0; i < floats.length; i++) {
+            ints[i] = (int) floats[i];
+        }
+        return ints;
+    }
+
+    private static int[] toInts(double[] doubles) {
+        int[] ints = new int[doubles.length];
+        for (int i = 0; i < doubles.length; i++) {
+            ints[i] = (int) doubles[i];
+        }
+        return ints;
+    }
+}
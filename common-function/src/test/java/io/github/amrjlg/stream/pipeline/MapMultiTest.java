@@ -0,0 +1,233 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.pipeline;
+
+import io.github.amrjlg.function.ByteConsumer;
+import io.github.amrjlg.function.CharConsumer;
+import io.github.amrjlg.function.FloatConsumer;
+import io.github.amrjlg.function.ShortConsumer;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * mapMulti of every shape against a loop, each element is pushed zero to three times,
+ * sequentially, in parallel and in front of a short-circuiting limit
+ *
+ * @author amrjlg
+ **/
+class MapMultiTest {
+
+    private static final int SIZE = 30_000;
+
+    private static final int LIMIT = 1001;
+
+    /**
+     * how often an element is pushed
+     */
+    private static int copies(int value) {
+        return value & 3;
+    }
+
+    /**
+     * the elements 0 until SIZE cast by {@code cast}, each repeated by its number of copies
+     */
+    private static int[] expected(IntUnaryOperator cast) {
+        int[] values = new int[SIZE * 3];
+        int length = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int value = cast.applyAsInt(i);
+            for (int j = 0; j < copies(value); j++) {
+                values[length++] = value;
+            }
+        }
+        return Arrays.copyOf(values, length);
+    }
+
+    private static IntStream source(boolean parallel) {
+        IntStream source = IntStream.range(0, SIZE);
+        return parallel ? source.parallel() : source;
+    }
+
+    @Test
+    void ints() {
+        int[] expected = expected(x -> x);
+        for (boolean parallel : new boolean[]{false, true}) {
+            IntStream.IntMapMultiConsumer mapper = (value, consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            };
+            assertArrayEquals(expected, source(parallel).mapMulti(mapper).toArray());
+            assertArrayEquals(Arrays.copyOf(expected, LIMIT), source(parallel).mapMulti(mapper).limit(LIMIT).toArray());
+            // ints pushed through the sink of a reference stream
+            assertArrayEquals(expected, source(parallel).boxed()
+                    .mapMultiToInt((Integer value, IntConsumer consumer) -> mapper.accept(value, consumer)).toArray());
+        }
+    }
+
+    @Test
+    void longsAndDoubles() {
+        int[] ints = expected(x -> x);
+        long[] longs = new long[ints.length];
+        double[] doubles = new double[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            longs[i] = ints[i];
+            doubles[i] = ints[i];
+        }
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertArrayEquals(longs, source(parallel).mapToLong(x -> x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies((int) value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(doubles, source(parallel).mapToDouble(x -> x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies((int) value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(longs, source(parallel).boxed().mapMultiToLong((Integer value, LongConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(doubles, source(parallel).boxed().mapMultiToDouble((Integer value, DoubleConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+        }
+    }
+
+    @Test
+    void narrowShapes() {
+        int[] ints = expected(x -> x);
+        byte[] bytes = new byte[ints.length];
+        short[] shorts = new short[ints.length];
+        char[] chars = new char[ints.length];
+        float[] floats = new float[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            bytes[i] = (byte) ints[i];
+            shorts[i] = (short) ints[i];
+            chars[i] = (char) ints[i];
+            floats[i] = ints[i];
+        }
+        // the copies are decided on the int, the narrowed value is pushed
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertArrayEquals(bytes, source(parallel).boxed().mapMultiToByte((Integer value, ByteConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept((byte) (int) value);
+                }
+            }).toArray());
+            assertArrayEquals(shorts, source(parallel).boxed().mapMultiToShort((Integer value, ShortConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept((short) (int) value);
+                }
+            }).toArray());
+            assertArrayEquals(chars, source(parallel).boxed().mapMultiToChar((Integer value, CharConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept((char) (int) value);
+                }
+            }).toArray());
+            assertArrayEquals(floats, source(parallel).boxed().mapMultiToFloat((Integer value, FloatConsumer consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+
+            // and the primitive streams of those shapes map onto themselves
+            byte[] byteCopies = toBytes(expected(x -> (byte) x));
+            assertArrayEquals(byteCopies, source(parallel).mapToByte(x -> (byte) x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(toShorts(expected(x -> (short) x)), source(parallel).mapToShort(x -> (short) x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(toChars(expected(x -> (char) x)), source(parallel).mapToChar(x -> (char) x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+            assertArrayEquals(floats, source(parallel).mapToFloat(x -> x).mapMulti((value, consumer) -> {
+                for (int j = 0; j < copies((int) value); j++) {
+                    consumer.accept(value);
+                }
+            }).toArray());
+        }
+    }
+
+    @Test
+    void references() {
+        int[] ints = expected(x -> x);
+        String[] expected = new String[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            expected[i] = Integer.toString(ints[i]);
+        }
+        for (boolean parallel : new boolean[]{false, true}) {
+            Stream<String> strings = source(parallel).boxed().mapMulti((Integer value, Consumer<String> consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(Integer.toString(value));
+                }
+            });
+            assertArrayEquals(expected, strings.toArray(String[]::new));
+            Stream<String> limited = source(parallel).boxed().mapMulti((Integer value, Consumer<String> consumer) -> {
+                for (int j = 0; j < copies(value); j++) {
+                    consumer.accept(Integer.toString(value));
+                }
+            });
+            assertArrayEquals(Arrays.copyOf(expected, LIMIT), limited.limit(LIMIT).toArray(String[]::new));
+        }
+    }
+
+    private static byte[] toBytes(int[] ints) {
+        byte[] bytes = new byte[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            bytes[i] = (byte) ints[i];
+        }
+        return bytes;
+    }
+
+    private static short[] toShorts(int[] ints) {
+        short[] shorts = new short[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            shorts[i] = (short) ints[i];
+        }
+        return shorts;
+    }
+
+    private static char[] toChars(int[] ints) {
+        char[] chars = new char[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            chars[i] = (char) ints[i];
+        }
+        return chars;
+    }
+}
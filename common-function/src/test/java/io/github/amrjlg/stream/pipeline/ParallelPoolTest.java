@@ -0,0 +1,132 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.pipeline;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import io.github.amrjlg.stream.task.AbstractTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * pipelines bound to a pool by parallel(ForkJoinPool) run every element in that pool,
+ * the pools are recorded from inside a map
+ *
+ * @author amrjlg
+ **/
+class ParallelPoolTest {
+
+    private static final int SIZE = 100_000;
+
+    /**
+     * runs {@code test} with a fresh pool of three workers and a set the pools seen by the elements are recorded into
+     */
+    private static void inPool(PoolTest test) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Set<Object> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            test.run(pool, seen);
+            assertEquals(Collections.singleton(pool), seen);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static <T> T record(Set<Object> seen, T value) {
+        ForkJoinPool current = ForkJoinTask.getPool();
+        seen.add(current == null ? "caller" : current);
+        return value;
+    }
+
+    @Test
+    void terminalOps() throws Exception {
+        long sum = (long) SIZE * (SIZE - 1) / 2;
+        inPool((pool, seen) -> assertEquals(sum, IntStream.range(0, SIZE).parallel(pool)
+                .map(x -> record(seen, x)).mapToLong(x -> x).sum()));
+        inPool((pool, seen) -> assertEquals(SIZE, IntStream.range(0, SIZE).parallel(pool)
+                .map(x -> record(seen, x)).toArray().length));
+        inPool((pool, seen) -> assertEquals(SIZE, Stream.iterate(0, x -> x + 1).parallel(pool)
+                .limit(SIZE).map(x -> record(seen, x)).toArray().length));
+        inPool((pool, seen) -> assertEquals(sum, LongStream.range(0, SIZE).parallel(pool)
+                .map(x -> record(seen, x)).sorted().reduce(0, Long::sum)));
+        inPool((pool, seen) -> IntStream.range(0, SIZE).parallel(pool).boxed()
+                .forEach((Consumer<Integer>) x -> record(seen, x)));
+    }
+
+    @Test
+    void concatAndMerge() throws Exception {
+        // count() of a sized pipeline skips the map, so the elements are collected
+        inPool((pool, seen) -> assertEquals(2 * SIZE, Streams.concat(IntStream.range(0, SIZE).parallel(pool), IntStream.range(0, SIZE))
+                .map(x -> record(seen, x)).toArray().length));
+        inPool((pool, seen) -> assertEquals(2 * SIZE, Stream.concat(Stream.iterate(0, x -> x + 1).limit(SIZE), Stream.iterate(0, x -> x + 1).limit(SIZE).parallel(pool))
+                .map(x -> record(seen, x)).toArray().length));
+        inPool((pool, seen) -> assertEquals(2 * SIZE, IntStream.mergeSorted(IntStream.range(0, SIZE).parallel(pool), IntStream.range(0, SIZE).parallel(pool))
+                .map(x -> record(seen, x)).toArray().length));
+    }
+
+    @Test
+    void sequentialAgain() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Set<Object> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            IntStream stream = IntStream.range(0, SIZE).parallel(pool).sequential();
+            assertFalse(stream.isParallel());
+            stream.map(x -> record(seen, x)).sum();
+            assertEquals(Collections.singleton("caller"), seen);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * leaves are sized from the parallelism of the pool the task runs in
+     */
+    @Test
+    void leafTarget() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(100L, (long) pool.submit(() -> AbstractTask.suggestTargetSize(800)).get());
+        } finally {
+            pool.shutdown();
+        }
+        ForkJoinPool wide = new ForkJoinPool(50);
+        try {
+            assertEquals(4L, (long) wide.submit(() -> AbstractTask.suggestTargetSize(800)).get());
+            assertTrue(AbstractTask.suggestTargetSize(1) >= 1);
+        } finally {
+            wide.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PoolTest {
+        void run(ForkJoinPool pool, Set<Object> seen) throws Exception;
+    }
+}
@@ -0,0 +1,200 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.pipeline;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * fused pipelines give the same results as unfused ones and as java.util.stream,
+ * only adjacent map or filter stages of one kind are wrapped as one sink, which is the sink of a single such stage
+ *
+ * @author amrjlg
+ **/
+class StageFusionTest {
+
+    private static final int SIZE = 10_000;
+
+    private static int[] values() {
+        Random random = new Random(SIZE);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(1000) - 500;
+        }
+        return values;
+    }
+
+    private static final class IntCollector implements Sink.OfInt {
+        private final List<Integer> values = new ArrayList<>();
+
+        @Override
+        public void accept(int value) {
+            values.add(value);
+        }
+    }
+
+    private static Sink<?> downstream(Sink<?> sink) {
+        for (Class<?> type = sink.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField("downstream");
+                field.setAccessible(true);
+                return (Sink<?>) field.get(sink);
+            } catch (NoSuchFieldException e) {
+                // declared further up
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalStateException(sink.getClass().getName());
+    }
+
+    /**
+     * the classes of the sinks between the wrapped one and the terminal
+     */
+    private static List<Class<?>> chain(Sink<?> sink, Sink<?> terminal) {
+        List<Class<?>> chain = new ArrayList<>();
+        while (sink != terminal) {
+            chain.add(sink.getClass());
+            sink = downstream(sink);
+        }
+        return chain;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Class<?>> intChain(boolean fuse, Function<IntStream, IntStream> stages, int[] values, List<Integer> output) {
+        AbstractPipeline<?, Integer, ?> pipeline = (AbstractPipeline<?, Integer, ?>) stages.apply(Streams.stream(values));
+        IntCollector collector = new IntCollector();
+        Sink<Integer> sink = pipeline.wrapSink(collector, fuse);
+        sink.begin(values.length);
+        for (int value : values) {
+            sink.accept(value);
+        }
+        sink.end();
+        output.addAll(collector.values);
+        return chain(sink, collector);
+    }
+
+    private static List<Class<?>> chain(Class<?>... sinks) {
+        return Arrays.asList(sinks);
+    }
+
+    @Test
+    void enabledByDefault() {
+        assertTrue(StageFusion.ENABLED);
+    }
+
+    @Test
+    void sameResults() {
+        int[] values = values();
+        Function<IntStream, IntStream> stages = stream -> stream
+                .map(v -> v * 3).map(v -> v - 7).filter(v -> v % 2 == 0).filter(v -> v > -800)
+                .map(v -> v / 2).filter(v -> v != 11).map(v -> v ^ 5);
+        int[] expected = Arrays.stream(values)
+                .map(v -> v * 3).map(v -> v - 7).filter(v -> v % 2 == 0).filter(v -> v > -800)
+                .map(v -> v / 2).filter(v -> v != 11).map(v -> v ^ 5).toArray();
+        assertTrue(expected.length > 0);
+        List<Integer> unfused = new ArrayList<>();
+        intChain(false, stages, values, unfused);
+        assertArrayEquals(expected, unfused.stream().mapToInt(Integer::intValue).toArray());
+        assertArrayEquals(expected, stages.apply(Streams.stream(values)).toArray());
+        assertArrayEquals(expected, stages.apply(Streams.stream(values).parallel()).toArray());
+
+        String[] strings = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            strings[i] = Integer.toString(values[i]);
+        }
+        Object[] expectedStrings = Arrays.stream(strings)
+                .map(v -> v + "x").map(String::trim).filter(v -> v.length() > 2).filter(v -> !v.startsWith("-1"))
+                .map(String::toUpperCase).toArray();
+        Function<Stream<String>, Stream<String>> refStages = stream -> stream
+                .map(v -> v + "x").map(String::trim).filter(v -> v.length() > 2).filter(v -> !v.startsWith("-1"))
+                .map(String::toUpperCase);
+        assertArrayEquals(expectedStrings, refStages.apply(Streams.stream(strings)).toArray());
+        assertArrayEquals(expectedStrings, refStages.apply(Streams.stream(strings).parallel()).toArray());
+        // a run of maps that changes the element type
+        assertArrayEquals(Arrays.stream(strings).map(String::length).map(v -> v * 2).map(Object::toString).toArray(),
+                Streams.stream(strings).map(String::length).map(v -> v * 2).map(Object::toString).toArray());
+
+        double[] doubles = Arrays.stream(values).asDoubleStream().toArray();
+        assertArrayEquals(
+                Arrays.stream(doubles).map(v -> v * 1.5).map(Math::floor).filter(v -> v > 0).filter(v -> v < 400).toArray(),
+                Streams.stream(doubles).map(v -> v * 1.5).map(Math::floor).filter(v -> v > 0).filter(v -> v < 400).toArray());
+    }
+
+    @Test
+    void runs() {
+        int[] values = values();
+        List<Integer> fused = new ArrayList<>();
+        List<Integer> unfused = new ArrayList<>();
+
+        Function<IntStream, IntStream> maps = stream -> stream.map(v -> v + 1).map(v -> v * 2).map(v -> v - 3);
+        List<Class<?>> stages = intChain(false, maps, values, unfused);
+        assertEquals(3, stages.size());
+        Class<?> map = stages.get(0);
+        // the run is wrapped in the sink of a single map
+        assertEquals(chain(map), intChain(true, maps, values, fused));
+        assertEquals(chain(map, map, map), stages);
+        assertEquals(unfused, fused);
+
+        // a filter in the middle of a map run splits it into two runs
+        fused.clear();
+        unfused.clear();
+        Function<IntStream, IntStream> split = stream -> stream.map(v -> v + 1).map(v -> v * 2)
+                .filter(v -> v > 0).map(v -> v - 3).map(v -> v / 2);
+        stages = intChain(false, split, values, unfused);
+        Class<?> filter = stages.get(2);
+        assertEquals(chain(map, map, filter, map, map), stages);
+        assertEquals(chain(map, filter, map), intChain(true, split, values, fused));
+        assertEquals(unfused, fused);
+
+        // filters fuse with each other but not with maps
+        fused.clear();
+        unfused.clear();
+        Function<IntStream, IntStream> filters = stream -> stream.filter(v -> v > -400).filter(v -> v < 400)
+                .map(v -> v + 1).map(v -> v * 2);
+        assertEquals(chain(filter, map), intChain(true, filters, values, fused));
+        intChain(false, filters, values, unfused);
+        assertEquals(unfused, fused);
+
+        // a peek is not fusible, the maps around it stay on their own
+        fused.clear();
+        unfused.clear();
+        int[] peeked = {0};
+        Function<IntStream, IntStream> peek = stream -> stream.map(v -> v + 1).peek(v -> peeked[0]++).map(v -> v * 2);
+        List<Class<?>> peekStages = intChain(true, peek, values, fused);
+        assertEquals(3, peekStages.size());
+        assertEquals(chain(map, peekStages.get(1), map), peekStages);
+        intChain(false, peek, values, unfused);
+        assertEquals(unfused, fused);
+        assertEquals(2 * SIZE, peeked[0]);
+    }
+}
@@ -0,0 +1,284 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.stream.Sink;
+import io.github.amrjlg.stream.Streams;
+import io.github.amrjlg.stream.node.NodeBuilder;
+import io.github.amrjlg.stream.node.Nodes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * sinks overriding acceptAll end up in the same state as when every element is accepted on its own,
+ * a {@code peek} in front of a terminal operation turns the array chunk back into single elements
+ *
+ * @author amrjlg
+ **/
+class AcceptAllTest {
+
+    private static final int SIZE = 1000;
+    /**
+     * chunk boundaries the arrays are handed over at
+     */
+    private static final int[] CUTS = {0, 1, 17, 500, 999, SIZE};
+
+    private static int[] values() {
+        Random random = new Random(SIZE);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(2000) - 1000;
+        }
+        return values;
+    }
+
+    private static final class IntRecorder implements Sink.OfInt {
+        private final List<Integer> values = new ArrayList<>();
+        private final int cancelAfter;
+
+        IntRecorder(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void accept(int value) {
+            values.add(value);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return values.size() >= cancelAfter;
+        }
+    }
+
+    private static final class RefRecorder implements Sink<String> {
+        private final List<String> values = new ArrayList<>();
+        private final int cancelAfter;
+
+        RefRecorder(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void accept(String value) {
+            values.add(value);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return values.size() >= cancelAfter;
+        }
+    }
+
+    @Test
+    void reduce() {
+        int[] values = values();
+        byte[] bytes = new byte[SIZE];
+        short[] shorts = new short[SIZE];
+        char[] chars = new char[SIZE];
+        long[] longs = new long[SIZE];
+        float[] floats = new float[SIZE];
+        double[] doubles = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) values[i];
+            shorts[i] = (short) values[i];
+            chars[i] = (char) values[i];
+            longs[i] = values[i] * 1_000_003L;
+            floats[i] = values[i] / 8f;
+            doubles[i] = values[i] / 8d;
+        }
+        // order sensitive, so a chunk accepted out of order would show
+        assertEquals(Streams.stream(bytes).peek(v -> {
+        }).reduce((byte) 1, (x, y) -> (byte) (x * 31 + y)), Streams.stream(bytes).reduce((byte) 1, (x, y) -> (byte) (x * 31 + y)));
+        assertEquals(Streams.stream(shorts).peek(v -> {
+        }).reduce((short) 1, (x, y) -> (short) (x * 31 + y)), Streams.stream(shorts).reduce((short) 1, (x, y) -> (short) (x * 31 + y)));
+        assertEquals(Streams.stream(chars).peek(v -> {
+        }).reduce((char) 1, (x, y) -> (char) (x * 31 + y)), Streams.stream(chars).reduce((char) 1, (x, y) -> (char) (x * 31 + y)));
+        assertEquals(Streams.stream(values).peek(v -> {
+        }).reduce(1, (x, y) -> x * 31 + y), Streams.stream(values).reduce(1, (x, y) -> x * 31 + y));
+        assertEquals(Streams.stream(longs).peek(v -> {
+        }).reduce(1L, (x, y) -> x * 31 + y), Streams.stream(longs).reduce(1L, (x, y) -> x * 31 + y));
+        assertEquals(Streams.stream(floats).peek(v -> {
+        }).reduce(1f, (x, y) -> x * 0.5f + y), Streams.stream(floats).reduce(1f, (x, y) -> x * 0.5f + y));
+        assertEquals(Streams.stream(doubles).peek(v -> {
+        }).reduce(1d, (x, y) -> x * 0.5d + y), Streams.stream(doubles).reduce(1d, (x, y) -> x * 0.5d + y));
+
+        assertEquals(Streams.stream(values).peek(v -> {
+        }).reduce(Integer::sum).getAsInt(), Streams.stream(values).reduce(Integer::sum).getAsInt());
+        assertEquals(Streams.stream(values).peek(v -> {
+        }).reduce(Integer::sum).getAsInt(), Streams.stream(values).parallel().reduce(Integer::sum).getAsInt());
+        assertEquals(Streams.stream(longs).peek(v -> {
+        }).reduce(0L, Long::sum), Streams.stream(longs).parallel().reduce(0L, Long::sum));
+    }
+
+    @Test
+    void count() {
+        Integer[] boxed = new Integer[SIZE];
+        int[] values = values();
+        for (int from : CUTS) {
+            for (int to : CUTS) {
+                if (from > to) {
+                    continue;
+                }
+                CountingSink.OfRef<Integer> all = new CountingSink.OfRef<>();
+                CountingSink.OfRef<Integer> single = new CountingSink.OfRef<>();
+                CountingSink.OfInt allInt = new CountingSink.OfInt();
+                CountingSink.OfInt singleInt = new CountingSink.OfInt();
+                all.begin(-1);
+                single.begin(-1);
+                allInt.begin(-1);
+                singleInt.begin(-1);
+                all.acceptAll(boxed, from, to);
+                allInt.acceptAll(values, from, to);
+                for (int i = from; i < to; i++) {
+                    single.accept(boxed[i]);
+                    singleInt.accept(values[i]);
+                }
+                assertEquals(single.get(), all.get());
+                assertEquals(singleInt.get(), allInt.get());
+            }
+        }
+    }
+
+    @Test
+    void nodeBuilders() {
+        int[] values = values();
+        long[] longs = new long[SIZE];
+        double[] doubles = new double[SIZE];
+        String[] strings = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longs[i] = values[i];
+            doubles[i] = values[i] / 3d;
+            strings[i] = Integer.toString(values[i]);
+        }
+        NodeBuilder.OfInt ints = Nodes.intBuilder(SIZE);
+        NodeBuilder.OfLong longBuilder = Nodes.longBuilder(SIZE);
+        NodeBuilder.OfDouble doubleBuilder = Nodes.doubleBuilder(SIZE);
+        NodeBuilder<String> refs = Nodes.builder(SIZE, String[]::new);
+        ints.begin(SIZE);
+        longBuilder.begin(SIZE);
+        doubleBuilder.begin(SIZE);
+        refs.begin(SIZE);
+        for (int cut = 1; cut < CUTS.length; cut++) {
+            ints.acceptAll(values, CUTS[cut - 1], CUTS[cut]);
+            longBuilder.acceptAll(longs, CUTS[cut - 1], CUTS[cut]);
+            doubleBuilder.acceptAll(doubles, CUTS[cut - 1], CUTS[cut]);
+            refs.acceptAll(strings, CUTS[cut - 1], CUTS[cut]);
+        }
+        ints.end();
+        longBuilder.end();
+        doubleBuilder.end();
+        refs.end();
+        assertArrayEquals(values, ints.build().asPrimitiveArray());
+        assertArrayEquals(longs, longBuilder.build().asPrimitiveArray());
+        assertArrayEquals(doubles, doubleBuilder.build().asPrimitiveArray());
+        assertArrayEquals(strings, refs.build().asArray(String[]::new));
+
+        // the whole path, a fixed size builder behind toArray
+        assertArrayEquals(Streams.stream(values).peek(v -> {
+        }).toArray(), Streams.stream(values).toArray());
+        assertArrayEquals(Streams.stream(strings).peek(v -> {
+        }).toArray(String[]::new), Streams.stream(strings).toArray(String[]::new));
+    }
+
+    @Test
+    void sizedSortInt() {
+        int[] values = values();
+        for (int cancelAfter : new int[]{0, 1, 10, SIZE, Integer.MAX_VALUE}) {
+            for (boolean cancel : new boolean[]{false, true}) {
+                IntRecorder all = new IntRecorder(cancelAfter);
+                IntRecorder single = new IntRecorder(cancelAfter);
+                SizedIntSortingSink allSink = new SizedIntSortingSink(all);
+                SizedIntSortingSink singleSink = new SizedIntSortingSink(single);
+                allSink.begin(SIZE);
+                singleSink.begin(SIZE);
+                for (int cut = 1; cut < CUTS.length; cut++) {
+                    allSink.acceptAll(values, CUTS[cut - 1], CUTS[cut]);
+                    for (int i = CUTS[cut - 1]; i < CUTS[cut]; i++) {
+                        singleSink.accept(values[i]);
+                    }
+                    if (cancel && cut == CUTS.length / 2) {
+                        // an upstream short circuit polls in the middle of the array
+                        allSink.cancellationRequested();
+                        singleSink.cancellationRequested();
+                    }
+                }
+                allSink.end();
+                singleSink.end();
+                assertEquals(single.values, all.values);
+                if (cancel) {
+                    assertEquals(Math.min(cancelAfter, SIZE), all.values.size());
+                } else {
+                    assertEquals(SIZE, all.values.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    void sizedSortRef() {
+        int[] values = values();
+        String[] strings = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            strings[i] = Integer.toString(values[i] / 10);
+        }
+        // many equal keys, a stable sort keeps them in their encounter order
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        for (int cancelAfter : new int[]{0, 1, 10, SIZE, Integer.MAX_VALUE}) {
+            for (boolean cancel : new boolean[]{false, true}) {
+                RefRecorder all = new RefRecorder(cancelAfter);
+                RefRecorder single = new RefRecorder(cancelAfter);
+                SizedRefSortingSink<String> allSink = new SizedRefSortingSink<>(all, byLength);
+                SizedRefSortingSink<String> singleSink = new SizedRefSortingSink<>(single, byLength);
+                allSink.begin(SIZE);
+                singleSink.begin(SIZE);
+                for (int cut = 1; cut < CUTS.length; cut++) {
+                    allSink.acceptAll(strings, CUTS[cut - 1], CUTS[cut]);
+                    for (int i = CUTS[cut - 1]; i < CUTS[cut]; i++) {
+                        singleSink.accept(strings[i]);
+                    }
+                    if (cancel && cut == CUTS.length / 2) {
+                        allSink.cancellationRequested();
+                        singleSink.cancellationRequested();
+                    }
+                }
+                allSink.end();
+                singleSink.end();
+                assertEquals(single.values, all.values);
+            }
+        }
+    }
+
+    @Test
+    void sortedShortCircuit() {
+        int[] values = values();
+        assertArrayEquals(Streams.stream(values).peek(v -> {
+        }).sorted().limit(10).toArray(), Streams.stream(values).sorted().limit(10).toArray());
+        assertEquals(Streams.stream(values).peek(v -> {
+        }).sorted().findFirst().getAsInt(), Streams.stream(values).sorted().findFirst().getAsInt());
+        assertEquals(Streams.stream(values).peek(v -> {
+        }).sorted().anyMatch(v -> v > 990), Streams.stream(values).sorted().anyMatch(v -> v > 990));
+    }
+}
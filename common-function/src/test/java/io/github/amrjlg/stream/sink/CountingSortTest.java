@@ -0,0 +1,147 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * the byte, short and char sorting sinks compared with {@link Arrays#sort} around the size they start counting at,
+ * sized pipelines take the sized sinks, a filter makes the size unknown.
+ * the extreme values of each type are counted at the ends of the table, chars being unsigned
+ *
+ * @author amrjlg
+ **/
+class CountingSortTest {
+
+    private static final int THRESHOLD = AbstractShortSortingSink.COUNTING_SORT_THRESHOLD;
+
+    private static final int[] SIZES = {0, 1, THRESHOLD - 1, THRESHOLD, THRESHOLD + 1, THRESHOLD * 8};
+
+    @Test
+    void sortShort() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            short[] values = new short[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (short) random.nextInt();
+            }
+            short[] expected = values.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).filter(v -> true).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(v -> true).sorted().toArray());
+            // a short circuit stops the replay of the counts
+            short[] head = Arrays.copyOf(expected, Math.min(size, 10));
+            assertArrayEquals(head, Streams.stream(values).sorted().limit(10).toArray());
+            assertArrayEquals(head, Streams.stream(values).filter(v -> true).sorted().limit(10).toArray());
+        }
+    }
+
+    @Test
+    void sortChar() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            char[] values = new char[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (char) random.nextInt();
+            }
+            char[] expected = values.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).filter(v -> true).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(v -> true).sorted().toArray());
+            char[] head = Arrays.copyOf(expected, Math.min(size, 10));
+            assertArrayEquals(head, Streams.stream(values).sorted().limit(10).toArray());
+            assertArrayEquals(head, Streams.stream(values).filter(v -> true).sorted().limit(10).toArray());
+        }
+    }
+
+    @Test
+    void sortByte() {
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            byte[] values = new byte[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (byte) random.nextInt();
+            }
+            byte[] expected = values.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, Streams.stream(values).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).filter(v -> true).sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().sorted().toArray());
+            assertArrayEquals(expected, Streams.stream(values).parallel().filter(v -> true).sorted().toArray());
+            byte[] head = Arrays.copyOf(expected, Math.min(size, 10));
+            assertArrayEquals(head, Streams.stream(values).sorted().limit(10).toArray());
+            assertArrayEquals(head, Streams.stream(values).filter(v -> true).sorted().limit(10).toArray());
+        }
+    }
+
+    /**
+     * the smallest and largest values with many repeats, for short and char the count table spans the whole type
+     */
+    @Test
+    void extremes() {
+        int size = THRESHOLD * 4;
+        short[] shorts = new short[size];
+        char[] chars = new char[size];
+        byte[] bytes = new byte[size];
+        short[] shortValues = {Short.MIN_VALUE, -1, 0, 1, Short.MAX_VALUE};
+        char[] charValues = {Character.MIN_VALUE, 1, Byte.MAX_VALUE + 1, Short.MAX_VALUE + 1, Character.MAX_VALUE};
+        byte[] byteValues = {Byte.MIN_VALUE, -1, 0, 1, Byte.MAX_VALUE};
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            int pick = random.nextInt(5);
+            shorts[i] = shortValues[pick];
+            chars[i] = charValues[pick];
+            bytes[i] = byteValues[pick];
+        }
+        short[] expectedShorts = shorts.clone();
+        Arrays.sort(expectedShorts);
+        char[] expectedChars = chars.clone();
+        Arrays.sort(expectedChars);
+        byte[] expectedBytes = bytes.clone();
+        Arrays.sort(expectedBytes);
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            assertArrayEquals(expectedShorts, Streams.stream(shorts).sorted().toArray());
+            assertArrayEquals(expectedShorts, Streams.stream(shorts).parallel(pool).sorted().toArray());
+            assertArrayEquals(expectedShorts, Streams.stream(shorts).parallel(pool).filter(v -> true).sorted().toArray());
+            assertArrayEquals(expectedChars, Streams.stream(chars).sorted().toArray());
+            assertArrayEquals(expectedChars, Streams.stream(chars).parallel(pool).sorted().toArray());
+            assertArrayEquals(expectedChars, Streams.stream(chars).parallel(pool).filter(v -> true).sorted().toArray());
+            assertArrayEquals(expectedBytes, Streams.stream(bytes).sorted().toArray());
+            assertArrayEquals(expectedBytes, Streams.stream(bytes).parallel(pool).sorted().toArray());
+            assertArrayEquals(expectedBytes, Streams.stream(bytes).parallel(pool).filter(v -> true).sorted().toArray());
+        } finally {
+            pool.shutdown();
+        }
+        // a short circuit stops in the middle of a run of equal values
+        assertArrayEquals(Arrays.copyOf(expectedChars, size / 3), Streams.stream(chars).sorted().limit(size / 3).toArray());
+        assertArrayEquals(Arrays.copyOf(expectedShorts, size / 3), Streams.stream(shorts).filter(v -> true).sorted().limit(size / 3).toArray());
+    }
+}
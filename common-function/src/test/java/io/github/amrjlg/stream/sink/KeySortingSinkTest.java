@@ -0,0 +1,122 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.sink;
+
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import io.github.amrjlg.stream.common.RadixSort;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * sortedByInt, sortedByLong and sortedByDouble against a stable comparator sort,
+ * the keys repeat so the order of equal keys is checked, sequentially by the sink and in parallel by the radix order
+ *
+ * @author amrjlg
+ **/
+class KeySortingSinkTest {
+
+    private static final int[] SIZES = {0, 1, 2, 1000, RadixSort.RADIX_SORT_THRESHOLD + 5};
+
+    private static final class Item {
+        final int index;
+        final int intKey;
+        final long longKey;
+        final double doubleKey;
+
+        Item(int index, int intKey, long longKey, double doubleKey) {
+            this.index = index;
+            this.intKey = intKey;
+            this.longKey = longKey;
+            this.doubleKey = doubleKey;
+        }
+
+        @Override
+        public String toString() {
+            return index + ":" + intKey + "/" + longKey + "/" + doubleKey;
+        }
+    }
+
+    private static final int[] INT_EXTREMES = {Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0};
+
+    private static final long[] LONG_EXTREMES = {Long.MIN_VALUE, Long.MAX_VALUE, -1, 0};
+
+    private static final double[] DOUBLE_EXTREMES = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -Double.MIN_VALUE};
+
+    private static Item[] items(int size) {
+        Random random = new Random(size);
+        Item[] items = new Item[size];
+        for (int i = 0; i < size; i++) {
+            // few distinct keys so most of them repeat, and the extremes now and then
+            int intKey = i % 50 == 0 ? INT_EXTREMES[i / 50 % INT_EXTREMES.length] : random.nextInt(100) - 50;
+            long longKey = i % 50 == 1 ? LONG_EXTREMES[i / 50 % LONG_EXTREMES.length] : (random.nextInt(100) - 50) * (1L << 40);
+            double doubleKey = i % 50 == 2 ? DOUBLE_EXTREMES[i / 50 % DOUBLE_EXTREMES.length] : random.nextInt(100) / 4.0 - 12;
+            items[i] = new Item(i, intKey, longKey, doubleKey);
+        }
+        return items;
+    }
+
+    private static Stream<Item> source(Item[] items, boolean sized, boolean parallel) {
+        Stream<Item> source = Streams.stream(items);
+        if (!sized) {
+            source = source.filter(x -> true);
+        }
+        return parallel ? source.parallel() : source;
+    }
+
+    private static Item[] sorted(Item[] items, Comparator<Item> comparator) {
+        Item[] sorted = items.clone();
+        // a stable merge sort
+        Arrays.sort(sorted, comparator);
+        return sorted;
+    }
+
+    @Test
+    void keys() {
+        for (int size : SIZES) {
+            Item[] items = items(size);
+            Item[] byInt = sorted(items, Comparator.comparingInt(item -> item.intKey));
+            Item[] byLong = sorted(items, Comparator.comparingLong(item -> item.longKey));
+            Item[] byDouble = sorted(items, Comparator.comparingDouble(item -> item.doubleKey));
+            for (boolean sized : new boolean[]{true, false}) {
+                for (boolean parallel : new boolean[]{false, true}) {
+                    String message = size + (sized ? " sized" : " unsized") + (parallel ? " parallel" : "");
+                    assertArrayEquals(byInt, source(items, sized, parallel).sortedByInt(item -> item.intKey).toArray(Item[]::new), message);
+                    assertArrayEquals(byLong, source(items, sized, parallel).sortedByLong(item -> item.longKey).toArray(Item[]::new), message);
+                    assertArrayEquals(byDouble, source(items, sized, parallel).sortedByDouble(item -> item.doubleKey).toArray(Item[]::new), message);
+                }
+            }
+        }
+    }
+
+    /**
+     * a key sort followed by a short circuit still sorts everything first
+     */
+    @Test
+    void limited() {
+        Item[] items = items(10_000);
+        Item[] byInt = sorted(items, Comparator.comparingInt(item -> item.intKey));
+        assertArrayEquals(Arrays.copyOf(byInt, 10), source(items, false, true).sortedByInt(item -> item.intKey).limit(10).toArray(Item[]::new));
+        assertArrayEquals(Arrays.copyOf(byInt, 10), source(items, true, false).sortedByInt(item -> item.intKey).limit(10).toArray(Item[]::new));
+    }
+}
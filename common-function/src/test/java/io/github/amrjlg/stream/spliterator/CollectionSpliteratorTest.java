@@ -0,0 +1,176 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * random access lists split by index and keep exact sizes in every part,
+ * other collections and iterators split into array batches,
+ * and the streams over them agree sequentially and in parallel
+ *
+ * @author amrjlg
+ **/
+class CollectionSpliteratorTest {
+
+    private static final int SIZE = 10_000;
+
+    private static List<Integer> values(List<Integer> list) {
+        for (int i = 0; i < SIZE; i++) {
+            list.add(i * 7 - SIZE);
+        }
+        return list;
+    }
+
+    /**
+     * splits as far as the spliterator allows and traverses the parts in encounter order,
+     * checking that SUBSIZED parts report exact sizes
+     */
+    private static void splitAll(Spliterator<Integer> spliterator, List<Integer> into) {
+        long size = spliterator.getExactSizeIfKnown();
+        boolean subsized = spliterator.hasCharacteristics(Spliterator.SUBSIZED);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            int before = into.size();
+            spliterator.forEachRemaining(into::add);
+            if (size >= 0) {
+                assertEquals(size, into.size() - before);
+            }
+            return;
+        }
+        if (subsized) {
+            assertTrue(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+        }
+        splitAll(prefix, into);
+        splitAll(spliterator, into);
+    }
+
+    @Test
+    void randomAccessList() {
+        List<Integer> list = values(new ArrayList<>());
+        Spliterator<Integer> spliterator = Spliterators.spliterator(list, Spliterator.ORDERED);
+        assertEquals(Spliterators.RandomAccessListSpliterator.class, spliterator.getClass());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED));
+
+        List<Integer> traversed = new ArrayList<>();
+        splitAll(spliterator, traversed);
+        assertEquals(list, traversed);
+
+        // halves, not batches
+        Spliterator<Integer> suffix = Spliterators.spliterator(list, Spliterator.ORDERED);
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(SIZE / 2, prefix.getExactSizeIfKnown());
+        assertEquals(SIZE / 2, suffix.getExactSizeIfKnown());
+    }
+
+    @Test
+    void lateBinding() {
+        List<Integer> list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        Spliterator<Integer> spliterator = Spliterators.spliterator(list, Spliterator.ORDERED);
+        list.add(4);
+        List<Integer> traversed = new ArrayList<>();
+        spliterator.forEachRemaining(traversed::add);
+        assertEquals(Arrays.asList(1, 2, 3, 4), traversed);
+    }
+
+    @Test
+    void iteratorOfCollection() {
+        List<Integer> list = values(new LinkedList<>());
+        Spliterator<Integer> spliterator = Spliterators.spliterator(list, Spliterator.ORDERED);
+        assertEquals(Spliterators.IteratorSpliterator.class, spliterator.getClass());
+        assertEquals(SIZE, spliterator.getExactSizeIfKnown());
+
+        List<Integer> traversed = new ArrayList<>();
+        splitAll(spliterator, traversed);
+        assertEquals(list, traversed);
+
+        // array batches grow by a fixed unit
+        Spliterator<Integer> batches = Spliterators.spliterator(list, Spliterator.ORDERED);
+        assertEquals(Spliterators.IteratorSpliterator.BATCH_UNIT, batches.trySplit().getExactSizeIfKnown());
+        assertEquals(2 * Spliterators.IteratorSpliterator.BATCH_UNIT, batches.trySplit().getExactSizeIfKnown());
+        assertEquals(SIZE - 3 * Spliterators.IteratorSpliterator.BATCH_UNIT, batches.getExactSizeIfKnown());
+    }
+
+    @Test
+    void iteratorOfUnknownSize() {
+        List<Integer> list = values(new ArrayList<>());
+        Spliterator<Integer> spliterator = Spliterators.spliteratorUnknownSize(list.iterator(), Spliterator.ORDERED);
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(-1, spliterator.getExactSizeIfKnown());
+        Spliterator<Integer> batch = spliterator.trySplit();
+        assertTrue(batch.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(Spliterators.IteratorSpliterator.BATCH_UNIT, batch.estimateSize());
+
+        List<Integer> traversed = new ArrayList<>();
+        batch.forEachRemaining(traversed::add);
+        splitAll(spliterator, traversed);
+        assertEquals(list, traversed);
+    }
+
+    @Test
+    void streams() {
+        List<Integer> arrayList = values(new ArrayList<>());
+        List<Integer> linkedList = values(new LinkedList<>());
+        Object[] expected = arrayList.stream().filter(x -> x % 3 != 0).map(x -> x * 2).toArray();
+        for (boolean parallel : new boolean[]{false, true}) {
+            String message = parallel ? "parallel" : "sequential";
+            for (Collection<Integer> collection : Arrays.<Collection<Integer>>asList(arrayList, linkedList)) {
+                io.github.amrjlg.stream.Stream<Integer> stream = Streams.stream(collection);
+                assertArrayEquals(expected, (parallel ? stream.parallel() : stream).filter(x -> x % 3 != 0).map(x -> x * 2).toArray(), message);
+                stream = Streams.stream(collection);
+                assertEquals(SIZE, (parallel ? stream.parallel() : stream).count(), message);
+            }
+            io.github.amrjlg.stream.Stream<Integer> iterated = Streams.stream(arrayList.iterator());
+            assertArrayEquals(expected, (parallel ? iterated.parallel() : iterated).filter(x -> x % 3 != 0).map(x -> x * 2).toArray(), message);
+            Iterable<Integer> iterable = arrayList::iterator;
+            io.github.amrjlg.stream.Stream<Integer> ofIterable = Streams.stream(iterable);
+            assertEquals(SIZE, (parallel ? ofIterable.parallel() : ofIterable).count(), message);
+        }
+    }
+
+    @Test
+    void setCharacteristics() {
+        List<Integer> list = values(new ArrayList<>());
+        Spliterator<Integer> sorted = Streams.stream(new TreeSet<>(list)).spliterator();
+        assertTrue(sorted.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED));
+        Spliterator<Integer> hashed = Streams.stream(new HashSet<>(list)).spliterator();
+        assertTrue(hashed.hasCharacteristics(Spliterator.DISTINCT));
+        assertFalse(hashed.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(new HashSet<>(list), Streams.stream(new HashSet<>(list)).parallel().toJdk().collect(Collectors.toSet()));
+        assertArrayEquals(new TreeSet<>(list).toArray(), Streams.stream(new TreeSet<>(list)).parallel().sorted().toArray());
+    }
+}
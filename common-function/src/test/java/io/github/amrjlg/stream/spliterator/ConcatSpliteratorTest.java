@@ -0,0 +1,240 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.BaseStream;
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * concatenations split at the part boundary nearest the middle, report a size only when every part is sized,
+ * and give the same elements sequentially and in parallel in every shape
+ *
+ * @author amrjlg
+ **/
+class ConcatSpliteratorTest {
+
+    /**
+     * consecutive ranges with empty and single element parts, concatenated they are 0 until 50001
+     */
+    private static final int[][] PARTS = {{0, 0}, {0, 1000}, {1000, 1003}, {1003, 1003}, {1003, 50_000}, {50_000, 50_001}};
+
+    private static final int SIZE = 50_001;
+
+    private static IntStream part(int index) {
+        IntStream range = IntStream.range(PARTS[index][0], PARTS[index][1]);
+        // every other part is unsized
+        return index % 2 == 0 ? range : range.filter(x -> true);
+    }
+
+    private static IntStream ints() {
+        IntStream[] parts = new IntStream[PARTS.length];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = part(i);
+        }
+        return Streams.concat(parts);
+    }
+
+    private static IntStream nestedInts() {
+        IntStream concat = part(0);
+        for (int i = 1; i < PARTS.length; i++) {
+            concat = IntStream.concat(concat, part(i));
+        }
+        return concat;
+    }
+
+    private static int[] expected() {
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    private static Spliterator<Integer>[] ranges(int... sizes) {
+        // every slot is filled with a range of ints
+        @SuppressWarnings("unchecked")
+        Spliterator<Integer>[] parts = (Spliterator<Integer>[]) new Spliterator<?>[sizes.length];
+        int from = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            parts[i] = new RangeSpliterator.OfInt(from, from += sizes[i], false);
+        }
+        return parts;
+    }
+
+    @Test
+    void balancedSplits() {
+        Spliterator<Integer> spliterator = ConcatSpliterator.OfRef.of(ranges(10, 10, 10, 10, 10, 10, 10, 10));
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(40, prefix.estimateSize());
+        assertEquals(40, spliterator.estimateSize());
+        assertEquals(20, prefix.trySplit().estimateSize());
+
+        // the large part goes alone, the small ones stay together
+        Spliterator<Integer> skewed = ConcatSpliterator.OfRef.of(ranges(1, 1, 100, 1, 1));
+        Spliterator<Integer> head = skewed.trySplit();
+        assertEquals(102, head.estimateSize());
+        assertEquals(2, skewed.estimateSize());
+        Spliterator<Integer> large = head.trySplit();
+        assertEquals(2, large.estimateSize());
+        assertEquals(100, head.estimateSize());
+
+        // a single part is split by itself
+        Spliterator<Integer> single = ConcatSpliterator.OfRef.of(ranges(1, 9));
+        single.trySplit();
+        assertEquals(9, single.estimateSize());
+        assertNotNull(single.trySplit());
+        assertEquals(5, single.estimateSize());
+    }
+
+    @Test
+    void flattens() {
+        Spliterator<Integer>[] left = ranges(3, 3);
+        @SuppressWarnings("unchecked")
+        Spliterator<Integer> nested = ConcatSpliterator.OfRef.of(ConcatSpliterator.OfRef.of(left), ConcatSpliterator.OfRef.of(ranges(3, 3, 3)));
+        // five flat parts, the first split takes the parts up to half of the size
+        Spliterator<Integer> prefix = nested.trySplit();
+        assertEquals(9, prefix.estimateSize());
+        assertEquals(6, nested.estimateSize());
+        assertNull(ConcatSpliterator.OfRef.of(ranges(0)).trySplit());
+    }
+
+    @Test
+    void characteristics() {
+        Spliterator<Integer> sized = ConcatSpliterator.OfRef.of(ranges(5, 5));
+        assertTrue(sized.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        // ranges are distinct and sorted on their own, not concatenated
+        assertFalse(sized.hasCharacteristics(Spliterator.DISTINCT));
+        assertFalse(sized.hasCharacteristics(Spliterator.SORTED));
+
+        Spliterator<Integer>[] parts = ranges(5, 5);
+        parts[1] = Spliterators.spliteratorUnknownSize(Arrays.asList(1, 2).iterator(), Spliterator.ORDERED);
+        Spliterator<Integer> unsized = ConcatSpliterator.OfRef.of(parts);
+        assertFalse(unsized.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(unsized.hasCharacteristics(Spliterator.SUBSIZED));
+        assertTrue(unsized.hasCharacteristics(Spliterator.ORDERED));
+
+        Spliterator.OfLong huge = new RangeSpliterator.OfLong(0, Long.MAX_VALUE, false);
+        Spliterator.OfLong more = new RangeSpliterator.OfLong(0, Long.MAX_VALUE, false);
+        Spliterator.OfLong overflow = ConcatSpliterator.OfLong.of(huge, more);
+        assertFalse(overflow.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(Long.MAX_VALUE, overflow.estimateSize());
+
+        assertTrue(Streams.concat(IntStream.range(0, 3), IntStream.range(0, 4)).spliterator().hasCharacteristics(Spliterator.SIZED));
+        assertEquals(7, Streams.concat(IntStream.range(0, 3), IntStream.range(0, 4)).spliterator().estimateSize());
+    }
+
+    @Test
+    void intsAndLongs() {
+        int[] expected = expected();
+        assertArrayEquals(expected, ints().toArray());
+        assertArrayEquals(expected, ints().parallel().toArray());
+        assertArrayEquals(expected, nestedInts().toArray());
+        assertArrayEquals(expected, nestedInts().parallel().toArray());
+
+        long[] longs = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longs[i] = i;
+        }
+        assertArrayEquals(longs, ints().mapToLong(x -> x).toArray());
+        LongStream[] parts = new LongStream[PARTS.length];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = part(i).mapToLong(x -> x);
+        }
+        assertArrayEquals(longs, Streams.concat(parts).parallel().toArray());
+    }
+
+    @Test
+    void otherShapes() {
+        int[] expected = expected();
+        byte[] bytes = new byte[SIZE];
+        short[] shorts = new short[SIZE];
+        char[] chars = new char[SIZE];
+        float[] floats = new float[SIZE];
+        double[] doubles = new double[SIZE];
+        String[] strings = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) expected[i];
+            shorts[i] = (short) expected[i];
+            chars[i] = (char) expected[i];
+            floats[i] = expected[i];
+            doubles[i] = expected[i];
+            strings[i] = Integer.toString(expected[i]);
+        }
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertArrayEquals(bytes, Streams.concat(parts(ByteStream[]::new, i -> part(i).mapToByte(x -> (byte) x), parallel)).toArray());
+            assertArrayEquals(shorts, Streams.concat(parts(ShortStream[]::new, i -> part(i).mapToShort(x -> (short) x), parallel)).toArray());
+            assertArrayEquals(chars, Streams.concat(parts(CharStream[]::new, i -> part(i).mapToChar(x -> (char) x), parallel)).toArray());
+            assertArrayEquals(floats, Streams.concat(parts(FloatStream[]::new, i -> part(i).mapToFloat(x -> x), parallel)).toArray());
+            assertArrayEquals(doubles, Streams.concat(parts(DoubleStream[]::new, i -> part(i).mapToDouble(x -> x), parallel)).toArray());
+            @SuppressWarnings("unchecked")
+            Stream<String>[] references = parts(Stream[]::new, i -> part(i).mapToObj(Integer::toString), parallel);
+            assertArrayEquals(strings, Streams.concat(references).toArray(String[]::new));
+        }
+    }
+
+    private static <S extends BaseStream<?, S>> S[] parts(IntFunction<S[]> array, IntFunction<S> part, boolean parallel) {
+        S[] parts = array.apply(PARTS.length);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parallel ? part.apply(i).parallel() : part.apply(i);
+        }
+        return parts;
+    }
+
+    /**
+     * a long chain of binary concatenations is flattened, traversal does not recurse per part.
+     * closing does, once per level of nesting, so it is checked on a shorter chain
+     */
+    @Test
+    void longChain() {
+        assertArrayEquals(IntStream.range(0, 20_000).toArray(), chain(20_000, new AtomicInteger()).parallel().toArray());
+        AtomicInteger closed = new AtomicInteger();
+        try (IntStream stream = chain(500, closed)) {
+            assertEquals(500, stream.count());
+        }
+        assertEquals(500, closed.get());
+    }
+
+    private static IntStream chain(int length, AtomicInteger closed) {
+        IntStream chain = IntStream.range(0, 1).onClose(closed::incrementAndGet);
+        for (int i = 1; i < length; i++) {
+            chain = IntStream.concat(chain, IntStream.range(i, i + 1).onClose(closed::incrementAndGet));
+        }
+        return chain;
+    }
+}
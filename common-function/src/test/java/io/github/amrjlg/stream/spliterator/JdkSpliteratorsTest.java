@@ -0,0 +1,177 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * streams passed to and from java.util.stream keep their elements, order, size, parallelism and close handlers,
+ * and adapting an adapter back unwraps it
+ *
+ * @author amrjlg
+ **/
+class JdkSpliteratorsTest {
+
+    private static final int SIZE = 10_000;
+
+    private static int[] ints() {
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i * 31 - SIZE;
+        }
+        return values;
+    }
+
+    @Test
+    void fromJdk() {
+        int[] values = ints();
+        for (boolean parallel : new boolean[]{false, true}) {
+            String message = parallel ? "parallel" : "sequential";
+            java.util.stream.IntStream ints = Arrays.stream(values);
+            assertArrayEquals(Arrays.stream(values).map(x -> x * 3).toArray(),
+                    Streams.from(parallel ? ints.parallel() : ints).map(x -> x * 3).toArray(), message);
+            java.util.stream.LongStream longs = Arrays.stream(values).asLongStream();
+            assertArrayEquals(Arrays.stream(values).asLongStream().map(x -> x << 20).toArray(),
+                    Streams.from(parallel ? longs.parallel() : longs).map(x -> x << 20).toArray(), message);
+            java.util.stream.DoubleStream doubles = Arrays.stream(values).asDoubleStream();
+            assertArrayEquals(Arrays.stream(values).asDoubleStream().map(x -> x / 7).toArray(),
+                    Streams.from(parallel ? doubles.parallel() : doubles).map(x -> x / 7).toArray(), message);
+            java.util.stream.Stream<String> strings = Arrays.stream(values).mapToObj(Integer::toString);
+            assertArrayEquals(Arrays.stream(values).mapToObj(Integer::toString).toArray(),
+                    Streams.from(parallel ? strings.parallel() : strings).toArray(), message);
+
+            assertEquals(parallel, Streams.from(parallel ? Arrays.stream(values).parallel() : Arrays.stream(values)).isParallel());
+            // an unsized jdk source stays unsized, its elements are counted by traversal
+            assertEquals(Arrays.stream(values).filter(x -> x % 3 == 0).count(),
+                    Streams.from(parallel ? Arrays.stream(values).filter(x -> x % 3 == 0).parallel()
+                            : Arrays.stream(values).filter(x -> x % 3 == 0)).count(), message);
+        }
+    }
+
+    @Test
+    void toJdk() {
+        int[] values = ints();
+        for (boolean parallel : new boolean[]{false, true}) {
+            String message = parallel ? "parallel" : "sequential";
+            io.github.amrjlg.stream.IntStream ints = Streams.stream(values);
+            java.util.stream.IntStream jdk = (parallel ? ints.parallel() : ints).toJdk();
+            assertEquals(parallel, jdk.isParallel(), message);
+            assertArrayEquals(Arrays.stream(values).map(x -> x - 1).toArray(), jdk.map(x -> x - 1).toArray(), message);
+
+            long[] longs = Arrays.stream(values).asLongStream().toArray();
+            io.github.amrjlg.stream.LongStream ourLongs = Streams.stream(longs);
+            assertArrayEquals(longs, (parallel ? ourLongs.parallel() : ourLongs).toJdk().toArray(), message);
+            double[] doubles = Arrays.stream(values).asDoubleStream().toArray();
+            io.github.amrjlg.stream.DoubleStream ourDoubles = Streams.stream(doubles);
+            assertArrayEquals(doubles, (parallel ? ourDoubles.parallel() : ourDoubles).toJdk().toArray(), message);
+            Integer[] boxed = Arrays.stream(values).boxed().toArray(Integer[]::new);
+            io.github.amrjlg.stream.Stream<Integer> refs = Streams.stream(boxed);
+            assertEquals(Arrays.asList(boxed), (parallel ? refs.parallel() : refs).toJdk().collect(Collectors.toList()), message);
+        }
+    }
+
+    @Test
+    void narrowShapesWiden() {
+        byte[] bytes = new byte[SIZE];
+        short[] shorts = new short[SIZE];
+        char[] chars = new char[SIZE];
+        float[] floats = new float[SIZE];
+        int[] expectedBytes = new int[SIZE];
+        int[] expectedShorts = new int[SIZE];
+        int[] expectedChars = new int[SIZE];
+        double[] expectedFloats = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bytes[i] = (byte) (i * 7);
+            shorts[i] = (short) (i * 4099);
+            chars[i] = (char) (i * 13);
+            floats[i] = i / 3f - 100;
+            expectedBytes[i] = bytes[i];
+            expectedShorts[i] = shorts[i];
+            expectedChars[i] = chars[i];
+            expectedFloats[i] = floats[i];
+        }
+        assertArrayEquals(expectedBytes, Streams.stream(bytes).toJdk().toArray());
+        assertArrayEquals(expectedBytes, Streams.stream(bytes).parallel().toJdk().toArray());
+        assertArrayEquals(expectedShorts, Streams.stream(shorts).toJdk().toArray());
+        assertArrayEquals(expectedShorts, Streams.stream(shorts).parallel().toJdk().toArray());
+        assertArrayEquals(expectedChars, Streams.stream(chars).toJdk().toArray());
+        assertArrayEquals(expectedChars, Streams.stream(chars).parallel().toJdk().toArray());
+        assertArrayEquals(expectedFloats, Streams.stream(floats).toJdk().toArray());
+        assertArrayEquals(expectedFloats, Streams.stream(floats).parallel().toJdk().toArray());
+    }
+
+    @Test
+    void characteristics() {
+        int[] values = ints();
+        java.util.Spliterator.OfInt jdk = Arrays.spliterator(values);
+        Spliterator.OfInt ours = JdkSpliterators.fromJdk(jdk);
+        assertEquals(jdk.characteristics(), ours.characteristics());
+        assertEquals(SIZE, ours.getExactSizeIfKnown());
+
+        java.util.Spliterator.OfInt adapted = JdkSpliterators.toJdk(Streams.stream(values).spliterator());
+        assertTrue(adapted.hasCharacteristics(java.util.Spliterator.SIZED | java.util.Spliterator.SUBSIZED));
+        java.util.Spliterator.OfInt prefix = adapted.trySplit();
+        assertEquals(SIZE, prefix.getExactSizeIfKnown() + adapted.getExactSizeIfKnown());
+        assertTrue(prefix.hasCharacteristics(java.util.Spliterator.SIZED));
+
+        // the widened narrow shapes keep SORTED, the order is the same after widening
+        Spliterator.OfByte sorted = Streams.stream(new byte[]{-3, 1, 2}).sorted().spliterator();
+        assertEquals(sorted.characteristics(), JdkSpliterators.toJdk(sorted).characteristics());
+    }
+
+    @Test
+    void unwraps() {
+        java.util.Spliterator.OfInt ints = Arrays.spliterator(ints());
+        assertSame(ints, JdkSpliterators.toJdk(JdkSpliterators.fromJdk(ints)));
+        java.util.Spliterator.OfLong longs = Arrays.spliterator(new long[]{1, 2});
+        assertSame(longs, JdkSpliterators.toJdk(JdkSpliterators.fromJdk(longs)));
+        java.util.Spliterator.OfDouble doubles = Arrays.spliterator(new double[]{1, 2});
+        assertSame(doubles, JdkSpliterators.toJdk(JdkSpliterators.fromJdk(doubles)));
+        java.util.Spliterator<String> strings = Arrays.spliterator(new String[]{"a", "b"});
+        assertSame(strings, JdkSpliterators.toJdk(JdkSpliterators.fromJdk(strings)));
+
+        Spliterator.OfInt ours = Streams.stream(new int[]{1, 2}).spliterator();
+        assertSame(ours, JdkSpliterators.fromJdk(JdkSpliterators.toJdk(ours)));
+        Spliterator<String> refs = Streams.stream(new String[]{"a"}).spliterator();
+        assertSame(refs, JdkSpliterators.fromJdk(JdkSpliterators.toJdk(refs)));
+    }
+
+    @Test
+    void closeHandlers() {
+        AtomicInteger closed = new AtomicInteger();
+        Streams.from(java.util.stream.Stream.of(1, 2).onClose(closed::incrementAndGet)).close();
+        assertEquals(1, closed.get());
+        Streams.stream(new int[]{1, 2}).onClose(closed::incrementAndGet).toJdk().close();
+        assertEquals(2, closed.get());
+        java.util.stream.IntStream roundTrip = Streams.from(Arrays.stream(new int[]{1}).onClose(closed::incrementAndGet)).toJdk();
+        assertFalse(roundTrip.isParallel());
+        roundTrip.close();
+        assertEquals(3, closed.get());
+    }
+}
@@ -0,0 +1,203 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * lines of mapped files against BufferedReader.
+ * the mappings are made of 16 byte regions so lines and \r\n pairs straddle region boundaries,
+ * and every range between two line starts is split down to single lines
+ *
+ * @author amrjlg
+ **/
+class MappedLineSpliteratorTest {
+
+    private static final int SHIFT = 4;
+
+    private static final String[] CONTENTS = {
+            "",
+            "\n",
+            "\r\n",
+            "one line without a break",
+            "a\nb\nc\n",
+            "a\nb\nc",
+            "crlf\r\nline\r\nends\r\n",
+            "crlf without a final break\r\nlast",
+            "old\rmac\rbreaks\r",
+            "mixed\n\r\n\r\rbreaks\r\n\nand empty lines\n\n",
+            "a \r\n pair at the 16th byte\r\n",
+            "0123456789abcd\r\nef",
+            "non ascii é ü 中文 crosses the regions\nλ\r\n𝄞 end",
+    };
+
+    private static List<String> expected(String content) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    private static Path write(byte[] bytes) throws IOException {
+        Path path = Files.createTempFile("mapped", ".txt");
+        Files.write(path, bytes);
+        return path;
+    }
+
+    private static ByteBuffer[] map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return MappedSpliterator.map(channel, channel.size(), SHIFT);
+        }
+    }
+
+    private static void split(Spliterator<String> spliterator, List<String> lines) {
+        Spliterator<String> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            split(prefix, lines);
+            split(spliterator, lines);
+        } else {
+            spliterator.forEachRemaining(lines::add);
+        }
+    }
+
+    /**
+     * offsets lines start at, and the end
+     */
+    private static List<Integer> lineStarts(byte[] bytes) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n' || bytes[i] == '\r' && (i + 1 == bytes.length || bytes[i + 1] != '\n')) {
+                starts.add(i + 1);
+            }
+        }
+        if (starts.get(starts.size() - 1) != bytes.length) {
+            starts.add(bytes.length);
+        }
+        return starts;
+    }
+
+    private static void checkSplits(String content, Charset charset) throws IOException {
+        byte[] bytes = content.getBytes(charset);
+        Path path = write(bytes);
+        try {
+            ByteBuffer[] regions = map(path);
+            List<Integer> starts = lineStarts(bytes);
+            for (int from = 0; from < starts.size(); from++) {
+                for (int to = from; to < starts.size(); to++) {
+                    int origin = starts.get(from);
+                    int end = starts.get(to);
+                    List<String> lines = new ArrayList<>();
+                    split(new MappedLineSpliterator(regions, SHIFT, origin, end, charset), lines);
+                    String part = new String(Arrays.copyOfRange(bytes, origin, end), charset);
+                    assertEquals(expected(part), lines, "[" + origin + ", " + end + ") of " + content);
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void splits() throws IOException {
+        for (String content : CONTENTS) {
+            checkSplits(content, StandardCharsets.UTF_8);
+        }
+        checkSplits("latin éÿ\r\nbreaks\n", StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void randomContents() throws IOException {
+        Random random = new Random(7);
+        String alphabet = "ab \r\n\né";
+        for (int round = 0; round < 30; round++) {
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(120);
+            for (int i = 0; i < length; i++) {
+                content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            checkSplits(content.toString(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void lines() throws IOException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            large.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        List<String> contents = new ArrayList<>(Arrays.asList(CONTENTS));
+        contents.add(large.toString());
+        for (String content : contents) {
+            Path path = write(content.getBytes(StandardCharsets.UTF_8));
+            try {
+                List<String> expected = expected(content);
+                try (Stream<String> lines = Streams.lines(path)) {
+                    assertEquals(expected, Arrays.asList(lines.toArray(String[]::new)));
+                }
+                try (Stream<String> lines = Streams.lines(path).parallel()) {
+                    assertEquals(expected, Arrays.asList(lines.toArray(String[]::new)));
+                }
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * charsets whose line breaks are not single bytes are read through a BufferedReader
+     */
+    @Test
+    void readerFallback() throws IOException {
+        assertFalse(MappedLineSpliterator.supports(StandardCharsets.UTF_16));
+        for (String content : CONTENTS) {
+            Path path = write(content.getBytes(StandardCharsets.UTF_16));
+            try {
+                List<String> expected = expected(content);
+                try (Stream<String> lines = Streams.lines(path, StandardCharsets.UTF_16)) {
+                    assertEquals(expected, Arrays.asList(lines.toArray(String[]::new)));
+                }
+                try (Stream<String> lines = Streams.lines(path, StandardCharsets.UTF_16).parallel()) {
+                    assertEquals(expected, Arrays.asList(lines.toArray(String[]::new)));
+                }
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * bytes of mapped files against the bytes written, the mappings of the spliterator tests
+ * are made of 16 byte regions so traversal and splits cross region boundaries
+ *
+ * @author amrjlg
+ **/
+class MappedSpliteratorTest {
+
+    private static final int SHIFT = 4;
+
+    @Test
+    void bytes() throws IOException {
+        Random random = new Random(8);
+        for (int size : new int[]{0, 1, 15, 16, 17, 100, 5000}) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            Path path = Files.write(Files.createTempFile("mapped", ".bin"), bytes);
+            try {
+                assertArrayEquals(bytes, Streams.mapped(path).toArray());
+                assertArrayEquals(bytes, Streams.mapped(path).parallel().toArray());
+
+                // one element at a time across the region boundaries, then the rest at once
+                ByteBuffer[] regions;
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    regions = MappedSpliterator.map(channel, size, SHIFT);
+                }
+                MappedSpliterator spliterator = new MappedSpliterator(regions, SHIFT, 0, size, 0);
+                byte[] read = new byte[size];
+                int[] index = {0};
+                for (int i = 0; i < size / 2; i++) {
+                    spliterator.tryAdvance((byte value) -> read[index[0]++] = value);
+                }
+                Spliterator.OfByte prefix = spliterator.trySplit();
+                if (prefix != null) {
+                    prefix.forEachRemaining((byte value) -> read[index[0]++] = value);
+                }
+                spliterator.forEachRemaining((byte value) -> read[index[0]++] = value);
+                assertEquals(size, index[0]);
+                assertArrayEquals(bytes, read);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * buffers are streamed from their position to their limit
+     */
+    @Test
+    void buffers() {
+        byte[] bytes = new byte[5000];
+        new Random(9).nextBytes(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.position(100);
+        direct.limit(4000);
+        byte[] window = Arrays.copyOfRange(bytes, 100, 4000);
+        assertArrayEquals(window, Streams.stream(direct).toArray());
+        assertArrayEquals(window, Streams.stream(direct).parallel().toArray());
+        assertArrayEquals(bytes, Streams.stream(ByteBuffer.wrap(bytes)).parallel().toArray());
+        assertEquals(100, direct.position());
+    }
+}
@@ -0,0 +1,208 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.Stream;
+import io.github.amrjlg.stream.Streams;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * merges compared with a stable sort of the concatenated sources
+ *
+ * @author amrjlg
+ **/
+class MergeSortedSpliteratorTest {
+
+    private static int[][] sorted(int sources, int size) {
+        Random random = new Random(sources * 31L + size);
+        int[][] arrays = new int[sources][];
+        for (int i = 0; i < sources; i++) {
+            arrays[i] = new int[random.nextInt(size + 1)];
+            for (int j = 0; j < arrays[i].length; j++) {
+                arrays[i][j] = random.nextInt(size / 4 + 1);
+            }
+            Arrays.sort(arrays[i]);
+        }
+        return arrays;
+    }
+
+    private static int[] expected(int[][] arrays) {
+        int[] expected = Arrays.stream(arrays).flatMapToInt(Arrays::stream).toArray();
+        Arrays.sort(expected);
+        return expected;
+    }
+
+    private static IntStream[] streams(int[][] arrays, boolean parallel) {
+        IntStream[] streams = new IntStream[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            streams[i] = parallel ? Streams.stream(arrays[i]).parallel() : Streams.stream(arrays[i]);
+        }
+        return streams;
+    }
+
+    private static final class Keyed {
+        private final int key;
+        private final int source;
+
+        Keyed(int key, int source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Keyed && ((Keyed) o).key == key && ((Keyed) o).source == source;
+        }
+
+        @Override
+        public int hashCode() {
+            return key * 31 + source;
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + source;
+        }
+    }
+
+    @Test
+    void mergeInt() {
+        for (int sources : new int[]{1, 2, 3, 8}) {
+            for (int size : new int[]{0, 1, 10, 5000}) {
+                int[][] arrays = sorted(sources, size);
+                int[] expected = expected(arrays);
+                assertArrayEquals(expected, Streams.mergeSorted(streams(arrays, false)).toArray());
+                assertArrayEquals(expected, Streams.mergeSorted(streams(arrays, true)).toArray());
+                assertEquals(expected.length, Streams.mergeSorted(streams(arrays, true)).count());
+            }
+        }
+    }
+
+    @Test
+    void tiesKeepSourceOrder() {
+        Comparator<Keyed> byKey = Comparator.comparingInt(keyed -> keyed.key);
+        int[][] arrays = sorted(5, 3000);
+        List<Keyed> concatenated = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        Stream<Keyed>[] streams = (Stream<Keyed>[]) new Stream<?>[arrays.length];
+        @SuppressWarnings("unchecked")
+        Stream<Keyed>[] parallel = (Stream<Keyed>[]) new Stream<?>[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            List<Keyed> source = new ArrayList<>();
+            for (int key : arrays[i]) {
+                source.add(new Keyed(key, i));
+            }
+            concatenated.addAll(source);
+            streams[i] = Streams.stream(source);
+            parallel[i] = Streams.stream(source).parallel();
+        }
+        // a stable sort of the concatenation puts equal keys in source order
+        concatenated.sort(byKey);
+        Object[] expected = concatenated.toArray();
+
+        assertArrayEquals(expected, Streams.mergeSorted(byKey, streams).toArray());
+        assertArrayEquals(expected, Streams.mergeSorted(byKey, parallel).toArray());
+    }
+
+    @Test
+    void emptyInputs() {
+        assertEquals(0, Streams.mergeSorted(new IntStream[0]).count());
+        assertEquals(0, Streams.mergeSorted(Streams.stream(new int[0]), Streams.stream(new int[0])).count());
+        assertArrayEquals(new int[]{1, 2, 3},
+                Streams.mergeSorted(Streams.stream(new int[0]), Streams.stream(new int[]{1, 3}), Streams.stream(new int[]{2})).toArray());
+        assertEquals(0, Streams.mergeSorted(Comparator.<Integer>naturalOrder()).count());
+        assertArrayEquals(new Object[]{1, 2},
+                Streams.mergeSorted(null, Streams.stream(new Integer[0]), Streams.stream(new Integer[]{1, 2})).parallel().toArray());
+    }
+
+    @Test
+    void sortedIsSkipped() {
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<Integer> iterator = Streams.mergeSorted(null,
+                        Streams.stream(new Integer[]{1, 4, 6}), Streams.stream(new Integer[]{2, 3, 5}))
+                .peek(value -> pulled.incrementAndGet())
+                .sorted()
+                .iterator();
+        assertEquals(1, (int) iterator.next());
+        // a sort would have pulled every element before the first one came out
+        assertEquals(1, pulled.get());
+
+        AtomicInteger primitive = new AtomicInteger();
+        assertEquals(1, (int) Streams.mergeSorted(Streams.stream(new int[]{1, 4}), Streams.stream(new int[]{2, 3}))
+                .peek(value -> primitive.incrementAndGet())
+                .sorted()
+                .iterator()
+                .next());
+        assertEquals(1, primitive.get());
+    }
+
+    @Test
+    void splitsBatches() {
+        int[][] arrays = sorted(4, 5000);
+        int[] expected = expected(arrays);
+        Spliterator.OfInt[] sources = new Spliterator.OfInt[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            sources[i] = Spliterators.spliterator(arrays[i], 0, arrays[i].length, Spliterator.ORDERED | Spliterator.SORTED);
+        }
+        MergeSortedSpliterator.OfInt spliterator = new MergeSortedSpliterator.OfInt(sources);
+        int[] merged = new int[expected.length];
+        int[] index = {0};
+        Spliterator.OfInt prefix;
+        while ((prefix = spliterator.trySplit()) != null) {
+            assertTrue(prefix.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED | Spliterator.ORDERED));
+            assertNull(prefix.getComparator());
+            prefix.forEachRemaining((int value) -> merged[index[0]++] = value);
+        }
+        spliterator.forEachRemaining((int value) -> merged[index[0]++] = value);
+        assertEquals(expected.length, index[0]);
+        assertArrayEquals(expected, merged);
+    }
+
+    @Test
+    void comparatorBatchIsNotNaturallySorted() {
+        @SuppressWarnings("unchecked")
+        Spliterator<Integer>[] sources = (Spliterator<Integer>[]) new Spliterator<?>[]{
+                Spliterators.spliterator(new Integer[]{5, 3, 1}, 0, 3, Spliterator.ORDERED),
+                Spliterators.spliterator(new Integer[]{4, 2}, 0, 2, Spliterator.ORDERED)
+        };
+        MergeSortedSpliterator.OfRef<Integer> spliterator = new MergeSortedSpliterator.OfRef<>(Comparator.reverseOrder(), sources);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertFalse(prefix.hasCharacteristics(Spliterator.SORTED));
+        List<Integer> merged = new ArrayList<>();
+        prefix.forEachRemaining(merged::add);
+        spliterator.forEachRemaining(merged::add);
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), merged);
+    }
+}
@@ -0,0 +1,139 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.DoubleStream;
+import io.github.amrjlg.stream.FloatStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * seeded random streams repeat their values for the same splits, sequentially and in a parallel pool,
+ * every value lies in {@code [origin, bound)} and the size is exact without traversal
+ *
+ * @author amrjlg
+ **/
+class RandomSpliteratorTest {
+
+    private static final int SIZE = 50_000;
+    private static final long SEED = 0x5DEECE66DL;
+
+    @Test
+    void seededIsDeterministic() {
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            assertArrayEquals(IntStream.random(SIZE, -5, 1000, SEED).toArray(), IntStream.random(SIZE, -5, 1000, SEED).toArray());
+            assertArrayEquals(IntStream.random(SIZE, -5, 1000, SEED).parallel(pool).toArray(),
+                    IntStream.random(SIZE, -5, 1000, SEED).parallel(pool).toArray());
+            assertArrayEquals(LongStream.random(SIZE, Long.MIN_VALUE, Long.MAX_VALUE, SEED).parallel(pool).toArray(),
+                    LongStream.random(SIZE, Long.MIN_VALUE, Long.MAX_VALUE, SEED).parallel(pool).toArray());
+            assertArrayEquals(DoubleStream.random(SIZE, -1, 1, SEED).parallel(pool).toArray(),
+                    DoubleStream.random(SIZE, -1, 1, SEED).parallel(pool).toArray());
+            assertArrayEquals(FloatStream.random(SIZE, 0, 1, SEED).parallel(pool).toArray(),
+                    FloatStream.random(SIZE, 0, 1, SEED).parallel(pool).toArray());
+            assertArrayEquals(ByteStream.random(SIZE, (byte) -10, (byte) 10, SEED).parallel(pool).toArray(),
+                    ByteStream.random(SIZE, (byte) -10, (byte) 10, SEED).parallel(pool).toArray());
+            // the sum does not depend on how the values are combined
+            assertEquals(IntStream.random(SIZE, -5, 1000, SEED).parallel(pool).mapToLong(x -> x).sum(),
+                    IntStream.random(SIZE, -5, 1000, SEED).parallel(pool).mapToLong(x -> x).sum());
+
+            assertFalse(Arrays.equals(IntStream.random(SIZE, 0, 1000, SEED).toArray(),
+                    IntStream.random(SIZE, 0, 1000, SEED + 1).toArray()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sameSplitsSameValues() {
+        for (int depth = 0; depth < 6; depth++) {
+            List<Integer> first = new ArrayList<>();
+            splitAndTraverse(new RandomSpliterator.OfInt(new SplittableRandom(SEED), 1000, 0, 100), depth, first);
+            List<Integer> second = new ArrayList<>();
+            splitAndTraverse(new RandomSpliterator.OfInt(new SplittableRandom(SEED), 1000, 0, 100), depth, second);
+            assertEquals(1000, first.size());
+            assertEquals(first, second);
+        }
+    }
+
+    private static void splitAndTraverse(Spliterator.OfInt spliterator, int depth, List<Integer> into) {
+        long size = spliterator.getExactSizeIfKnown();
+        Spliterator.OfInt prefix = depth == 0 ? null : spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining((int value) -> into.add(value));
+            return;
+        }
+        assertTrue(prefix.hasCharacteristics(RandomSpliterator.CHARACTERISTICS));
+        assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+        splitAndTraverse(prefix, depth - 1, into);
+        splitAndTraverse(spliterator, depth - 1, into);
+    }
+
+    @Test
+    void bounds() {
+        int[] ints = IntStream.random(SIZE, -3, 4).parallel().toArray();
+        assertEquals(SIZE, ints.length);
+        boolean[] seen = new boolean[7];
+        for (int value : ints) {
+            assertTrue(value >= -3 && value < 4, Integer.toString(value));
+            seen[value + 3] = true;
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+        for (long value : LongStream.random(SIZE, Long.MAX_VALUE - 2, Long.MAX_VALUE).toArray()) {
+            assertTrue(value >= Long.MAX_VALUE - 2 && value < Long.MAX_VALUE);
+        }
+        for (byte value : ByteStream.random(SIZE, Byte.MIN_VALUE, Byte.MAX_VALUE).toArray()) {
+            assertTrue(value < Byte.MAX_VALUE);
+        }
+        for (float value : FloatStream.random(SIZE, 1f, Math.nextUp(1f)).toArray()) {
+            assertEquals(1f, value, 0f);
+        }
+        for (double value : DoubleStream.random(SIZE, -1e300, 1e300).toArray()) {
+            assertTrue(value >= -1e300 && value < 1e300);
+        }
+    }
+
+    @Test
+    void sizes() {
+        assertEquals(0, IntStream.random(0, 0, 1).toArray().length);
+        assertEquals(SIZE, IntStream.random(SIZE, 0, 1).parallel().count());
+        assertEquals(Long.MAX_VALUE, new RandomSpliterator.OfLong(new SplittableRandom(), Long.MAX_VALUE, 0, 1).getExactSizeIfKnown());
+        assertArrayEquals(new long[]{7, 7, 7}, LongStream.random(3, 7, 8).toArray());
+
+        assertThrows(IllegalArgumentException.class, () -> IntStream.random(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> IntStream.random(1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> DoubleStream.random(1, 2, 1, SEED));
+        assertThrows(IllegalArgumentException.class, () -> ByteStream.random(1, (byte) 0, (byte) 0));
+    }
+}
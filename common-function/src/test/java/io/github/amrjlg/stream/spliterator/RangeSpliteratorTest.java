@@ -0,0 +1,148 @@
+
+/*
+ * Copyright (c) 2021-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.amrjlg.stream.spliterator;
+
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.IntStream;
+import io.github.amrjlg.stream.LongStream;
+import io.github.amrjlg.stream.ShortStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ranges compared with java.util.stream sequentially and in parallel,
+ * and the ranges whose size does not fit an int or a long
+ *
+ * @author amrjlg
+ **/
+class RangeSpliteratorTest {
+
+    private static final int[][] RANGES = {{0, 0}, {5, 3}, {3, 3}, {0, 1}, {-7, 1000}, {0, 100_000},
+            {Integer.MAX_VALUE - 3, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MIN_VALUE + 5}};
+
+    @Test
+    void intRanges() {
+        for (int[] range : RANGES) {
+            int from = range[0];
+            int to = range[1];
+            String message = from + ".." + to;
+            int[] open = java.util.stream.IntStream.range(from, to).toArray();
+            int[] closed = java.util.stream.IntStream.rangeClosed(from, to).toArray();
+            assertArrayEquals(open, IntStream.range(from, to).toArray(), message);
+            assertArrayEquals(open, IntStream.range(from, to).parallel().toArray(), message);
+            assertArrayEquals(closed, IntStream.rangeClosed(from, to).toArray(), message);
+            assertArrayEquals(closed, IntStream.rangeClosed(from, to).parallel().toArray(), message);
+            assertEquals(java.util.stream.IntStream.rangeClosed(from, to).asLongStream().sum(),
+                    IntStream.rangeClosed(from, to).parallel().mapToLong(x -> x).sum(), message);
+            assertEquals(closed.length, IntStream.rangeClosed(from, to).parallel().count(), message);
+        }
+    }
+
+    @Test
+    void longRanges() {
+        for (int[] range : RANGES) {
+            long from = range[0];
+            long to = range[1];
+            String message = from + ".." + to;
+            assertArrayEquals(java.util.stream.LongStream.range(from, to).toArray(), LongStream.range(from, to).parallel().toArray(), message);
+            assertArrayEquals(java.util.stream.LongStream.rangeClosed(from, to).toArray(), LongStream.rangeClosed(from, to).parallel().toArray(), message);
+        }
+        assertArrayEquals(new long[]{Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE},
+                LongStream.rangeClosed(Long.MAX_VALUE - 2, Long.MAX_VALUE).parallel().toArray());
+    }
+
+    @Test
+    void narrowRanges() {
+        byte[] bytes = ByteStream.rangeClosed(Byte.MIN_VALUE, Byte.MAX_VALUE).parallel().toArray();
+        assertEquals(256, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(Byte.MIN_VALUE + i, bytes[i]);
+        }
+        short[] shorts = ShortStream.range((short) -3, (short) 3).parallel().toArray();
+        assertArrayEquals(new short[]{-3, -2, -1, 0, 1, 2}, shorts);
+        char[] chars = CharStream.rangeClosed('a', 'e').parallel().toArray();
+        assertArrayEquals(new char[]{'a', 'b', 'c', 'd', 'e'}, chars);
+    }
+
+    /**
+     * the closed range of all ints has 2^32 elements, more than an int counts
+     */
+    @Test
+    void allInts() {
+        Spliterator.OfInt spliterator = IntStream.rangeClosed(Integer.MIN_VALUE, Integer.MAX_VALUE).spliterator();
+        assertEquals(1L << 32, spliterator.estimateSize());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        // keep splitting off the prefix, the suffix ends with the largest int
+        while (spliterator.estimateSize() > 4) {
+            long before = spliterator.estimateSize();
+            Spliterator.OfInt prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            assertEquals(before, prefix.estimateSize() + spliterator.estimateSize());
+        }
+        List<Integer> tail = new ArrayList<>();
+        spliterator.forEachRemaining((int value) -> tail.add(value));
+        assertEquals(4, tail.size());
+        assertEquals(Integer.MAX_VALUE, (int) tail.get(3));
+        assertEquals(Integer.MAX_VALUE - 3, (int) tail.get(0));
+
+        assertEquals(1L << 32, IntStream.rangeClosed(Integer.MIN_VALUE, Integer.MAX_VALUE).count());
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE + 1},
+                IntStream.rangeClosed(Integer.MIN_VALUE, Integer.MAX_VALUE).parallel().limit(2).toArray());
+    }
+
+    /**
+     * the closed range of all longs has 2^64 elements, it is unsized until its parts fit a long
+     */
+    @Test
+    void allLongs() {
+        Spliterator.OfLong spliterator = LongStream.rangeClosed(Long.MIN_VALUE, Long.MAX_VALUE).spliterator();
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertTrue(prefix.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(Long.MAX_VALUE, prefix.estimateSize());
+        // 2^63 + 1 left, one more split and both parts fit
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        Spliterator.OfLong middle = spliterator.trySplit();
+        assertNotNull(middle);
+        assertTrue(middle.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals((1L << 62) + 1, spliterator.estimateSize());
+        assertEquals(1L << 62, middle.estimateSize());
+
+        long[] first = new long[1];
+        prefix.tryAdvance((long value) -> first[0] = value);
+        assertEquals(Long.MIN_VALUE, first[0]);
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE + 2},
+                LongStream.rangeClosed(Long.MIN_VALUE, Long.MAX_VALUE).parallel().limit(3).toArray());
+        assertEquals(Long.MIN_VALUE + 10, LongStream.range(Long.MIN_VALUE, Long.MAX_VALUE).parallel()
+                .filter(x -> x >= Long.MIN_VALUE + 10).findFirst().getAsLong());
+    }
+}
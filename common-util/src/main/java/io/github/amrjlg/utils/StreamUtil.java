@@ -26,6 +26,10 @@ import io.github.amrjlg.function.CharToLongFunction;
 import io.github.amrjlg.function.ShortToDoubleFunction;
 import io.github.amrjlg.function.ShortToIntFunction;
 import io.github.amrjlg.function.ShortToLongFunction;
+import io.github.amrjlg.stream.ByteStream;
+import io.github.amrjlg.stream.CharStream;
+import io.github.amrjlg.stream.ShortStream;
+import io.github.amrjlg.stream.Streams;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -136,87 +140,102 @@ public class StreamUtil {
      * @return IntStream
      */
     public static <T> IntStream stream(T[] ts, ToIntFunction<T> function) {
-        return Arrays.stream(ArrayUtil.mapToInt(ts, function));
+        return ts == null ? IntStream.empty() : Arrays.stream(ts).mapToInt(function);
     }
 
     public static IntStream stream(byte[] bytes) {
-        return stream(bytes, b -> (int) b);
+        return source(bytes).toJdk();
     }
 
     public static IntStream stream(byte[] bytes, ByteToIntFunction function) {
-        return Arrays.stream(ArrayUtil.mapToInt(bytes, function));
+        return source(bytes).mapToInt(function).toJdk();
     }
 
     public static IntStream stream(char[] bytes) {
-        return stream(bytes, b -> (int) b);
+        return source(bytes).toJdk();
     }
 
     public static IntStream stream(char[] bytes, CharToIntFunction function) {
-        return Arrays.stream(ArrayUtil.mapToInt(bytes, function));
+        return source(bytes).mapToInt(function).toJdk();
     }
 
     public static IntStream stream(short[] bytes) {
-        return stream(bytes, b -> (int) b);
+        return source(bytes).toJdk();
     }
 
     public static IntStream stream(short[] bytes, ShortToIntFunction function) {
-        return Arrays.stream(ArrayUtil.mapToInt(bytes, function));
+        return source(bytes).mapToInt(function).toJdk();
     }
 
     public static <T> LongStream longStream(T[] ts, ToLongFunction<T> function) {
-        return Arrays.stream(ArrayUtil.mapToLong(ts, function));
+        return ts == null ? LongStream.empty() : Arrays.stream(ts).mapToLong(function);
     }
 
     public static LongStream longStream(byte[] bytes) {
-        return longStream(bytes, b -> (long) b);
+        return source(bytes).toJdk().asLongStream();
     }
 
     public static LongStream longStream(byte[] bytes, ByteToLongFunction function) {
-        return Arrays.stream(ArrayUtil.mapToLong(bytes, function));
+        return source(bytes).mapToLong(function).toJdk();
     }
 
     public static LongStream longStream(char[] chars) {
-        return longStream(chars, c -> (long) c);
+        return source(chars).toJdk().asLongStream();
     }
 
     public static LongStream longStream(char[] chars, CharToLongFunction function) {
-        return Arrays.stream(ArrayUtil.mapToLong(chars, function));
+        return source(chars).mapToLong(function).toJdk();
     }
 
     public static LongStream longStream(short[] shorts) {
-        return longStream(shorts, s -> (long) s);
+        return source(shorts).toJdk().asLongStream();
     }
 
     public static LongStream longStream(short[] shorts, ShortToLongFunction function) {
-        return Arrays.stream(ArrayUtil.mapToLong(shorts, function));
+        return source(shorts).mapToLong(function).toJdk();
     }
 
 
     public static <T> DoubleStream doubleStream(T[] ts, ToDoubleFunction<T> function) {
-        return Arrays.stream(ArrayUtil.mapToDouble(ts, function));
+        return ts == null ? DoubleStream.empty() : Arrays.stream(ts).mapToDouble(function);
     }
 
     public static DoubleStream doubleStream(byte[] bytes) {
-        return doubleStream(bytes, b -> (double) b);
+        return source(bytes).toJdk().asDoubleStream();
     }
 
     public static DoubleStream doubleStream(byte[] bytes, ByteToDoubleFunction function) {
-        return Arrays.stream(ArrayUtil.mapToDouble(bytes, function));
+        return source(bytes).mapToDouble(function).toJdk();
     }
 
     public static DoubleStream doubleStream(char[] chars) {
-        return doubleStream(chars, c -> (double) c);
+        return source(chars).toJdk().asDoubleStream();
     }
 
     public static DoubleStream doubleStream(char[] bytes, CharToDoubleFunction function) {
-        return Arrays.stream(ArrayUtil.mapToDouble(bytes, function));
+        return source(bytes).mapToDouble(function).toJdk();
     }
 
     public static DoubleStream doubleStream(short[] shorts) {
-        return doubleStream(shorts, c -> (double) c);
+        return source(shorts).toJdk().asDoubleStream();
     }
 
     public static DoubleStream doubleStream(short[] bytes, ShortToDoubleFunction function) {
-        return Arrays.stream(ArrayUtil.mapToDouble(bytes, function));
+        return source(bytes).mapToDouble(function).toJdk();
+    }
+
+    /**
+     * a null array is an empty stream
+     */
+    private static ByteStream source(byte[] bytes) {
+        return Streams.stream(bytes == null ? new byte[0] : bytes);
+    }
+
+    private static CharStream source(char[] chars) {
+        return Streams.stream(chars == null ? new char[0] : chars);
+    }
+
+    private static ShortStream source(short[] shorts) {
+        return Streams.stream(shorts == null ? new short[0] : shorts);
     }
 }